@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others
+ * Copyright (c) 2007, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ConfigurationAdminTest.class, ManagedServiceFactoryTest.class, ManagedServiceTest.class, ConfigurationDictionaryTest.class, ConfigurationPluginTest.class, ConfigurationListenerTest.class, ConfigurationEventAdapterTest.class})
+@SuiteClasses({ConfigurationAdminTest.class, ManagedServiceFactoryTest.class, ManagedServiceTest.class, ConfigurationDictionaryTest.class, ConfigurationPluginTest.class, ConfigurationListenerTest.class, ConfigurationEventAdapterTest.class, ConfigurationStoreLogTest.class, UpdateThreadsTest.class})
 public class AllTests {
 	// see @SuitClasses
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others
+ * Copyright (c) 2007, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -147,6 +147,30 @@ public class ConfigurationAdminTest extends AbstractCMTest {
 		assertTrue(configs != null && configs.length > 0);
 	}
 
+	@Test
+	public void testListFactoryConfigurationAfterChanges() throws Exception {
+		Configuration config = cm.createFactoryConfiguration("test", null);
+		String factoryFilter = "(&(" + ConfigurationAdmin.SERVICE_FACTORYPID + "=test)(testkey=testvalue))";
+		String locationFilter = "(" + ConfigurationAdmin.SERVICE_BUNDLELOCATION + "=x)";
+		try {
+			assertNull(cm.listConfigurations(factoryFilter));
+			config.update(dictionaryOf("testkey", "testvalue"));
+			Configuration[] configs = cm.listConfigurations(factoryFilter);
+			assertTrue(configs != null && configs.length == 1);
+			assertEquals(config.getPid(), configs[0].getPid());
+			assertNull(cm.listConfigurations(locationFilter));
+			config.setBundleLocation("x");
+			configs = cm.listConfigurations(locationFilter);
+			assertTrue(configs != null && configs.length == 1);
+			config.update(dictionaryOf("testkey", "othervalue"));
+			assertNull(cm.listConfigurations(factoryFilter));
+		} finally {
+			config.delete();
+		}
+		assertNull(cm.listConfigurations(locationFilter));
+		assertNull(cm.listConfigurations("(" + ConfigurationAdmin.SERVICE_FACTORYPID + "=test)"));
+	}
+
 	@Test
 	public void testListConfigurationNull() throws Exception {
 		createFactoryConfiguration("test", null);
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.cm.test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.service.cm.Configuration;
+
+public class ConfigurationStoreLogTest extends AbstractCMTest {
+
+	private static final String PROP_STORE_LOG = "equinox.cm.store.log"; //$NON-NLS-1$
+	private static final String LOG_FILE = "configurations.log"; //$NON-NLS-1$
+
+	@After
+	@Override
+	public void tearDown() throws Exception {
+		super.tearDown();
+		System.clearProperty(PROP_STORE_LOG);
+	}
+
+	@Test
+	public void testMigrationToLogAndBack() throws Exception {
+		Configuration config = cm.getConfiguration("test.log.migration");
+		config.update(dictionaryOf("testkey", "testvalue"));
+		String pid = config.getPid();
+
+		restart(true);
+		assertTrue(getLogFile().exists());
+		config = cm.getConfiguration(pid);
+		assertEquals("testvalue", config.getProperties().get("testkey"));
+		config.update(dictionaryOf("testkey", "logvalue"));
+
+		restart(true);
+		config = cm.getConfiguration(pid);
+		assertEquals("logvalue", config.getProperties().get("testkey"));
+
+		restart(false);
+		assertFalse(getLogFile().exists());
+		config = cm.getConfiguration(pid);
+		assertEquals("logvalue", config.getProperties().get("testkey"));
+		config.delete();
+
+		restart(false);
+		config = cm.getConfiguration(pid);
+		assertNull(config.getProperties());
+	}
+
+	@Test
+	public void testDeleteFromLog() throws Exception {
+		restart(true);
+		Configuration config = cm.getConfiguration("test.log.delete");
+		config.update(dictionaryOf("testkey", "testvalue"));
+		config.delete();
+
+		restart(true);
+		config = cm.getConfiguration("test.log.delete");
+		assertNull(config.getProperties());
+	}
+
+	@Test
+	public void testDeleteAfterFailedMigration() throws Exception {
+		File store = getLogFile().getParentFile();
+		boolean readOnly = store.setWritable(false) && !store.canWrite();
+		store.setWritable(true);
+		assumeTrue("The store cannot be made read-only", readOnly);
+
+		restart(true);
+		Configuration config = cm.getConfiguration("test.log.unmigrated");
+		config.update(dictionaryOf("testkey", "testvalue"));
+
+		super.tearDown();
+		System.clearProperty(PROP_STORE_LOG);
+		// the configuration cannot be moved back into a configuration file
+		store.setWritable(false);
+		try {
+			setUp();
+		} finally {
+			store.setWritable(true);
+		}
+		assertTrue(getLogFile().exists());
+		config = cm.getConfiguration("test.log.unmigrated");
+		assertEquals("testvalue", config.getProperties().get("testkey"));
+		// deleted from the old log
+		config.delete();
+
+		restart(false);
+		config = cm.getConfiguration("test.log.unmigrated");
+		assertNull(config.getProperties());
+	}
+
+	@Test
+	public void testNullArrayElements() throws Exception {
+		restart(true);
+		Configuration config = cm.getConfiguration("test.log.nulls");
+		config.update(dictionaryOf("testkey", new String[] {"a", null, "b"}));
+
+		restart(true);
+		config = cm.getConfiguration("test.log.nulls");
+		assertArrayEquals(new String[] {"a", null, "b"}, (String[]) config.getProperties().get("testkey"));
+		config.delete();
+	}
+
+	@Test
+	public void testUnknownLogIsKept() throws Exception {
+		super.tearDown();
+		File logFile = getLogFile();
+		byte[] content = "not a configuration log".getBytes(StandardCharsets.UTF_8);
+		Files.write(logFile.toPath(), content);
+		try {
+			System.setProperty(PROP_STORE_LOG, "true");
+			setUp();
+			// falls back to configuration files
+			Configuration config = cm.getConfiguration("test.log.unknown");
+			config.update(dictionaryOf("testkey", "testvalue"));
+
+			restart(true);
+			config = cm.getConfiguration("test.log.unknown");
+			assertEquals("testvalue", config.getProperties().get("testkey"));
+			config.delete();
+
+			restart(false);
+			assertTrue(Arrays.equals(content, Files.readAllBytes(logFile.toPath())));
+		} finally {
+			logFile.delete();
+		}
+	}
+
+	private void restart(boolean useLog) throws Exception {
+		super.tearDown();
+		if (useLog) {
+			System.setProperty(PROP_STORE_LOG, "true");
+		} else {
+			System.clearProperty(PROP_STORE_LOG);
+		}
+		setUp();
+	}
+
+	private static File getLogFile() {
+		return new File(getBundle("org.eclipse.equinox.cm").getDataFile("store"), LOG_FILE);
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.cm.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.equinox.internal.cm.ConfigurationAdminStatistics;
+import org.eclipse.equinox.internal.cm.UpdateStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.cm.ManagedService;
+
+public class UpdateThreadsTest extends AbstractCMTest {
+
+	private static final String PROP_UPDATE_THREADS = "equinox.cm.update.threads"; //$NON-NLS-1$
+	private static final int SERVICES = 4;
+	private static final int UPDATES = 50;
+
+	@Before
+	@Override
+	public void setUp() throws Exception {
+		System.setProperty(PROP_UPDATE_THREADS, "4");
+		super.setUp();
+	}
+
+	@After
+	@Override
+	public void tearDown() throws Exception {
+		super.tearDown();
+		System.clearProperty(PROP_UPDATE_THREADS);
+	}
+
+	@Test
+	public void testUpdateOrderPerPid() throws Exception {
+		List<List<Object>> received = new ArrayList<>();
+		List<Configuration> configs = new ArrayList<>();
+		List<ServiceRegistration<ManagedService>> registrations = new ArrayList<>();
+		// the initial update and the updates of the test
+		final CountDownLatch done = new CountDownLatch(SERVICES * (UPDATES + 1));
+		try {
+			for (int i = 0; i < SERVICES; i++) {
+				String pid = "test.update.threads." + i;
+				final List<Object> values = Collections.synchronizedList(new ArrayList<>());
+				received.add(values);
+				configs.add(cm.getConfiguration(pid));
+				ManagedService ms = properties -> {
+					values.add(properties == null ? null : properties.get("index"));
+					done.countDown();
+				};
+				registrations.add(registerService(ManagedService.class, ms, dictionaryOf(Constants.SERVICE_PID, pid)));
+			}
+			for (int update = 0; update < UPDATES; update++) {
+				for (Configuration config : configs) {
+					config.update(dictionaryOf("index", Integer.valueOf(update)));
+				}
+			}
+			assertTrue("Not all the updates were delivered", done.await(10, TimeUnit.SECONDS));
+
+			for (List<Object> values : received) {
+				// the initial update is delivered first, then the updates in the order they were made
+				assertEquals(UPDATES + 1, values.size());
+				assertNull(values.get(0));
+				for (int update = 0; update < UPDATES; update++) {
+					assertEquals(Integer.valueOf(update), values.get(update + 1));
+				}
+			}
+		} finally {
+			for (ServiceRegistration<ManagedService> registration : registrations) {
+				registration.unregister();
+			}
+			for (Configuration config : configs) {
+				config.delete();
+			}
+		}
+	}
+
+	@Test
+	public void testStatistics() throws Exception {
+		ServiceReference<ConfigurationAdminStatistics> statisticsReference = getBundleContext().getServiceReference(ConfigurationAdminStatistics.class);
+		assertNotNull("No statistics service", statisticsReference);
+		ConfigurationAdminStatistics statistics = getBundleContext().getService(statisticsReference);
+		String pid = "test.update.statistics";
+		Configuration config = cm.getConfiguration(pid);
+		final CountDownLatch done = new CountDownLatch(UPDATES + 1);
+		ServiceRegistration<ManagedService> registration = registerService(ManagedService.class, properties -> done.countDown(), dictionaryOf(Constants.SERVICE_PID, pid));
+		long serviceId = ((Long) registration.getReference().getProperty(Constants.SERVICE_ID)).longValue();
+		try {
+			for (int update = 0; update < UPDATES; update++) {
+				config.update(dictionaryOf("index", Integer.valueOf(update)));
+			}
+			assertTrue("Not all the updates were delivered", done.await(10, TimeUnit.SECONDS));
+
+			// the count is updated once the target returns
+			UpdateStatistics target = null;
+			for (int i = 0; i < 100; i++) {
+				target = find(statistics.getUpdateStatistics(), serviceId);
+				if (target != null && target.updateCount == UPDATES + 1) {
+					break;
+				}
+				Thread.sleep(50);
+			}
+			assertNotNull("No statistics for the target", target);
+			assertEquals(UPDATES + 1, target.updateCount);
+			assertEquals(0, target.queueDepth);
+			assertTrue(target.maxLatency >= target.averageLatency);
+			assertTrue(target.maxLatency >= target.maxDuration);
+
+			registration.unregister();
+			registration = null;
+			assertNull("The statistics of an unregistered target are kept", find(statistics.getUpdateStatistics(), serviceId));
+		} finally {
+			if (registration != null) {
+				registration.unregister();
+			}
+			config.delete();
+			getBundleContext().ungetService(statisticsReference);
+		}
+	}
+
+	private static UpdateStatistics find(List<UpdateStatistics> statistics, long serviceId) {
+		for (UpdateStatistics target : statistics) {
+			if (target.serviceId == serviceId) {
+				return target;
+			}
+		}
+		return null;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2018 Cognos Incorporated, IBM Corporation
+ * Copyright (c) 2006, 2026 Cognos Incorporated, IBM Corporation
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ public class Activator implements BundleActivator {
 	private static final String EVENT_ADMIN_CLASS = "org.osgi.service.event.EventAdmin"; //$NON-NLS-1$
 	private LogTracker logTracker;
 	private ServiceRegistration<?> registration;
+	private ServiceRegistration<ConfigurationAdminStatistics> statisticsRegistration;
 	private ConfigurationAdminFactory factory;
 	private ConfigurationEventAdapter eventAdapter;
 	private static BundleContext bundleContext;
@@ -55,10 +56,13 @@ public class Activator implements BundleActivator {
 		factory.start();
 		context.addBundleListener(factory);
 		registration = context.registerService(ConfigurationAdmin.class.getName(), factory, null);
+		statisticsRegistration = context.registerService(ConfigurationAdminStatistics.class, factory, null);
 	}
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		statisticsRegistration.unregister();
+		statisticsRegistration = null;
 		registration.unregister();
 		registration = null;
 		context.removeBundleListener(factory);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,7 @@
 package org.eclipse.equinox.internal.cm;
 
 import java.security.Permission;
-import java.util.Dictionary;
+import java.util.*;
 import org.osgi.framework.*;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.cm.ConfigurationPermission;
@@ -25,7 +25,7 @@ import org.osgi.service.cm.ConfigurationPermission;
  * launches the whole implementation.
  */
 
-public class ConfigurationAdminFactory implements ServiceFactory<ConfigurationAdmin>, BundleListener {
+public class ConfigurationAdminFactory implements ServiceFactory<ConfigurationAdmin>, BundleListener, ConfigurationAdminStatistics {
 
 	static private final Permission allConfigurationPermission = new ConfigurationPermission("*", ConfigurationPermission.CONFIGURE); //$NON-NLS-1$
 	static private final Permission allAttributePermission = new ConfigurationPermission("*", ConfigurationPermission.ATTRIBUTE); //$NON-NLS-1$
@@ -57,6 +57,14 @@ public class ConfigurationAdminFactory implements ServiceFactory<ConfigurationAd
 		managedServiceFactoryTracker.close();
 		eventDispatcher.stop();
 		pluginManager.stop();
+		configurationStore.close();
+	}
+
+	@Override
+	public List<UpdateStatistics> getUpdateStatistics() {
+		List<UpdateStatistics> result = new ArrayList<>(managedServiceTracker.getUpdateStatistics());
+		result.addAll(managedServiceFactoryTracker.getUpdateStatistics());
+		return result;
 	}
 
 	@Override
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.util.List;
+
+/**
+ * Service giving the update statistics of the ManagedService and
+ * ManagedServiceFactory targets. It is registered by the Activator together
+ * with the ConfigurationAdmin service.
+ */
+public interface ConfigurationAdminStatistics {
+	/**
+	 * Returns the update statistics of the ManagedService and ManagedServiceFactory targets.
+	 * 
+	 * @return a snapshot of the statistics of each target
+	 */
+	List<UpdateStatistics> getUpdateStatistics();
+}
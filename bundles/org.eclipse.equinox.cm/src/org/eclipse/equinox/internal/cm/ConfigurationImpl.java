@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -264,6 +264,30 @@ class ConfigurationImpl implements Configuration {
 		}
 	}
 
+	/**
+	 * Returns whether or not the properties returned by getAllProperties(false) match the given
+	 * filter. The properties are matched in place instead of being copied.
+	 */
+	boolean matches(Filter filter) {
+		lock();
+		try {
+			if (deleted || dictionary == null)
+				return false;
+			return filter.matches(new PropertiesView());
+		} finally {
+			unlock();
+		}
+	}
+
+	/**
+	 * Returns a read-only view of the properties of this configuration, including the pid,
+	 * factory pid and location. The view must only be used while holding the lock.
+	 */
+	Map<String, Object> getPropertiesView() {
+		checkLocked();
+		return new PropertiesView();
+	}
+
 	static void fileAutoProperties(Dictionary<String, Object> dictionary, ConfigurationImpl config, boolean includeLoc, boolean includeStorageKey) {
 		dictionary.put(Constants.SERVICE_PID, config.getPid(false));
 		String factoryPid = config.getFactoryPid(false);
@@ -503,8 +527,9 @@ class ConfigurationImpl implements Configuration {
 		return true;
 	}
 
-	private void save() throws IOException {
+	void save() throws IOException {
 		checkLocked();
+		configurationStore.index(this);
 		storageToken = configurationStore.saveConfiguration(pid, this, this.storageToken);
 	}
 
@@ -613,4 +638,38 @@ class ConfigurationImpl implements Configuration {
 			unlock();
 		}
 	}
+
+	private class PropertiesView extends AbstractMap<String, Object> {
+		@Override
+		public Object get(Object key) {
+			if (!(key instanceof String))
+				return null;
+			String name = (String) key;
+			if (Constants.SERVICE_PID.equalsIgnoreCase(name))
+				return pid;
+			if (ConfigurationAdmin.SERVICE_FACTORYPID.equalsIgnoreCase(name))
+				return factoryPid;
+			if (ConfigurationAdmin.SERVICE_BUNDLELOCATION.equalsIgnoreCase(name))
+				return bundleLocation;
+			return dictionary == null ? null : dictionary.get(name);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			Map<String, Object> properties = new HashMap<>();
+			if (dictionary != null)
+				properties.putAll(dictionary.configurationProperties);
+			properties.put(Constants.SERVICE_PID, pid);
+			if (factoryPid != null)
+				properties.put(ConfigurationAdmin.SERVICE_FACTORYPID, factoryPid);
+			if (bundleLocation != null)
+				properties.put(ConfigurationAdmin.SERVICE_BUNDLELOCATION, bundleLocation);
+			return Collections.unmodifiableMap(properties).entrySet();
+		}
+	}
 }
\ No newline at end of file
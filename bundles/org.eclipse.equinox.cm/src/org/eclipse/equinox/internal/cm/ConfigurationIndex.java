@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import org.osgi.framework.Filter;
+import org.osgi.service.cm.ConfigurationAdmin;
+
+/**
+ * ConfigurationIndex maps the values of some configuration properties to the pids of the
+ * configurations which have them. The factory pid and the bundle location are always indexed,
+ * other keys can be added with the {@link #PROP_INDEX_KEYS} property.
+ * <p>
+ * The index is used to find the candidates of a filter whose primary key is indexed, i.e. a
+ * filter <code>(key=value)</code> or an <code>&amp;</code> filter with such a clause. Only String
+ * values are indexed by value; configurations with other values for a key are candidates of
+ * every value of the key. The filter must still be evaluated on the candidates.
+ * </p>
+ * <p>
+ * The index is not synchronized.
+ * </p>
+ */
+class ConfigurationIndex {
+
+	/**
+	 * Framework property. A comma separated list of additional configuration property keys to
+	 * index for listConfigurations.
+	 */
+	public static final String PROP_INDEX_KEYS = "equinox.cm.index.keys"; //$NON-NLS-1$
+
+	// the bucket of the configurations with values other than strings
+	private static final Object OTHER = new Object();
+
+	private final String[] keys;
+	private final List<Map<Object, Set<String>>> indexes = new ArrayList<>();
+	private final Map<String, Object[][]> indexed = new HashMap<>();
+
+	ConfigurationIndex(String indexKeys) {
+		List<String> keyList = new ArrayList<>();
+		keyList.add(ConfigurationAdmin.SERVICE_FACTORYPID);
+		keyList.add(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
+		if (indexKeys != null) {
+			for (String key : indexKeys.split(",")) { //$NON-NLS-1$
+				key = key.trim();
+				if (!key.isEmpty() && indexOf(keyList, key) < 0) {
+					keyList.add(key);
+				}
+			}
+		}
+		keys = keyList.toArray(new String[keyList.size()]);
+		for (int i = 0; i < keys.length; i++) {
+			indexes.add(new HashMap<Object, Set<String>>());
+		}
+	}
+
+	/**
+	 * Indexes the given properties of a configuration, replacing its previous values.
+	 */
+	void put(String pid, Map<String, ?> properties) {
+		remove(pid);
+		Object[][] values = new Object[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			values[i] = bucketsOf(properties.get(keys[i]));
+			for (Object value : values[i]) {
+				Set<String> pids = indexes.get(i).get(value);
+				if (pids == null) {
+					pids = new HashSet<>();
+					indexes.get(i).put(value, pids);
+				}
+				pids.add(pid);
+			}
+		}
+		indexed.put(pid, values);
+	}
+
+	void remove(String pid) {
+		Object[][] values = indexed.remove(pid);
+		if (values == null) {
+			return;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			Map<Object, Set<String>> index = indexes.get(i);
+			for (Object value : values[i]) {
+				Set<String> pids = index.get(value);
+				if (pids != null && pids.remove(pid) && pids.isEmpty()) {
+					index.remove(value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the pids of the configurations which have the given value for the given key, or
+	 * <code>null</code> if the key is not indexed.
+	 */
+	Collection<String> get(String key, String value) {
+		int i = indexOf(Arrays.asList(keys), key);
+		if (i < 0) {
+			return null;
+		}
+		Set<String> pids = indexes.get(i).get(value);
+		Set<String> others = indexes.get(i).get(OTHER);
+		if (others == null) {
+			return pids == null ? Collections.<String> emptySet() : pids;
+		}
+		if (pids == null) {
+			return others;
+		}
+		Set<String> result = new HashSet<>(pids);
+		result.addAll(others);
+		return result;
+	}
+
+	/**
+	 * Returns the smallest candidate set of the indexed primary keys of the given filter, or
+	 * <code>null</code> if the filter has no indexed primary key. The pid is looked up through
+	 * the given configurations.
+	 */
+	Collection<String> getCandidates(Filter filter, Map<String, ?> configurations) {
+		Collection<String> result = null;
+		for (String[] equality : getEqualities(filter.toString())) {
+			Collection<String> candidates;
+			if (equality[0].equalsIgnoreCase(org.osgi.framework.Constants.SERVICE_PID)) {
+				candidates = configurations.containsKey(equality[1]) ? Collections.singleton(equality[1]) : Collections.<String> emptySet();
+			} else {
+				candidates = get(equality[0], equality[1]);
+			}
+			if (candidates != null && (result == null || candidates.size() < result.size())) {
+				result = candidates;
+			}
+		}
+		return result;
+	}
+
+	private static Object[] bucketsOf(Object value) {
+		if (value == null) {
+			return new Object[0];
+		}
+		if (value instanceof String) {
+			return new Object[] {value};
+		}
+		Set<Object> buckets = new HashSet<>();
+		if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				buckets.add(element instanceof String ? element : OTHER);
+			}
+		} else if (value.getClass().isArray()) {
+			for (int i = 0, length = Array.getLength(value); i < length; i++) {
+				Object element = Array.get(value, i);
+				buckets.add(element instanceof String ? element : OTHER);
+			}
+		} else {
+			buckets.add(OTHER);
+		}
+		return buckets.toArray();
+	}
+
+	private static int indexOf(List<String> keyList, String key) {
+		for (int i = 0; i < keyList.size(); i++) {
+			if (keyList.get(i).equalsIgnoreCase(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Returns the (attr, value) pairs of the equality clauses of a normalized filter string which
+	 * is either an equality or an & of clauses.
+	 */
+	static List<String[]> getEqualities(String filter) {
+		List<String[]> result = new ArrayList<>();
+		if (filter.startsWith("(&")) { //$NON-NLS-1$
+			int start = 2;
+			while (start < filter.length() && filter.charAt(start) == '(') {
+				int end = getEnd(filter, start);
+				if (end < 0) {
+					break;
+				}
+				addEquality(filter.substring(start + 1, end), result);
+				start = end + 1;
+			}
+		} else if (filter.startsWith("(") && getEnd(filter, 0) == filter.length() - 1) { //$NON-NLS-1$
+			addEquality(filter.substring(1, filter.length() - 1), result);
+		}
+		return result;
+	}
+
+	private static int getEnd(String filter, int start) {
+		int depth = 0;
+		for (int i = start; i < filter.length(); i++) {
+			char c = filter.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')' && --depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void addEquality(String item, List<String[]> result) {
+		if (item.isEmpty() || "&|!(".indexOf(item.charAt(0)) >= 0) { //$NON-NLS-1$
+			return;
+		}
+		int index = item.indexOf('=');
+		if (index <= 0 || "~<>".indexOf(item.charAt(index - 1)) >= 0) { //$NON-NLS-1$
+			return;
+		}
+		StringBuilder value = new StringBuilder();
+		for (int i = index + 1; i < item.length(); i++) {
+			char c = item.charAt(i);
+			if (c == '*') {
+				// substring or presence
+				return;
+			}
+			if (c == '\\' && i + 1 < item.length()) {
+				c = item.charAt(++i);
+			}
+			value.append(c);
+		}
+		result.add(new String[] {item.substring(0, index).trim(), value.toString()});
+	}
+}
@@ -0,0 +1,560 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * ConfigurationLog keeps the dictionaries of all the configurations in one
+ * append-only file. Each save appends a record holding the pid and the
+ * properties in a typed binary encoding, each delete appends a record holding
+ * the pid. The file is read sequentially once when the log is opened and the
+ * last record of each pid wins.
+ * <p>
+ * Writers which arrive while a write is in progress are committed together with
+ * one write and one sync (group commit). The file is compacted, i.e. rewritten
+ * with the last record of each live pid, once the superseded records take more
+ * space than the live ones.
+ * </p>
+ * <p>
+ * Every record carries its length and a checksum. A torn record at the end of
+ * the file (e.g. after a crash during a write) is discarded when the log is
+ * opened. A file with an unknown header is never written to.
+ * </p>
+ */
+class ConfigurationLog {
+
+	private static final int MAGIC = 0x45434d4c; // ECML
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int RECORD_HEADER_SIZE = 9;
+	private static final long MIN_COMPACT_SIZE = 64 * 1024;
+
+	private static final byte PUT = 1;
+	private static final byte DELETE = 2;
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte INTEGER = 2;
+	private static final byte LONG = 3;
+	private static final byte FLOAT = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte BYTE = 6;
+	private static final byte SHORT = 7;
+	private static final byte CHARACTER = 8;
+	private static final byte BOOLEAN = 9;
+	private static final byte ARRAY = 10;
+	private static final byte PRIMITIVE_ARRAY = 11;
+	private static final byte COLLECTION = 12;
+
+	private static final Class<?>[] types = {null, String.class, Integer.class, Long.class, Float.class, Double.class, Byte.class, Short.class, Character.class, Boolean.class};
+	private static final Class<?>[] primitiveTypes = {null, null, int.class, long.class, float.class, double.class, byte.class, short.class, char.class, boolean.class};
+
+	private final File file;
+	/** @GuardedBy this */
+	private final Map<String, byte[]> live = new HashMap<>();
+	/** @GuardedBy this */
+	private long liveSize;
+	/** @GuardedBy this */
+	private List<byte[]> pending = new ArrayList<>();
+	/** @GuardedBy this */
+	private long enqueued;
+	/** @GuardedBy writeLock */
+	private FileChannel channel;
+	/** @GuardedBy writeLock */
+	private long committed;
+	/** @GuardedBy writeLock */
+	private long failed;
+	/** @GuardedBy writeLock */
+	private long fileSize;
+	private final Object writeLock = new Object();
+
+	ConfigurationLog(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Reads the log and opens it for writing. Returns the dictionaries of the
+	 * configurations in the log, keyed by pid.
+	 * 
+	 * @throws IOException if the log cannot be read; the file is left untouched
+	 */
+	Map<String, Dictionary<String, Object>> open() throws IOException {
+		synchronized (writeLock) {
+			// a file shorter than the header holds no records: it is a new log
+			long validSize = file.length() >= HEADER_SIZE ? read() : 0;
+			Map<String, Dictionary<String, Object>> result = new LinkedHashMap<>();
+			synchronized (this) {
+				for (Map.Entry<String, byte[]> entry : live.entrySet()) {
+					result.put(entry.getKey(), decode(entry.getValue()));
+				}
+			}
+
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			try {
+				if (validSize < HEADER_SIZE) {
+					channel.truncate(0);
+					ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+					header.putInt(MAGIC).putInt(VERSION).flip();
+					writeFully(header, 0);
+					channel.force(false);
+					validSize = HEADER_SIZE;
+				} else if (validSize < channel.size()) {
+					// drop the torn record of an interrupted write
+					channel.truncate(validSize);
+				}
+			} catch (IOException e) {
+				channel.close();
+				channel = null;
+				throw e;
+			}
+			fileSize = validSize;
+			if (needsCompaction()) {
+				try {
+					compact();
+				} catch (IOException e) {
+					// the log is still valid, compact with the next commit
+				}
+			}
+			return result;
+		}
+	}
+
+	void close() {
+		synchronized (writeLock) {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					// ignore
+				}
+				channel = null;
+			}
+		}
+	}
+
+	/**
+	 * Appends the properties of the given pid and waits until they are on disk.
+	 */
+	void write(String pid, Dictionary<String, Object> properties) throws IOException {
+		commit(enqueue(pid, encode(pid, properties)));
+	}
+
+	/**
+	 * Queues the properties of the given pid without waiting, they are written
+	 * with the next commit or {@link #flush()}.
+	 */
+	void append(String pid, Dictionary<String, Object> properties) throws IOException {
+		enqueue(pid, encode(pid, properties));
+	}
+
+	/**
+	 * Waits until all the queued records are on disk.
+	 */
+	void flush() throws IOException {
+		long last;
+		synchronized (this) {
+			last = enqueued;
+		}
+		commit(last);
+	}
+
+	/**
+	 * Appends the deletion of the given pid and waits until it is on disk.
+	 */
+	void delete(String pid) throws IOException {
+		commit(enqueue(pid, encodeDelete(pid)));
+	}
+
+	/**
+	 * Appends the deletion of the given pids and waits until it is on disk.
+	 */
+	void delete(Collection<String> pids) throws IOException {
+		long last = 0;
+		for (String pid : pids) {
+			last = enqueue(pid, encodeDelete(pid));
+		}
+		commit(last);
+	}
+
+	private static byte[] encodeDelete(String pid) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(DELETE);
+		writeString(out, pid);
+		return frame(bytes);
+	}
+
+	private synchronized long enqueue(String pid, byte[] record) {
+		byte[] previous = record[0] == PUT ? live.put(pid, record) : live.remove(pid);
+		if (previous != null) {
+			liveSize -= previous.length;
+		}
+		if (record[0] == PUT) {
+			liveSize += record.length;
+		}
+		pending.add(record);
+		return ++enqueued;
+	}
+
+	private void commit(long sequence) throws IOException {
+		synchronized (writeLock) {
+			if (sequence <= committed) {
+				// written by the batch of another writer
+				return;
+			}
+			if (sequence <= failed) {
+				throw new IOException("Could not write to " + file); //$NON-NLS-1$
+			}
+			if (channel == null) {
+				throw new IOException(file + " is closed"); //$NON-NLS-1$
+			}
+			List<byte[]> batch;
+			long last;
+			synchronized (this) {
+				batch = pending;
+				last = enqueued;
+				pending = new ArrayList<>();
+			}
+			int size = 0;
+			for (byte[] record : batch) {
+				size += record.length;
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(size);
+			for (byte[] record : batch) {
+				buffer.put(record);
+			}
+			buffer.flip();
+			try {
+				writeFully(buffer, fileSize);
+				channel.force(false);
+			} catch (IOException e) {
+				failed = last;
+				throw e;
+			}
+			fileSize += size;
+			committed = last;
+			if (needsCompaction()) {
+				try {
+					compact();
+				} catch (IOException e) {
+					// the log is still valid, compact with the next commit
+				}
+			}
+		}
+	}
+
+	private boolean needsCompaction() {
+		long currentLiveSize;
+		synchronized (this) {
+			currentLiveSize = liveSize;
+		}
+		long garbage = fileSize - HEADER_SIZE - currentLiveSize;
+		return garbage > MIN_COMPACT_SIZE && garbage > currentLiveSize;
+	}
+
+	/*
+	 * Rewrite the log with the live records. Must hold the write lock, and the
+	 * pending records must be written first.
+	 */
+	private void compact() throws IOException {
+		List<byte[]> records;
+		synchronized (this) {
+			if (!pending.isEmpty()) {
+				return;
+			}
+			records = new ArrayList<>(live.values());
+		}
+		File compactFile = new File(file.getParentFile(), file.getName() + ".compact"); //$NON-NLS-1$
+		try (FileOutputStream fileOut = new FileOutputStream(compactFile)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (byte[] record : records) {
+				out.write(record);
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		channel.close();
+		try {
+			Files.move(compactFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			fileSize = channel.size();
+		}
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/*
+	 * Read the records of the log into the live map and return the size of the
+	 * valid part of the file. Fails if the header is not the one of this version.
+	 */
+	private long read() throws IOException {
+		long validSize = 0;
+		long length = file.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+			int magic = in.readInt();
+			int version = in.readInt();
+			if (magic != MAGIC || version != VERSION) {
+				throw new IOException("Unknown format of " + file + ": " + Integer.toHexString(magic) + " version " + version); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			validSize = HEADER_SIZE;
+			CRC32 crc = new CRC32();
+			while (true) {
+				byte[] record;
+				try {
+					byte type = in.readByte();
+					int recordLength = in.readInt();
+					int checksum = in.readInt();
+					if (recordLength < 0 || recordLength > length - validSize || (type != PUT && type != DELETE)) {
+						break;
+					}
+					record = new byte[RECORD_HEADER_SIZE + recordLength];
+					ByteBuffer.wrap(record).put(type).putInt(recordLength).putInt(checksum);
+					in.readFully(record, RECORD_HEADER_SIZE, recordLength);
+					crc.reset();
+					crc.update(record, RECORD_HEADER_SIZE, recordLength);
+					if ((int) crc.getValue() != checksum) {
+						break;
+					}
+				} catch (EOFException e) {
+					break;
+				}
+				String pid = readString(new DataInputStream(new ByteArrayInputStream(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE)));
+				synchronized (this) {
+					byte[] previous = record[0] == PUT ? live.put(pid, record) : live.remove(pid);
+					if (previous != null) {
+						liveSize -= previous.length;
+					}
+					if (record[0] == PUT) {
+						liveSize += record.length;
+					}
+				}
+				validSize += record.length;
+			}
+		}
+		return validSize;
+	}
+
+	/*
+	 * Returns the framed PUT record of the given properties.
+	 */
+	static byte[] encode(String pid, Dictionary<String, Object> properties) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(PUT);
+		writeString(out, pid);
+		out.writeInt(properties.size());
+		for (Enumeration<String> keys = properties.keys(); keys.hasMoreElements();) {
+			String key = keys.nextElement();
+			writeString(out, key);
+			writeValue(out, properties.get(key));
+		}
+		return frame(bytes);
+	}
+
+	/*
+	 * Returns the properties of the given framed PUT record.
+	 */
+	static Dictionary<String, Object> decode(byte[] record) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE));
+		readString(in); // pid
+		int size = in.readInt();
+		Dictionary<String, Object> properties = new ConfigurationDictionary();
+		for (int i = 0; i < size; i++) {
+			String key = readString(in);
+			properties.put(key, readValue(in));
+		}
+		return properties;
+	}
+
+	/*
+	 * Move the type byte in front of the length and checksum of the payload.
+	 */
+	private static byte[] frame(ByteArrayOutputStream bytes) {
+		byte[] content = bytes.toByteArray();
+		int length = content.length - 1;
+		CRC32 crc = new CRC32();
+		crc.update(content, 1, length);
+		byte[] record = new byte[RECORD_HEADER_SIZE + length];
+		ByteBuffer.wrap(record).put(content[0]).putInt(length).putInt((int) crc.getValue()).put(content, 1, length);
+		return record;
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		Class<?> clazz = value.getClass();
+		if (clazz.isArray()) {
+			Class<?> componentType = clazz.getComponentType();
+			int length = java.lang.reflect.Array.getLength(value);
+			if (componentType.isPrimitive()) {
+				out.writeByte(PRIMITIVE_ARRAY);
+				out.writeByte(typeOf(componentType, primitiveTypes));
+				out.writeInt(length);
+				for (int i = 0; i < length; i++) {
+					writeSimple(out, java.lang.reflect.Array.get(value, i));
+				}
+			} else {
+				out.writeByte(ARRAY);
+				byte type = typeOf(componentType, types);
+				out.writeByte(type);
+				out.writeInt(length);
+				for (Object element : (Object[]) value) {
+					// the elements of arrays and collections may be null
+					out.writeByte(element == null ? NULL : type);
+					writeSimple(out, element);
+				}
+			}
+		} else if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			out.writeByte(COLLECTION);
+			out.writeInt(collection.size());
+			for (Object element : collection) {
+				out.writeByte(element == null ? NULL : typeOf(element.getClass(), types));
+				writeSimple(out, element);
+			}
+		} else {
+			out.writeByte(typeOf(clazz, types));
+			writeSimple(out, value);
+		}
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+			case PRIMITIVE_ARRAY : {
+				byte type = in.readByte();
+				int length = in.readInt();
+				Object array = java.lang.reflect.Array.newInstance(classOf(type, primitiveTypes), length);
+				for (int i = 0; i < length; i++) {
+					java.lang.reflect.Array.set(array, i, readSimple(in, type));
+				}
+				return array;
+			}
+			case ARRAY : {
+				byte type = in.readByte();
+				int length = in.readInt();
+				Object[] array = (Object[]) java.lang.reflect.Array.newInstance(classOf(type, types), length);
+				for (int i = 0; i < length; i++) {
+					array[i] = in.readByte() == NULL ? null : readSimple(in, type);
+				}
+				return array;
+			}
+			case COLLECTION : {
+				int size = in.readInt();
+				// the collections of a configuration are kept in vectors
+				Vector<Object> collection = new Vector<>(size);
+				for (int i = 0; i < size; i++) {
+					collection.add(readSimple(in, in.readByte()));
+				}
+				return collection;
+			}
+			default :
+				return readSimple(in, tag);
+		}
+	}
+
+	private static void writeSimple(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			// the tag is enough
+		} else if (value instanceof String) {
+			writeString(out, (String) value);
+		} else if (value instanceof Integer) {
+			out.writeInt(((Integer) value).intValue());
+		} else if (value instanceof Long) {
+			out.writeLong(((Long) value).longValue());
+		} else if (value instanceof Float) {
+			out.writeFloat(((Float) value).floatValue());
+		} else if (value instanceof Double) {
+			out.writeDouble(((Double) value).doubleValue());
+		} else if (value instanceof Byte) {
+			out.writeByte(((Byte) value).byteValue());
+		} else if (value instanceof Short) {
+			out.writeShort(((Short) value).shortValue());
+		} else if (value instanceof Character) {
+			out.writeChar(((Character) value).charValue());
+		} else if (value instanceof Boolean) {
+			out.writeBoolean(((Boolean) value).booleanValue());
+		} else {
+			throw new IOException("Unsupported configuration property type: " + value.getClass().getName()); //$NON-NLS-1$
+		}
+	}
+
+	private static Object readSimple(DataInputStream in, byte type) throws IOException {
+		switch (type) {
+			case NULL :
+				return null;
+			case STRING :
+				return readString(in);
+			case INTEGER :
+				return Integer.valueOf(in.readInt());
+			case LONG :
+				return Long.valueOf(in.readLong());
+			case FLOAT :
+				return Float.valueOf(in.readFloat());
+			case DOUBLE :
+				return Double.valueOf(in.readDouble());
+			case BYTE :
+				return Byte.valueOf(in.readByte());
+			case SHORT :
+				return Short.valueOf(in.readShort());
+			case CHARACTER :
+				return Character.valueOf(in.readChar());
+			case BOOLEAN :
+				return Boolean.valueOf(in.readBoolean());
+			default :
+				throw new IOException("Unknown configuration property type: " + type); //$NON-NLS-1$
+		}
+	}
+
+	private static byte typeOf(Class<?> clazz, Class<?>[] classes) throws IOException {
+		for (byte type = STRING; type < classes.length; type++) {
+			if (classes[type] == clazz) {
+				return type;
+			}
+		}
+		throw new IOException("Unsupported configuration property type: " + clazz.getName()); //$NON-NLS-1$
+	}
+
+	private static Class<?> classOf(byte type, Class<?>[] classes) throws IOException {
+		if (type < 0 || type >= classes.length || classes[type] == null) {
+			throw new IOException("Unknown configuration property type: " + type); //$NON-NLS-1$
+		}
+		return classes[type];
+	}
+
+	// unlike writeUTF, not limited to 64k
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,16 +27,36 @@ import org.osgi.service.log.LogService;
  * implementation uses a filestore and serialization of the configuration dictionaries to files
  * identified by their pid. Persistence details are in the constructor, saveConfiguration, and
  * deleteConfiguration and can be factored out separately if required.
+ * <p>
+ * When the {@link #PROP_STORE_LOG} property is set, the configurations are kept in a single
+ * {@link ConfigurationLog} instead. Configuration files found when the log is opened are moved
+ * into the log, and the log is moved back into configuration files when the property is unset.
+ * The configurations which cannot be moved back stay in the old log until they are deleted or
+ * saved to a configuration file.
+ * </p>
  */
 class ConfigurationStore {
 
+	/**
+	 * Framework property. Set to <code>true</code> to keep all the configurations in one
+	 * append-only log file instead of one file per configuration.
+	 */
+	public static final String PROP_STORE_LOG = "equinox.cm.store.log"; //$NON-NLS-1$
+
 	private final ConfigurationAdminFactory configurationAdminFactory;
 	private static final String STORE_DIR = "store"; //$NON-NLS-1$
 	private static final String DATA_PRE = "data"; //$NON-NLS-1$
 	private static final String CFG_EXT = ".cfg"; //$NON-NLS-1$
+	private static final String LOG_FILE = "configurations.log"; //$NON-NLS-1$
 	private final Map<String, ConfigurationImpl> configurations = new HashMap<>();
+	private final ConfigurationIndex index = new ConfigurationIndex(Activator.getProperty(ConfigurationIndex.PROP_INDEX_KEYS));
 	private int createdPidCount = 0;
 	private final File store;
+	private File logFile;
+	private ConfigurationLog log;
+	// log which is moved back into configuration files, and the pids still only in it
+	private ConfigurationLog oldLog;
+	private final Set<String> oldLogPids = new HashSet<>();
 
 	public ConfigurationStore(ConfigurationAdminFactory configurationAdminFactory, BundleContext context) {
 		this.configurationAdminFactory = configurationAdminFactory;
@@ -45,58 +65,220 @@ class ConfigurationStore {
 			return; // no persistent store
 
 		store.mkdir();
+		boolean useLog = Boolean.valueOf(Activator.getProperty(PROP_STORE_LOG)).booleanValue();
+		logFile = new File(store, LOG_FILE);
+		Map<String, Dictionary<String, Object>> logged = Collections.emptyMap();
+		if (useLog || logFile.exists()) {
+			log = new ConfigurationLog(logFile);
+			try {
+				logged = log.open();
+			} catch (IOException e) {
+				// keep the file: it may be readable by another version or after the error is fixed
+				String message = e.getMessage();
+				configurationAdminFactory.log(LogService.LOG_ERROR, "{Configuration Admin - " + logFile + "} could not be restored, using configuration files." + ((message == null) ? "" : " " + message)); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				log.close();
+				log = null;
+				useLog = false;
+			}
+			if (!useLog && log != null) {
+				oldLog = log;
+				log = null;
+			}
+		}
+
+		List<File> migratedFiles = new ArrayList<>();
+		// pids of the log which are in configuration files
+		List<String> migratedPids = new ArrayList<>();
 		for (File configurationFile : store.listFiles()) {
 			String configurationFileName = configurationFile.getName();
 			if (!configurationFileName.endsWith(CFG_EXT))
 				continue;
 
-			InputStream ris = null;
-			ObjectInputStream ois = null;
-			boolean deleteFile = false;
-			try {
-				ris = new ReliableFileInputStream(configurationFile);
-				ois = new ObjectInputStream(ris);
-				@SuppressWarnings("unchecked")
-				Dictionary<String, Object> dictionary = (Dictionary<String, Object>) ois.readObject();
-				// before adding, make sure the bundle exists if the location is set
-				String location = (String) dictionary.get(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
-				if (location != null && context.getBundle(location) == null) {
-					Boolean boundProp = (Boolean) dictionary.remove(ConfigurationImpl.LOCATION_BOUND);
-					if (boundProp != null && boundProp.booleanValue()) {
-						dictionary.remove(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
-					}
+			Dictionary<String, Object> dictionary = readConfigurationFile(configurationFile);
+			if (dictionary == null)
+				continue;
+			// configuration files are written while the log is disabled and are newer than the log
+			Object pid = dictionary.get(Constants.SERVICE_PID);
+			if (logged.remove(pid) != null && oldLog != null) {
+				migratedPids.add((String) pid);
+			}
+			// the file is kept as the storage of the configuration until it is moved into the log
+			ConfigurationImpl config = addConfiguration(context, dictionary, configurationFile);
+			if (useLog && appendToLog(config)) {
+				migratedFiles.add(configurationFile);
+			}
+		}
+
+		boolean allMigrated = true;
+		for (Dictionary<String, Object> dictionary : logged.values()) {
+			ConfigurationImpl config = addConfiguration(context, dictionary, dictionary.get(Constants.SERVICE_PID));
+			if (!useLog) {
+				if (migrateConfiguration(config)) {
+					migratedPids.add(config.getPid(false));
+				} else {
+					oldLogPids.add(config.getPid(false));
+					allMigrated = false;
 				}
-				ConfigurationImpl config = new ConfigurationImpl(configurationAdminFactory, this, dictionary, configurationFile);
-				configurations.put(config.getPid(), config);
-			} catch (IOException e) {
-				String message = e.getMessage();
-				String pid = configurationFileName.substring(0, configurationFileName.length() - 4);
-				String errorMessage = "{Configuration Admin - pid = " + pid + "} could not be restored." + ((message == null) ? "" : " " + message); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-				configurationAdminFactory.log(LogService.LOG_ERROR, errorMessage);
-				deleteFile = true;
-			} catch (ClassNotFoundException e) {
-				configurationAdminFactory.log(LogService.LOG_ERROR, e.getMessage());
-			} finally {
-				if (ois != null) {
-					try {
-						ois.close();
-					} catch (IOException e) {
-						// ignore 
+			}
+		}
+
+		if (useLog) {
+			if (!migratedFiles.isEmpty()) {
+				try {
+					// one commit for all the configuration files
+					log.flush();
+					for (File configurationFile : migratedFiles) {
+						deleteConfigurationFile(configurationFile);
 					}
+				} catch (IOException e) {
+					String message = e.getMessage();
+					configurationAdminFactory.log(LogService.LOG_ERROR, "{Configuration Admin - " + logFile + "} could not be written." + ((message == null) ? "" : " " + message)); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 				}
-				if (ris != null) {
-					try {
-						ris.close();
-					} catch (IOException e) {
-						// ignore 
-					}
+			}
+		} else if (oldLog != null) {
+			// the log file is only deleted once all of its configurations are in configuration files
+			if (allMigrated) {
+				oldLog.close();
+				oldLog = null;
+				logFile.delete();
+			} else {
+				try {
+					// keep only the configurations which could not be migrated
+					oldLog.delete(migratedPids);
+				} catch (IOException e) {
+					String message = e.getMessage();
+					configurationAdminFactory.log(LogService.LOG_ERROR, "{Configuration Admin - " + logFile + "} could not be written." + ((message == null) ? "" : " " + message)); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				}
+				// kept open to delete the configurations which are deleted or saved to a configuration file
+			}
+		}
+	}
+
+	private ConfigurationImpl addConfiguration(BundleContext context, Dictionary<String, Object> dictionary, Object storageToken) {
+		// before adding, make sure the bundle exists if the location is set
+		String location = (String) dictionary.get(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
+		if (location != null && context.getBundle(location) == null) {
+			Boolean boundProp = (Boolean) dictionary.remove(ConfigurationImpl.LOCATION_BOUND);
+			if (boundProp != null && boundProp.booleanValue()) {
+				dictionary.remove(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
+			}
+		}
+		ConfigurationImpl config = new ConfigurationImpl(configurationAdminFactory, this, dictionary, storageToken);
+		configurations.put(config.getPid(), config);
+		config.lock();
+		try {
+			index(config);
+		} finally {
+			config.unlock();
+		}
+		return config;
+	}
+
+	/*
+	 * Index the current properties of a configuration. Must hold the configuration lock.
+	 */
+	synchronized void index(ConfigurationImpl config) {
+		index.put(config.getPid(false), config.getPropertiesView());
+	}
+
+	/*
+	 * Index a configuration created without properties.
+	 */
+	private void indexNew(String pid, String factoryPid, String location) {
+		Map<String, Object> properties = new HashMap<>();
+		if (factoryPid != null)
+			properties.put(ConfigurationAdmin.SERVICE_FACTORYPID, factoryPid);
+		if (location != null)
+			properties.put(ConfigurationAdmin.SERVICE_BUNDLELOCATION, location);
+		index.put(pid, properties);
+	}
+
+	/*
+	 * Queue a configuration read from a configuration file for the log. Returns false
+	 * if it cannot be, in which case the configuration stays in its file.
+	 */
+	private boolean appendToLog(ConfigurationImpl config) {
+		Dictionary<String, Object> configProperties = config.getAllProperties(true);
+		if (configProperties == null)
+			return false;
+		try {
+			log.append(config.getPid(false), configProperties);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			String message = e.getMessage();
+			String errorMessage = "{Configuration Admin - pid = " + config.getPid(false) + "} could not be migrated." + ((message == null) ? "" : " " + message); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			configurationAdminFactory.log(LogService.LOG_ERROR, errorMessage);
+			return false;
+		}
+	}
+
+	/*
+	 * Save a configuration restored from the log to a configuration file. Returns false
+	 * if it could not be saved.
+	 */
+	private boolean migrateConfiguration(ConfigurationImpl config) {
+		config.lock();
+		try {
+			config.save();
+			return true;
+		} catch (IOException | RuntimeException e) {
+			String message = e.getMessage();
+			String errorMessage = "{Configuration Admin - pid = " + config.getPid(false) + "} could not be migrated." + ((message == null) ? "" : " " + message); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			configurationAdminFactory.log(LogService.LOG_ERROR, errorMessage);
+			return false;
+		} finally {
+			config.unlock();
+		}
+	}
+
+	private Dictionary<String, Object> readConfigurationFile(File configurationFile) {
+		InputStream ris = null;
+		ObjectInputStream ois = null;
+		boolean deleteFile = false;
+		try {
+			ris = new ReliableFileInputStream(configurationFile);
+			ois = new ObjectInputStream(ris);
+			@SuppressWarnings("unchecked")
+			Dictionary<String, Object> dictionary = (Dictionary<String, Object>) ois.readObject();
+			return dictionary;
+		} catch (IOException e) {
+			String message = e.getMessage();
+			String configurationFileName = configurationFile.getName();
+			String pid = configurationFileName.substring(0, configurationFileName.length() - 4);
+			String errorMessage = "{Configuration Admin - pid = " + pid + "} could not be restored." + ((message == null) ? "" : " " + message); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			configurationAdminFactory.log(LogService.LOG_ERROR, errorMessage);
+			deleteFile = true;
+		} catch (ClassNotFoundException e) {
+			configurationAdminFactory.log(LogService.LOG_ERROR, e.getMessage());
+		} finally {
+			if (ois != null) {
+				try {
+					ois.close();
+				} catch (IOException e) {
+					// ignore 
+				}
+			}
+			if (ris != null) {
+				try {
+					ris.close();
+				} catch (IOException e) {
+					// ignore 
 				}
 			}
 			if (deleteFile) {
-				ReliableFile.delete(configurationFile);
-				configurationFile.delete();
+				deleteConfigurationFile(configurationFile);
 			}
 		}
+		return null;
+	}
+
+	synchronized void close() {
+		if (log != null) {
+			log.close();
+		}
+		if (oldLog != null) {
+			oldLog.close();
+		}
 	}
 
 	public Object saveConfiguration(String pid, ConfigurationImpl config, final Object token) throws IOException {
@@ -108,13 +290,23 @@ class ConfigurationStore {
 		if (configProperties == null) {
 			return null;
 		}
+		if (log != null) {
+			writeLog(pid, configProperties);
+			if (token instanceof File) {
+				// the configuration file was not moved into the log when the log was opened
+				deleteConfigurationFile((File) token);
+			}
+			return pid;
+		}
 		try {
 			final File storeCopy = store;
 			return AccessController.doPrivileged(new PrivilegedExceptionAction<File>() {
 				@Override
 				public File run() throws Exception {
-					File toFile = token == null ? File.createTempFile(DATA_PRE, CFG_EXT, storeCopy) : (File) token;
+					File toFile = token instanceof File ? (File) token : File.createTempFile(DATA_PRE, CFG_EXT, storeCopy);
 					writeConfigurationFile(toFile, configProperties);
+					// the configuration file replaces the configuration left in the old log
+					deleteFromOldLog(pid);
 					return toFile;
 				}
 			});
@@ -123,6 +315,20 @@ class ConfigurationStore {
 		}
 	}
 
+	private void writeLog(final String pid, final Dictionary<String, Object> configProperties) throws IOException {
+		try {
+			AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+				@Override
+				public Object run() throws Exception {
+					log.write(pid, configProperties);
+					return null;
+				}
+			});
+		} catch (PrivilegedActionException e) {
+			throw (IOException) e.getException();
+		}
+	}
+
 	void writeConfigurationFile(File configFile, Dictionary<String, Object> configProperties) throws IOException {
 		OutputStream ros = null;
 		ObjectOutputStream oos = null;
@@ -149,19 +355,57 @@ class ConfigurationStore {
 		}
 	}
 
-	public synchronized void removeConfiguration(String pid, final Object token) {
+	public synchronized void removeConfiguration(final String pid, final Object token) {
 		configurations.remove(pid);
+		index.remove(pid);
 		if (store == null || token == null)
 			return; // no persistent store
 		AccessController.doPrivileged(new PrivilegedAction<Object>() {
 			@Override
 			public Object run() {
-				deleteConfigurationFile((File) token);
+				if (token instanceof File) {
+					deleteConfigurationFile((File) token);
+				}
+				if (log != null) {
+					// the configuration file may have been moved into the log
+					try {
+						log.delete(pid);
+					} catch (IOException e) {
+						String message = e.getMessage();
+						String errorMessage = "{Configuration Admin - pid = " + pid + "} could not be deleted." + ((message == null) ? "" : " " + message); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+						configurationAdminFactory.log(LogService.LOG_ERROR, errorMessage);
+					}
+				}
+				deleteFromOldLog(pid);
 				return null;
 			}
 		});
 	}
 
+	/*
+	 * Delete a configuration which could not be moved back into a configuration file from the
+	 * old log. The old log file is deleted once none of its configurations is left.
+	 */
+	private synchronized void deleteFromOldLog(String pid) {
+		if (oldLog == null || !oldLogPids.contains(pid))
+			return;
+		try {
+			oldLog.delete(pid);
+		} catch (IOException e) {
+			// the configuration would be restored from the old log
+			String message = e.getMessage();
+			String errorMessage = "{Configuration Admin - pid = " + pid + "} could not be deleted from " + logFile + "." + ((message == null) ? "" : " " + message); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			configurationAdminFactory.log(LogService.LOG_ERROR, errorMessage);
+			return;
+		}
+		oldLogPids.remove(pid);
+		if (oldLogPids.isEmpty()) {
+			oldLog.close();
+			oldLog = null;
+			logFile.delete();
+		}
+	}
+
 	void deleteConfigurationFile(File configFile) {
 		ReliableFile.delete(configFile);
 		configFile.delete();
@@ -172,6 +416,7 @@ class ConfigurationStore {
 		if (config == null) {
 			config = new ConfigurationImpl(configurationAdminFactory, this, null, pid, location, bind);
 			configurations.put(pid, config);
+			indexNew(pid, null, location);
 		}
 		return config;
 	}
@@ -190,6 +435,7 @@ class ConfigurationStore {
 
 		ConfigurationImpl config = new ConfigurationImpl(configurationAdminFactory, this, factoryPid, pid, location, bind);
 		configurations.put(pid, config);
+		indexNew(pid, factoryPid, location);
 		return config;
 	}
 
@@ -200,7 +446,7 @@ class ConfigurationStore {
 	public ConfigurationImpl[] getFactoryConfigurations(String factoryPid) {
 		List<ConfigurationImpl> resultList = new ArrayList<>();
 		synchronized (this) {
-			resultList.addAll(configurations.values());
+			addConfigurations(index.get(ConfigurationAdmin.SERVICE_FACTORYPID, factoryPid), resultList);
 		}
 		for (Iterator<ConfigurationImpl> it = resultList.iterator(); it.hasNext();) {
 			ConfigurationImpl config = it.next();
@@ -214,12 +460,16 @@ class ConfigurationStore {
 	public ConfigurationImpl[] listConfigurations(Filter filter) {
 		List<ConfigurationImpl> resultList = new ArrayList<>();
 		synchronized (this) {
-			resultList.addAll(configurations.values());
+			Collection<String> candidates = index.getCandidates(filter, configurations);
+			if (candidates == null) {
+				resultList.addAll(configurations.values());
+			} else {
+				addConfigurations(candidates, resultList);
+			}
 		}
 		for (Iterator<ConfigurationImpl> it = resultList.iterator(); it.hasNext();) {
 			ConfigurationImpl config = it.next();
-			Dictionary<String, Object> properties = config.getAllProperties(false);
-			if (properties == null || !filter.match(properties)) {
+			if (!config.matches(filter)) {
 				it.remove();
 			}
 		}
@@ -227,10 +477,20 @@ class ConfigurationStore {
 		return size == 0 ? null : (ConfigurationImpl[]) resultList.toArray(new ConfigurationImpl[size]);
 	}
 
+	private void addConfigurations(Collection<String> pids, List<ConfigurationImpl> resultList) {
+		for (String pid : pids) {
+			ConfigurationImpl config = configurations.get(pid);
+			if (config != null) {
+				resultList.add(config);
+			}
+		}
+	}
+
 	public void unbindConfigurations(Bundle bundle) {
-		ConfigurationImpl[] copy;
+		String location = ConfigurationAdminImpl.getLocation(bundle);
+		List<ConfigurationImpl> copy = new ArrayList<>();
 		synchronized (this) {
-			copy = configurations.values().toArray(new ConfigurationImpl[configurations.size()]);
+			addConfigurations(index.get(ConfigurationAdmin.SERVICE_BUNDLELOCATION, location), copy);
 		}
 		for (ConfigurationImpl config : copy) {
 			config.unbind(bundle);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2018 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,7 +32,7 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 	/** @GuardedBy targets*/
 	private final TargetMap targets = new TargetMap();
 
-	private final SerializedTaskQueue queue = new SerializedTaskQueue("ManagedServiceFactory Update Queue"); //$NON-NLS-1$
+	private final UpdateDispatcher queue = new UpdateDispatcher("ManagedServiceFactory Update Queue"); //$NON-NLS-1$
 
 	public ManagedServiceFactoryTracker(ConfigurationAdminFactory configurationAdminFactory, ConfigurationStore configurationStore, BundleContext context) {
 		super(context, ManagedServiceFactory.class.getName(), null);
@@ -55,7 +55,7 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 				ManagedServiceFactory serviceFactory = getService(ref);
 				if (hasLocPermission && serviceFactory != null) {
 					if (isMultiple || ConfigurationAdminImpl.getLocation(ref.getBundle()).equals(configLoc)) {
-						asynchDeleted(serviceFactory, config.getPid(false));
+						asynchDeleted(ref, serviceFactory, config.getPid(false));
 					}
 				}
 			}
@@ -75,7 +75,7 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 				if (hasLocPermission && serviceFactory != null) {
 					if (isMultiple || config.bind(ConfigurationAdminImpl.getLocation(ref.getBundle()))) {
 						Dictionary<String, Object> properties = configurationAdminFactory.modifyConfiguration(ref, config);
-						asynchUpdated(serviceFactory, config.getPid(), properties);
+						asynchUpdated(ref, serviceFactory, config.getPid(), properties);
 					}
 				}
 			}
@@ -117,10 +117,10 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 						}
 					}
 					if (delete) {
-						asynchDeleted(serviceFactory, config.getPid());
+						asynchDeleted(ref, serviceFactory, config.getPid());
 					} else if (update) {
 						Dictionary<String, Object> properties = configurationAdminFactory.modifyConfiguration(ref, config);
-						asynchUpdated(serviceFactory, config.getPid(), properties);
+						asynchUpdated(ref, serviceFactory, config.getPid(), properties);
 					}
 					// do not break on !isMultiple since we need to check if the other refs apply no matter what
 				}
@@ -128,6 +128,10 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 		}
 	}
 
+	List<UpdateStatistics> getUpdateStatistics() {
+		return queue.getStatistics();
+	}
+
 	private boolean hasMoreSpecificConfigPids(ServiceReference<ManagedServiceFactory> ref, String pid) {
 		List<List<String>> qualifiedPidsLists;
 		synchronized (targets) {
@@ -153,6 +157,7 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 		if (service == null)
 			return null;
 
+		queue.add(reference);
 		addReference(reference, service);
 		return service;
 	}
@@ -189,10 +194,17 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 	@Override
 	public void removedService(ServiceReference<ManagedServiceFactory> reference, ManagedServiceFactory service) {
 		untrackManagedServiceFactory(reference);
+		queue.remove(reference);
 
 		context.ungetService(reference);
 	}
 
+	@Override
+	public void close() {
+		super.close();
+		queue.close();
+	}
+
 	private void addReference(ServiceReference<ManagedServiceFactory> reference, ManagedServiceFactory service) {
 		List<List<String>> qualifiedPidLists = trackManagedServiceFactory(reference);
 		updateManagedServiceFactory(qualifiedPidLists, reference, service);
@@ -217,7 +229,7 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 							if (hasLocPermission) {
 								if (shouldBind && config.bind(ConfigurationAdminImpl.getLocation(reference.getBundle())) || !shouldBind) {
 									Dictionary<String, Object> properties = configurationAdminFactory.modifyConfiguration(reference, config);
-									asynchUpdated(serviceFactory, config.getPid(), properties);
+									asynchUpdated(reference, serviceFactory, config.getPid(), properties);
 									foundConfig = true;
 								} else {
 									configurationAdminFactory.log(LogService.LOG_WARNING, "Configuration for " + Constants.SERVICE_PID + "=" + config.getPid() + " could not be bound to " + ConfigurationAdminImpl.getLocation(reference.getBundle())); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$
@@ -260,8 +272,8 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 		}
 	}
 
-	private void asynchDeleted(final ManagedServiceFactory service, final String pid) {
-		queue.put(new Runnable() {
+	private void asynchDeleted(ServiceReference<ManagedServiceFactory> reference, final ManagedServiceFactory service, final String pid) {
+		queue.put(reference, new Runnable() {
 			@Override
 			public void run() {
 				try {
@@ -273,11 +285,11 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 		});
 	}
 
-	private void asynchUpdated(final ManagedServiceFactory service, final String pid, final Dictionary<String, Object> properties) {
+	private void asynchUpdated(ServiceReference<ManagedServiceFactory> reference, final ManagedServiceFactory service, final String pid, final Dictionary<String, Object> properties) {
 		if (properties == null) {
 			return;
 		}
-		queue.put(new Runnable() {
+		queue.put(reference, new Runnable() {
 			@Override
 			public void run() {
 				try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2018 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,7 +31,7 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 	/** @GuardedBy targets*/
 	private final TargetMap targets = new TargetMap();
 
-	private final SerializedTaskQueue queue = new SerializedTaskQueue("ManagedService Update Queue"); //$NON-NLS-1$
+	private final UpdateDispatcher queue = new UpdateDispatcher("ManagedService Update Queue"); //$NON-NLS-1$
 
 	public ManagedServiceTracker(ConfigurationAdminFactory configurationAdminFactory, ConfigurationStore configurationStore, BundleContext context) {
 		super(context, ManagedService.class.getName(), null);
@@ -79,7 +79,7 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 				if (hasLocPermission && service != null) {
 					if (isMultiple || config.bind(ConfigurationAdminImpl.getLocation(ref.getBundle()))) {
 						Dictionary<String, Object> properties = configurationAdminFactory.modifyConfiguration(ref, config);
-						asynchUpdated(service, properties);
+						asynchUpdated(ref, service, properties);
 					}
 				}
 			}
@@ -129,7 +129,7 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 						updateManagedService(qualifiedPidLists, ref, service);
 					} else if (update) {
 						Dictionary<String, Object> properties = configurationAdminFactory.modifyConfiguration(ref, config);
-						asynchUpdated(service, properties);
+						asynchUpdated(ref, service, properties);
 					}
 					// do not break on !isMultiple since we need to check if the other refs apply no matter what
 				}
@@ -137,6 +137,10 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 		}
 	}
 
+	List<UpdateStatistics> getUpdateStatistics() {
+		return queue.getStatistics();
+	}
+
 	private boolean hasMoreSpecificConfigPids(ServiceReference<ManagedService> ref, String pid) {
 		List<List<String>> qualifiedPidsLists;
 		synchronized (targets) {
@@ -162,6 +166,7 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 		if (service == null)
 			return null;
 
+		queue.add(reference);
 		addReference(reference, service);
 		return service;
 	}
@@ -198,10 +203,17 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 	@Override
 	public void removedService(ServiceReference<ManagedService> reference, ManagedService service) {
 		untrackManagedService(reference);
+		queue.remove(reference);
 
 		context.ungetService(reference);
 	}
 
+	@Override
+	public void close() {
+		super.close();
+		queue.close();
+	}
+
 	private void addReference(ServiceReference<ManagedService> reference, ManagedService service) {
 		List<List<String>> qualifiedPidLists = trackManagedService(reference);
 		updateManagedService(qualifiedPidLists, reference, service);
@@ -225,7 +237,7 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 							if (hasLocPermission) {
 								if ((shouldBind && config.bind(ConfigurationAdminImpl.getLocation(reference.getBundle()))) || !shouldBind) {
 									Dictionary<String, Object> properties = configurationAdminFactory.modifyConfiguration(reference, config);
-									asynchUpdated(service, properties);
+									asynchUpdated(reference, service, properties);
 									foundConfig = true;
 									break qualifiedPids;
 								}
@@ -240,7 +252,7 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 			if (!foundConfig) {
 				// This seems questionable to me, but is required for the spec.
 				// if a ManagedService has multiple pids, watch out!!
-				asynchUpdated(service, null);
+				asynchUpdated(reference, service, null);
 			}
 		}
 	}
@@ -268,8 +280,8 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 		}
 	}
 
-	private void asynchUpdated(final ManagedService service, final Dictionary<String, ?> properties) {
-		queue.put(new Runnable() {
+	private void asynchUpdated(ServiceReference<ManagedService> reference, final ManagedService service, final Dictionary<String, ?> properties) {
+		queue.put(reference, new Runnable() {
 			@Override
 			public void run() {
 				try {
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * UpdateDispatcher delivers the updates of a tracker to its targets asynchronously and keeps
+ * per-target statistics.
+ * <p>
+ * By default all the updates run one at a time on a {@link SerializedTaskQueue}. When the
+ * {@link #PROP_UPDATE_THREADS} property is greater than one, the updates of different targets run
+ * concurrently on a pool of at most that many threads, while the updates of a target still run one
+ * at a time in the order they were queued.
+ * </p>
+ * <p>
+ * Statistics are kept for the targets added by the tracker until they are removed. The updates of
+ * a target which is not tracked are still delivered, but its statistics are forgotten once they are.
+ * </p>
+ */
+class UpdateDispatcher {
+
+	/**
+	 * Framework property. The maximum number of threads delivering updates to different targets
+	 * concurrently. The default of 1 delivers all the updates serially.
+	 */
+	public static final String PROP_UPDATE_THREADS = "equinox.cm.update.threads"; //$NON-NLS-1$
+
+	private static final int KEEP_ALIVE = 5000;
+
+	private final SerializedTaskQueue queue;
+	private final ThreadPoolExecutor executor;
+	/** @GuardedBy this */
+	private final Map<ServiceReference<?>, Target> targets = new HashMap<>();
+	/** @GuardedBy this */
+	private boolean closed;
+
+	UpdateDispatcher(final String queueName) {
+		int threads = getThreads();
+		if (threads <= 1) {
+			queue = new SerializedTaskQueue(queueName);
+			executor = null;
+			return;
+		}
+		queue = null;
+		final AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, queueName + " " + count.incrementAndGet()); //$NON-NLS-1$
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	private static int getThreads() {
+		String prop = Activator.getProperty(PROP_UPDATE_THREADS);
+		if (prop != null) {
+			try {
+				return Integer.parseInt(prop.trim());
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Keeps the statistics of the given target until it is removed.
+	 */
+	synchronized void add(ServiceReference<?> reference) {
+		Target target = targets.get(reference);
+		if (target == null) {
+			targets.put(reference, new Target(reference));
+		} else {
+			target.removed = false;
+		}
+	}
+
+	/**
+	 * Queues an update of the given target. Updates queued after the dispatcher is closed are
+	 * dropped.
+	 */
+	void put(ServiceReference<?> reference, Runnable task) {
+		final Target target;
+		final Update update = new Update(task);
+		boolean start = false;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			Target current = targets.get(reference);
+			if (current == null) {
+				// not tracked (any more), forget it once the update is delivered
+				current = new Target(reference);
+				current.removed = true;
+				targets.put(reference, current);
+			}
+			target = current;
+			target.queued++;
+			if (executor != null) {
+				target.pending.add(update);
+				if (!target.running) {
+					target.running = true;
+					start = true;
+				}
+			}
+		}
+		if (executor == null) {
+			queue.put(new Runnable() {
+				@Override
+				public void run() {
+					deliver(target, update);
+				}
+			});
+		} else if (start) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					drain(target);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Forgets the statistics of the given target once its queued updates are delivered.
+	 */
+	synchronized void remove(ServiceReference<?> reference) {
+		Target target = targets.get(reference);
+		if (target == null) {
+			return;
+		}
+		if (target.queued == 0) {
+			targets.remove(reference);
+		} else {
+			target.removed = true;
+		}
+	}
+
+	/**
+	 * Stops the threads of the pool once the queued updates are delivered.
+	 */
+	void close() {
+		synchronized (this) {
+			closed = true;
+		}
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	synchronized List<UpdateStatistics> getStatistics() {
+		List<UpdateStatistics> result = new ArrayList<>(targets.size());
+		for (Target target : targets.values()) {
+			UpdateStatistics statistics = new UpdateStatistics();
+			Object serviceId = target.reference.getProperty(Constants.SERVICE_ID);
+			statistics.serviceId = serviceId instanceof Long ? ((Long) serviceId).longValue() : -1;
+			statistics.queueDepth = target.queued;
+			statistics.updateCount = target.updateCount;
+			statistics.averageLatency = target.updateCount == 0 ? 0 : target.totalLatency / target.updateCount;
+			statistics.maxLatency = target.maxLatency;
+			statistics.maxDuration = target.maxDuration;
+			result.add(statistics);
+		}
+		return result;
+	}
+
+	private void drain(Target target) {
+		while (true) {
+			Update update;
+			synchronized (this) {
+				update = target.pending.poll();
+				if (update == null) {
+					target.running = false;
+					return;
+				}
+			}
+			deliver(target, update);
+		}
+	}
+
+	private void deliver(Target target, Update update) {
+		long start = System.nanoTime();
+		try {
+			update.task.run();
+		} finally {
+			long end = System.nanoTime();
+			synchronized (this) {
+				target.queued--;
+				target.updateCount++;
+				long latency = end - update.queueTime;
+				target.totalLatency += latency;
+				target.maxLatency = Math.max(target.maxLatency, latency);
+				target.maxDuration = Math.max(target.maxDuration, end - start);
+				if (target.removed && target.queued == 0 && targets.get(target.reference) == target) {
+					targets.remove(target.reference);
+				}
+			}
+		}
+	}
+
+	private static class Update {
+		final Runnable task;
+		final long queueTime = System.nanoTime();
+
+		Update(Runnable task) {
+			this.task = task;
+		}
+	}
+
+	/*
+	 * The state of a target. All fields are guarded by the dispatcher.
+	 */
+	private static class Target {
+		final ServiceReference<?> reference;
+		final Deque<Update> pending = new ArrayDeque<>();
+		boolean running;
+		boolean removed;
+		int queued;
+		long updateCount;
+		long totalLatency;
+		long maxLatency;
+		long maxDuration;
+
+		Target(ServiceReference<?> reference) {
+			this.reference = reference;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+/**
+ * A snapshot of the update statistics of a ManagedService or ManagedServiceFactory.
+ */
+public class UpdateStatistics {
+	/**
+	 * The service id of the target.
+	 */
+	public long serviceId;
+
+	/**
+	 * The number of updates waiting for delivery to the target.
+	 */
+	public int queueDepth;
+
+	/**
+	 * The number of updates delivered to the target.
+	 */
+	public long updateCount;
+
+	/**
+	 * The average time from queuing an update to the target returning, in nanoseconds.
+	 */
+	public long averageLatency;
+
+	/**
+	 * The longest time from queuing an update to the target returning, in nanoseconds.
+	 */
+	public long maxLatency;
+
+	/**
+	 * The longest time spent in the target's update method, in nanoseconds.
+	 */
+	public long maxDuration;
+
+	@Override
+	public String toString() {
+		return "UpdateStatistics[serviceId=" + serviceId + ", queueDepth=" + queueDepth + ", updateCount=" + updateCount + ", averageLatency=" + averageLatency + ", maxLatency=" + maxLatency + ", maxDuration=" + maxDuration + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.registry.simple;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.eclipse.core.runtime.ContributorFactorySimple;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IContributor;
+import org.junit.Test;
+
+/**
+ * Tests lookup of configuration elements by attribute value, both for
+ * registry contents created in this session and read from the cache.
+ */
+public class AttributeQueryTest extends BaseExtensionRegistryRun {
+
+	@Test
+	public void testQueryByAttribute() throws IOException {
+		IContributor contributor = ContributorFactorySimple.createContributor("AttributeQueryContributor"); //$NON-NLS-1$
+		String extensionPointId = qualifiedName(contributor.getName(), "AttributeQuery"); //$NON-NLS-1$
+
+		processXMLContribution(contributor, getXML("AttributeQueryStatic.xml"), true); //$NON-NLS-1$
+		checkStatic(extensionPointId);
+
+		// the indexes are read from the cache
+		stopRegistry();
+		simpleRegistry = startRegistry();
+		checkStatic(extensionPointId);
+
+		// dynamic additions invalidate the cached index
+		processXMLContribution(contributor, getXML("AttributeQueryDynamic.xml"), false); //$NON-NLS-1$
+		IConfigurationElement[] structured = simpleRegistry.getConfigurationElementsByAttribute(extensionPointId, "kind", "structured"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(3, structured.length);
+		assertEquals("yaml", structured[2].getAttribute("id")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void checkStatic(String extensionPointId) {
+		IConfigurationElement[] text = simpleRegistry.getConfigurationElementsByAttribute(extensionPointId, "id", "text"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(1, text.length); // nested elements are not indexed
+		assertEquals("plain", text[0].getAttribute("kind")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		IConfigurationElement[] structured = simpleRegistry.getConfigurationElementsByAttribute(extensionPointId, "kind", "structured"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(2, structured.length);
+		assertEquals("xml", structured[0].getAttribute("id")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("json", structured[1].getAttribute("id")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals(0, simpleRegistry.getConfigurationElementsByAttribute(extensionPointId, "id", "missing").length); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, simpleRegistry.getConfigurationElementsByAttribute(extensionPointId, "missing", "text").length); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, simpleRegistry.getConfigurationElementsByAttribute("missing.point", "id", "text").length); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
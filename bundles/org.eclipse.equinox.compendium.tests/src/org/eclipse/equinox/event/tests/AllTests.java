@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others
+ * Copyright (c) 2010, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses(EventAdminTest.class)
+@SuiteClasses({EventAdminTest.class, EventQueueTest.class, EventStatisticsTest.class, HandlerMatchingTest.class})
 public class AllTests {
 	//see @SuiteClasses
 }
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.event.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.eclipse.equinox.internal.event.EventAdminDelivery;
+import org.junit.*;
+import org.osgi.framework.*;
+import org.osgi.service.event.*;
+
+/*
+ * Tests of the bounded handler queues, of their metrics and of the batch
+ * posting of events.
+ */
+public class EventQueueTest {
+	private static final String PROP_QUEUE_SIZE = "org.eclipse.equinox.event.async.queue.size"; //$NON-NLS-1$
+	private static final String PROP_QUEUE_POLICY = "org.eclipse.equinox.event.async.queue.policy"; //$NON-NLS-1$
+	private static final String TOPIC = "org/eclipse/equinox/event/tests/queue"; //$NON-NLS-1$
+
+	private EventAdmin eventAdmin;
+	private ServiceReference<EventAdmin> eventAdminReference;
+	private EventAdminDelivery delivery;
+	private ServiceReference<EventAdminDelivery> deliveryReference;
+	private final List<ServiceRegistration<EventHandler>> registrations = new ArrayList<>();
+
+	@After
+	public void tearDown() throws Exception {
+		for (ServiceRegistration<EventHandler> registration : registrations) {
+			registration.unregister();
+		}
+		System.clearProperty(PROP_QUEUE_SIZE);
+		System.clearProperty(PROP_QUEUE_POLICY);
+		restartEventAdmin();
+		Activator.getBundleContext().ungetService(eventAdminReference);
+		Activator.getBundleContext().ungetService(deliveryReference);
+	}
+
+	/*
+	 * Ensures a full queue with the fail policy does not keep the event from the
+	 * other handlers.
+	 */
+	@Test
+	public void testFailDeliversToOtherHandlers() throws Exception {
+		System.setProperty(PROP_QUEUE_SIZE, "1"); //$NON-NLS-1$
+		System.setProperty(PROP_QUEUE_POLICY, "fail"); //$NON-NLS-1$
+		restartEventAdmin();
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		registerHandler(event -> {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+		registerHandler(received::add);
+
+		try {
+			eventAdmin.postEvent(event(0));
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			// fills the queue of the blocked handler
+			eventAdmin.postEvent(event(1));
+			try {
+				eventAdmin.postEvent(event(2));
+				fail("The queue of the blocked handler is full"); //$NON-NLS-1$
+			} catch (IllegalStateException e) {
+				// expected
+			}
+		} finally {
+			release.countDown();
+		}
+		for (int i = 0; i < 3; i++) {
+			Event event = received.poll(10, TimeUnit.SECONDS);
+			assertEquals(Integer.valueOf(i), event.getProperty("index")); //$NON-NLS-1$
+		}
+	}
+
+	/*
+	 * Ensures a handler posting to its own full queue with the block policy does
+	 * not wait for itself.
+	 */
+	@Test
+	public void testBlockFromDeliveryThread() throws Exception {
+		System.setProperty(PROP_QUEUE_SIZE, "1"); //$NON-NLS-1$
+		System.setProperty(PROP_QUEUE_POLICY, "block"); //$NON-NLS-1$
+		restartEventAdmin();
+
+		CountDownLatch done = new CountDownLatch(1);
+		registerHandler(event -> {
+			if (Integer.valueOf(0).equals(event.getProperty("index"))) { //$NON-NLS-1$
+				for (int i = 1; i < 4; i++) {
+					eventAdmin.postEvent(event(i));
+				}
+				done.countDown();
+			}
+		});
+		eventAdmin.postEvent(event(0));
+		assertTrue("The handler waited for its own queue", done.await(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+	}
+
+	/*
+	 * Ensures the events of a batch are delivered in order and that a batch with
+	 * a null event is not posted at all.
+	 */
+	@Test
+	public void testPostEvents() throws Exception {
+		restartEventAdmin();
+		BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+		registerHandler(received::add);
+
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			events.add(event(i));
+		}
+		delivery.postEvents(events);
+		for (int i = 0; i < 10; i++) {
+			Event event = received.poll(10, TimeUnit.SECONDS);
+			assertEquals(Integer.valueOf(i), event.getProperty("index")); //$NON-NLS-1$
+		}
+
+		try {
+			delivery.postEvents(Arrays.asList(event(10), null));
+			fail("A null event is not allowed"); //$NON-NLS-1$
+		} catch (NullPointerException e) {
+			// expected
+		}
+		eventAdmin.sendEvent(event(11));
+		assertEquals(Integer.valueOf(11), received.poll(10, TimeUnit.SECONDS).getProperty("index")); //$NON-NLS-1$
+	}
+
+	/*
+	 * Ensures the events dropped from a full queue are counted by the pool.
+	 */
+	@Test
+	public void testDroppedCount() throws Exception {
+		System.setProperty(PROP_QUEUE_SIZE, "1"); //$NON-NLS-1$
+		System.setProperty(PROP_QUEUE_POLICY, "dropOldest"); //$NON-NLS-1$
+		restartEventAdmin();
+		assertEquals(1, delivery.getQueueSize());
+		assertTrue(delivery.getThreads() > 0);
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+		registerHandler(event -> {
+			received.add(event);
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		try {
+			eventAdmin.postEvent(event(0));
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			// the second event is queued, then replaced by the third
+			eventAdmin.postEvent(event(1));
+			eventAdmin.postEvent(event(2));
+			assertEquals(1, delivery.getDroppedCount());
+			assertEquals(0, delivery.getDelayedCount());
+		} finally {
+			release.countDown();
+		}
+		assertEquals(Integer.valueOf(0), received.poll(10, TimeUnit.SECONDS).getProperty("index")); //$NON-NLS-1$
+		assertEquals(Integer.valueOf(2), received.poll(10, TimeUnit.SECONDS).getProperty("index")); //$NON-NLS-1$
+	}
+
+	private void restartEventAdmin() throws BundleException {
+		if (eventAdminReference != null) {
+			Activator.getBundleContext().ungetService(eventAdminReference);
+			Activator.getBundleContext().ungetService(deliveryReference);
+		}
+		Bundle bundle = Activator.getBundle(Activator.BUNDLE_EVENT);
+		bundle.stop();
+		bundle.start();
+		eventAdminReference = Activator.getBundleContext().getServiceReference(EventAdmin.class);
+		eventAdmin = Activator.getBundleContext().getService(eventAdminReference);
+		deliveryReference = Activator.getBundleContext().getServiceReference(EventAdminDelivery.class);
+		delivery = Activator.getBundleContext().getService(deliveryReference);
+	}
+
+	private void registerHandler(EventHandler handler) {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put(EventConstants.EVENT_TOPIC, TOPIC);
+		registrations.add(Activator.getBundleContext().registerService(EventHandler.class, handler, properties));
+	}
+
+	private static Event event(int index) {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put("index", Integer.valueOf(index)); //$NON-NLS-1$
+		return new Event(TOPIC, properties);
+	}
+}
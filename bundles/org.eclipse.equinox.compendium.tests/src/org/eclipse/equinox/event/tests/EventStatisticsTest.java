@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.event.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.eclipse.equinox.internal.event.EventAdminStatistics;
+import org.eclipse.equinox.internal.event.EventHandlerStatistics;
+import org.junit.*;
+import org.osgi.framework.*;
+import org.osgi.service.event.*;
+
+/*
+ * Tests of the delivery statistics and of the blacklisting of slow handlers.
+ */
+public class EventStatisticsTest {
+	private static final String PROP_HANDLER_TIMEOUT = "org.eclipse.equinox.event.handler.timeout"; //$NON-NLS-1$
+	private static final String TOPIC = "org/eclipse/equinox/event/tests/statistics"; //$NON-NLS-1$
+	private static final long SLOW = 200;
+
+	private EventAdmin eventAdmin;
+	private EventAdminStatistics statistics;
+	private final List<ServiceReference<?>> references = new ArrayList<>();
+	private final List<ServiceRegistration<EventHandler>> registrations = new ArrayList<>();
+
+	@Before
+	public void setUp() throws Exception {
+		System.setProperty(PROP_HANDLER_TIMEOUT, "50"); //$NON-NLS-1$
+		restartEventAdmin();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (ServiceRegistration<EventHandler> registration : registrations) {
+			registration.unregister();
+		}
+		System.clearProperty(PROP_HANDLER_TIMEOUT);
+		restartEventAdmin();
+		ungetServices();
+	}
+
+	/*
+	 * Ensures the statistics are available as a service.
+	 */
+	@Test
+	public void testStatisticsService() throws Exception {
+		BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+		ServiceRegistration<EventHandler> registration = registerHandler(received::add);
+		eventAdmin.sendEvent(new Event(TOPIC, (Map<String, ?>) null));
+		eventAdmin.postEvent(new Event(TOPIC, (Map<String, ?>) null));
+		assertNotNull(received.poll(10, TimeUnit.SECONDS));
+		assertNotNull(received.poll(10, TimeUnit.SECONDS));
+
+		EventHandlerStatistics handlerStatistics = waitForDeliveries(registration, 2);
+		assertFalse(handlerStatistics.blacklisted);
+		assertTrue(handlerStatistics.maxLatency >= handlerStatistics.averageLatency);
+	}
+
+	/*
+	 * Ensures a slow handler is only blacklisted for posted events, the sender
+	 * of an event waits for the handlers anyway.
+	 */
+	@Test
+	public void testTimeoutOnlyForPostedEvents() throws Exception {
+		BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+		ServiceRegistration<EventHandler> registration = registerHandler(event -> {
+			received.add(event);
+			sleep(SLOW);
+		});
+
+		eventAdmin.sendEvent(new Event(TOPIC, (Map<String, ?>) null));
+		eventAdmin.sendEvent(new Event(TOPIC, (Map<String, ?>) null));
+		assertEquals(2, received.size());
+		assertFalse(getStatistics(registration).blacklisted);
+
+		received.clear();
+		eventAdmin.postEvent(new Event(TOPIC, (Map<String, ?>) null));
+		assertNotNull(received.poll(10, TimeUnit.SECONDS));
+		assertTrue(waitForDeliveries(registration, 3).blacklisted);
+
+		eventAdmin.sendEvent(new Event(TOPIC, (Map<String, ?>) null));
+		assertTrue("A blacklisted handler gets no more events", received.isEmpty()); //$NON-NLS-1$
+	}
+
+	/*
+	 * Ensures the latency of a handler is measured from the send, so it
+	 * includes the time taken by the handlers called before it.
+	 */
+	@Test
+	public void testLatencyFromSend() throws Exception {
+		System.clearProperty(PROP_HANDLER_TIMEOUT);
+		restartEventAdmin();
+		ServiceRegistration<EventHandler> first = registerHandler(event -> sleep(SLOW));
+		ServiceRegistration<EventHandler> second = registerHandler(event -> sleep(SLOW));
+		eventAdmin.sendEvent(new Event(TOPIC, (Map<String, ?>) null));
+
+		long latency = Math.max(getStatistics(first).maxLatency, getStatistics(second).maxLatency);
+		assertTrue("The latency does not include the previous handler: " + latency, latency >= TimeUnit.MILLISECONDS.toNanos(2 * SLOW)); //$NON-NLS-1$
+	}
+
+	private EventHandlerStatistics waitForDeliveries(ServiceRegistration<EventHandler> registration, long count) throws InterruptedException {
+		// the statistics are recorded once the handler returned
+		long end = System.currentTimeMillis() + 10000;
+		EventHandlerStatistics handlerStatistics = getStatistics(registration);
+		while (handlerStatistics.deliveredCount < count && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+			handlerStatistics = getStatistics(registration);
+		}
+		assertEquals(count, handlerStatistics.deliveredCount);
+		return handlerStatistics;
+	}
+
+	private EventHandlerStatistics getStatistics(ServiceRegistration<EventHandler> registration) {
+		Object serviceId = registration.getReference().getProperty(Constants.SERVICE_ID);
+		for (EventHandlerStatistics handlerStatistics : statistics.getHandlerStatistics()) {
+			if (serviceId.equals(Long.valueOf(handlerStatistics.serviceId))) {
+				return handlerStatistics;
+			}
+		}
+		throw new AssertionError("No statistics for handler " + serviceId); //$NON-NLS-1$
+	}
+
+	private void restartEventAdmin() throws BundleException {
+		ungetServices();
+		Bundle bundle = Activator.getBundle(Activator.BUNDLE_EVENT);
+		bundle.stop();
+		bundle.start();
+		BundleContext context = Activator.getBundleContext();
+		ServiceReference<EventAdmin> eventAdminReference = context.getServiceReference(EventAdmin.class);
+		references.add(eventAdminReference);
+		eventAdmin = context.getService(eventAdminReference);
+		ServiceReference<EventAdminStatistics> statisticsReference = context.getServiceReference(EventAdminStatistics.class);
+		references.add(statisticsReference);
+		statistics = context.getService(statisticsReference);
+	}
+
+	private void ungetServices() {
+		for (ServiceReference<?> reference : references) {
+			Activator.getBundleContext().ungetService(reference);
+		}
+		references.clear();
+	}
+
+	private ServiceRegistration<EventHandler> registerHandler(EventHandler handler) {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put(EventConstants.EVENT_TOPIC, TOPIC);
+		ServiceRegistration<EventHandler> registration = Activator.getBundleContext().registerService(EventHandler.class, handler, properties);
+		registrations.add(registration);
+		return registration;
+	}
+
+	static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
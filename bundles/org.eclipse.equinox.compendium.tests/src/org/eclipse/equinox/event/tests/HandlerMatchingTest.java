@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.event.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.*;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.junit.*;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.*;
+
+/*
+ * Tests the selection of the handlers an event is delivered to, by topic
+ * through the topic trie and its cache, and by filter through the filter
+ * groups and the equality index.
+ */
+public class HandlerMatchingTest {
+	private static final String PREFIX = "org/eclipse/equinox/event/tests/matching"; //$NON-NLS-1$
+
+	private EventAdmin eventAdmin;
+	private ServiceReference<EventAdmin> eventAdminReference;
+	private final List<ServiceRegistration<EventHandler>> registrations = new ArrayList<>();
+
+	@Before
+	public void setUp() throws Exception {
+		eventAdminReference = Activator.getBundleContext().getServiceReference(EventAdmin.class);
+		eventAdmin = Activator.getBundleContext().getService(eventAdminReference);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (ServiceRegistration<EventHandler> registration : registrations) {
+			registration.unregister();
+		}
+		Activator.getBundleContext().ungetService(eventAdminReference);
+	}
+
+	/*
+	 * Ensures the exact and the wildcard topics match the event topic at the
+	 * right level only.
+	 */
+	@Test
+	public void testTopics() {
+		Recorder all = register(null, "*"); //$NON-NLS-1$
+		Recorder prefix = register(null, PREFIX + "/*"); //$NON-NLS-1$
+		Recorder ab = register(null, PREFIX + "/a/b"); //$NON-NLS-1$
+		Recorder abWildcard = register(null, PREFIX + "/a/b/*"); //$NON-NLS-1$
+		Recorder abc = register(null, PREFIX + "/a/b/c"); //$NON-NLS-1$
+		Recorder other = register(null, PREFIX + "/x/*"); //$NON-NLS-1$
+
+		send("a"); //$NON-NLS-1$
+		send("a/b"); //$NON-NLS-1$
+		send("a/b/c"); //$NON-NLS-1$
+		send("a/b/c/d"); //$NON-NLS-1$
+		send("a/bc"); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("a", "a/b", "a/b/c", "a/b/c/d", "a/bc"), all.topics()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertEquals(Arrays.asList("a", "a/b", "a/b/c", "a/b/c/d", "a/bc"), prefix.topics()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertEquals(Arrays.asList("a/b"), ab.topics()); //$NON-NLS-1$
+		assertEquals(Arrays.asList("a/b/c", "a/b/c/d"), abWildcard.topics()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("a/b/c"), abc.topics()); //$NON-NLS-1$
+		assertEquals(Collections.emptyList(), other.topics());
+	}
+
+	/*
+	 * Ensures a handler subscribed to several topics matching the event gets it
+	 * once.
+	 */
+	@Test
+	public void testOverlappingTopics() {
+		Recorder handler = register(null, PREFIX + "/*", PREFIX + "/a/*", PREFIX + "/a/b"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		send("a/b"); //$NON-NLS-1$
+		assertEquals(Arrays.asList("a/b"), handler.topics()); //$NON-NLS-1$
+	}
+
+	/*
+	 * Ensures the handlers looked up for a topic follow the subscription
+	 * changes, as they are cached per topic.
+	 */
+	@Test
+	public void testSubscriptionChanges() {
+		Recorder handler = register(null, PREFIX + "/a"); //$NON-NLS-1$
+		send("a"); //$NON-NLS-1$
+		send("b"); //$NON-NLS-1$
+
+		registrations.get(0).setProperties(properties(null, PREFIX + "/b")); //$NON-NLS-1$
+		send("a"); //$NON-NLS-1$
+		send("b"); //$NON-NLS-1$
+
+		Recorder added = register(null, PREFIX + "/b"); //$NON-NLS-1$
+		send("b"); //$NON-NLS-1$
+
+		registrations.remove(0).unregister();
+		send("b"); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("a", "b", "b"), handler.topics()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("b", "b"), added.topics()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/*
+	 * Ensures the handlers sharing a filter, the handlers with equality filters
+	 * indexed by value, and the handlers with other filters each get the events
+	 * their own filter matches.
+	 */
+	@Test
+	public void testFilters() {
+		String topic = PREFIX + "/filtered"; //$NON-NLS-1$
+		Recorder unfiltered = register(null, topic);
+		Recorder created1 = register("(type=created)", topic); //$NON-NLS-1$
+		Recorder created2 = register("(type=created)", topic); //$NON-NLS-1$
+		Recorder deleted = register("(type=deleted)", topic); //$NON-NLS-1$
+		Recorder count = register("(count=2)", topic); //$NON-NLS-1$
+		Recorder complex = register("(&(type=created)(count>=2))", topic); //$NON-NLS-1$
+		Recorder wildcard = register("(type=crea*)", topic); //$NON-NLS-1$
+
+		send("filtered", "type", "created", "id", "1"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		send("filtered", "type", "deleted", "id", "2"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		send("filtered", "type", "created", "count", Integer.valueOf(2), "id", "3"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		// values which are not strings go through the filter
+		send("filtered", "type", new String[] {"other", "deleted"}, "id", "4"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		send("filtered", "id", "5"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		assertEquals(Arrays.asList("1", "2", "3", "4", "5"), unfiltered.ids()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertEquals(Arrays.asList("1", "3"), created1.ids()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("1", "3"), created2.ids()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("2", "4"), deleted.ids()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("3"), count.ids()); //$NON-NLS-1$
+		assertEquals(Arrays.asList("3"), complex.ids()); //$NON-NLS-1$
+		assertEquals(Arrays.asList("1", "3"), wildcard.ids()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/*
+	 * Ensures a changed filter is used for the following events.
+	 */
+	@Test
+	public void testFilterChange() {
+		String topic = PREFIX + "/filtered"; //$NON-NLS-1$
+		Recorder handler = register("(type=created)", topic); //$NON-NLS-1$
+		send("filtered", "type", "created", "id", "1"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		registrations.get(0).setProperties(properties("(type=deleted)", topic)); //$NON-NLS-1$
+		send("filtered", "type", "created", "id", "2"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		send("filtered", "type", "deleted", "id", "3"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertEquals(Arrays.asList("1", "3"), handler.ids()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void send(String topic, Object... keyValues) {
+		Map<String, Object> properties = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			properties.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		eventAdmin.sendEvent(new Event(PREFIX + '/' + topic, properties));
+	}
+
+	private Recorder register(String filter, String... topics) {
+		Recorder recorder = new Recorder();
+		registrations.add(Activator.getBundleContext().registerService(EventHandler.class, recorder, properties(filter, topics)));
+		return recorder;
+	}
+
+	private static Dictionary<String, Object> properties(String filter, String... topics) {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put(EventConstants.EVENT_TOPIC, topics);
+		if (filter != null) {
+			properties.put(EventConstants.EVENT_FILTER, filter);
+		}
+		return properties;
+	}
+
+	/*
+	 * Records the events of the test, the handlers subscribed to "*" also get
+	 * the events of other tests.
+	 */
+	static class Recorder implements EventHandler {
+		private final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+
+		@Override
+		public void handleEvent(Event event) {
+			if (event.getTopic().startsWith(PREFIX + '/')) {
+				events.add(event);
+			}
+		}
+
+		List<String> topics() {
+			List<String> topics = new ArrayList<>();
+			synchronized (events) {
+				for (Event event : events) {
+					topics.add(event.getTopic().substring(PREFIX.length() + 1));
+				}
+			}
+			return topics;
+		}
+
+		List<Object> ids() {
+			List<Object> ids = new ArrayList<>();
+			synchronized (events) {
+				for (Event event : events) {
+					ids.add(event.getProperty("id")); //$NON-NLS-1$
+				}
+			}
+			return ids;
+		}
+	}
+}
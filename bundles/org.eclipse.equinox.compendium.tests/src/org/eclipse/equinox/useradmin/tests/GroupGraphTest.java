@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.useradmin.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.*;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.junit.*;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.useradmin.*;
+
+/*
+ * Checks the roles implied by users on random group graphs, including cycles
+ * and diamonds, against a recursive evaluation of each path.
+ */
+public class GroupGraphTest {
+
+	private static final String PREFIX = "testGroupGraph"; //$NON-NLS-1$
+	private static final int USERS = 6;
+	private static final int GROUPS = 12;
+	private static final int SEEDS = 20;
+
+	private UserAdmin userAdmin;
+	private ServiceReference<UserAdmin> userAdminReference;
+	private final List<User> users = new ArrayList<>();
+	private final List<Group> groups = new ArrayList<>();
+
+	@Before
+	public void setUp() throws Exception {
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).start();
+		userAdminReference = Activator.getBundleContext().getServiceReference(UserAdmin.class);
+		userAdmin = Activator.getBundleContext().getService(userAdminReference);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		removeRoles();
+		Activator.getBundleContext().ungetService(userAdminReference);
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).stop();
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		for (long seed = 0; seed < SEEDS; seed++) {
+			Random random = new Random(seed);
+			createRoles(random);
+			checkImpliedRoles(seed);
+
+			// the implied roles have to follow membership changes
+			for (int i = 0; i < GROUPS; i++) {
+				Group group = groups.get(random.nextInt(GROUPS));
+				Role[] members = group.getMembers();
+				if (members != null) {
+					group.removeMember(members[random.nextInt(members.length)]);
+				}
+				group.addRequiredMember(randomMember(random));
+			}
+			checkImpliedRoles(seed);
+
+			userAdmin.removeRole(groups.get(random.nextInt(GROUPS)).getName());
+			checkImpliedRoles(seed);
+			removeRoles();
+		}
+	}
+
+	private void createRoles(Random random) {
+		for (int i = 0; i < USERS; i++) {
+			users.add((User) userAdmin.createRole(PREFIX + "User" + i, Role.USER)); //$NON-NLS-1$
+		}
+		for (int i = 0; i < GROUPS; i++) {
+			groups.add((Group) userAdmin.createRole(PREFIX + "Group" + i, Role.GROUP)); //$NON-NLS-1$
+		}
+		for (Group group : groups) {
+			int basic = random.nextInt(4);
+			for (int i = 0; i < basic; i++) {
+				group.addMember(randomMember(random));
+			}
+			if (random.nextInt(3) == 0) {
+				group.addRequiredMember(randomMember(random));
+			}
+		}
+	}
+
+	private Role randomMember(Random random) {
+		int index = random.nextInt(USERS + GROUPS + 1);
+		if (index < USERS) {
+			return users.get(index);
+		}
+		if (index < USERS + GROUPS) {
+			return groups.get(index - USERS);
+		}
+		return userAdmin.getRole(Role.USER_ANYONE);
+	}
+
+	private void checkImpliedRoles(long seed) {
+		for (User user : users) {
+			Authorization authorization = userAdmin.getAuthorization(user);
+			Set<String> expected = new TreeSet<>();
+			expected.add(user.getName());
+			for (Group group : groups) {
+				boolean implied = userAdmin.getRole(group.getName()) != null && implies(group, user, new HashSet<Role>());
+				if (implied) {
+					expected.add(group.getName());
+				}
+				assertEquals("seed " + seed + ", " + user.getName() + " in " + group.getName(), implied, authorization.hasRole(group.getName())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			Set<String> actual = new TreeSet<>();
+			String[] roles = authorization.getRoles();
+			if (roles != null) {
+				for (String role : roles) {
+					// ignore the roles of other tests which contain user.anyone
+					if (role.startsWith(PREFIX)) {
+						actual.add(role);
+					}
+				}
+			}
+			assertEquals("seed " + seed + ", roles of " + user.getName(), expected, actual); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/*
+	 * The spec's rule: a role is implied by the user itself and user.anyone, and
+	 * a group by one of its basic members together with all its required
+	 * members. Each path stops at a group it has already visited.
+	 */
+	private boolean implies(Role role, User user, Set<Role> path) {
+		if (role.getName().equals(user.getName()) || role.getName().equals(Role.USER_ANYONE)) {
+			return true;
+		}
+		if (role.getType() != Role.GROUP || userAdmin.getRole(role.getName()) == null || !path.add(role)) {
+			return false;
+		}
+		try {
+			Group group = (Group) role;
+			Role[] required = group.getRequiredMembers();
+			if (required != null) {
+				for (Role member : required) {
+					if (!implies(member, user, path)) {
+						return false;
+					}
+				}
+			}
+			Role[] basic = group.getMembers();
+			if (basic != null) {
+				for (Role member : basic) {
+					if (implies(member, user, path)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		} finally {
+			path.remove(role);
+		}
+	}
+
+	private void removeRoles() {
+		for (Role role : users) {
+			userAdmin.removeRole(role.getName());
+		}
+		for (Role role : groups) {
+			userAdmin.removeRole(role.getName());
+		}
+		users.clear();
+		groups.clear();
+	}
+}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.useradmin.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.junit.*;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.useradmin.*;
+
+public class UserAdminLogStoreTest {
+
+	private static final String PROP_STORE_LOG = "equinox.useradmin.store.log"; //$NON-NLS-1$
+	private static final String LOG_FILE = "useradmin.log"; //$NON-NLS-1$
+
+	private UserAdmin userAdmin;
+	private ServiceReference<UserAdmin> userAdminReference;
+
+	@Before
+	public void setUp() throws Exception {
+		start(true);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stop();
+		System.clearProperty(PROP_STORE_LOG);
+		// move the roles back into the preferences and remove them
+		start(false);
+		if (userAdmin != null) {
+			userAdmin.removeRole("testLogUser"); //$NON-NLS-1$
+			userAdmin.removeRole("testLogGroup"); //$NON-NLS-1$
+		}
+		stop();
+		getLogFile().delete();
+	}
+
+	@Test
+	public void testOpenAndReplay() throws Exception {
+		createRoles();
+		restart(true);
+		assertTrue(getLogFile().exists());
+		checkRoles();
+
+		User user = (User) userAdmin.getRole("testLogUser"); //$NON-NLS-1$
+		user.getProperties().remove("name"); //$NON-NLS-1$
+		user.getCredentials().put("password", "changed"); //$NON-NLS-1$ //$NON-NLS-2$
+		((Group) userAdmin.getRole("testLogGroup")).removeMember(user); //$NON-NLS-1$
+		restart(true);
+		user = (User) userAdmin.getRole("testLogUser"); //$NON-NLS-1$
+		assertNull(user.getProperties().get("name")); //$NON-NLS-1$
+		assertTrue(user.hasCredential("password", "changed")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(((Group) userAdmin.getRole("testLogGroup")).getMembers()); //$NON-NLS-1$
+
+		assertTrue(userAdmin.removeRole("testLogUser")); //$NON-NLS-1$
+		restart(true);
+		assertNull(userAdmin.getRole("testLogUser")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testTornTail() throws Exception {
+		createRoles();
+		stop();
+		File logFile = getLogFile();
+		long length = logFile.length();
+		try (FileOutputStream out = new FileOutputStream(logFile, true)) {
+			// the start of a record which was not completely written
+			out.write(new byte[] {3, 0, 0, 1, 0, 1, 2});
+		}
+		start(true);
+		assertEquals(length, logFile.length());
+		checkRoles();
+		userAdmin.getRole("testLogUser").getProperties().put("after", "torn"); //$NON-NLS-1$ //$NON-NLS-2$
+		restart(true);
+		assertEquals("torn", userAdmin.getRole("testLogUser").getProperties().get("after")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	public void testCompactionAfterCommit() throws Exception {
+		createRoles();
+		// the credentials are loaded from the compacted file
+		restart(true);
+		Role user = userAdmin.getRole("testLogUser"); //$NON-NLS-1$
+		for (int i = 0; i < 3000; i++) {
+			user.getProperties().put("churn", "value" + i); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		// about 140k without compaction
+		assertTrue(String.valueOf(getLogFile().length()), getLogFile().length() < 128 * 1024);
+		checkRoles();
+		assertEquals("value2999", user.getProperties().get("churn")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		restart(true);
+		checkRoles();
+		assertEquals("value2999", userAdmin.getRole("testLogUser").getProperties().get("churn")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	public void testMigration() throws Exception {
+		// from the preferences into the log
+		restart(false);
+		assertFalse(getLogFile().exists());
+		createRoles();
+		restart(true);
+		assertTrue(getLogFile().exists());
+		checkRoles();
+
+		// from the log back into the preferences
+		restart(false);
+		assertFalse(getLogFile().exists());
+		checkRoles();
+	}
+
+	@Test
+	public void testUnknownLogIsKept() throws Exception {
+		stop();
+		File logFile = getLogFile();
+		byte[] content = "not a useradmin log".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+		Files.write(logFile.toPath(), content);
+		start(true);
+		assertNull(userAdmin);
+		assertArrayEquals(content, Files.readAllBytes(logFile.toPath()));
+		// not moved into the preferences either
+		restart(false);
+		assertNull(userAdmin);
+		assertArrayEquals(content, Files.readAllBytes(logFile.toPath()));
+		stop();
+		logFile.delete();
+	}
+
+	private void createRoles() {
+		User user = (User) userAdmin.createRole("testLogUser", Role.USER); //$NON-NLS-1$
+		assertNotNull(user);
+		user.getProperties().put("name", "Test User"); //$NON-NLS-1$ //$NON-NLS-2$
+		user.getCredentials().put("password", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		user.getCredentials().put("key", new byte[] {1, 2, 3}); //$NON-NLS-1$
+		Group group = (Group) userAdmin.createRole("testLogGroup", Role.GROUP); //$NON-NLS-1$
+		assertNotNull(group);
+		group.addMember(user);
+		group.addRequiredMember(userAdmin.getRole(Role.USER_ANYONE));
+	}
+
+	private void checkRoles() {
+		User user = (User) userAdmin.getRole("testLogUser"); //$NON-NLS-1$
+		assertNotNull(user);
+		assertEquals("Test User", user.getProperties().get("name")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(user.hasCredential("password", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(user.hasCredential("key", new byte[] {1, 2, 3})); //$NON-NLS-1$
+		Group group = (Group) userAdmin.getRole("testLogGroup"); //$NON-NLS-1$
+		assertNotNull(group);
+		assertEquals(1, group.getMembers().length);
+		assertEquals("testLogUser", group.getMembers()[0].getName()); //$NON-NLS-1$
+		assertEquals(1, group.getRequiredMembers().length);
+		assertTrue(userAdmin.getAuthorization(user).hasRole("testLogGroup")); //$NON-NLS-1$
+	}
+
+	private void restart(boolean useLog) throws Exception {
+		stop();
+		start(useLog);
+	}
+
+	private void start(boolean useLog) throws Exception {
+		if (useLog) {
+			System.setProperty(PROP_STORE_LOG, "true"); //$NON-NLS-1$
+		} else {
+			System.clearProperty(PROP_STORE_LOG);
+		}
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).start();
+		userAdminReference = Activator.getBundleContext().getServiceReference(UserAdmin.class);
+		userAdmin = (userAdminReference == null) ? null : Activator.getBundleContext().getService(userAdminReference);
+	}
+
+	private void stop() throws Exception {
+		if (userAdminReference != null) {
+			Activator.getBundleContext().ungetService(userAdminReference);
+			userAdminReference = null;
+		}
+		userAdmin = null;
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).stop();
+	}
+
+	private static File getLogFile() {
+		return Activator.getBundle(Activator.BUNDLE_USERADMIN).getDataFile(LOG_FILE);
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.event;
+
+import java.util.Collection;
+import org.osgi.service.event.Event;
+
+/**
+ * Service posting batches of events and giving the metrics of the pool
+ * delivering the posted events. It is registered by the Event Admin component
+ * together with the EventAdmin service.
+ */
+public interface EventAdminDelivery {
+	/**
+	 * Post a batch of events, see {@link EventAdminImpl#postEvents(Collection)}.
+	 * 
+	 * @param events to be delivered
+	 * @throws NullPointerException if an event is null
+	 * @throws SecurityException if the caller may not publish a topic
+	 * @throws IllegalStateException if a handler queue is full and the queue
+	 *         policy is to fail
+	 */
+	void postEvents(Collection<Event> events);
+
+	/**
+	 * Return the number of threads delivering posted events.
+	 * 
+	 * @return The number of threads.
+	 */
+	int getThreads();
+
+	/**
+	 * Return the number of events a handler queue may hold.
+	 * 
+	 * @return The bound of the queues, 0 if the queues are unbounded.
+	 */
+	int getQueueSize();
+
+	/**
+	 * Return the number of events dropped because a handler queue was full,
+	 * over all the handlers.
+	 * 
+	 * @return The number of dropped events.
+	 */
+	long getDroppedCount();
+
+	/**
+	 * Return the number of events the posting thread had to wait for because a
+	 * handler queue was full, over all the handlers.
+	 * 
+	 * @return The number of delayed events.
+	 */
+	long getDelayedCount();
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2018 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,7 @@
 package org.eclipse.equinox.internal.event;
 
 import java.security.Permission;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import org.eclipse.osgi.framework.eventmgr.*;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.BundleContext;
@@ -29,8 +28,15 @@ import org.osgi.service.log.LogService;
  * org.eclipse.osgi.framework.eventmgr package is exported by some other bundle.
  */
 public class EventAdminImpl implements EventAdmin {
+	/**
+	 * Framework property for the time in milliseconds a handler may take to
+	 * handle an event before it is blacklisted. 0 disables the blacklisting.
+	 */
+	static final String PROP_HANDLER_TIMEOUT = "org.eclipse.equinox.event.handler.timeout"; //$NON-NLS-1$
+
 	private final LogTracker log;
 	private final EventHandlerTracker handlers;
+	private final EventDeliveryPool deliveryPool;
 	private volatile EventManager eventManager;
 
 	/**
@@ -41,7 +47,8 @@ public class EventAdminImpl implements EventAdmin {
 	EventAdminImpl(BundleContext context) {
 		super();
 		log = new LogTracker(context, System.out);
-		handlers = new EventHandlerTracker(context, log);
+		handlers = new EventHandlerTracker(context, log, EventDeliveryPool.getLong(context, PROP_HANDLER_TIMEOUT, 0));
+		deliveryPool = new EventDeliveryPool(context);
 	}
 
 	/**
@@ -52,6 +59,7 @@ public class EventAdminImpl implements EventAdmin {
 		ThreadGroup eventGroup = new ThreadGroup("Equinox Event Admin"); //$NON-NLS-1$
 		eventGroup.setDaemon(true);
 		eventManager = new EventManager(EventAdminMsg.EVENT_ASYNC_THREAD_NAME, eventGroup);
+		deliveryPool.start(eventGroup);
 		handlers.open();
 	}
 
@@ -62,14 +70,111 @@ public class EventAdminImpl implements EventAdmin {
 		handlers.close();
 		eventManager.close();
 		eventManager = null; // signify we have stopped
+		deliveryPool.stop();
 		log.close();
 	}
 
+	/**
+	 * Return the delivery statistics of the event handlers.
+	 * 
+	 * @return a snapshot of the statistics of each handler
+	 */
+	public List<EventHandlerStatistics> getHandlerStatistics() {
+		return handlers.getStatistics();
+	}
+
+	/**
+	 * Return the pool delivering the posted events, with the overall number of
+	 * dropped and delayed events.
+	 * 
+	 * @return the delivery pool
+	 */
+	public EventDeliveryPool getDeliveryPool() {
+		return deliveryPool;
+	}
+
 	@Override
 	public void postEvent(Event event) {
 		dispatchEvent(event, true);
 	}
 
+	/**
+	 * Post a batch of events. Each handler receives the events it matches in
+	 * order, as if they were posted with {@link #postEvent(Event)}, but the
+	 * permission check and the handler lookup are done once per topic and the
+	 * events are queued to each handler at once.
+	 * <p>
+	 * Unlike calling {@link #postEvent(Event)} for each event, all the events
+	 * are checked first: if an event is null or a topic may not be published,
+	 * none of the events is posted. When a handler queue is full and the queue
+	 * policy is to fail, the events are still queued to the other handlers, and
+	 * to that handler as far as they fit, before the exception is thrown.
+	 * 
+	 * @param events to be delivered
+	 * @throws NullPointerException if an event is null
+	 * @throws SecurityException if the caller may not publish a topic
+	 * @throws IllegalStateException if a handler queue is full and the queue
+	 *         policy is to fail
+	 */
+	public void postEvents(Collection<Event> events) {
+		if (eventManager == null) {
+			// EventAdmin is stopped
+			return;
+		}
+
+		SecurityManager sm = System.getSecurityManager();
+		long postTime = System.nanoTime();
+		Map<String, TopicHandlers> topicHandlers = new HashMap<>();
+		Map<String, Permission> topicPermissions = new HashMap<>();
+		Map<EventHandlerWrapper, List<EventHandlerQueue.Delivery>> batches = new LinkedHashMap<>();
+
+		for (Event event : events) {
+			if (event == null) {
+				log.log(LogService.LOG_ERROR, EventAdminMsg.EVENT_NULL_EVENT);
+				throw new NullPointerException(EventAdminMsg.EVENT_NULL_EVENT);
+			}
+
+			String topic = event.getTopic();
+			TopicHandlers eventHandlers = topicHandlers.get(topic);
+
+			if (eventHandlers == null) {
+				try {
+					checkTopicPermissionPublish(topic);
+				} catch (SecurityException e) {
+					String msg = NLS.bind(EventAdminMsg.EVENT_NO_TOPICPERMISSION_PUBLISH, topic);
+					log.log(LogService.LOG_ERROR, msg);
+					throw e;
+				}
+				eventHandlers = handlers.getHandlers(topic);
+				topicHandlers.put(topic, eventHandlers);
+				if (sm != null) {
+					topicPermissions.put(topic, new TopicPermission(topic, TopicPermission.SUBSCRIBE));
+				}
+			}
+
+			if (eventHandlers.isEmpty()) {
+				continue;
+			}
+
+			EventHandlerQueue.Delivery delivery = new EventHandlerQueue.Delivery(event, topicPermissions.get(topic), postTime);
+			for (EventHandlerWrapper wrapper : eventHandlers.getMatchingWrappers(event)) {
+				batches.computeIfAbsent(wrapper, k -> new ArrayList<>()).add(delivery);
+			}
+		}
+
+		IllegalStateException full = null;
+		for (Map.Entry<EventHandlerWrapper, List<EventHandlerQueue.Delivery>> batch : batches.entrySet()) {
+			try {
+				batch.getKey().getQueue().addAll(batch.getValue(), deliveryPool);
+			} catch (IllegalStateException e) {
+				full = queueFull(full, e);
+			}
+		}
+		if (full != null) {
+			throw full;
+		}
+	}
+
 	@Override
 	public void sendEvent(Event event) {
 		dispatchEvent(event, false);
@@ -85,6 +190,8 @@ public class EventAdminImpl implements EventAdmin {
 	 *        for asynchronous delivery.
 	 */
 	private void dispatchEvent(Event event, boolean isAsync) {
+		// the latency of the handlers is measured from here
+		long postTime = System.nanoTime();
 		// keep a local copy in case we are stopped in the middle of dispatching
 		EventManager currentManager = eventManager;
 		if (currentManager == null) {
@@ -108,30 +215,72 @@ public class EventAdminImpl implements EventAdmin {
 			throw e;
 		}
 
-		Set<EventHandlerWrapper> eventHandlers = handlers.getHandlers(topic);
+		TopicHandlers eventHandlers = handlers.getHandlers(topic);
 		// If there are no handlers, then we are done
 		if (eventHandlers.isEmpty()) {
 			return;
 		}
 
+		// Evaluate the handler filters once for all the deliveries
+		EventHandlerWrapper[] matching = eventHandlers.getMatchingWrappers(event);
+		if (matching.length == 0) {
+			return;
+		}
+
 		SecurityManager sm = System.getSecurityManager();
 		Permission perm = (sm == null) ? null : new TopicPermission(topic, TopicPermission.SUBSCRIBE);
 
-		Map<EventHandlerWrapper, Permission> listeners = new CopyOnWriteIdentityMap<>();
-		for (EventHandlerWrapper wrapper : eventHandlers)
-			listeners.put(wrapper, perm);
+		EventHandlerQueue.Delivery delivery = new EventHandlerQueue.Delivery(event, perm, postTime);
+		if (isAsync) {
+			deliverAsynchronous(matching, delivery);
+			return;
+		}
 
 		// Create the listener queue for this event delivery
-		ListenerQueue<EventHandlerWrapper, Permission, Event> listenerQueue = new ListenerQueue<>(currentManager);
+		ListenerQueue<EventHandlerWrapper, Permission, EventHandlerQueue.Delivery> listenerQueue = new ListenerQueue<>(currentManager);
 		// Add the listeners to the queue and associate them with the event
 		// dispatcher
-		listenerQueue.queueListeners(listeners.entrySet(), handlers);
+		listenerQueue.queueListeners(eventHandlers.getListeners(matching, perm), handlers);
 		// Deliver the event to the listeners.
-		if (isAsync) {
-			listenerQueue.dispatchEventAsynchronous(0, event);
-		} else {
-			listenerQueue.dispatchEventSynchronous(0, event);
+		listenerQueue.dispatchEventSynchronous(0, delivery);
+	}
+
+	/**
+	 * Deliver a posted event on the delivery pool. Each handler gets the event
+	 * through its own queue, so a slow handler only delays itself.
+	 * 
+	 * @param matching the handlers matching the event
+	 * @param delivery the event to be delivered
+	 */
+	private void deliverAsynchronous(EventHandlerWrapper[] matching, EventHandlerQueue.Delivery delivery) {
+		IllegalStateException full = null;
+		for (EventHandlerWrapper wrapper : matching) {
+			try {
+				wrapper.getQueue().add(delivery, deliveryPool);
+			} catch (IllegalStateException e) {
+				full = queueFull(full, e);
+			}
+		}
+		if (full != null) {
+			throw full;
+		}
+	}
+
+	/**
+	 * Log that the queue of a handler is full. The event is still queued to the
+	 * other handlers before the first failure is thrown.
+	 * 
+	 * @param first the failure of a previous handler, may be null
+	 * @param e the failure of the handler
+	 * @return the failure to throw
+	 */
+	private IllegalStateException queueFull(IllegalStateException first, IllegalStateException e) {
+		log.log(LogService.LOG_WARNING, e.getMessage());
+		if (first == null) {
+			return e;
 		}
+		first.addSuppressed(e);
+		return first;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 1999, 2010 IBM Corporation and others.
+ * Copyright (c) 1999, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,8 @@ public class EventAdminMsg extends NLS {
 	public static String EVENT_DISPATCH_HANDLER_EXCEPTION;
 	public static String EVENT_INVALID_HANDLER_FILTER;
 	public static String EVENT_INVALID_HANDLER_TOPICS;
+	public static String EVENT_HANDLER_BLACKLISTED;
+	public static String EVENT_HANDLER_QUEUE_FULL;
 
 	static {
 		// initialize resource bundles
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.event;
+
+import java.util.List;
+
+/**
+ * Service giving the delivery statistics of the event handlers. It is
+ * registered by the Event Admin component together with the EventAdmin
+ * service.
+ */
+public interface EventAdminStatistics {
+	/**
+	 * Return the delivery statistics of the event handlers.
+	 * 
+	 * @return a snapshot of the statistics of each handler
+	 */
+	List<EventHandlerStatistics> getHandlerStatistics();
+}
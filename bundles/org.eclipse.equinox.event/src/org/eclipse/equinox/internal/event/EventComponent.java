@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,14 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.event;
 
+import java.util.Collection;
+import java.util.List;
 import org.eclipse.equinox.internal.event.mapper.EventRedeliverer;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 
-public class EventComponent implements EventAdmin {
+public class EventComponent implements EventAdmin, EventAdminStatistics, EventAdminDelivery {
 	private EventRedeliverer eventRedeliverer;
 	private EventAdminImpl eventAdmin;
 
@@ -43,4 +45,34 @@ public class EventComponent implements EventAdmin {
 	public void sendEvent(Event event) {
 		eventAdmin.sendEvent(event);
 	}
+
+	@Override
+	public void postEvents(Collection<Event> events) {
+		eventAdmin.postEvents(events);
+	}
+
+	@Override
+	public int getThreads() {
+		return eventAdmin.getDeliveryPool().getThreads();
+	}
+
+	@Override
+	public int getQueueSize() {
+		return eventAdmin.getDeliveryPool().getQueueSize();
+	}
+
+	@Override
+	public long getDroppedCount() {
+		return eventAdmin.getDeliveryPool().getDroppedCount();
+	}
+
+	@Override
+	public long getDelayedCount() {
+		return eventAdmin.getDeliveryPool().getDelayedCount();
+	}
+
+	@Override
+	public List<EventHandlerStatistics> getHandlerStatistics() {
+		return eventAdmin.getHandlerStatistics();
+	}
 }
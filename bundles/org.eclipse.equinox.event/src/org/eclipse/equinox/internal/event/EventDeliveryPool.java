@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.osgi.framework.BundleContext;
+
+/**
+ * The threads delivering posted events, along with the bound of the handler
+ * queues and what to do when a queue is full.
+ */
+public class EventDeliveryPool {
+	/**
+	 * Framework property for the number of threads delivering posted events.
+	 */
+	static final String PROP_ASYNC_THREADS = "org.eclipse.equinox.event.async.threads"; //$NON-NLS-1$
+	/**
+	 * Framework property for the number of posted events a handler queue may
+	 * hold. 0, the default, leaves the queues unbounded.
+	 */
+	static final String PROP_QUEUE_SIZE = "org.eclipse.equinox.event.async.queue.size"; //$NON-NLS-1$
+	/**
+	 * Framework property for the policy applied when a handler queue is full,
+	 * one of <code>block</code>, <code>dropOldest</code> or <code>fail</code>.
+	 */
+	static final String PROP_QUEUE_POLICY = "org.eclipse.equinox.event.async.queue.policy"; //$NON-NLS-1$
+
+	/**
+	 * What to do with a posted event when the queue of a handler is full.
+	 */
+	public enum QueuePolicy {
+		/**
+		 * The posting thread waits until the queue has room. A thread delivering
+		 * posted events does not wait, as it might wait for itself; the oldest
+		 * event of the queue is dropped instead.
+		 */
+		BLOCK,
+		/**
+		 * The oldest event of the queue is dropped to make room.
+		 */
+		DROP_OLDEST,
+		/**
+		 * The event is dropped and postEvent throws an IllegalStateException,
+		 * once the event has been queued to the other handlers.
+		 */
+		FAIL
+	}
+
+	private final int threads;
+	private final int queueSize;
+	private final QueuePolicy queuePolicy;
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong delayedCount = new AtomicLong();
+	private volatile ExecutorService executor;
+	// set on the threads of the pool
+	private final ThreadLocal<Boolean> deliveryThread = new ThreadLocal<>();
+
+	EventDeliveryPool(BundleContext context) {
+		threads = (int) getLong(context, PROP_ASYNC_THREADS, Math.max(2, Runtime.getRuntime().availableProcessors()));
+		queueSize = (int) getLong(context, PROP_QUEUE_SIZE, 0);
+		queuePolicy = getQueuePolicy(context.getProperty(PROP_QUEUE_POLICY));
+	}
+
+	void start(final ThreadGroup eventGroup) {
+		final AtomicInteger threadCount = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Runnable delivering = () -> {
+				deliveryThread.set(Boolean.TRUE);
+				runnable.run();
+			};
+			Thread thread = new Thread(eventGroup, delivering, EventAdminMsg.EVENT_ASYNC_THREAD_NAME + '-' + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		executor = threadPoolExecutor;
+	}
+
+	void stop() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Run a delivery task.
+	 * 
+	 * @param task The task.
+	 * @throws RejectedExecutionException if event admin has stopped
+	 */
+	void execute(Runnable task) {
+		executor.execute(task);
+	}
+
+	/**
+	 * Return whether the current thread is a thread of this pool.
+	 * 
+	 * @return true if called while delivering a posted event
+	 */
+	boolean isDeliveryThread() {
+		return deliveryThread.get() != null;
+	}
+
+	/**
+	 * Return the number of threads delivering events.
+	 * 
+	 * @return The number of threads.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Return the number of events a handler queue may hold.
+	 * 
+	 * @return The bound of the queues, 0 if the queues are unbounded.
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public QueuePolicy getQueuePolicy() {
+		return queuePolicy;
+	}
+
+	/**
+	 * Return the number of events dropped because a handler queue was full.
+	 * 
+	 * @return The number of dropped events.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Return the number of events the posting thread had to wait for because a
+	 * handler queue was full.
+	 * 
+	 * @return The number of delayed events.
+	 */
+	public long getDelayedCount() {
+		return delayedCount.get();
+	}
+
+	void dropped() {
+		droppedCount.incrementAndGet();
+	}
+
+	void delayed() {
+		delayedCount.incrementAndGet();
+	}
+
+	private static QueuePolicy getQueuePolicy(String value) {
+		if ("dropOldest".equalsIgnoreCase(value)) { //$NON-NLS-1$
+			return QueuePolicy.DROP_OLDEST;
+		}
+		if ("fail".equalsIgnoreCase(value)) { //$NON-NLS-1$
+			return QueuePolicy.FAIL;
+		}
+		return QueuePolicy.BLOCK;
+	}
+
+	static long getLong(BundleContext context, String key, long defaultValue) {
+		String value = context.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.security.Permission;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.equinox.internal.event.EventDeliveryPool.QueuePolicy;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.service.event.Event;
+
+/**
+ * The mailbox of the events posted to a handler. Events are delivered by tasks
+ * of the delivery pool which are only scheduled while the mailbox has events.
+ * For an ordered handler a single task runs at a time, so events are delivered
+ * one at a time in the order they were queued. A task gives the thread back to
+ * the pool after a batch of events so busy handlers can't starve the others.
+ * <p>
+ * When the pool bounds the queues, the queue policy of the pool is applied to
+ * the events posted to a full mailbox.
+ */
+public class EventHandlerQueue implements Runnable {
+	private static final int BATCH_SIZE = 64;
+
+	private final EventHandlerWrapper wrapper;
+	private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong delayedCount = new AtomicLong();
+	private volatile EventDeliveryPool pool;
+	// the free slots of a bounded queue, null if the queue is unbounded
+	private volatile Semaphore permits;
+
+	EventHandlerQueue(EventHandlerWrapper wrapper) {
+		this.wrapper = wrapper;
+	}
+
+	/**
+	 * Queue an event for delivery to the handler.
+	 * 
+	 * @param delivery The event to deliver.
+	 * @param deliveryPool The pool running the deliveries.
+	 * @throws IllegalStateException if the queue is full and the queue policy is to fail
+	 */
+	void add(Delivery delivery, EventDeliveryPool deliveryPool) {
+		init(deliveryPool);
+		boolean queued = offer(delivery);
+		schedule();
+		if (!queued) {
+			throw new IllegalStateException(NLS.bind(EventAdminMsg.EVENT_HANDLER_QUEUE_FULL, wrapper.reference));
+		}
+	}
+
+	/**
+	 * Queue events for delivery to the handler, in order. When the queue policy
+	 * is to fail, the events which do not fit are dropped and the others are
+	 * still queued.
+	 * 
+	 * @param batch The events to deliver.
+	 * @param deliveryPool The pool running the deliveries.
+	 * @throws IllegalStateException if the queue was full and the queue policy is to fail
+	 */
+	void addAll(List<Delivery> batch, EventDeliveryPool deliveryPool) {
+		init(deliveryPool);
+		boolean queued = true;
+		try {
+			for (Delivery delivery : batch) {
+				queued &= offer(delivery);
+			}
+		} finally {
+			schedule();
+		}
+		if (!queued) {
+			throw new IllegalStateException(NLS.bind(EventAdminMsg.EVENT_HANDLER_QUEUE_FULL, wrapper.reference));
+		}
+	}
+
+	/**
+	 * Return the number of events waiting for delivery.
+	 * 
+	 * @return The queue depth.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Return the number of events dropped because the queue was full.
+	 * 
+	 * @return The number of dropped events.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Return the number of events the posting thread had to wait for because the
+	 * queue was full.
+	 * 
+	 * @return The number of delayed events.
+	 */
+	public long getDelayedCount() {
+		return delayedCount.get();
+	}
+
+	@Override
+	public void run() {
+		try {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				Delivery delivery = poll();
+				if (delivery == null) {
+					break;
+				}
+				wrapper.handleEvent(delivery.event, delivery.perm, delivery.postTime);
+			}
+		} finally {
+			running.decrementAndGet();
+			if (!deliveries.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+
+	private void init(EventDeliveryPool deliveryPool) {
+		if (pool != null) {
+			return;
+		}
+		synchronized (this) {
+			if (pool == null) {
+				int queueSize = deliveryPool.getQueueSize();
+				if (queueSize > 0) {
+					permits = new Semaphore(queueSize);
+				}
+				pool = deliveryPool;
+			}
+		}
+	}
+
+	/*
+	 * Queue an event, applying the queue policy if the queue is full. Return
+	 * false if the event was dropped because the queue policy is to fail.
+	 */
+	private boolean offer(Delivery delivery) {
+		Semaphore currentPermits = permits;
+		if ((currentPermits != null) && !currentPermits.tryAcquire()) {
+			QueuePolicy policy = pool.getQueuePolicy();
+			if ((policy == QueuePolicy.BLOCK) && pool.isDeliveryThread()) {
+				// waiting could deadlock: the queue may only be drained by this thread
+				// or by delivery threads which are waiting as well
+				policy = QueuePolicy.DROP_OLDEST;
+			}
+			switch (policy) {
+				case DROP_OLDEST :
+					// take the slot of the oldest event, unless the queue drained meanwhile
+					do {
+						if (poll() != null) {
+							dropped();
+						}
+					} while (!currentPermits.tryAcquire());
+					break;
+				case FAIL :
+					dropped();
+					return false;
+				default :
+					delayedCount.incrementAndGet();
+					pool.delayed();
+					currentPermits.acquireUninterruptibly();
+					break;
+			}
+		}
+		deliveries.add(delivery);
+		size.incrementAndGet();
+		return true;
+	}
+
+	private Delivery poll() {
+		Delivery delivery = deliveries.poll();
+		if (delivery != null) {
+			size.decrementAndGet();
+			Semaphore currentPermits = permits;
+			if (currentPermits != null) {
+				currentPermits.release();
+			}
+		}
+		return delivery;
+	}
+
+	private void dropped() {
+		droppedCount.incrementAndGet();
+		pool.dropped();
+	}
+
+	private void schedule() {
+		int maxRunning = wrapper.isOrdered() ? 1 : pool.getThreads();
+		while (!deliveries.isEmpty()) {
+			int current = running.get();
+			if (current >= maxRunning) {
+				return;
+			}
+			if (!running.compareAndSet(current, current + 1)) {
+				continue;
+			}
+			try {
+				pool.execute(this);
+			} catch (RejectedExecutionException e) {
+				// event admin has stopped
+				running.decrementAndGet();
+				while (poll() != null) {
+					// drop the pending events
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * An event waiting for delivery to the handler.
+	 */
+	static final class Delivery {
+		final Event event;
+		final Permission perm;
+		final long postTime;
+
+		Delivery(Event event, Permission perm, long postTime) {
+			this.event = event;
+			this.perm = perm;
+			this.postTime = postTime;
+		}
+	}
+}
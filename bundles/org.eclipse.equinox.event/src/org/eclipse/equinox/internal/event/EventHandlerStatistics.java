@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+/**
+ * A snapshot of the delivery statistics of an event handler.
+ */
+public class EventHandlerStatistics {
+	/**
+	 * The service id of the handler.
+	 */
+	public long serviceId;
+
+	/**
+	 * Whether the handler asked for ordered asynchronous delivery.
+	 */
+	public boolean ordered;
+
+	/**
+	 * Whether the handler was blacklisted for exceeding the delivery timeout.
+	 */
+	public boolean blacklisted;
+
+	/**
+	 * The number of events waiting for asynchronous delivery to the handler.
+	 */
+	public int queueDepth;
+
+	/**
+	 * The number of events posted to the handler which were dropped because its
+	 * queue was full.
+	 */
+	public long droppedCount;
+
+	/**
+	 * The number of events posted to the handler which waited for room in its
+	 * queue.
+	 */
+	public long delayedCount;
+
+	/**
+	 * The number of events delivered to the handler.
+	 */
+	public long deliveredCount;
+
+	/**
+	 * The average time from posting or sending an event to the handler
+	 * returning, in nanoseconds.
+	 */
+	public long averageLatency;
+
+	/**
+	 * The longest time from posting or sending an event to the handler
+	 * returning, in nanoseconds.
+	 */
+	public long maxLatency;
+
+	@Override
+	public String toString() {
+		return "EventHandlerStatistics[serviceId=" + serviceId + ", ordered=" + ordered + ", blacklisted=" + blacklisted + ", queueDepth=" + queueDepth + ", droppedCount=" + droppedCount + ", delayedCount=" + delayedCount + ", deliveredCount=" + deliveredCount + ", averageLatency=" + averageLatency + ", maxLatency=" + maxLatency + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,34 +16,37 @@ package org.eclipse.equinox.internal.event;
 
 import java.security.Permission;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.osgi.framework.eventmgr.EventDispatcher;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
-import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.osgi.util.tracker.ServiceTracker;
 
-public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandlerWrapper> implements EventDispatcher<EventHandlerWrapper, Permission, Event> {
+public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandlerWrapper> implements EventDispatcher<EventHandlerWrapper, Permission, EventHandlerQueue.Delivery> {
+
+	// bound of the number of topics with cached handlers
+	private static final int MAX_CACHED_TOPICS = 1024;
 
 	private final LogTracker log;
-	//* List<EventHandlerWrapper> of all handlers with topic of "*"
-	private final List<EventHandlerWrapper> globalWildcard;
-	// Map<String,List<EventHandlerWrapper>> key is topic prefix of partial wildcard
-	private final Map<String, List<EventHandlerWrapper>> partialWildcard;
-	// Map<String,List<EventHandlerWrapper>> key is topic name
-	private final Map<String, List<EventHandlerWrapper>> topicName;
+	private final long timeout;
+	// trie of the topic subscriptions of all handlers
+	private final TopicTrie topics;
+	// Map<String,TopicHandlers> key is event topic, cleared when the subscriptions change
+	private final ConcurrentMap<String, TopicHandlers> cache;
 
-	public EventHandlerTracker(BundleContext context, LogTracker log) {
+	public EventHandlerTracker(BundleContext context, LogTracker log, long timeout) {
 		super(context, EventHandler.class.getName(), null);
 		this.log = log;
-		globalWildcard = new ArrayList<>();
-		partialWildcard = new HashMap<>();
-		topicName = new HashMap<>();
+		this.timeout = timeout;
+		topics = new TopicTrie();
+		cache = new ConcurrentHashMap<>();
 	}
 
 	@Override
 	public EventHandlerWrapper addingService(ServiceReference<EventHandler> reference) {
-		EventHandlerWrapper wrapper = new EventHandlerWrapper(reference, context, log);
+		EventHandlerWrapper wrapper = new EventHandlerWrapper(reference, context, log, timeout);
 		synchronized (this) {
 			if (wrapper.init()) {
 				bucket(wrapper);
@@ -81,34 +84,12 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 	 * @GuardedBy this
 	 */
 	private void bucket(EventHandlerWrapper wrapper) {
-		final String[] topics = wrapper.getTopics();
-		final int length = (topics == null) ? 0 : topics.length;
+		final String[] wrapperTopics = wrapper.getTopics();
+		final int length = (wrapperTopics == null) ? 0 : wrapperTopics.length;
 		for (int i = 0; i < length; i++) {
-			String topic = topics[i];
-			// global wildcard
-			if (topic.equals("*")) { //$NON-NLS-1$
-				globalWildcard.add(wrapper);
-			}
-			// partial wildcard
-			else if (topic.endsWith("/*")) { //$NON-NLS-1$
-				String key = topic.substring(0, topic.length() - 2); // Strip off "/*" from the end
-				List<EventHandlerWrapper> wrappers = partialWildcard.get(key);
-				if (wrappers == null) {
-					wrappers = new ArrayList<>();
-					partialWildcard.put(key, wrappers);
-				}
-				wrappers.add(wrapper);
-			}
-			// simple topic name
-			else {
-				List<EventHandlerWrapper> wrappers = topicName.get(topic);
-				if (wrappers == null) {
-					wrappers = new ArrayList<>();
-					topicName.put(topic, wrappers);
-				}
-				wrappers.add(wrapper);
-			}
+			topics.add(wrapperTopics[i], wrapper);
 		}
+		cache.clear();
 	}
 
 	/**
@@ -118,78 +99,60 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 	 * @GuardedBy this
 	 */
 	private void unbucket(EventHandlerWrapper wrapper) {
-		final String[] topics = wrapper.getTopics();
-		final int length = (topics == null) ? 0 : topics.length;
+		final String[] wrapperTopics = wrapper.getTopics();
+		final int length = (wrapperTopics == null) ? 0 : wrapperTopics.length;
 		for (int i = 0; i < length; i++) {
-			String topic = topics[i];
-			// global wilcard
-			if (topic.equals("*")) { //$NON-NLS-1$
-				globalWildcard.remove(wrapper);
-			}
-			// partial wildcard
-			else if (topic.endsWith("/*")) { //$NON-NLS-1$
-				String key = topic.substring(0, topic.length() - 2); // Strip off "/*" from the end
-				List<EventHandlerWrapper> wrappers = partialWildcard.get(key);
-				if (wrappers != null) {
-					wrappers.remove(wrapper);
-					if (wrappers.isEmpty()) {
-						partialWildcard.remove(key);
-					}
-				}
-			}
-			// simple topic name
-			else {
-				List<EventHandlerWrapper> wrappers = topicName.get(topic);
-				if (wrappers != null) {
-					wrappers.remove(wrapper);
-					if (wrappers.isEmpty()) {
-						topicName.remove(topic);
-					}
-				}
-			}
+			topics.remove(wrapperTopics[i], wrapper);
 		}
+		cache.clear();
 	}
 
 	/**
-	 * Return the set of handlers which subscribe to the event topic.
-	 * A set is used to ensure a handler is not called for an event more than once.
+	 * Return the handlers which subscribe to the event topic.
+	 * A handler is only returned once for the topic.
+	 * <p>
+	 * The handlers are computed from the topic trie the first time a topic is
+	 * seen and then cached until the subscriptions change, so looking up a
+	 * known topic neither locks nor allocates.
 	 * 
 	 * @param topic
-	 * @return a set of handlers
+	 * @return the handlers
 	 */
-	public synchronized Set<EventHandlerWrapper> getHandlers(final String topic) {
-		// Use a set to remove duplicates
-		Set<EventHandlerWrapper> handlers = new LinkedHashSet<>();
-
-		// Add the "*" handlers
-		handlers.addAll(globalWildcard);
-
-		// Add the handlers with partial matches
-		if (partialWildcard.size() > 0) {
-			int index = topic.lastIndexOf('/');
-			while (index >= 0) {
-				String subTopic = topic.substring(0, index);
-				List<EventHandlerWrapper> wrappers = partialWildcard.get(subTopic);
-				if (wrappers != null) {
-					handlers.addAll(wrappers);
+	public TopicHandlers getHandlers(final String topic) {
+		TopicHandlers handlers = cache.get(topic);
+		if (handlers != null) {
+			return handlers;
+		}
+		// entries are only added and cleared while holding the lock,
+		// so an entry can't outlive a change of the subscriptions
+		synchronized (this) {
+			handlers = cache.get(topic);
+			if (handlers == null) {
+				if (cache.size() >= MAX_CACHED_TOPICS) {
+					cache.clear();
 				}
-				// Strip the last level from the topic. For example, org/osgi/framework becomes org/osgi.
-				// Wildcard topics are inserted into the map with the "/*" stripped off.
-				index = subTopic.lastIndexOf('/');
+				handlers = new TopicHandlers(topics.match(topic));
+				cache.put(topic, handlers);
 			}
+			return handlers;
 		}
+	}
 
-		// Add the handlers for matching topic names
-		List<EventHandlerWrapper> wrappers = topicName.get(topic);
-		if (wrappers != null) {
-			handlers.addAll(wrappers);
+	/**
+	 * Return the delivery statistics of the tracked handlers.
+	 * 
+	 * @return a snapshot of the statistics of each handler
+	 */
+	public List<EventHandlerStatistics> getStatistics() {
+		List<EventHandlerStatistics> statistics = new ArrayList<>();
+		for (EventHandlerWrapper wrapper : getTracked().values()) {
+			statistics.add(wrapper.getStatistics());
 		}
-
-		return handlers;
+		return statistics;
 	}
 
 	/**
-	 * Dispatches Event to EventHandlers
+	 * Dispatches a sent Event to EventHandlers
 	 * 
 	 * @param eventListener
 	 * @param listenerObject
@@ -199,7 +162,7 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 	 *      java.lang.Object, int, java.lang.Object)
 	 */
 	@Override
-	public void dispatchEvent(EventHandlerWrapper eventListener, Permission listenerObject, int eventAction, Event eventObject) {
-		eventListener.handleEvent(eventObject, listenerObject);
+	public void dispatchEvent(EventHandlerWrapper eventListener, Permission listenerObject, int eventAction, EventHandlerQueue.Delivery eventObject) {
+		eventListener.handleEvent(eventObject.event, listenerObject, eventObject.postTime, false);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,10 @@
 package org.eclipse.equinox.internal.event;
 
 import java.security.*;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.*;
 import org.osgi.service.event.*;
@@ -33,6 +36,13 @@ public class EventHandlerWrapper {
 	private EventHandler handler;
 	private String[] topics;
 	private Filter filter;
+	private volatile boolean ordered = true;
+	private volatile boolean blacklisted;
+	private final long timeout;
+	private final EventHandlerQueue queue = new EventHandlerQueue(this);
+	private final AtomicLong deliveredCount = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
 
 	/**
 	 * Create an EventHandlerWrapper. 
@@ -40,11 +50,14 @@ public class EventHandlerWrapper {
 	 * @param reference Reference to the EventHandler
 	 * @param context Bundle Context of the Event Admin bundle
 	 * @param log LogService object for logging
+	 * @param timeout The time in milliseconds a handler may take to handle an event
+	 *        before it is blacklisted, 0 to never blacklist handlers
 	 */
-	public EventHandlerWrapper(ServiceReference<EventHandler> reference, BundleContext context, LogTracker log) {
+	public EventHandlerWrapper(ServiceReference<EventHandler> reference, BundleContext context, LogTracker log, long timeout) {
 		this.reference = reference;
 		this.context = context;
 		this.log = log;
+		this.timeout = timeout;
 	}
 
 	/**
@@ -76,6 +89,18 @@ public class EventHandlerWrapper {
 			return false;
 		}
 
+		// get delivery, asynchronous deliveries are ordered unless only unordered is asked for
+		o = reference.getProperty(EventConstants.EVENT_DELIVERY);
+		Collection<?> delivery = null;
+		if (o instanceof String) {
+			delivery = Arrays.asList(o);
+		} else if (o instanceof String[]) {
+			delivery = Arrays.asList((String[]) o);
+		} else if (o instanceof Collection) {
+			delivery = (Collection<?>) o;
+		}
+		ordered = (delivery == null) || !delivery.contains(EventConstants.DELIVERY_ASYNC_UNORDERED) || delivery.contains(EventConstants.DELIVERY_ASYNC_ORDERED);
+
 		// get filter
 		o = reference.getProperty(EventConstants.EVENT_FILTER);
 		if (o instanceof String) {
@@ -116,6 +141,44 @@ public class EventHandlerWrapper {
 		return topics;
 	}
 
+	/**
+	 * Return whether events posted to the handler must be delivered in order.
+	 * 
+	 * @return true if the handler asked for ordered asynchronous delivery
+	 */
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * Return the mailbox of the asynchronous deliveries to the handler.
+	 * 
+	 * @return The handler's queue
+	 */
+	public EventHandlerQueue getQueue() {
+		return queue;
+	}
+
+	/**
+	 * Return a snapshot of the delivery statistics of the handler.
+	 * 
+	 * @return The handler's statistics
+	 */
+	public EventHandlerStatistics getStatistics() {
+		EventHandlerStatistics statistics = new EventHandlerStatistics();
+		statistics.serviceId = ((Long) reference.getProperty(Constants.SERVICE_ID)).longValue();
+		statistics.ordered = ordered;
+		statistics.blacklisted = blacklisted;
+		statistics.queueDepth = queue.size();
+		statistics.droppedCount = queue.getDroppedCount();
+		statistics.delayedCount = queue.getDelayedCount();
+		long count = deliveredCount.get();
+		statistics.deliveredCount = count;
+		statistics.averageLatency = (count == 0) ? 0 : totalLatency.get() / count;
+		statistics.maxLatency = maxLatency.get();
+		return statistics;
+	}
+
 	/**
 	 * Return the wrapped handler. 
 	 * @return The wrapped handler.
@@ -167,26 +230,42 @@ public class EventHandlerWrapper {
 	 * 
 	 * @return The handler's filter
 	 */
-	private synchronized Filter getFilter() {
+	synchronized Filter getFilter() {
 		return filter;
 	}
 
+	/**
+	 * Dispatch a posted event to handler. Perform final tests before actually calling the handler.
+	 * The handler filter must have been matched by the caller.
+	 * 
+	 * @param event The event to dispatch
+	 * @param perm The permission to be checked
+	 * @param postTime The time the event was posted, in nanoseconds
+	 */
+	public void handleEvent(Event event, Permission perm, long postTime) {
+		handleEvent(event, perm, postTime, true);
+	}
+
 	/**
 	 * Dispatch event to handler. Perform final tests before actually calling the handler.
+	 * The handler filter must have been matched by the caller, see
+	 * {@link TopicHandlers#getMatchingWrappers(Event)}.
 	 * 
 	 * @param event The event to dispatch
 	 * @param perm The permission to be checked
+	 * @param postTime The time the event was posted or sent, in nanoseconds
+	 * @param async true if the event was posted; only then the handler is blacklisted
+	 *        when it exceeds the timeout, as the sender of an event waits for the handlers anyway
 	 */
-	public void handleEvent(Event event, Permission perm) {
-		Bundle bundle = reference.getBundle();
-		// is service unregistered?
-		if (bundle == null) {
+	public void handleEvent(Event event, Permission perm, long postTime, boolean async) {
+		// did the handler exceed the timeout?
+		if (blacklisted) {
 			return;
 		}
 
-		// filter match
-		Filter eventFilter = getFilter();
-		if ((eventFilter != null) && !event.matches(eventFilter)) {
+		Bundle bundle = reference.getBundle();
+		// is service unregistered?
+		if (bundle == null) {
 			return;
 		}
 
@@ -201,6 +280,7 @@ public class EventHandlerWrapper {
 			return;
 		}
 
+		long start = System.nanoTime();
 		try {
 			handlerService.handleEvent(event);
 		} catch (Throwable t) {
@@ -213,6 +293,24 @@ public class EventHandlerWrapper {
 			}
 			// log/handle any Throwable thrown by the listener
 			log.log(LogService.LOG_ERROR, NLS.bind(EventAdminMsg.EVENT_DISPATCH_HANDLER_EXCEPTION, event, handlerService), t);
+		} finally {
+			long end = System.nanoTime();
+			recordDelivery(end - postTime);
+			if (async && (timeout > 0) && ((end - start) > TimeUnit.MILLISECONDS.toNanos(timeout))) {
+				blacklisted = true;
+				log.log(LogService.LOG_WARNING, NLS.bind(EventAdminMsg.EVENT_HANDLER_BLACKLISTED, handlerService, Long.valueOf(timeout)));
+			}
+		}
+	}
+
+	private void recordDelivery(long latency) {
+		deliveredCount.incrementAndGet();
+		totalLatency.addAndGet(latency);
+		long max;
+		while (latency > (max = maxLatency.get())) {
+			if (maxLatency.compareAndSet(max, latency)) {
+				break;
+			}
 		}
 	}
 
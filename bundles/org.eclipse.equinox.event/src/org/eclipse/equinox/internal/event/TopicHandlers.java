@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.security.Permission;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.osgi.framework.eventmgr.CopyOnWriteIdentityMap;
+import org.osgi.framework.Filter;
+import org.osgi.service.event.Event;
+
+/**
+ * The handlers which subscribe to a topic, along with the listeners handed to
+ * the event manager to deliver an event of the topic.
+ * <p>
+ * The handler filters are evaluated once per event before delivery. Handlers
+ * with the same filter share one evaluation, and handlers whose filter is a
+ * simple equality test of a property, such as <code>(type=created)</code>, are
+ * indexed by the property value so they only cost a property lookup when the
+ * event property is a string.
+ */
+public final class TopicHandlers {
+	// (key=value) without wildcards, escapes or whitespace in the key
+	private static final Pattern EQUALITY_FILTER = Pattern.compile("\\(([^=~<>()*\\\\\\s]+)=([^()*\\\\]+)\\)"); //$NON-NLS-1$
+
+	private final EventHandlerWrapper[] wrappers;
+	// the wrappers without filter, null if no wrapper has a filter
+	private final boolean[] unfiltered;
+	private final List<FilterGroup> filterGroups = new ArrayList<>();
+	// Map<String,Map<String,FilterGroup>> key is property key, then property value
+	private final Map<String, Map<String, FilterGroup>> equalityIndex = new HashMap<>();
+	private volatile Listeners listeners;
+
+	TopicHandlers(EventHandlerWrapper[] wrappers) {
+		this.wrappers = wrappers;
+		boolean[] noFilter = new boolean[wrappers.length];
+		boolean filtered = false;
+		Map<String, FilterGroup> groups = new HashMap<>();
+		for (int i = 0; i < wrappers.length; i++) {
+			Filter filter = wrappers[i].getFilter();
+			if (filter == null) {
+				noFilter[i] = true;
+				continue;
+			}
+			filtered = true;
+			String filterString = filter.toString();
+			FilterGroup group = groups.get(filterString);
+			if (group == null) {
+				group = new FilterGroup(filter);
+				groups.put(filterString, group);
+				Matcher matcher = EQUALITY_FILTER.matcher(filterString);
+				if (matcher.matches()) {
+					equalityIndex.computeIfAbsent(matcher.group(1), k -> new HashMap<>()).put(matcher.group(2), group);
+				} else {
+					filterGroups.add(group);
+				}
+			}
+			group.add(i);
+		}
+		this.unfiltered = filtered ? noFilter : null;
+	}
+
+	public boolean isEmpty() {
+		return wrappers.length == 0;
+	}
+
+	/**
+	 * Return the handlers whose filter matches the event.
+	 * 
+	 * @param event The event to deliver.
+	 * @return The matching handlers, in subscription order.
+	 */
+	EventHandlerWrapper[] getMatchingWrappers(Event event) {
+		if (unfiltered == null) {
+			return wrappers;
+		}
+		boolean[] matched = unfiltered.clone();
+		for (FilterGroup group : filterGroups) {
+			if (event.matches(group.filter)) {
+				group.mark(matched);
+			}
+		}
+		for (Map.Entry<String, Map<String, FilterGroup>> entry : equalityIndex.entrySet()) {
+			Object value = event.getProperty(entry.getKey());
+			if (value == null) {
+				continue;
+			}
+			if (value instanceof String) {
+				FilterGroup group = entry.getValue().get(value);
+				if (group != null) {
+					group.mark(matched);
+				}
+				continue;
+			}
+			// arrays, collections and other types need the filter semantics
+			for (FilterGroup group : entry.getValue().values()) {
+				if (event.matches(group.filter)) {
+					group.mark(matched);
+				}
+			}
+		}
+		int count = 0;
+		for (boolean m : matched) {
+			if (m) {
+				count++;
+			}
+		}
+		if (count == wrappers.length) {
+			return wrappers;
+		}
+		EventHandlerWrapper[] result = new EventHandlerWrapper[count];
+		for (int i = 0, j = 0; j < count; i++) {
+			if (matched[i]) {
+				result[j++] = wrappers[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the listeners to queue for an event. The listeners of all the
+	 * handlers are shared by the deliveries using the same permission.
+	 * 
+	 * @param matching The handlers matching the event.
+	 * @param perm The permission to check before delivery, may be null.
+	 * @return The listeners mapped to the permission.
+	 */
+	public Set<Map.Entry<EventHandlerWrapper, Permission>> getListeners(EventHandlerWrapper[] matching, Permission perm) {
+		if (matching != wrappers) {
+			return createListeners(matching, perm);
+		}
+		Listeners current = listeners;
+		if ((current != null) && Objects.equals(current.perm, perm)) {
+			return current.entries;
+		}
+		current = new Listeners(perm, createListeners(wrappers, perm));
+		listeners = current;
+		return current.entries;
+	}
+
+	private static Set<Map.Entry<EventHandlerWrapper, Permission>> createListeners(EventHandlerWrapper[] handlers, Permission perm) {
+		Map<EventHandlerWrapper, Permission> map = new CopyOnWriteIdentityMap<>();
+		for (EventHandlerWrapper wrapper : handlers) {
+			map.put(wrapper, perm);
+		}
+		return map.entrySet();
+	}
+
+	private static final class FilterGroup {
+		final Filter filter;
+		private int[] indexes = new int[0];
+
+		FilterGroup(Filter filter) {
+			this.filter = filter;
+		}
+
+		void add(int index) {
+			indexes = Arrays.copyOf(indexes, indexes.length + 1);
+			indexes[indexes.length - 1] = index;
+		}
+
+		void mark(boolean[] matched) {
+			for (int index : indexes) {
+				matched[index] = true;
+			}
+		}
+	}
+
+	private static final class Listeners {
+		final Permission perm;
+		final Set<Map.Entry<EventHandlerWrapper, Permission>> entries;
+
+		Listeners(Permission perm, Set<Map.Entry<EventHandlerWrapper, Permission>> entries) {
+			this.perm = perm;
+			this.entries = entries;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.util.*;
+
+/**
+ * A trie of the handler topic subscriptions, with one node per topic level.
+ * A node holds the handlers subscribed to the topic ending at that node and the
+ * handlers subscribed to the wildcard topic ending at that node (the topic
+ * followed by "/*"). The handlers of the "*" topic are held by the root node.
+ * <p>
+ * This class is not thread safe.
+ */
+class TopicTrie {
+	private static final String WILDCARD = "*"; //$NON-NLS-1$
+	private static final String LEVEL_WILDCARD = "/*"; //$NON-NLS-1$
+
+	private final Node root = new Node();
+
+	/**
+	 * Add a handler subscription.
+	 * 
+	 * @param topic The subscribed topic, possibly a wildcard topic.
+	 * @param wrapper The subscribed handler.
+	 */
+	void add(String topic, EventHandlerWrapper wrapper) {
+		if (topic.equals(WILDCARD)) {
+			root.wildcard = add(root.wildcard, wrapper);
+		} else if (topic.endsWith(LEVEL_WILDCARD)) {
+			Node node = getNode(topic.substring(0, topic.length() - 2));
+			node.wildcard = add(node.wildcard, wrapper);
+		} else {
+			Node node = getNode(topic);
+			node.exact = add(node.exact, wrapper);
+		}
+	}
+
+	/**
+	 * Remove a handler subscription.
+	 * 
+	 * @param topic The subscribed topic, possibly a wildcard topic.
+	 * @param wrapper The subscribed handler.
+	 */
+	void remove(String topic, EventHandlerWrapper wrapper) {
+		if (topic.equals(WILDCARD)) {
+			root.wildcard = remove(root.wildcard, wrapper);
+			return;
+		}
+		boolean wildcard = topic.endsWith(LEVEL_WILDCARD);
+		String key = wildcard ? topic.substring(0, topic.length() - 2) : topic;
+		// keep the path to prune the nodes left empty
+		List<Node> path = new ArrayList<>();
+		List<String> levels = new ArrayList<>();
+		Node node = root;
+		int start = 0;
+		while (node != null) {
+			int end = key.indexOf('/', start);
+			String level = (end < 0) ? key.substring(start) : key.substring(start, end);
+			path.add(node);
+			levels.add(level);
+			node = (node.children == null) ? null : node.children.get(level);
+			if (end < 0) {
+				break;
+			}
+			start = end + 1;
+		}
+		if (node == null) {
+			return;
+		}
+		if (wildcard) {
+			node.wildcard = remove(node.wildcard, wrapper);
+		} else {
+			node.exact = remove(node.exact, wrapper);
+		}
+		for (int i = path.size() - 1; (i >= 0) && node.isEmpty(); i--) {
+			Node parent = path.get(i);
+			parent.children.remove(levels.get(i));
+			if (parent.children.isEmpty()) {
+				parent.children = null;
+			}
+			node = parent;
+		}
+	}
+
+	/**
+	 * Return the handlers subscribed to the event topic, each handler once.
+	 * The handlers of "*" come first, then the handlers of the wildcard topics
+	 * from the most specific to the least specific, then the handlers of the
+	 * topic itself.
+	 * 
+	 * @param topic The event topic.
+	 * @return The subscribed handlers.
+	 */
+	EventHandlerWrapper[] match(String topic) {
+		Set<EventHandlerWrapper> handlers = new LinkedHashSet<>();
+		addAll(handlers, root.wildcard);
+		List<List<EventHandlerWrapper>> wildcards = null;
+		Node node = root;
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf('/', start);
+			String level = (end < 0) ? topic.substring(start) : topic.substring(start, end);
+			node = (node.children == null) ? null : node.children.get(level);
+			if (node == null) {
+				break;
+			}
+			if (end < 0) {
+				addWildcards(handlers, wildcards);
+				addAll(handlers, node.exact);
+				return handlers.toArray(new EventHandlerWrapper[handlers.size()]);
+			}
+			// a wildcard topic matches the topics with more levels
+			if (node.wildcard != null) {
+				if (wildcards == null) {
+					wildcards = new ArrayList<>();
+				}
+				wildcards.add(node.wildcard);
+			}
+			start = end + 1;
+		}
+		addWildcards(handlers, wildcards);
+		return handlers.toArray(new EventHandlerWrapper[handlers.size()]);
+	}
+
+	private Node getNode(String key) {
+		Node node = root;
+		int start = 0;
+		while (true) {
+			int end = key.indexOf('/', start);
+			String level = (end < 0) ? key.substring(start) : key.substring(start, end);
+			if (node.children == null) {
+				node.children = new HashMap<>(4);
+			}
+			Node child = node.children.get(level);
+			if (child == null) {
+				child = new Node();
+				node.children.put(level, child);
+			}
+			node = child;
+			if (end < 0) {
+				return node;
+			}
+			start = end + 1;
+		}
+	}
+
+	private static List<EventHandlerWrapper> add(List<EventHandlerWrapper> wrappers, EventHandlerWrapper wrapper) {
+		if (wrappers == null) {
+			wrappers = new ArrayList<>(2);
+		}
+		wrappers.add(wrapper);
+		return wrappers;
+	}
+
+	private static List<EventHandlerWrapper> remove(List<EventHandlerWrapper> wrappers, EventHandlerWrapper wrapper) {
+		if (wrappers == null) {
+			return null;
+		}
+		wrappers.remove(wrapper);
+		return wrappers.isEmpty() ? null : wrappers;
+	}
+
+	private static void addAll(Set<EventHandlerWrapper> handlers, List<EventHandlerWrapper> wrappers) {
+		if (wrappers != null) {
+			handlers.addAll(wrappers);
+		}
+	}
+
+	private static void addWildcards(Set<EventHandlerWrapper> handlers, List<List<EventHandlerWrapper>> wildcards) {
+		if (wildcards == null) {
+			return;
+		}
+		for (int i = wildcards.size() - 1; i >= 0; i--) {
+			handlers.addAll(wildcards.get(i));
+		}
+	}
+
+	private static class Node {
+		Map<String, Node> children;
+		List<EventHandlerWrapper> exact;
+		List<EventHandlerWrapper> wildcard;
+
+		boolean isEmpty() {
+			return (children == null) && (exact == null) && (wildcard == null);
+		}
+	}
+}
@@ -23,6 +23,7 @@ import org.eclipse.equinox.http.servlet.tests.Bug569406_Test;
 import org.eclipse.equinox.http.servlet.tests.ContextHelperCustomizerTests;
 import org.eclipse.equinox.http.servlet.tests.DispatchingTest;
 import org.eclipse.equinox.http.servlet.tests.PreprocessorTestCase;
+import org.eclipse.equinox.http.servlet.tests.RoutingTableTest;
 import org.eclipse.equinox.http.servlet.tests.ServletTest;
 import org.eclipse.equinox.http.servlet.tests.TestHttpServiceAndErrorPage;
 import org.eclipse.equinox.http.servlet.tests.TestHttpServiceAndNamedServlet;
@@ -67,6 +68,7 @@ import org.junit.runners.Suite.SuiteClasses;
 	AuthenticationTest.class,
 	DispatchingTest.class,
 	PreprocessorTestCase.class,
+	RoutingTableTest.class,
 	ServletTest.class,
 	Test_140_11_3.class,
 	Test_140_2_17to22.class,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2016 Raymond Augé.
+ * Copyright (c) 2014, 2026 Raymond Augé.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -1650,4 +1650,142 @@ public class DispatchingTest extends BaseTest {
 
 		Assert.assertEquals("/Bug%20497510/a%20b%20c", result);
 	}
+
+	@Test
+	public void test_dispatchTargetsCacheInvalidation() throws Exception {
+		class CacheServlet extends HttpServlet {
+			private static final long serialVersionUID = 1L;
+
+			CacheServlet(String name) {
+				this.name = name;
+			}
+
+			@Override
+			protected void doGet(
+				final HttpServletRequest req, final HttpServletResponse resp)
+				throws IOException {
+
+				PrintWriter writer = resp.getWriter();
+				writer.write(name);
+				writer.write("|");
+				writer.write(req.getServletPath());
+				writer.write("|");
+				writer.write(req.getPathInfo());
+				writer.write("|");
+				writer.write(String.valueOf(req.getQueryString()));
+			}
+
+			private final String name;
+		}
+
+		Dictionary<String, Object> props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "C1");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/cache/*");
+		registrations.add(getBundleContext().registerService(Servlet.class, new CacheServlet("C1"), props));
+
+		Assert.assertEquals("C1|/cache|/a|x=1", requestAdvisor.request("cache/a?x=1"));
+		// the query string is not part of the cached decision
+		Assert.assertEquals("C1|/cache|/a|x=2", requestAdvisor.request("cache/a?x=2"));
+
+		props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "C2");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/cache/*");
+		props.put(Constants.SERVICE_RANKING, 10);
+		registrations.add(getBundleContext().registerService(Servlet.class, new CacheServlet("C2"), props));
+
+		Assert.assertEquals("C2|/cache|/a|null", requestAdvisor.request("cache/a"));
+
+		Filter filter = new Filter() {
+
+			@Override
+			public void init(javax.servlet.FilterConfig filterConfig) {
+				// nothing
+			}
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+				throws IOException, ServletException {
+
+				response.getWriter().write("F|");
+
+				chain.doFilter(request, response);
+			}
+
+			@Override
+			public void destroy() {
+				// nothing
+			}
+
+		};
+
+		props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_NAME, "CF");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_PATTERN, "/cache/*");
+		registrations.add(getBundleContext().registerService(Filter.class, filter, props));
+
+		Assert.assertEquals("F|C2|/cache|/a|null", requestAdvisor.request("cache/a"));
+	}
+
+	@Test
+	public void test_filterChainSkipsFiltersOfOtherDispatcherTypes() throws Exception {
+		Servlet servlet = new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void doGet(
+				final HttpServletRequest req, final HttpServletResponse resp)
+				throws IOException {
+
+				resp.getWriter().write("S");
+			}
+		};
+
+		class WritingFilter implements Filter {
+
+			WritingFilter(String name) {
+				this.name = name;
+			}
+
+			@Override
+			public void init(javax.servlet.FilterConfig filterConfig) {
+				// nothing
+			}
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+				throws IOException, ServletException {
+
+				response.getWriter().write(name + "|");
+
+				chain.doFilter(request, response);
+			}
+
+			@Override
+			public void destroy() {
+				// nothing
+			}
+
+			private final String name;
+
+		}
+
+		Dictionary<String, Object> props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "chain");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/chain/*");
+		registrations.add(getBundleContext().registerService(Servlet.class, servlet, props));
+
+		props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_NAME, "F1");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_PATTERN, "/chain/*");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_DISPATCHER, DispatcherType.FORWARD.toString());
+		props.put(Constants.SERVICE_RANKING, 10);
+		registrations.add(getBundleContext().registerService(Filter.class, new WritingFilter("F1"), props));
+
+		props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_NAME, "F2");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_PATTERN, "/chain/*");
+		registrations.add(getBundleContext().registerService(Filter.class, new WritingFilter("F2"), props));
+
+		Assert.assertEquals("F2|S", requestAdvisor.request("chain/a"));
+	}
 }
\ No newline at end of file
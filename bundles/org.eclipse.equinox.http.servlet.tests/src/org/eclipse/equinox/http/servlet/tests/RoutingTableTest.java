@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Raymond Augé and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import javax.servlet.Servlet;
+
+import org.eclipse.equinox.http.servlet.testbase.BaseTest;
+import org.eclipse.equinox.http.servlet.tests.util.BaseServlet;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+import org.osgi.service.http.context.ServletContextHelper;
+import org.osgi.service.http.whiteboard.HttpWhiteboardConstants;
+
+/**
+ * Tests the endpoint chosen for a request by the routing table of a context.
+ */
+public class RoutingTableTest extends BaseTest {
+
+	@Test
+	public void testExactMatch() throws Exception {
+		registerServlet("exact", null, "/a/b");
+
+		assertEquals("exact", requestAdvisor.request("a/b"));
+		assertEquals("404", responseCode("a/b/c"));
+		assertEquals("404", responseCode("a"));
+	}
+
+	@Test
+	public void testPrefixMatch() throws Exception {
+		registerServlet("a", null, "/a/*");
+		registerServlet("ab", null, "/a/b/*");
+
+		// the longest prefix wins
+		assertEquals("ab", requestAdvisor.request("a/b/c/d"));
+		assertEquals("ab", requestAdvisor.request("a/b"));
+		assertEquals("a", requestAdvisor.request("a/c"));
+		assertEquals("a", requestAdvisor.request("a"));
+		// prefixes end at a segment boundary
+		assertEquals("404", responseCode("ab"));
+	}
+
+	@Test
+	public void testExtensionMatch() throws Exception {
+		registerServlet("jsp", null, "*.jsp");
+		registerServlet("txt", null, "*.txt");
+
+		assertEquals("jsp", requestAdvisor.request("a.jsp"));
+		assertEquals("jsp", requestAdvisor.request("a/b/c.jsp"));
+		assertEquals("txt", requestAdvisor.request("a/b.txt"));
+		assertEquals("404", responseCode("a/b.html"));
+	}
+
+	@Test
+	public void testDefaultServlet() throws Exception {
+		registerServlet("default", null, "/");
+
+		assertEquals("default", requestAdvisor.request("a"));
+		assertEquals("default", requestAdvisor.request("a/b/c.jsp"));
+	}
+
+	@Test
+	public void testPrecedence() throws Exception {
+		registerServlet("default", null, "/");
+		registerServlet("extension", null, "*.jsp");
+		registerServlet("prefix", null, "/a/*");
+		registerServlet("exact", null, "/a/b.jsp");
+
+		// exact, then the extension, then the longest prefix, then the default servlet
+		assertEquals("exact", requestAdvisor.request("a/b.jsp"));
+		assertEquals("extension", requestAdvisor.request("a/c.jsp"));
+		assertEquals("prefix", requestAdvisor.request("a/c.txt"));
+		assertEquals("prefix", requestAdvisor.request("a"));
+		assertEquals("default", requestAdvisor.request("b/c.txt"));
+	}
+
+	@Test
+	public void testRanking() throws Exception {
+		registerServlet("low", null, "/a", "/b/*");
+		registerServlet("high", 10, "/a", "/b/*");
+		registerServlet("lower", -10, "/a", "/b/*");
+
+		// the same pattern goes to the highest ranked servlet
+		assertEquals("high", requestAdvisor.request("a"));
+		assertEquals("high", requestAdvisor.request("b/c"));
+	}
+
+	@Test
+	public void testContextPath() throws Exception {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME, "routing");
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_PATH, "/routing");
+		registrations.add(getBundleContext().registerService(ServletContextHelper.class, new ServletContextHelper() {}, properties));
+
+		properties = new Hashtable<>();
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/a");
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, "(" + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=routing)");
+		registrations.add(getBundleContext().registerService(Servlet.class, new BaseServlet("context"), properties));
+
+		registerServlet("default context", null, "/routingx/*");
+
+		assertEquals("context", requestAdvisor.request("routing/a"));
+		// context paths end at a segment boundary
+		assertEquals("default context", requestAdvisor.request("routingx/a"));
+		assertEquals("404", responseCode("routing/b"));
+	}
+
+	private void registerServlet(String content, Integer ranking, String... patterns) {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, patterns);
+		if (ranking != null) {
+			properties.put(Constants.SERVICE_RANKING, ranking);
+		}
+		registrations.add(getBundleContext().registerService(Servlet.class, new BaseServlet(content), properties));
+	}
+
+	private String responseCode(String path) throws IOException {
+		return requestAdvisor.request(path, null).get("responseCode").get(0);
+	}
+
+}
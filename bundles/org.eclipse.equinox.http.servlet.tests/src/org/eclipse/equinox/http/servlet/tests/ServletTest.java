@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2019 IBM Corporation and others.
+ * Copyright (c) 2011, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -1727,6 +1727,78 @@ public class ServletTest extends BaseTest {
 		}
 	}
 
+	@Test
+	public void test_Sessions04_HttpSessionInvalidatorMultipleContexts() throws Exception {
+		ServiceTracker<HttpSessionInvalidator, HttpSessionInvalidator> sessionInvalidatorTracker =
+			new ServiceTracker<>(getBundleContext(), HttpSessionInvalidator.class, null);
+		sessionInvalidatorTracker.open();
+		HttpSessionInvalidator invalidator = sessionInvalidatorTracker.waitForService(100);
+
+		final AtomicInteger sessionsDestroyed = new AtomicInteger();
+		final AtomicReference<String> sessionId = new AtomicReference<>();
+		HttpSessionListener sessionListener = new HttpSessionListener() {
+
+			@Override
+			public void sessionDestroyed(HttpSessionEvent se) {
+				sessionsDestroyed.incrementAndGet();
+			}
+
+			@Override
+			public void sessionCreated(HttpSessionEvent se) {
+			}
+		};
+		HttpServlet sessionServlet = new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				sessionId.set(request.getSession().getId());
+				response.getWriter().print(request.getContextPath());
+			}
+
+		};
+		CookieHandler previous = CookieHandler.getDefault();
+		CookieHandler.setDefault(new CookieManager( null, CookiePolicy.ACCEPT_ALL ) );
+		try {
+			for (String contextName : new String[] {"a", "b"}) {
+				Dictionary<String, Object> contextProps = new Hashtable<>();
+				contextProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME, contextName);
+				contextProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_PATH, "/" + contextName);
+				registrations.add(getBundleContext().registerService(ServletContextHelper.class, new ServletContextHelper() {}, contextProps));
+
+				String contextSelect = "(" + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=" + contextName + ")";
+
+				Dictionary<String, Object> servletProps = new Hashtable<>();
+				servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, contextSelect);
+				servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/sessions");
+				registrations.add(getBundleContext().registerService(Servlet.class, sessionServlet, servletProps));
+
+				Dictionary<String, String> listenerProps = new Hashtable<>();
+				listenerProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, contextSelect);
+				listenerProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_LISTENER, "true");
+				registrations.add(getBundleContext().registerService(HttpSessionListener.class, sessionListener, listenerProps));
+			}
+
+			// the same container session is used in both contexts
+			requestAdvisor.request("a/sessions");
+			String firstSessionId = sessionId.get();
+			requestAdvisor.request("b/sessions");
+			assertEquals(firstSessionId, sessionId.get());
+
+			invalidator.invalidate(firstSessionId, true);
+
+			assertEquals("sessionDestroyed not called in each context", 2, sessionsDestroyed.get());
+
+			// the session is gone from both contexts
+			invalidator.invalidate(firstSessionId, true);
+
+			assertEquals(2, sessionsDestroyed.get());
+		} finally {
+			CookieHandler.setDefault(previous);
+			sessionInvalidatorTracker.close();
+		}
+	}
+
 	@Test
 	public void test_Sessions04_inlineSessionId() {
 		final AtomicBoolean valueBound = new AtomicBoolean(false);
@@ -2080,6 +2152,87 @@ public class ServletTest extends BaseTest {
 		assertEquals("Response Body Suffix", "789", actual.get("responseBody").get(0).substring(8997, 9000));
 	}
 
+	@Test
+	public void test_ResourceETagRevalidation() throws Exception {
+		Dictionary<String, Object> properties = new Hashtable<>();
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_RESOURCE_PATTERN, "/etag/*");
+		properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_RESOURCE_PREFIX, "/org/eclipse/equinox/http/servlet/tests");
+		registrations.add(getBundleContext().registerService(Object.class, new Object(), properties));
+
+		Map<String, List<String>> actual = requestAdvisor.request("etag/index.txt", null);
+
+		assertEquals("Response Code", Collections.singletonList("200"), actual.get("responseCode"));
+		assertEquals("Response Body", "a", actual.get("responseBody").get(0));
+
+		List<String> etag = actual.get("ETag");
+
+		assertNotNull("ETag", etag);
+
+		// served from the resource cache
+		actual = requestAdvisor.request("etag/index.txt", null);
+
+		assertEquals("Response Body", "a", actual.get("responseBody").get(0));
+		assertEquals("ETag", etag, actual.get("ETag"));
+
+		Map<String, List<String>> requestHeader = new HashMap<>();
+		requestHeader.put("If-None-Match", etag);
+
+		actual = requestAdvisor.request("etag/index.txt", requestHeader);
+
+		assertEquals("Response Code", Collections.singletonList("304"), actual.get("responseCode"));
+	}
+
+	@Test
+	public void test_ResourceLargerThanCacheEntry() throws Exception {
+		// larger than the default maximum entry size of the resource cache, so the
+		// file is sent through its channel instead
+		int length = 300 * 1024;
+		StringBuilder content = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			content.append((char) ('0' + (i % 10)));
+		}
+		final File file = Files.createTempFile("large", ".txt").toFile();
+		try {
+			Files.write(file.toPath(), content.toString().getBytes("US-ASCII"));
+
+			ServletContextHelper fileSCH = new ServletContextHelper() {
+				@Override
+				public URL getResource(String name) {
+					if (name.endsWith("/large.txt")) {
+						try {
+							return file.toURI().toURL();
+						} catch (IOException e) {
+							return null;
+						}
+					}
+					return null;
+				}
+			};
+			Dictionary<String, Object> contextProps = new Hashtable<>();
+			contextProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME, "files");
+			contextProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_PATH, "/files");
+			registrations.add(getBundleContext().registerService(ServletContextHelper.class, fileSCH, contextProps));
+
+			Dictionary<String, Object> properties = new Hashtable<>();
+			properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, "(" + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=files)");
+			properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_RESOURCE_PATTERN, "/large/*");
+			properties.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_RESOURCE_PREFIX, "/large");
+			registrations.add(getBundleContext().registerService(Object.class, new Object(), properties));
+
+			// the second request has to take the same path, the file is not cached
+			for (int i = 0; i < 2; i++) {
+				Map<String, List<String>> actual = requestAdvisor.request("files/large/large.txt", null);
+
+				assertEquals("Response Code", Collections.singletonList("200"), actual.get("responseCode"));
+				assertEquals("Content-Length", Collections.singletonList(String.valueOf(length)), actual.get("Content-Length"));
+				assertEquals("Response Body", content.toString(), actual.get("responseBody").get(0));
+				assertNotNull("ETag", actual.get("ETag"));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
 	@Test
 	public void test_Runtime() throws Exception {
 		Bundle bundle = installBundle(TEST_BUNDLE_1);
@@ -4126,6 +4279,80 @@ public class ServletTest extends BaseTest {
 		}
 	}
 
+	@Test
+	public void test_AsyncDispatchRelativeToContext() throws Exception {
+		Dictionary<String, Object> contextProps = new Hashtable<>();
+		contextProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME, "a");
+		contextProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_PATH, "/a");
+		registrations.add(getBundleContext().registerService(ServletContextHelper.class, new ServletContextHelper() {}, contextProps));
+
+		@SuppressWarnings("serial")
+		Servlet asyncServlet = new HttpServlet() {
+
+			@Override
+			protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+				if (!req.isAsyncSupported()) {
+					resp.setStatus(HttpServletResponse.SC_NOT_ACCEPTABLE);
+
+					return;
+				}
+
+				req.startAsync().dispatch("/target");
+			}
+
+		};
+
+		@SuppressWarnings("serial")
+		Servlet targetServlet = new HttpServlet() {
+
+			@Override
+			protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				resp.getWriter().write(req.getDispatcherType() + ":" + req.getContextPath() + req.getServletPath());
+			}
+
+		};
+
+		Dictionary<String, Object> servletProps = new Hashtable<>();
+		servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, "(" + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=a)");
+		servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/async");
+		servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_ASYNC_SUPPORTED, true);
+		registrations.add(getBundleContext().registerService(Servlet.class, asyncServlet, servletProps));
+
+		servletProps = new Hashtable<>();
+		servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, "(" + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=a)");
+		servletProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/target");
+		registrations.add(getBundleContext().registerService(Servlet.class, targetServlet, servletProps));
+
+		String expected = "ASYNC:" + requestAdvisor.request("a/target", null).get("responseBody").get(0).substring("REQUEST:".length());
+
+		assertEquals(expected, requestAdvisor.request("a/async"));
+
+		// a filter without async support disables async for the whole chain
+		Dictionary<String, Object> filterProps = new Hashtable<>();
+		filterProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT, "(" + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=a)");
+		filterProps.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_PATTERN, "/async");
+		registrations.add(getBundleContext().registerService(Filter.class, new Filter() {
+
+			@Override
+			public void init(FilterConfig filterConfig) {
+			}
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+				throws IOException, ServletException {
+
+				chain.doFilter(request, response);
+			}
+
+			@Override
+			public void destroy() {
+			}
+
+		}, filterProps));
+
+		assertEquals("406", requestAdvisor.request("a/async", null).get("responseCode").get(0));
+	}
+
 	@Test
 	public void test_WBServlet1() throws Exception {
 		String expected = "a";
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2019 Raymond Augé and others.
+ * Copyright (c) 2014, 2026 Raymond Augé and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,6 +36,7 @@ import org.eclipse.equinox.http.servlet.internal.dto.ExtendedFailedServletContex
 import org.eclipse.equinox.http.servlet.internal.error.*;
 import org.eclipse.equinox.http.servlet.internal.registration.PreprocessorRegistration;
 import org.eclipse.equinox.http.servlet.internal.servlet.HttpSessionTracker;
+import org.eclipse.equinox.http.servlet.internal.servlet.ResourceCache;
 import org.eclipse.equinox.http.servlet.internal.servlet.Match;
 import org.eclipse.equinox.http.servlet.internal.util.*;
 import org.eclipse.equinox.http.servlet.session.HttpSessionInvalidator;
@@ -76,6 +77,8 @@ public class HttpServiceRuntimeImpl
 		this.parentServletContext = parentServletContext;
 		this.attributes = new UMDictionaryMap<>(attributes);
 		this.targetFilter = "(" + Activator.UNIQUE_SERVICE_ID + "=" + this.attributes.get(Activator.UNIQUE_SERVICE_ID) + ")";  //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		this.dispatchTargetsCache = createDispatchTargetsCache(this.attributes);
+		this.resourceCache = createResourceCache(this.attributes);
 		this.httpSessionTracker = new HttpSessionTracker(this);
 		this.invalidatorReg = trackingContext.registerService(HttpSessionInvalidator.class, this.httpSessionTracker, attributes);
 
@@ -118,6 +121,10 @@ public class HttpServiceRuntimeImpl
 	}
 
 	public synchronized void open() {
+		if (resourceCache != null) {
+			trackingContext.addBundleListener(resourceCache);
+		}
+
 		contextPathAdaptorTracker.open();
 		contextServiceTracker.open();
 		preprocessorServiceTracker.open();
@@ -252,6 +259,17 @@ public class HttpServiceRuntimeImpl
 
 		httpSessionTracker.clear();
 		registeredObjects.clear();
+
+		if (dispatchTargetsCache != null) {
+			dispatchTargetsCache.clear();
+		}
+
+		if (resourceCache != null) {
+			trackingContext.removeBundleListener(resourceCache);
+
+			resourceCache.clear();
+		}
+
 		scheduledExecutor.shutdown();
 		loggerFactoryTracker.close();
 	}
@@ -259,11 +277,69 @@ public class HttpServiceRuntimeImpl
 	public DispatchTargets getDispatchTargets(
 		String pathString, RequestInfoDTO requestInfoDTO) {
 
+		return getDispatchTargets(pathString, null, requestInfoDTO);
+	}
+
+	public DispatchTargets getDispatchTargets(
+		String pathString, DispatcherType dispatcherType,
+		RequestInfoDTO requestInfoDTO) {
+
 		Path path = new Path(pathString);
 
 		String queryString = path.getQueryString();
 		String requestURI = path.getRequestURI();
 
+		// the context root is only matched when there is no query string
+		if ((dispatchTargetsCache == null) || (dispatcherType == null) ||
+			(requestInfoDTO != null) ||
+			(Const.SLASH.equals(requestURI) && !Const.SLASH.equals(pathString))) {
+
+			return getDispatchTargets(
+				pathString, requestURI, path.getExtension(), queryString,
+				requestInfoDTO);
+		}
+
+		// read before resolving so that a concurrent change makes the entry stale
+		long changeCount = getServiceChangecount();
+
+		DispatchTargets dispatchTargets = dispatchTargetsCache.get(
+			requestURI, dispatcherType, queryString, changeCount);
+
+		if (dispatchTargets != null) {
+			return dispatchTargets;
+		}
+
+		dispatchTargets = getDispatchTargets(
+			pathString, requestURI, path.getExtension(), queryString, null);
+
+		if (dispatchTargets != null) {
+			dispatchTargetsCache.put(
+				requestURI, dispatcherType, dispatchTargets, changeCount);
+		}
+
+		return dispatchTargets;
+	}
+
+	/**
+	 * Returns the cache of dispatch decisions, or <code>null</code> if it is
+	 * disabled.
+	 */
+	public DispatchTargetsCache getDispatchTargetsCache() {
+		return dispatchTargetsCache;
+	}
+
+	/**
+	 * Returns the cache of the content of the whiteboard resources, or
+	 * <code>null</code> if it is disabled.
+	 */
+	public ResourceCache getResourceCache() {
+		return resourceCache;
+	}
+
+	private DispatchTargets getDispatchTargets(
+		String pathString, String requestURI, String extension,
+		String queryString, RequestInfoDTO requestInfoDTO) {
+
 		// perfect match
 		DispatchTargets dispatchTargets = getDispatchTargets(
 			requestURI, null, queryString, Match.EXACT, requestInfoDTO);
@@ -272,7 +348,7 @@ public class HttpServiceRuntimeImpl
 			// extension match
 
 			dispatchTargets = getDispatchTargets(
-				requestURI, path.getExtension(), queryString, Match.EXTENSION,
+				requestURI, extension, queryString, Match.EXTENSION,
 				requestInfoDTO);
 		}
 
@@ -463,33 +539,46 @@ public class HttpServiceRuntimeImpl
 	}
 
 	Collection<ContextController> getContextControllers(String requestURI) {
-		int pos = requestURI.lastIndexOf('/');
+		ContextPathIndex current = getContextPathIndex();
 
-		do {
-			List<ContextController> contextControllers = new ArrayList<>();
+		// the longest context path which is the request URI or one of its
+		// parent paths, compared in place instead of cutting the request URI
+		// down one segment at a time
+		for (String contextPath : current.longestFirst) {
+			int length = contextPath.length();
 
-			for (ContextController contextController : controllerMap.values()) {
-				if (contextController.getContextPath().equals(requestURI)) {
-					contextControllers.add(contextController);
-				}
-			}
+			if (requestURI.startsWith(contextPath) &&
+				((requestURI.length() == length) || (requestURI.charAt(length) == '/'))) {
 
-			if (!contextControllers.isEmpty()) {
-				return contextControllers;
+				return current.contextPaths.get(contextPath);
 			}
+		}
 
-			if (pos > -1) {
-				requestURI = requestURI.substring(0, pos);
-				pos = requestURI.lastIndexOf('/');
+		return null;
+	}
 
-				continue;
+	/*
+	 * Returns the context controllers by context path, in the order of the
+	 * controller map. The index is rebuilt when the service change count changes.
+	 */
+	private ContextPathIndex getContextPathIndex() {
+		long changeCount = getServiceChangecount();
+		ContextPathIndex current = contextPathIndex;
+
+		if ((current == null) || (current.changeCount != changeCount)) {
+			Map<String, List<ContextController>> contextPaths = new HashMap<>();
+
+			for (ContextController contextController : controllerMap.values()) {
+				contextPaths.computeIfAbsent(
+					contextController.getContextPath(), k -> new ArrayList<>()).add(contextController);
 			}
 
-			break;
+			current = new ContextPathIndex(contextPaths, changeCount);
+
+			contextPathIndex = current;
 		}
-		while (true);
 
-		return null;
+		return current;
 	}
 
 	public Collection<ContextController> getContextControllers() {
@@ -1267,7 +1356,7 @@ public class HttpServiceRuntimeImpl
 		return hsrRegistration.get();
 	}
 
-	long getServiceChangecount() {
+	public long getServiceChangecount() {
 		return serviceChangecount.get();
 	}
 
@@ -1282,6 +1371,55 @@ public class HttpServiceRuntimeImpl
 		return semaphore;
 	}
 
+	private static DispatchTargetsCache createDispatchTargetsCache(
+		Map<String, Object> attributes) {
+
+		long size = getLong(
+			attributes, Const.EQUINOX_HTTP_DISPATCH_TARGETS_CACHE_SIZE,
+			Const.DISPATCH_TARGETS_CACHE_SIZE_DEFAULT);
+
+		if (size <= 0) {
+			return null;
+		}
+
+		return new DispatchTargetsCache((int)Math.min(size, Integer.MAX_VALUE));
+	}
+
+	private static ResourceCache createResourceCache(
+		Map<String, Object> attributes) {
+
+		long size = getLong(
+			attributes, Const.EQUINOX_HTTP_RESOURCE_CACHE_SIZE,
+			Const.RESOURCE_CACHE_SIZE_DEFAULT);
+		long maxEntrySize = getLong(
+			attributes, Const.EQUINOX_HTTP_RESOURCE_CACHE_MAX_ENTRY_SIZE,
+			Const.RESOURCE_CACHE_MAX_ENTRY_SIZE_DEFAULT);
+
+		if ((size <= 0) || (maxEntrySize <= 0)) {
+			return null;
+		}
+
+		return new ResourceCache(
+			size, (int)Math.min(maxEntrySize, Integer.MAX_VALUE - 8));
+	}
+
+	private static long getLong(
+		Map<String, Object> attributes, String key, long defaultValue) {
+
+		Object valueObj = attributes.get(key);
+
+		if (valueObj == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Long.parseLong(String.valueOf(valueObj).trim());
+		}
+		catch (NumberFormatException nfe) {
+			return defaultValue;
+		}
+	}
+
 	private String decode(String urlEncoded) {
 		try {
 			return URLDecoder.decode(urlEncoded, StandardCharsets.UTF_8.name());
@@ -1343,7 +1481,10 @@ public class HttpServiceRuntimeImpl
 	private final ServiceRegistration<HttpSessionInvalidator> invalidatorReg;
 	private final AtomicReference<ServiceRegistration<HttpServiceRuntime>> hsrRegistration = new AtomicReference<>();
 
+	private final DispatchTargetsCache dispatchTargetsCache;
+	private final ResourceCache resourceCache;
 	private final AtomicLong serviceChangecount = new AtomicLong();
+	private volatile ContextPathIndex contextPathIndex;
 	private final ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
 	private final Semaphore semaphore = new Semaphore(1);
 
@@ -1362,6 +1503,26 @@ public class HttpServiceRuntimeImpl
 		}
 	}
 
+	static class ContextPathIndex {
+
+		ContextPathIndex(
+			Map<String, List<ContextController>> contextPaths, long changeCount) {
+
+			this.contextPaths = contextPaths;
+			this.changeCount = changeCount;
+
+			longestFirst = contextPaths.keySet().toArray(new String[0]);
+
+			Arrays.sort(
+				longestFirst, (a, b) -> Integer.compare(b.length(), a.length()));
+		}
+
+		final Map<String, List<ContextController>> contextPaths;
+		final String[] longestFirst;
+		final long changeCount;
+
+	}
+
 	static class LegacyServiceObject {
 		final AtomicReference<Exception> error = new AtomicReference<>(new ServletException("The init() method was never called.")); //$NON-NLS-1$
 		public void checkForError() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Raymond Augé and others.
+ * Copyright (c) 2016, 2026 Raymond Augé and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -58,6 +58,7 @@ public class ContextController {
 		this.httpServiceRuntime = httpServiceRuntime;
 		this.contextName = validateName();
 		this.contextPath = validatePath();
+		this.sessionAttributePrefix = "equinox.http." + contextName; //$NON-NLS-1$
 		this.proxyContext = new ProxyContext(contextName, parentServletContext);
 		this.contextServiceId = (Long)serviceReference.getProperty(Constants.SERVICE_ID);
 		this.servletContextHelperRefFilter = createFilter(contextServiceId);
@@ -385,7 +386,8 @@ public class ContextController {
 		ServletContextHelper curServletContextHelper = getServletContextHelper(
 			bundle);
 		Servlet servlet = new ResourceServlet(
-			prefix, curServletContextHelper, AccessController.getContext());
+			prefix, curServletContextHelper, AccessController.getContext(),
+			httpServiceRuntime.getResourceCache());
 
 		ResourceDTO resourceDTO = new ResourceDTO();
 
@@ -622,6 +624,14 @@ public class ContextController {
 		return contextName;
 	}
 
+	/**
+	 * Returns the prefix of the container session attributes of this context,
+	 * shared by the session adaptors of all sessions.
+	 */
+	public String getSessionAttributePrefix() {
+		return sessionAttributePrefix;
+	}
+
 	public String getContextPath() {
 		return contextPath;
 	}
@@ -713,11 +723,19 @@ public class ContextController {
 		checkShutdown();
 
 		EndpointRegistration<?> endpointRegistration = null;
-		for (EndpointRegistration<?> curEndpointRegistration : endpointRegistrations) {
-			if (curEndpointRegistration.match(servletName, servletPath, pathInfo, extension, match) != null) {
-				endpointRegistration = curEndpointRegistration;
+		RoutingTable currentRoutingTable = getRoutingTable();
 
-				break;
+		if (currentRoutingTable.supports(servletName, extension, match)) {
+			endpointRegistration = currentRoutingTable.match(
+				servletPath, pathInfo, extension, match);
+		}
+		else {
+			for (EndpointRegistration<?> curEndpointRegistration : endpointRegistrations) {
+				if (curEndpointRegistration.match(servletName, servletPath, pathInfo, extension, match) != null) {
+					endpointRegistration = curEndpointRegistration;
+
+					break;
+				}
 			}
 		}
 
@@ -754,6 +772,9 @@ public class ContextController {
 			matchingFilterRegistrations, endpointRegistration.getName(), requestURI,
 			servletPath, pathInfo, extension);
 
+		// the chain is shared by the requests served from the dispatch targets cache
+		Collections.sort(matchingFilterRegistrations);
+
 		addFilterRegistrationsToRequestInfo(
 			matchingFilterRegistrations, requestInfoDTO);
 
@@ -762,6 +783,19 @@ public class ContextController {
 			requestURI, servletPath, pathInfo, queryString);
 	}
 
+	private RoutingTable getRoutingTable() {
+		long changeCount = httpServiceRuntime.getServiceChangecount();
+		RoutingTable current = routingTable;
+
+		if ((current == null) || (current.getChangeCount() != changeCount)) {
+			current = new RoutingTable(endpointRegistrations, changeCount);
+
+			routingTable = current;
+		}
+
+		return current;
+	}
+
 	private void collectFilters(
 		List<FilterRegistration> matchingFilterRegistrations,
 		String servletName, String requestURI, String servletPath, String pathInfo, String extension) {
@@ -1453,10 +1487,12 @@ public class ContextController {
 	private final BundleContext trackingContext;
 	private final BundleContext consumingContext;
 	private final String contextName;
+	private final String sessionAttributePrefix;
 	private final String contextPath;
 	private volatile String fullContextPath;
 	private final long contextServiceId;
 	private final Set<EndpointRegistration<?>> endpointRegistrations = new ConcurrentSkipListSet<>();
+	private volatile RoutingTable routingTable;
 	private final EventListeners eventListeners = new EventListeners();
 	private final Set<FilterRegistration> filterRegistrations = new ConcurrentSkipListSet<>();
 	private final ConcurrentMap<String, HttpSessionAdaptor> activeSessions = new ConcurrentHashMap<>();
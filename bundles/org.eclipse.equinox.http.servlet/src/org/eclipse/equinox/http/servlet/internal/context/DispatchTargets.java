@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2021 Raymond Augé and others.
+ * Copyright (c) 2014, 2026 Raymond Augé and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -131,6 +131,13 @@ public class DispatchTargets {
 		return contextController;
 	}
 
+	/**
+	 * Returns the request URI without the context path.
+	 */
+	public String getContextRelativeRequestURI() {
+		return requestURI;
+	}
+
 	public DispatcherType getDispatcherType() {
 		return dispatcherType;
 	}
@@ -187,7 +194,19 @@ public class DispatchTargets {
 	}
 
 	public Map<String, Object> getSpecialOverides() {
-		return specialOverides;
+		Map<String, Object> map = specialOverides;
+
+		if (map == null) {
+			synchronized (this) {
+				map = specialOverides;
+
+				if (map == null) {
+					specialOverides = map = new ConcurrentHashMap<>();
+				}
+			}
+		}
+
+		return map;
 	}
 
 	public void setDispatcherType(DispatcherType dispatcherType) {
@@ -236,13 +255,18 @@ public class DispatchTargets {
 	private static class RequestAttributeSetter implements Closeable {
 
 		private final ServletRequest servletRequest;
-		private final Map<String, Object> oldValues = new HashMap<>();
+		// not needed by requests
+		private Map<String, Object> oldValues;
 
 		public RequestAttributeSetter(ServletRequest servletRequest) {
 			this.servletRequest = servletRequest;
 		}
 
 		public void setAttribute(String name, Object value) {
+			if (oldValues == null) {
+				oldValues = new HashMap<>();
+			}
+
 			oldValues.put(name, servletRequest.getAttribute(name));
 
 			servletRequest.setAttribute(name, value);
@@ -250,6 +274,10 @@ public class DispatchTargets {
 
 		@Override
 		public void close() {
+			if (oldValues == null) {
+				return;
+			}
+
 			for (Map.Entry<String, Object> oldValue : oldValues.entrySet()) {
 				if (oldValue.getValue() == null) {
 					servletRequest.removeAttribute(oldValue.getKey());
@@ -274,7 +302,8 @@ public class DispatchTargets {
 	private final String requestURI;
 	private final String servletPath;
 	private final String servletName;
-	private final Map<String, Object> specialOverides = new ConcurrentHashMap<>();
+	// only needed by forwards and includes
+	private volatile Map<String, Object> specialOverides;
 	private String string;
 
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Raymond Augé and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.context;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.DispatcherType;
+import org.eclipse.equinox.http.servlet.internal.registration.EndpointRegistration;
+import org.eclipse.equinox.http.servlet.internal.registration.FilterRegistration;
+
+/**
+ * Bounded LRU of the dispatch decisions of the runtime, keyed by request URI and
+ * dispatcher type.
+ * <p>
+ * An entry holds everything the resolution of a request URI produced: the
+ * context controller, the endpoint registration, the servlet path and path info
+ * split and the matching filters. A new {@link DispatchTargets} is created from
+ * the entry on every hit since dispatch targets carry per request state.
+ * <p>
+ * The cache is bound to a service change count of the runtime. Looking up or
+ * adding an entry for another change count drops all the entries, so any
+ * whiteboard registration change invalidates the cache at once.
+ */
+public class DispatchTargetsCache {
+
+	public DispatchTargetsCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public DispatchTargets get(
+		String requestURI, DispatcherType dispatcherType, String queryString,
+		long changeCount) {
+
+		Entry entry;
+
+		synchronized (this) {
+			if (changeCount < this.changeCount) {
+				// resolved before a registration change, don't drop the newer entries
+				entry = null;
+			}
+			else {
+				validate(changeCount);
+
+				entry = entries.get(new Key(requestURI, dispatcherType));
+			}
+		}
+
+		if (entry == null) {
+			misses.incrementAndGet();
+
+			return null;
+		}
+
+		hits.incrementAndGet();
+
+		return new DispatchTargets(
+			entry.contextController, entry.endpointRegistration,
+			entry.matchingFilterRegistrations, null, entry.requestURI,
+			entry.servletPath, entry.pathInfo, queryString);
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the ratio of lookups answered by the cache, between 0 and 1.
+	 */
+	public double getHitRate() {
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+
+		if (total == 0) {
+			return 0;
+		}
+
+		return (double)hitCount / total;
+	}
+
+	public long getInvalidationCount() {
+		return invalidations.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	public synchronized void put(
+		String requestURI, DispatcherType dispatcherType,
+		DispatchTargets dispatchTargets, long changeCount) {
+
+		if (changeCount < this.changeCount) {
+			// resolved before a registration change
+			return;
+		}
+
+		validate(changeCount);
+
+		entries.put(
+			new Key(requestURI, dispatcherType), new Entry(dispatchTargets));
+	}
+
+	private void validate(long changeCount) {
+		if (changeCount == this.changeCount) {
+			return;
+		}
+
+		if (!entries.isEmpty()) {
+			entries.clear();
+
+			invalidations.incrementAndGet();
+		}
+
+		this.changeCount = changeCount;
+	}
+
+	private static class Entry {
+
+		Entry(DispatchTargets dispatchTargets) {
+			this.contextController = dispatchTargets.getContextController();
+			this.endpointRegistration = dispatchTargets.getServletRegistration();
+			// the list is shared by the filter chains of all the hits
+			List<FilterRegistration> filterRegistrations = new ArrayList<>(
+				dispatchTargets.getMatchingFilterRegistrations());
+
+			Collections.sort(filterRegistrations);
+
+			this.matchingFilterRegistrations = Collections.unmodifiableList(
+				filterRegistrations);
+			this.requestURI = dispatchTargets.getContextRelativeRequestURI();
+			this.servletPath = dispatchTargets.getServletPath();
+			this.pathInfo = dispatchTargets.getPathInfo();
+		}
+
+		final ContextController contextController;
+		final EndpointRegistration<?> endpointRegistration;
+		final List<FilterRegistration> matchingFilterRegistrations;
+		final String pathInfo;
+		final String requestURI;
+		final String servletPath;
+
+	}
+
+	private static class Key {
+
+		Key(String requestURI, DispatcherType dispatcherType) {
+			this.requestURI = requestURI;
+			this.dispatcherType = dispatcherType;
+			this.hashCode = (31 * requestURI.hashCode()) + dispatcherType.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key)obj;
+
+			return (dispatcherType == other.dispatcherType) &&
+				requestURI.equals(other.requestURI);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		private final DispatcherType dispatcherType;
+		private final int hashCode;
+		private final String requestURI;
+
+	}
+
+	private long changeCount = -1;
+	private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			return size() > maxSize;
+		}
+
+	};
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+	private final int maxSize;
+	private final AtomicLong misses = new AtomicLong();
+
+}
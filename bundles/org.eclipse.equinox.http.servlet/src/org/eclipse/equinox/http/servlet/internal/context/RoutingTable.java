@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Raymond Augé and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.context;
+
+import java.util.*;
+import org.eclipse.equinox.http.servlet.internal.registration.EndpointRegistration;
+import org.eclipse.equinox.http.servlet.internal.registration.ErrorPageRegistration;
+import org.eclipse.equinox.http.servlet.internal.servlet.Match;
+import org.eclipse.equinox.http.servlet.internal.util.Const;
+
+/**
+ * Index of the patterns of the endpoint registrations of a context, giving the
+ * same answer as calling
+ * {@link EndpointRegistration#match(String, String, String, String, Match)} on
+ * each registration in order, with hash lookups instead of a scan.
+ * <p>
+ * For every pattern the first registration (in the order of the registration
+ * set) is kept, which is the one a scan would find first. The table is immutable
+ * and is rebuilt when the service change count of the runtime changes.
+ */
+public class RoutingTable {
+
+	public RoutingTable(
+		Collection<EndpointRegistration<?>> endpointRegistrations,
+		long changeCount) {
+
+		this.changeCount = changeCount;
+
+		for (EndpointRegistration<?> endpointRegistration : endpointRegistrations) {
+			if (endpointRegistration instanceof ErrorPageRegistration) {
+				// only matches errors
+				continue;
+			}
+
+			String[] patterns = endpointRegistration.getPatterns();
+
+			if (patterns == null) {
+				continue;
+			}
+
+			for (String pattern : patterns) {
+				add(endpointRegistration, pattern);
+			}
+		}
+	}
+
+	public long getChangeCount() {
+		return changeCount;
+	}
+
+	/**
+	 * Returns whether or not the table can answer the given lookup. Named
+	 * dispatches and error matches are left to the registrations.
+	 */
+	public boolean supports(String servletName, String extension, Match match) {
+		if ((servletName != null) || (match == Match.ERROR)) {
+			return false;
+		}
+
+		// extensions are indexed by the text after the last dot of the pattern
+		return (match != Match.EXTENSION) || (extension == null) || (extension.indexOf('.') == -1);
+	}
+
+	public EndpointRegistration<?> match(
+		String servletPath, String pathInfo, String extension, Match match) {
+
+		if (servletPath == null) {
+			return null;
+		}
+
+		switch (match) {
+			case EXACT :
+				return exact.get(servletPath);
+			case EXTENSION :
+				Map<String, EndpointRegistration<?>> extensions = extensionMatches.get(servletPath);
+
+				if (extensions == null) {
+					return null;
+				}
+
+				return extensions.get(String.valueOf(extension));
+			case REGEX :
+				return prefixMatches.get(servletPath);
+			case DEFAULT_SERVLET :
+				if (!servletPath.isEmpty() && (pathInfo == null)) {
+					return defaultServlet;
+				}
+
+				return null;
+			case CONTEXT_ROOT :
+				if (Const.BLANK.equals(servletPath) && Const.SLASH.equals(pathInfo)) {
+					return contextRoot;
+				}
+
+				return null;
+			default :
+				return null;
+		}
+	}
+
+	private void add(EndpointRegistration<?> endpointRegistration, String pattern) {
+		exact.putIfAbsent(pattern, endpointRegistration);
+
+		if (pattern.isEmpty()) {
+			if (contextRoot == null) {
+				contextRoot = endpointRegistration;
+			}
+
+			return;
+		}
+
+		if (Const.SLASH.equals(pattern)) {
+			if (defaultServlet == null) {
+				defaultServlet = endpointRegistration;
+			}
+
+			return;
+		}
+
+		if (pattern.startsWith(Const.SLASH_STAR_DOT)) {
+			pattern = pattern.substring(1);
+		}
+
+		// "/foo/*" matches the servlet path "/foo", "/*" matches the empty servlet path
+		if ((pattern.charAt(0) == '/') && pattern.endsWith(Const.SLASH_STAR)) {
+			prefixMatches.putIfAbsent(
+				pattern.substring(0, pattern.length() - 2), endpointRegistration);
+		}
+
+		// "*.jsp" matches the empty servlet path, "/foo/*.jsp" matches the servlet path "/foo"
+		int index = pattern.lastIndexOf(Const.STAR_DOT);
+
+		if (index != -1) {
+			String prefix = (index > 0) ? pattern.substring(0, index - 1) : Const.BLANK;
+			String extension = pattern.substring(pattern.lastIndexOf('.') + 1);
+
+			extensionMatches.computeIfAbsent(
+				prefix, k -> new HashMap<>()).putIfAbsent(extension, endpointRegistration);
+		}
+	}
+
+	private final long changeCount;
+	private final Map<String, EndpointRegistration<?>> exact = new HashMap<>();
+	private final Map<String, Map<String, EndpointRegistration<?>>> extensionMatches = new HashMap<>();
+	private final Map<String, EndpointRegistration<?>> prefixMatches = new HashMap<>();
+	private EndpointRegistration<?> contextRoot;
+	private EndpointRegistration<?> defaultServlet;
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 IBM Corporation and others.
+ * Copyright (c) 2011, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -110,8 +110,12 @@ public class FilterRegistration
 	}
 
 	public boolean appliesTo(FilterChainImpl filterChainImpl) {
+		return appliesTo(filterChainImpl.getDispatcherType());
+	}
+
+	public boolean appliesTo(DispatcherType dispatcherType) {
 		return (Arrays.binarySearch(
-			getD().dispatcher, filterChainImpl.getDispatcherType().name()) >= 0);
+			getD().dispatcher, dispatcherType.name()) >= 0);
 	}
 
 	//Delegate the handling of the request to the actual filter
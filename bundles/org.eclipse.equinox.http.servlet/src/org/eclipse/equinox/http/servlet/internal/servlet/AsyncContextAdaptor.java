@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Raymond Augé and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.servlet;
+
+import javax.servlet.*;
+
+/**
+ * The async context handed to whiteboard servlets and filters.
+ * <p>
+ * Dispatch paths are relative to the whiteboard context the async cycle was
+ * started in, while the container resolves them against its own servlet context,
+ * so they are prefixed with the part of the whiteboard context path below the
+ * container context path. When the async cycle uses the container's original
+ * request and response, whether it was started by {@code startAsync()} or by
+ * {@code startAsync(ServletRequest, ServletResponse)} given those same objects,
+ * the runtime request is returned instead of the container request, so that the
+ * path methods keep answering from the whiteboard's point of view. Otherwise the
+ * request given to {@code startAsync} is returned.
+ */
+public class AsyncContextAdaptor implements AsyncContext {
+
+	public AsyncContextAdaptor(
+		AsyncContext asyncContext, HttpServletRequestWrapperImpl request,
+		String containerContextPath, String contextPath) {
+
+		this.asyncContext = asyncContext;
+		this.request = request;
+		this.containerContextPath = containerContextPath;
+		this.contextPath = contextPath;
+	}
+
+	@Override
+	public void addListener(AsyncListener listener) {
+		asyncContext.addListener(listener);
+	}
+
+	@Override
+	public void addListener(
+		AsyncListener listener, ServletRequest servletRequest,
+		ServletResponse servletResponse) {
+
+		asyncContext.addListener(listener, servletRequest, servletResponse);
+	}
+
+	@Override
+	public void complete() {
+		asyncContext.complete();
+	}
+
+	@Override
+	public <T extends AsyncListener> T createListener(Class<T> clazz)
+		throws ServletException {
+
+		return asyncContext.createListener(clazz);
+	}
+
+	@Override
+	public void dispatch() {
+		asyncContext.dispatch();
+	}
+
+	@Override
+	public void dispatch(String path) {
+		asyncContext.dispatch(toContainerPath(contextPath, path));
+	}
+
+	@Override
+	public void dispatch(ServletContext context, String path) {
+		if (ServletContextAdaptor.isAdaptor(context)) {
+			asyncContext.dispatch(toContainerPath(context.getContextPath(), path));
+
+			return;
+		}
+
+		asyncContext.dispatch(context, path);
+	}
+
+	public AsyncContext getAsyncContext() {
+		return asyncContext;
+	}
+
+	@Override
+	public ServletRequest getRequest() {
+		if (asyncContext.hasOriginalRequestAndResponse()) {
+			return request;
+		}
+
+		return asyncContext.getRequest();
+	}
+
+	@Override
+	public ServletResponse getResponse() {
+		return asyncContext.getResponse();
+	}
+
+	@Override
+	public long getTimeout() {
+		return asyncContext.getTimeout();
+	}
+
+	@Override
+	public boolean hasOriginalRequestAndResponse() {
+		return asyncContext.hasOriginalRequestAndResponse();
+	}
+
+	@Override
+	public void setTimeout(long timeout) {
+		asyncContext.setTimeout(timeout);
+	}
+
+	@Override
+	public void start(Runnable run) {
+		asyncContext.start(run);
+	}
+
+	private String toContainerPath(String fullContextPath, String path) {
+		return fullContextPath.substring(containerContextPath.length()).concat(path);
+	}
+
+	private final AsyncContext asyncContext;
+	private final String containerContextPath;
+	private final String contextPath;
+	private final HttpServletRequestWrapperImpl request;
+
+}
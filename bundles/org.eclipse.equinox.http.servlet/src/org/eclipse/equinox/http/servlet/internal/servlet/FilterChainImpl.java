@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 IBM Corporation and others.
+ * Copyright (c) 2011, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,7 +41,8 @@ public class FilterChainImpl implements FilterChain {
 	}
 
 	public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
-		if (filterIndex < filterCount) {
+		// skip the filters which don't apply to the dispatcher type
+		while (filterIndex < filterCount) {
 			FilterRegistration filterRegistration = matchingFilterRegistrations.get(filterIndex++);
 
 			if (filterRegistration.appliesTo(this)) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2020 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,13 +19,12 @@ package org.eclipse.equinox.http.servlet.internal.servlet;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import javax.servlet.*;
 import javax.servlet.http.*;
 import org.eclipse.equinox.http.servlet.internal.context.ContextController;
 import org.eclipse.equinox.http.servlet.internal.context.DispatchTargets;
 import org.eclipse.equinox.http.servlet.internal.registration.EndpointRegistration;
+import org.eclipse.equinox.http.servlet.internal.registration.FilterRegistration;
 import org.eclipse.equinox.http.servlet.internal.registration.ServletRegistration;
 import org.eclipse.equinox.http.servlet.internal.util.Const;
 import org.eclipse.equinox.http.servlet.internal.util.EventListeners;
@@ -33,10 +32,11 @@ import org.osgi.service.http.HttpContext;
 
 public class HttpServletRequestWrapperImpl extends HttpServletRequestWrapper {
 
-	private final Deque<DispatchTargets> dispatchTargets = new LinkedList<>();
+	private volatile AsyncContextAdaptor asyncContext;
+	// rarely deeper than a forward or an include
+	private final Deque<DispatchTargets> dispatchTargets = new ArrayDeque<>(4);
 	private final HttpServletRequest request;
 	private List<Part> parts;
-	private final Lock lock = new ReentrantLock();
 
 	private static final Set<String> dispatcherAttributes =	new HashSet<>();
 
@@ -454,18 +454,73 @@ public class HttpServletRequestWrapperImpl extends HttpServletRequestWrapper {
 		return new ArrayList<>(getParts0());
 	}
 
-	public AsyncContext startAsync() throws IllegalStateException {
-		EndpointRegistration<?> endpointRegistration = dispatchTargets.peek().getServletRegistration();
+	@Override
+	public AsyncContext getAsyncContext() {
+		AsyncContext containerAsyncContext = request.getAsyncContext();
+		AsyncContextAdaptor current = asyncContext;
+
+		if ((current != null) && (current.getAsyncContext() == containerAsyncContext)) {
+			return current;
+		}
 
-		if (endpointRegistration instanceof ServletRegistration) {
-			ServletRegistration servletRegistration = (ServletRegistration)endpointRegistration;
+		return asyncContext = createAsyncContext(containerAsyncContext);
+	}
+
+	/**
+	 * Async is supported when the servlet and all the filters applied to the
+	 * current dispatch declare async support, and so does the container.
+	 */
+	@Override
+	public boolean isAsyncSupported() {
+		DispatchTargets current = dispatchTargets.peek();
+		EndpointRegistration<?> endpointRegistration = current.getServletRegistration();
 
-			if (servletRegistration.getD().asyncSupported) {
-				return request.startAsync();
+		if (!(endpointRegistration instanceof ServletRegistration) ||
+			!((ServletRegistration)endpointRegistration).getD().asyncSupported) {
+
+			return false;
+		}
+
+		for (FilterRegistration filterRegistration : current.getMatchingFilterRegistrations()) {
+			if (filterRegistration.appliesTo(current.getDispatcherType()) &&
+				!filterRegistration.getD().asyncSupported) {
+
+				return false;
 			}
 		}
 
-		throw new IllegalStateException("Async not supported by " + endpointRegistration); //$NON-NLS-1$
+		return request.isAsyncSupported();
+	}
+
+	@Override
+	public AsyncContext startAsync() throws IllegalStateException {
+		checkAsyncSupported();
+
+		return asyncContext = createAsyncContext(request.startAsync());
+	}
+
+	@Override
+	public AsyncContext startAsync(
+			ServletRequest servletRequest, ServletResponse servletResponse)
+		throws IllegalStateException {
+
+		checkAsyncSupported();
+
+		return asyncContext = createAsyncContext(
+			request.startAsync(servletRequest, servletResponse));
+	}
+
+	private void checkAsyncSupported() {
+		if (!isAsyncSupported()) {
+			throw new IllegalStateException(
+				"Async not supported by " + dispatchTargets.peek().getServletRegistration()); //$NON-NLS-1$
+		}
+	}
+
+	private AsyncContextAdaptor createAsyncContext(AsyncContext containerAsyncContext) {
+		return new AsyncContextAdaptor(
+			containerAsyncContext, this, request.getServletContext().getContextPath(),
+			getContextPath());
 	}
 
 	private List<Part> getParts0() throws IOException, ServletException {
@@ -475,18 +530,13 @@ public class HttpServletRequestWrapperImpl extends HttpServletRequestWrapper {
 			throw new ServletException("Not a servlet request!"); //$NON-NLS-1$
 		}
 
-		lock.lock();
-
-		try {
+		synchronized (this) {
 			if (parts != null) {
 				return parts;
 			}
 
 			return parts = servletRegistration.parseRequest(this);
 		}
-		finally {
-			lock.unlock();
-		}
 	}
 
 	private org.eclipse.equinox.http.servlet.internal.registration.ServletRegistration getServletRegistration() {
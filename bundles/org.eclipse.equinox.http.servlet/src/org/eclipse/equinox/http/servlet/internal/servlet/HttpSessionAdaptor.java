@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -42,7 +42,7 @@ public class HttpSessionAdaptor implements HttpSession, Serializable {
 		this.session = session;
 		this.servletContext = servletContext;
 		this.controller = controller;
-		this.attributePrefix = "equinox.http." + controller.getContextName(); //$NON-NLS-1$
+		this.attributePrefix = controller.getSessionAttributePrefix();
 	}
 
 	public ContextController getController() {
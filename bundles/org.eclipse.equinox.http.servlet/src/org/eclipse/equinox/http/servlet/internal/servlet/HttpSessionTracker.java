@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Liferay, Inc.
+ * Copyright (c) 2018, 2026 Liferay, Inc.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,7 @@
 
 package org.eclipse.equinox.http.servlet.internal.servlet;
 
-import java.util.Collections;
-import java.util.Set;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import javax.servlet.http.HttpSession;
@@ -24,6 +23,15 @@ import org.eclipse.equinox.http.servlet.internal.HttpServiceRuntimeImpl;
 import org.eclipse.equinox.http.servlet.session.HttpSessionInvalidator;
 
 /**
+ * Tracks the session adaptors of all the contexts by container session id, so
+ * that a container session can be invalidated in every context at once.
+ * <p>
+ * Most sessions are only ever used in one context, so the value of an entry is
+ * either a single adaptor or, once the session is used in several contexts, an
+ * array of adaptors which is replaced on every change. Updates go through the
+ * atomic compute methods of the map, which only lock the bin of the session id,
+ * so session creation and expiry in different sessions don't contend.
+ *
  * @since 1.5
  */
 public class HttpSessionTracker implements HttpSessionInvalidator {
@@ -34,16 +42,15 @@ public class HttpSessionTracker implements HttpSessionInvalidator {
 
 	@Override
 	public void invalidate(String sessionId, boolean invalidateParent) {
-		Set<HttpSessionAdaptor> httpSessionAdaptors =
-			httpSessionAdaptorsMap.remove(sessionId);
+		Object value = httpSessionAdaptorsMap.remove(sessionId);
 
-		if (httpSessionAdaptors == null) {
+		if (value == null) {
 			return;
 		}
 
 		HttpSession parentSession = null;
 
-		for (HttpSessionAdaptor httpSessionAdaptor : httpSessionAdaptors) {
+		for (HttpSessionAdaptor httpSessionAdaptor : toArray(value)) {
 			parentSession = httpSessionAdaptor.getSession();
 
 			httpSessionAdaptor.invalidate();
@@ -63,23 +70,8 @@ public class HttpSessionTracker implements HttpSessionInvalidator {
 	public void addHttpSessionAdaptor(
 		String sessionId, HttpSessionAdaptor httpSessionAdaptor) {
 
-		Set<HttpSessionAdaptor> httpSessionAdaptors =
-			httpSessionAdaptorsMap.get(sessionId);
-
-		if (httpSessionAdaptors == null) {
-			httpSessionAdaptors = Collections.newSetFromMap(
-				new ConcurrentHashMap<HttpSessionAdaptor, Boolean>());
-
-			Set<HttpSessionAdaptor> previousHttpSessionAdaptors =
-				httpSessionAdaptorsMap.putIfAbsent(
-					sessionId, httpSessionAdaptors);
-
-			if (previousHttpSessionAdaptors != null) {
-				httpSessionAdaptors = previousHttpSessionAdaptors;
-			}
-		}
-
-		httpSessionAdaptors.add(httpSessionAdaptor);
+		httpSessionAdaptorsMap.merge(
+			sessionId, httpSessionAdaptor, HttpSessionTracker::add);
 	}
 
 	public void clear() {
@@ -94,26 +86,83 @@ public class HttpSessionTracker implements HttpSessionInvalidator {
 	public boolean removeHttpSessionAdaptor(
 		String sessionId, HttpSessionAdaptor httpSessionAdaptor) {
 
-		Set<HttpSessionAdaptor> httpSessionAdaptors =
-			httpSessionAdaptorsMap.get(sessionId);
+		boolean[] removed = new boolean[1];
+
+		httpSessionAdaptorsMap.computeIfPresent(
+			sessionId, (k, value) -> {
+				Object newValue = remove(value, httpSessionAdaptor);
 
-		if (httpSessionAdaptors == null) {
-			return false;
+				removed[0] = (newValue != value);
+
+				return newValue;
+			});
+
+		return removed[0];
+	}
+
+	private static Object add(Object value, Object httpSessionAdaptor) {
+		HttpSessionAdaptor[] httpSessionAdaptors = toArray(value);
+
+		for (HttpSessionAdaptor current : httpSessionAdaptors) {
+			if (current.equals(httpSessionAdaptor)) {
+				return value;
+			}
 		}
 
-		try {
-			return httpSessionAdaptors.remove(httpSessionAdaptor);
+		HttpSessionAdaptor[] newHttpSessionAdaptors = Arrays.copyOf(
+			httpSessionAdaptors, httpSessionAdaptors.length + 1);
+
+		newHttpSessionAdaptors[httpSessionAdaptors.length] =
+			(HttpSessionAdaptor)httpSessionAdaptor;
+
+		return newHttpSessionAdaptors;
+	}
+
+	/*
+	 * Returns the value without the given adaptor, the same value if it is not
+	 * there and null if it was the last one.
+	 */
+	private static Object remove(Object value, HttpSessionAdaptor httpSessionAdaptor) {
+		if (value instanceof HttpSessionAdaptor) {
+			return value.equals(httpSessionAdaptor) ? null : value;
 		}
-		finally {
-			if (httpSessionAdaptors.isEmpty()) {
-				httpSessionAdaptorsMap.remove(sessionId, httpSessionAdaptors);
+
+		HttpSessionAdaptor[] httpSessionAdaptors = (HttpSessionAdaptor[])value;
+
+		for (int i = 0; i < httpSessionAdaptors.length; i++) {
+			if (!httpSessionAdaptors[i].equals(httpSessionAdaptor)) {
+				continue;
+			}
+
+			if (httpSessionAdaptors.length == 2) {
+				return httpSessionAdaptors[1 - i];
 			}
+
+			HttpSessionAdaptor[] newHttpSessionAdaptors =
+				new HttpSessionAdaptor[httpSessionAdaptors.length - 1];
+
+			System.arraycopy(httpSessionAdaptors, 0, newHttpSessionAdaptors, 0, i);
+			System.arraycopy(
+				httpSessionAdaptors, i + 1, newHttpSessionAdaptors, i,
+				newHttpSessionAdaptors.length - i);
+
+			return newHttpSessionAdaptors;
 		}
+
+		return value;
+	}
+
+	private static HttpSessionAdaptor[] toArray(Object value) {
+		if (value instanceof HttpSessionAdaptor) {
+			return new HttpSessionAdaptor[] {(HttpSessionAdaptor)value};
+		}
+
+		return (HttpSessionAdaptor[])value;
 	}
 
-	private final ConcurrentMap<String, Set<HttpSessionAdaptor>>
-		httpSessionAdaptorsMap =
-			new ConcurrentHashMap<>();
+	// values are a HttpSessionAdaptor or a HttpSessionAdaptor[]
+	private final ConcurrentMap<String, Object> httpSessionAdaptorsMap =
+		new ConcurrentHashMap<>();
 	private final HttpServiceRuntimeImpl httpServiceRuntime;
 
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,10 +17,10 @@
 package org.eclipse.equinox.http.servlet.internal.servlet;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.CopyOnWriteArrayList;
 import javax.servlet.*;
 import javax.servlet.http.*;
 import org.eclipse.equinox.http.servlet.internal.Activator;
@@ -115,7 +115,7 @@ public class ProxyServlet extends HttpServlet {
 			dispatch(request, response, alias, dispatcherType);
 		}
 		else {
-			List<PreprocessorRegistration> preprocessors = new CopyOnWriteArrayList<>();
+			List<PreprocessorRegistration> preprocessors = new ArrayList<>(registrations.size());
 
 			for (Entry<ServiceReference<Preprocessor>, PreprocessorRegistration> entry : registrations.entrySet()) {
 				PreprocessorRegistration registration = entry.getValue();
@@ -141,7 +141,7 @@ public class ProxyServlet extends HttpServlet {
 			HttpServletResponse response, String alias, DispatcherType dispatcherType)
 		throws ServletException, IOException {
 
-		DispatchTargets dispatchTargets = httpServiceRuntimeImpl.getDispatchTargets(alias, null);
+		DispatchTargets dispatchTargets = httpServiceRuntimeImpl.getDispatchTargets(alias, dispatcherType, null);
 
 		if (dispatchTargets != null) {
 			dispatchTargets.doDispatch(request, response, alias, dispatcherType);
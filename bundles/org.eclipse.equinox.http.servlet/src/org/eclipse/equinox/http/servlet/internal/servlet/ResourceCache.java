@@ -0,0 +1,411 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Raymond Augé and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.servlet;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.SynchronousBundleListener;
+
+/**
+ * Bounded LRU of the content of the whiteboard resources, keyed by resource URL.
+ * <p>
+ * Only resources whose content can't change without a bundle event are kept,
+ * i.e. bundle entries and bundle resources, plus files which are revalidated
+ * against their length and modification time on every hit. An entry holds the
+ * content, a strong ETag computed from it and the compressed variants: the
+ * precompressed <code>.br</code> and <code>.gz</code> siblings of the resource
+ * when they exist, otherwise a gzip variant computed for compressible types.
+ * <p>
+ * The cache is cleared when a bundle is updated, unresolved or uninstalled.
+ */
+public class ResourceCache implements SynchronousBundleListener {
+
+	public static final String ENCODING_BR = "br"; //$NON-NLS-1$
+	public static final String ENCODING_GZIP = "gzip"; //$NON-NLS-1$
+
+	public ResourceCache(long maxSize, int maxEntrySize) {
+		this.maxSize = maxSize;
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	@Override
+	public void bundleChanged(BundleEvent event) {
+		switch (event.getType()) {
+			case BundleEvent.UNINSTALLED :
+			case BundleEvent.UNRESOLVED :
+			case BundleEvent.UPDATED :
+				clear();
+
+				break;
+			default :
+				break;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+		generation++;
+	}
+
+	/**
+	 * Returns the cached content of the given resource, or <code>null</code> if it
+	 * is not cached yet.
+	 */
+	public CachedResource get(URL resourceURL) {
+		String key = resourceURL.toExternalForm();
+		CachedResource cachedResource;
+
+		synchronized (this) {
+			cachedResource = entries.get(key);
+		}
+
+		if ((cachedResource != null) && !cachedResource.isValid()) {
+			remove(key, cachedResource);
+
+			return null;
+		}
+
+		return cachedResource;
+	}
+
+	public int getMaxEntrySize() {
+		return maxEntrySize;
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns whether or not the content of the given URL may be kept.
+	 */
+	public boolean isCacheable(URL resourceURL) {
+		String protocol = resourceURL.getProtocol();
+
+		return PROTOCOL_BUNDLEENTRY.equals(protocol) ||
+			PROTOCOL_BUNDLERESOURCE.equals(protocol) ||
+			PROTOCOL_FILE.equals(protocol);
+	}
+
+	/**
+	 * Reads and caches the given resource. Returns <code>null</code> if the
+	 * resource is larger than the maximum entry size.
+	 *
+	 * @param connection an open connection to the resource
+	 * @param br the URL of the brotli compressed variant, or <code>null</code>
+	 * @param gzip the URL of the gzip compressed variant, or <code>null</code>
+	 */
+	public CachedResource load(
+			URL resourceURL, URLConnection connection, String contentType, URL br,
+			URL gzip)
+		throws IOException {
+
+		long lastModified = connection.getLastModified();
+		int contentLength = connection.getContentLength();
+
+		if (contentLength > maxEntrySize) {
+			return null;
+		}
+
+		long startGeneration;
+
+		synchronized (this) {
+			startGeneration = generation;
+		}
+
+		File file = ResourceServlet.toFile(resourceURL);
+		long fileLength = (file == null) ? -1 : file.length();
+
+		byte[] content;
+
+		try (InputStream is = connection.getInputStream()) {
+			content = read(is, maxEntrySize);
+		}
+
+		if (content == null) {
+			return null;
+		}
+
+		Map<String, byte[]> variants = new HashMap<>();
+
+		addVariant(variants, ENCODING_BR, br, content.length);
+		addVariant(variants, ENCODING_GZIP, gzip, content.length);
+
+		if (!variants.containsKey(ENCODING_GZIP) && isCompressible(contentType) &&
+			(content.length >= MIN_COMPRESS_SIZE)) {
+
+			byte[] compressed = gzip(content);
+
+			if (compressed.length < content.length) {
+				variants.put(ENCODING_GZIP, compressed);
+			}
+		}
+
+		CachedResource cachedResource = new CachedResource(
+			content, etag(content), lastModified, contentType, variants, file,
+			fileLength);
+
+		String key = resourceURL.toExternalForm();
+
+		synchronized (this) {
+			if (generation != startGeneration) {
+				// a bundle changed while the resource was read
+				return cachedResource;
+			}
+
+			CachedResource previous = entries.put(key, cachedResource);
+
+			if (previous != null) {
+				size -= previous.size();
+			}
+
+			size += cachedResource.size();
+
+			Iterator<CachedResource> iterator = entries.values().iterator();
+
+			while ((size > maxSize) && iterator.hasNext()) {
+				size -= iterator.next().size();
+
+				iterator.remove();
+			}
+		}
+
+		return cachedResource;
+	}
+
+	/**
+	 * Returns whether or not the given Accept-Encoding header accepts the given
+	 * content coding.
+	 */
+	public static boolean acceptsEncoding(String acceptEncoding, String encoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+
+		for (String token : acceptEncoding.split(",")) { //$NON-NLS-1$
+			String coding = token;
+			String quality = null;
+
+			int index = token.indexOf(';');
+
+			if (index != -1) {
+				coding = token.substring(0, index);
+				quality = token.substring(index + 1).trim();
+			}
+
+			coding = coding.trim();
+
+			if (!coding.equalsIgnoreCase(encoding) && !coding.equals("*")) { //$NON-NLS-1$
+				continue;
+			}
+
+			if ((quality != null) && quality.startsWith("q=")) { //$NON-NLS-1$
+				try {
+					return Float.parseFloat(quality.substring(2)) > 0;
+				}
+				catch (NumberFormatException nfe) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		return false;
+	}
+
+	private void addVariant(
+			Map<String, byte[]> variants, String encoding, URL url, int length)
+		throws IOException {
+
+		if (url == null) {
+			return;
+		}
+
+		try (InputStream is = url.openStream()) {
+			byte[] compressed = read(is, length);
+
+			if ((compressed != null) && (compressed.length < length)) {
+				variants.put(encoding, compressed);
+			}
+		}
+		catch (FileNotFoundException fnfe) {
+			// no variant
+		}
+	}
+
+	private static String etag(byte[] content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+
+			byte[] hash = digest.digest(content);
+
+			return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(
+				Arrays.copyOf(hash, 16)) + '"';
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			// mandatory algorithm
+			throw new IllegalStateException(nsae);
+		}
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(content.length / 2);
+
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(baos)) {
+			gzipOutputStream.write(content);
+		}
+
+		return baos.toByteArray();
+	}
+
+	private static boolean isCompressible(String contentType) {
+		if (contentType == null) {
+			return false;
+		}
+
+		int index = contentType.indexOf(';');
+
+		String mimeType = (index == -1) ? contentType : contentType.substring(0, index);
+
+		mimeType = mimeType.trim().toLowerCase(Locale.ROOT);
+
+		return mimeType.startsWith("text/") || //$NON-NLS-1$
+			mimeType.endsWith("+xml") || mimeType.endsWith("+json") || //$NON-NLS-1$ //$NON-NLS-2$
+			mimeType.equals("application/javascript") || //$NON-NLS-1$
+			mimeType.equals("application/json") || //$NON-NLS-1$
+			mimeType.equals("application/xml"); //$NON-NLS-1$
+	}
+
+	/*
+	 * Return the content of the stream, or null if it is longer than the limit.
+	 */
+	private static byte[] read(InputStream is, int limit) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int bytesRead;
+
+		while ((bytesRead = is.read(buffer)) != -1) {
+			if (baos.size() + bytesRead > limit) {
+				return null;
+			}
+
+			baos.write(buffer, 0, bytesRead);
+		}
+
+		return baos.toByteArray();
+	}
+
+	private synchronized void remove(String key, CachedResource cachedResource) {
+		if (entries.remove(key, cachedResource)) {
+			size -= cachedResource.size();
+		}
+	}
+
+	public static class CachedResource {
+
+		CachedResource(
+			byte[] content, String etag, long lastModified, String contentType,
+			Map<String, byte[]> variants, File file, long fileLength) {
+
+			this.content = content;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.contentType = contentType;
+			this.variants = variants;
+			this.file = file;
+			this.fileLength = fileLength;
+		}
+
+		public byte[] getContent() {
+			return content;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		/**
+		 * Returns the ETag of the given variant.
+		 */
+		public String getETag(String encoding) {
+			if (encoding == null) {
+				return etag;
+			}
+
+			return etag.substring(0, etag.length() - 1) + '-' + encoding + '"';
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * Returns the content of the variant compressed with the given coding, or
+		 * <code>null</code> if there is none.
+		 */
+		public byte[] getVariant(String encoding) {
+			return variants.get(encoding);
+		}
+
+		public boolean hasVariants() {
+			return !variants.isEmpty();
+		}
+
+		boolean isValid() {
+			if (file == null) {
+				return true;
+			}
+
+			return (file.lastModified() == lastModified) &&
+				(file.length() == fileLength);
+		}
+
+		long size() {
+			long result = content.length;
+
+			for (byte[] variant : variants.values()) {
+				result += variant.length;
+			}
+
+			return result;
+		}
+
+		private final byte[] content;
+		private final String contentType;
+		private final String etag;
+		private final File file;
+		private final long fileLength;
+		private final long lastModified;
+		private final Map<String, byte[]> variants;
+
+	}
+
+	private static final int MIN_COMPRESS_SIZE = 256;
+	private static final String PROTOCOL_BUNDLEENTRY = "bundleentry"; //$NON-NLS-1$
+	private static final String PROTOCOL_BUNDLERESOURCE = "bundleresource"; //$NON-NLS-1$
+	private static final String PROTOCOL_FILE = "file"; //$NON-NLS-1$
+
+	private final Map<String, CachedResource> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long generation;
+	private final int maxEntrySize;
+	private final long maxSize;
+	private long size;
+
+}
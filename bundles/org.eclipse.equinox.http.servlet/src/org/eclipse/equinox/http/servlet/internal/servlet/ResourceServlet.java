@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Cognos Incorporated, IBM Corporation and others
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,13 +17,16 @@
 package org.eclipse.equinox.http.servlet.internal.servlet;
 
 import java.io.*;
-import java.net.URL;
-import java.net.URLConnection;
+import java.net.*;
+import java.nio.channels.*;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.security.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.servlet.http.*;
 import org.eclipse.equinox.http.servlet.RangeAwareServletContextHelper;
+import org.eclipse.equinox.http.servlet.internal.servlet.ResourceCache.CachedResource;
 import org.eclipse.equinox.http.servlet.internal.util.Const;
 import org.osgi.service.http.context.ServletContextHelper;
 
@@ -37,18 +40,27 @@ public class ResourceServlet extends HttpServlet {
 	private static final String ACCEPT_RANGES = "Accept-Ranges"; //$NON-NLS-1$
 	private static final String RANGE_UNIT_BYTES = "bytes"; //$NON-NLS-1$
 	private static final String CONTENT_RANGE = "Content-Range"; //$NON-NLS-1$
+	private static final String ACCEPT_ENCODING = "Accept-Encoding"; //$NON-NLS-1$
+	private static final String CONTENT_ENCODING = "Content-Encoding"; //$NON-NLS-1$
+	private static final String VARY = "Vary"; //$NON-NLS-1$
 
 	private final String internalName;
 	final ServletContextHelper servletContextHelper;
 	private final AccessControlContext acc;
+	private final ResourceCache resourceCache;
 
 	public ResourceServlet(String internalName, ServletContextHelper servletContextHelper, AccessControlContext acc) {
+		this(internalName, servletContextHelper, acc, null);
+	}
+
+	public ResourceServlet(String internalName, ServletContextHelper servletContextHelper, AccessControlContext acc, ResourceCache resourceCache) {
 		if (internalName.equals(Const.SLASH)) {
 			internalName = Const.BLANK;
 		}
 		this.internalName = internalName;
 		this.servletContextHelper = servletContextHelper;
 		this.acc = acc;
+		this.resourceCache = resourceCache;
 	}
 
 	public void service(HttpServletRequest req, final HttpServletResponse resp) throws IOException {
@@ -74,9 +86,57 @@ public class ResourceServlet extends HttpServlet {
 
 				@Override
 				public Boolean run() throws Exception {
-					URLConnection connection = resourceURL.openConnection();
-					long lastModified = connection.getLastModified();
-					int contentLength = connection.getContentLength();
+					// with the cache enabled a file is sent through its own channel, opening
+					// a connection to it would open the file a second time
+					File file = null;
+					URLConnection connection = null;
+					if (resourceCache != null && resourceCache.isCacheable(resourceURL)) {
+						// a hit doesn't open the resource at all
+						CachedResource cachedResource = resourceCache.get(resourceURL);
+						if (cachedResource == null) {
+							// the size of a file is checked without opening it, so that a file
+							// too large for the cache is still sent through its channel
+							file = getFile(resourceURL);
+							long size;
+							if (file != null) {
+								size = file.length();
+							} else {
+								connection = resourceURL.openConnection();
+								size = connection.getContentLength();
+							}
+							try {
+								if (size <= resourceCache.getMaxEntrySize()) {
+									if (connection == null)
+										connection = resourceURL.openConnection();
+									cachedResource = resourceCache.load(resourceURL, connection, getContentType(resourcePath), getVariantURL(resourcePath, ".br"), getVariantURL(resourcePath, ".gz")); //$NON-NLS-1$ //$NON-NLS-2$
+									// the stream has been consumed
+									connection = null;
+								}
+							} catch (FileNotFoundException | SecurityException e) {
+								sendError(resp, HttpServletResponse.SC_FORBIDDEN);
+								return Boolean.TRUE;
+							}
+						}
+						if (cachedResource != null) {
+							writeCachedResource(req, resp, cachedResource);
+							return Boolean.TRUE;
+						}
+					} else if (resourceCache != null) {
+						file = getFile(resourceURL);
+					}
+
+					long lastModified;
+					int contentLength;
+					if (file != null) {
+						long length = file.length();
+						lastModified = file.lastModified();
+						contentLength = (length > Integer.MAX_VALUE) ? -1 : (int) length;
+					} else {
+						if (connection == null)
+							connection = resourceURL.openConnection();
+						lastModified = connection.getLastModified();
+						contentLength = connection.getContentLength();
+					}
 
 					String etag = null;
 					if (lastModified != -1 && contentLength != -1)
@@ -116,11 +176,7 @@ public class ResourceServlet extends HttpServlet {
 					if (contentLength != -1)
 						resp.setContentLength(contentLength);
 
-					String filename = new File(resourcePath).getName();
-					String contentType = servletContextHelper.getMimeType(filename);
-					if (contentType == null)
-						contentType = getServletConfig().getServletContext().getMimeType(filename);
-
+					String contentType = getContentType(resourcePath);
 					if (contentType != null)
 						resp.setContentType(contentType);
 
@@ -147,7 +203,29 @@ public class ResourceServlet extends HttpServlet {
 						resp.setHeader(CONTENT_RANGE, RANGE_UNIT_BYTES + " " + range.firstBytePos + "-" + range.lastBytePos + "/" + range.completeLength); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 					}
 
+					if (contentLength != 0 && file != null && range == null) {
+						OutputStream os = null;
+						try {
+							os = resp.getOutputStream();
+						} catch (IllegalStateException e) { // can occur if the response output is already open as a Writer
+							// the stream is written below
+						}
+						if (os != null) {
+							// the length has to be known before the body is written
+							if (contentLength == -1)
+								resp.setContentLengthLong(file.length());
+							try {
+								transferFile(file, os);
+							} catch (FileNotFoundException | NoSuchFileException | SecurityException e) {
+								sendError(resp, HttpServletResponse.SC_FORBIDDEN);
+							}
+							return Boolean.TRUE;
+						}
+					}
+
 					if (contentLength != 0) {
+						if (connection == null)
+							connection = resourceURL.openConnection();
 						// open the input stream
 						try (InputStream is = connection.getInputStream()) {
 							// write the resource
@@ -177,6 +255,145 @@ public class ResourceServlet extends HttpServlet {
 		}
 	}
 
+	void writeCachedResource(HttpServletRequest req, HttpServletResponse resp, CachedResource cachedResource) throws IOException {
+		byte[] content = cachedResource.getContent();
+		long lastModified = cachedResource.getLastModified();
+		String contentType = cachedResource.getContentType();
+		String rangeHeader = req.getHeader(RANGE);
+		boolean rangeable = rangeHeader != null || //
+				((servletContextHelper instanceof RangeAwareServletContextHelper) && //
+						((RangeAwareServletContextHelper) servletContextHelper).rangeableContentType(contentType, req.getHeader("User-Agent"))); //$NON-NLS-1$
+
+		// ranges are served from the identity content
+		String encoding = null;
+		if (cachedResource.hasVariants()) {
+			resp.setHeader(VARY, ACCEPT_ENCODING);
+			String acceptEncoding = req.getHeader(ACCEPT_ENCODING);
+			if (!rangeable && cachedResource.getVariant(ResourceCache.ENCODING_BR) != null && ResourceCache.acceptsEncoding(acceptEncoding, ResourceCache.ENCODING_BR))
+				encoding = ResourceCache.ENCODING_BR;
+			else if (!rangeable && cachedResource.getVariant(ResourceCache.ENCODING_GZIP) != null && ResourceCache.acceptsEncoding(acceptEncoding, ResourceCache.ENCODING_GZIP))
+				encoding = ResourceCache.ENCODING_GZIP;
+		}
+		String etag = cachedResource.getETag(encoding);
+
+		String ifNoneMatch = req.getHeader(IF_NONE_MATCH);
+		if (ifNoneMatch != null && ifNoneMatch.indexOf(etag) != -1) {
+			resp.setHeader(ETAG, etag);
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		long ifModifiedSince = req.getDateHeader(IF_MODIFIED_SINCE);
+		// see writeResource
+		if (ifModifiedSince > -1 && lastModified > 0 && lastModified <= (ifModifiedSince + 999)) {
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		Range range = null;
+		if (rangeHeader != null) {
+			range = Range.createFromRangeHeader(rangeHeader);
+			range.completeLength = content.length;
+			range.updateBytePos();
+
+			if (!range.isValid()) {
+				resp.setHeader(ACCEPT_RANGES, RANGE_UNIT_BYTES);
+				resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+		} else if (rangeable) {
+			range = new Range();
+			range.firstBytePos = 0;
+			range.completeLength = content.length;
+			range.updateBytePos();
+		}
+
+		if (contentType != null)
+			resp.setContentType(contentType);
+
+		if (lastModified > 0)
+			resp.setDateHeader(LAST_MODIFIED, lastModified);
+
+		resp.setHeader(ETAG, etag);
+
+		if (range != null) {
+			resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			resp.setHeader(ACCEPT_RANGES, RANGE_UNIT_BYTES);
+			resp.setHeader(CONTENT_RANGE, RANGE_UNIT_BYTES + " " + range.firstBytePos + "-" + range.lastBytePos + "/" + range.completeLength); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		if (content.length == 0) {
+			resp.setContentLength(0);
+			return;
+		}
+
+		OutputStream os;
+		try {
+			os = resp.getOutputStream();
+		} catch (IllegalStateException e) { // can occur if the response output is already open as a Writer
+			// the writer gets the identity content, see writeResource
+			resp.setContentLength(range != null ? range.contentLength() : content.length);
+			writeResourceToWriter(new ByteArrayInputStream(content), resp.getWriter(), range);
+			return;
+		}
+
+		if (range != null) {
+			resp.setContentLength(range.contentLength());
+			os.write(content, range.firstBytePos, range.contentLength());
+		} else if (encoding != null) {
+			byte[] variant = cachedResource.getVariant(encoding);
+			resp.setHeader(CONTENT_ENCODING, encoding);
+			resp.setContentLength(variant.length);
+			os.write(variant);
+		} else {
+			resp.setContentLength(content.length);
+			os.write(content);
+		}
+	}
+
+	String getContentType(String resourcePath) {
+		String filename = new File(resourcePath).getName();
+		String contentType = servletContextHelper.getMimeType(filename);
+		if (contentType == null)
+			contentType = getServletConfig().getServletContext().getMimeType(filename);
+		return contentType;
+	}
+
+	URL getVariantURL(String resourcePath, String extension) {
+		return servletContextHelper.getResource(resourcePath + extension);
+	}
+
+	long transferFile(File file, OutputStream os) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// containers whose output is a channel get the file without a copy through the heap
+			WritableByteChannel target = (os instanceof WritableByteChannel) ? (WritableByteChannel) os : Channels.newChannel(os);
+			long size = channel.size();
+			long position = 0;
+			while (position < size) {
+				position += channel.transferTo(position, size - position, target);
+			}
+			return position;
+		}
+	}
+
+	/*
+	 * Returns the regular file the resource is read from, or null.
+	 */
+	static File getFile(URL url) {
+		File file = toFile(url);
+		return (file != null && file.isFile()) ? file : null;
+	}
+
+	static File toFile(URL url) {
+		if (!"file".equals(url.getProtocol())) //$NON-NLS-1$
+			return null;
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	void sendError(final HttpServletResponse resp, int sc) throws IOException {
 
 		try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2019 Raymond Augé and others.
+ * Copyright (c) 2014, 2026 Raymond Augé and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,6 @@ package org.eclipse.equinox.http.servlet.internal.servlet;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Collections;
 import java.util.List;
 import javax.servlet.*;
 import javax.servlet.http.*;
@@ -67,8 +66,6 @@ public class ResponseStateHandler {
 						endpoint.service(request, response);
 					}
 					else {
-						Collections.sort(filters);
-
 						FilterChain chain = new FilterChainImpl(
 							filters, endpoint, dispatchTargets.getDispatcherType());
 
@@ -169,8 +166,15 @@ public class ResponseStateHandler {
 			if (dispatchTargets.getDispatcherType() == DispatcherType.REQUEST) {
 				handleErrors();
 
-				for (ServletRequestListener servletRequestListener : servletRequestListeners) {
-					servletRequestListener.requestDestroyed(servletRequestEvent);
+				if ((servletRequestEvent != null) && request.isAsyncStarted()) {
+					// the request goes out of scope when the async cycle completes
+					request.getAsyncContext().addListener(
+						new RequestDestroyedListener(servletRequestListeners, servletRequestEvent));
+				}
+				else {
+					for (ServletRequestListener servletRequestListener : servletRequestListeners) {
+						servletRequestListener.requestDestroyed(servletRequestEvent);
+					}
 				}
 			}
 		}
@@ -381,6 +385,44 @@ public class ResponseStateHandler {
 		}
 	}
 
+	private static class RequestDestroyedListener implements AsyncListener {
+
+		RequestDestroyedListener(
+			List<ServletRequestListener> servletRequestListeners,
+			ServletRequestEvent servletRequestEvent) {
+
+			this.servletRequestListeners = servletRequestListeners;
+			this.servletRequestEvent = servletRequestEvent;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			for (ServletRequestListener servletRequestListener : servletRequestListeners) {
+				servletRequestListener.requestDestroyed(servletRequestEvent);
+			}
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			// completion follows
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// a new cycle keeps the request in scope, stay registered for it
+			event.getAsyncContext().addListener(this);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			// completion follows
+		}
+
+		private final ServletRequestEvent servletRequestEvent;
+		private final List<ServletRequestListener> servletRequestListeners;
+
+	}
+
 	DispatchTargets dispatchTargets;
 	Exception exception;
 	HttpServletRequest request;
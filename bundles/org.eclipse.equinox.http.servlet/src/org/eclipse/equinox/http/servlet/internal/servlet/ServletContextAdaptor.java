@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -121,6 +121,15 @@ public class ServletContextAdaptor {
 		return contextController.equals(adaptorInvocationHandler.getContextController());
 	}
 
+	/**
+	 * Returns whether or not the given servlet context is the servlet context of
+	 * a whiteboard context.
+	 */
+	public static boolean isAdaptor(ServletContext servletContext) {
+		return Proxy.isProxyClass(servletContext.getClass()) &&
+			(Proxy.getInvocationHandler(servletContext) instanceof AdaptorInvocationHandler);
+	}
+
 	public ClassLoader getClassLoader() {
 		return classLoader;
 	}
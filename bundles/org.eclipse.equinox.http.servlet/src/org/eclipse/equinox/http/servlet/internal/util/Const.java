@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2019 Raymond Augé and others.
+ * Copyright (c) 2014, 2026 Raymond Augé and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -42,6 +42,12 @@ public class Const {
 	public static final String SLASH_STAR = "/*"; //$NON-NLS-1$
 	public static final String SLASH_STAR_DOT = "/*."; //$NON-NLS-1$
 	public static final String STAR_DOT = "*."; //$NON-NLS-1$
+	public static final int DISPATCH_TARGETS_CACHE_SIZE_DEFAULT = 512;
+	public static final int RESOURCE_CACHE_MAX_ENTRY_SIZE_DEFAULT = 256 * 1024;
+	public static final long RESOURCE_CACHE_SIZE_DEFAULT = 16 * 1024 * 1024;
+	public static final String EQUINOX_HTTP_DISPATCH_TARGETS_CACHE_SIZE = "equinox.http.dispatchTargets.cacheSize"; //$NON-NLS-1$
+	public static final String EQUINOX_HTTP_RESOURCE_CACHE_MAX_ENTRY_SIZE = "equinox.http.resources.cacheMaxEntrySize"; //$NON-NLS-1$
+	public static final String EQUINOX_HTTP_RESOURCE_CACHE_SIZE = "equinox.http.resources.cacheSize"; //$NON-NLS-1$
 	public static final String EQUINOX_HTTP_MULTIPART_ENABLED = "equinox.http.multipartSupported"; //$NON-NLS-1$
 	public static final String EQUINOX_HTTP_MULTIPART_FILESIZETHRESHOLD = "equinox.http.whiteboard.servlet.multipart.fileSizeThreshold"; //$NON-NLS-1$
 	public static final String EQUINOX_HTTP_MULTIPART_LOCATION = "equinox.http.whiteboard.servlet.multipart.location"; //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Raymond Augé and others.
+ * Copyright (c) 2014, 2026 Raymond Augé and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,7 +31,7 @@ public class EventListeners {
 
 		List<ListenerRegistration> list = map.get(clazz);
 
-		if (list == null) {
+		if ((list == null) || list.isEmpty()) {
 			return Collections.emptyList();
 		}
 
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.preferences.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.eclipse.core.internal.preferences.Activator;
+import org.eclipse.core.internal.preferences.DefaultsCache;
+import org.eclipse.core.internal.preferences.TestHelper;
+import org.eclipse.core.runtime.preferences.BundleDefaultsScope;
+import org.eclipse.core.runtime.preferences.DefaultScope;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Test suite for class org.eclipse.core.internal.preferences.DefaultsCache
+ */
+public class DefaultsCacheTest {
+
+	// an installed bundle, the entries of other bundles are dropped on save
+	private static final String QUALIFIER = Activator.PI_PREFERENCES;
+	private static final String OTHER = "org.eclipse.equinox.preferences.tests.cache";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = new File(folder.newFolder(), "defaults.cache");
+	}
+
+	@After
+	public void tearDown() throws BackingStoreException {
+		InstanceScope.INSTANCE.getNode(OTHER).removeNode();
+		InstanceScope.INSTANCE.getNode(QUALIFIER).node("cache").removeNode();
+		DefaultScope.INSTANCE.getNode(OTHER).removeNode();
+		DefaultScope.INSTANCE.getNode(QUALIFIER).node("child").removeNode();
+		DefaultScope.INSTANCE.getNode(QUALIFIER).remove("cached.key");
+		BundleDefaultsScope.INSTANCE.getNode(OTHER).removeNode();
+		BundleDefaultsScope.INSTANCE.getNode(QUALIFIER).remove("cached.key");
+	}
+
+	@Test
+	public void testSaveAndLoad() {
+		DefaultsCache cache = new DefaultsCache(file);
+		cache.put(QUALIFIER, "key", properties("a", "1", "b", "2"));
+		assertEquals(properties("a", "1", "b", "2"), cache.get(QUALIFIER, "key"));
+		cache.save();
+		assertTrue(file.isFile());
+
+		assertEquals(properties("a", "1", "b", "2"), new DefaultsCache(file).get(QUALIFIER, "key"));
+	}
+
+	@Test
+	public void testKeyMismatch() {
+		DefaultsCache cache = new DefaultsCache(file);
+		cache.put(QUALIFIER, "key", properties("a", "1"));
+		cache.save();
+
+		// the bundle or the locale changed
+		cache = new DefaultsCache(file);
+		assertNull(cache.get(QUALIFIER, "other"));
+		assertNull(cache.get("other.qualifier", "key"));
+
+		cache.put(QUALIFIER, "other", properties("a", "2"));
+		cache.save();
+		cache = new DefaultsCache(file);
+		assertNull(cache.get(QUALIFIER, "key"));
+		assertEquals(properties("a", "2"), cache.get(QUALIFIER, "other"));
+	}
+
+	@Test
+	public void testUninstalledBundlesDropped() {
+		DefaultsCache cache = new DefaultsCache(file);
+		cache.put(QUALIFIER, "key", properties("a", "1"));
+		cache.put("org.eclipse.equinox.preferences.tests.missing", "key", properties("a", "1"));
+		cache.save();
+
+		cache = new DefaultsCache(file);
+		assertNotNull(cache.get(QUALIFIER, "key"));
+		assertNull(cache.get("org.eclipse.equinox.preferences.tests.missing", "key"));
+	}
+
+	@Test
+	public void testNotSavedWhenUnchanged() {
+		new DefaultsCache(file).save();
+		assertFalse(file.exists());
+
+		DefaultsCache cache = new DefaultsCache(file);
+		cache.put(QUALIFIER, "key", properties("a", "1"));
+		cache.save();
+		assertTrue(file.delete());
+		cache.save();
+		assertFalse("The cache was saved again without changes", file.exists());
+	}
+
+	@Test
+	public void testCorruptFile() throws IOException {
+		DefaultsCache cache = new DefaultsCache(file);
+		cache.put(QUALIFIER, "key", properties("a", "1"));
+		cache.save();
+		try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+			output.setLength(output.length() - 3);
+		}
+
+		cache = new DefaultsCache(file);
+		assertNull(cache.get(QUALIFIER, "key"));
+		// the cache starts over
+		cache.put(QUALIFIER, "key", properties("a", "2"));
+		cache.save();
+		assertEquals(properties("a", "2"), new DefaultsCache(file).get(QUALIFIER, "key"));
+
+		Files.write(file.toPath(), "not a cache".getBytes());
+		assertNull(new DefaultsCache(file).get(QUALIFIER, "key"));
+	}
+
+	@Test
+	public void testComputeKey() {
+		String key = DefaultsCache.computeKey(QUALIFIER);
+		assertNotNull(key);
+		assertEquals(key, DefaultsCache.computeKey(QUALIFIER));
+		assertTrue(key, key.endsWith(";" + Locale.getDefault()));
+		assertNull(DefaultsCache.computeKey("org.eclipse.equinox.preferences.tests.missing"));
+	}
+
+	@Test
+	public void testCacheableInitialization() {
+		// the defaults of the bundle itself
+		assertTrue(TestHelper.isCacheableInitialization(QUALIFIER, () -> {
+			DefaultScope.INSTANCE.getNode(QUALIFIER).put("cached.key", "value");
+			DefaultScope.INSTANCE.getNode(QUALIFIER).node("child").putInt("key", 1);
+			BundleDefaultsScope.INSTANCE.getNode(QUALIFIER).put("cached.key", "value");
+		}));
+		// reading other nodes
+		InstanceScope.INSTANCE.getNode(OTHER).put("key", "value");
+		assertTrue(TestHelper.isCacheableInitialization(QUALIFIER, () -> InstanceScope.INSTANCE.getNode(OTHER).get("key", null)));
+		// setting the same value again
+		assertTrue(TestHelper.isCacheableInitialization(QUALIFIER, () -> InstanceScope.INSTANCE.getNode(OTHER).put("key", "value")));
+		// changes made by other threads
+		assertTrue(TestHelper.isCacheableInitialization(QUALIFIER, () -> {
+			Thread thread = new Thread(() -> InstanceScope.INSTANCE.getNode(OTHER).put("thread", "value"));
+			thread.start();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+	}
+
+	@Test
+	public void testInitializationChangingOtherNodes() {
+		InstanceScope.INSTANCE.getNode(OTHER).put("key", "value");
+		InstanceScope.INSTANCE.getNode(OTHER).node("child");
+		assertFalse("Instance value set", TestHelper.isCacheableInitialization(QUALIFIER, () -> InstanceScope.INSTANCE.getNode(QUALIFIER).node("cache").put("key", "value")));
+		InstanceScope.INSTANCE.getNode(QUALIFIER).node("cache").remove("key");
+		assertFalse("Instance value removed", TestHelper.isCacheableInitialization(QUALIFIER, () -> InstanceScope.INSTANCE.getNode(OTHER).remove("key")));
+		assertFalse("Instance node removed", TestHelper.isCacheableInitialization(QUALIFIER, () -> {
+			try {
+				InstanceScope.INSTANCE.getNode(OTHER).node("child").removeNode();
+			} catch (BackingStoreException e) {
+				throw new IllegalStateException(e);
+			}
+		}));
+		assertFalse("Default of another bundle set", TestHelper.isCacheableInitialization(QUALIFIER, () -> DefaultScope.INSTANCE.getNode(OTHER).putBoolean("key", true)));
+		assertFalse("Bundle defaults of another bundle set", TestHelper.isCacheableInitialization(QUALIFIER, () -> BundleDefaultsScope.INSTANCE.getNode(OTHER).put("key", "value")));
+	}
+
+	private static Properties properties(String... keyValues) {
+		Properties result = new Properties();
+		for (int i = 0; i < keyValues.length; i += 2)
+			result.put(keyValues[i], keyValues[i + 1]);
+		return result;
+	}
+}
@@ -15,6 +15,7 @@ package org.eclipse.equinox.preferences.tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -28,11 +29,13 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.INodeChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.NodeChangeEvent;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.osgi.service.datalocation.Location;
@@ -158,6 +161,31 @@ public class EclipsePreferencesTest {
 		});
 	}
 
+	/**
+	 * Lookups through the preferences service must not return values of removed
+	 * nodes.
+	 */
+	@Test
+	public void testServiceLookupAfterRemoveNode() throws BackingStoreException {
+		IPreferencesService service = Platform.getPreferencesService();
+		String qualifier = "EclipsePreferencesTest" + getUniqueString();
+		service.setDefaultLookupOrder(qualifier, null, new String[] { DefaultScope.SCOPE });
+		try {
+			DefaultScope.INSTANCE.getNode(qualifier).put("key", "value1");
+			assertEquals("value1", service.getString(qualifier, "key", null, null));
+			assertEquals("value1", service.getString(qualifier, "key", null, null));
+
+			DefaultScope.INSTANCE.getNode(qualifier).removeNode();
+			assertNull(service.getString(qualifier, "key", null, null));
+
+			DefaultScope.INSTANCE.getNode(qualifier).put("key", "value2");
+			assertEquals("value2", service.getString(qualifier, "key", null, null));
+		} finally {
+			DefaultScope.INSTANCE.getNode(qualifier).removeNode();
+			service.setDefaultLookupOrder(qualifier, null, null);
+		}
+	}
+
 	private static void executeInTwoThreads(final ICoreRunnable runnable) throws InterruptedException, CoreException {
 		final CountDownLatch latch = new CountDownLatch(1);
 		Job job = Job.create("", new ICoreRunnable() {
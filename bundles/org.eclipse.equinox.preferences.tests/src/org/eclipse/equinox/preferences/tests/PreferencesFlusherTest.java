@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.preferences.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.internal.preferences.EclipsePreferences;
+import org.eclipse.core.internal.preferences.PreferencesFlusher;
+import org.eclipse.core.internal.preferences.PreferencesService;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Test suite for class org.eclipse.core.internal.preferences.PreferencesFlusher
+ */
+public class PreferencesFlusherTest {
+
+	private PreferencesFlusher flusher;
+	// the flusher of the preferences service, restored after the test
+	private PreferencesFlusher previous;
+	private boolean installed;
+
+	/*
+	 * A load level which counts its saves instead of writing a file.
+	 */
+	static class TestNode extends EclipsePreferences {
+		final AtomicInteger saves = new AtomicInteger();
+
+		TestNode(EclipsePreferences parent, String name) {
+			super(parent, name);
+		}
+
+		@Override
+		protected IEclipsePreferences getLoadLevel() {
+			return this;
+		}
+
+		@Override
+		protected boolean isFlushDeferrable() {
+			return true;
+		}
+
+		@Override
+		protected void save() {
+			saves.incrementAndGet();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		if (flusher != null)
+			flusher.stop();
+		if (installed)
+			PreferencesService.getDefault().setFlusher(previous);
+	}
+
+	@Test
+	public void testCoalesce() throws InterruptedException {
+		flusher = new PreferencesFlusher(200, 10000);
+		TestNode node = new TestNode(null, "test");
+		for (int i = 0; i < 5; i++) {
+			node.put("key", "value" + i);
+			assertTrue(flusher.schedule(node));
+		}
+		assertEquals(0, node.saves.get());
+		waitForSaves(node, 1);
+		assertEquals(5, flusher.getRequestCount());
+		assertEquals(1, flusher.getWriteCount());
+		assertEquals(4, flusher.getSavedWriteCount());
+	}
+
+	@Test
+	public void testMaximumDelay() throws InterruptedException {
+		flusher = new PreferencesFlusher(300, 600);
+		TestNode node = new TestNode(null, "test");
+		long start = System.currentTimeMillis();
+		// keep requesting saves within the quiet period
+		while (node.saves.get() == 0 && System.currentTimeMillis() - start < 5000) {
+			node.put("key", Long.toString(System.nanoTime()));
+			flusher.schedule(node);
+			Thread.sleep(50);
+		}
+		assertEquals("The node has not been written within the maximum delay", 1, node.saves.get());
+	}
+
+	@Test
+	public void testFlushPath() throws BackingStoreException {
+		flusher = new PreferencesFlusher(60000, 60000);
+		TestNode root = new TestNode(null, null);
+		TestNode scope = new TestNode(root, "scope");
+		TestNode inside = new TestNode(scope, "inside");
+		TestNode outside = new TestNode(root, "outside");
+		inside.put("key", "value");
+		outside.put("key", "value");
+		assertTrue(flusher.schedule(inside));
+		assertTrue(flusher.schedule(outside));
+
+		// writes the scheduled nodes below the given node
+		flusher.flush(scope.absolutePath());
+		assertEquals(1, inside.saves.get());
+		assertEquals(0, outside.saves.get());
+	}
+
+	@Test
+	public void testStop() throws BackingStoreException {
+		flusher = new PreferencesFlusher(60000, 60000);
+		TestNode node = new TestNode(null, "test");
+		node.put("key", "value");
+		assertTrue(flusher.schedule(node));
+		flusher.stop();
+		assertEquals(1, node.saves.get());
+
+		// the node has to be written by the caller after the flusher is stopped
+		node.put("key", "other");
+		assertFalse(flusher.schedule(node));
+		flusher.flush("/");
+		assertEquals(1, node.saves.get());
+	}
+
+	@Test
+	public void testDisabled() {
+		flusher = new PreferencesFlusher(0, 0);
+		assertFalse(flusher.isEnabled());
+		TestNode node = new TestNode(null, "test");
+		node.put("key", "value");
+		assertFalse(flusher.schedule(node));
+	}
+
+	/*
+	 * Ensures the flushes of a load level, as done by a client after setting each
+	 * value, are coalesced into one write.
+	 */
+	@Test
+	public void testFlushIsDeferred() throws Exception {
+		installFlusher(new PreferencesFlusher(200, 10000));
+		TestNode node = new TestNode(null, "test");
+		for (int i = 0; i < 10; i++) {
+			node.put("key" + i, "value");
+			node.flush();
+		}
+		assertEquals(0, node.saves.get());
+		waitForSaves(node, 1);
+		assertEquals(10, flusher.getRequestCount());
+		assertEquals(1, flusher.getWriteCount());
+
+		// nothing left to write
+		node.flush();
+		Thread.sleep(400);
+		assertEquals(1, node.saves.get());
+	}
+
+	/*
+	 * Ensures flushing the root or the root of a scope writes the load levels
+	 * below it before returning.
+	 */
+	@Test
+	public void testRootFlushIsSynchronous() throws BackingStoreException {
+		installFlusher(new PreferencesFlusher(60000, 60000));
+		EclipsePreferences root = new EclipsePreferences() {
+			@Override
+			protected EclipsePreferences internalCreate(EclipsePreferences nodeParent, String nodeName, Object context) {
+				return new TestNode(nodeParent, nodeName);
+			}
+		};
+		TestNode first = (TestNode) root.node("first");
+		TestNode second = (TestNode) root.node("second");
+		first.put("key", "value");
+		second.put("key", "value");
+		first.flush();
+		second.flush();
+		assertEquals(0, first.saves.get() + second.saves.get());
+
+		root.flush();
+		assertEquals(1, first.saves.get());
+		assertEquals(1, second.saves.get());
+		assertEquals(2, flusher.getWriteCount());
+	}
+
+	/*
+	 * Ensures a flush writes the file immediately when the flusher is disabled.
+	 */
+	@Test
+	public void testFlushWithoutDelay() throws BackingStoreException {
+		installFlusher(new PreferencesFlusher(0, 0));
+		TestNode node = new TestNode(null, "test");
+		for (int i = 0; i < 3; i++) {
+			node.put("key" + i, "value");
+			node.flush();
+		}
+		assertEquals(3, node.saves.get());
+	}
+
+	private void installFlusher(PreferencesFlusher newFlusher) {
+		flusher = newFlusher;
+		PreferencesFlusher replaced = PreferencesService.getDefault().setFlusher(newFlusher);
+		if (!installed) {
+			previous = replaced;
+			installed = true;
+		}
+	}
+
+	private static void waitForSaves(TestNode node, int expected) throws InterruptedException {
+		long start = System.currentTimeMillis();
+		while (node.saves.get() < expected && System.currentTimeMillis() - start < 5000)
+			Thread.sleep(20);
+		assertEquals(expected, node.saves.get());
+	}
+}
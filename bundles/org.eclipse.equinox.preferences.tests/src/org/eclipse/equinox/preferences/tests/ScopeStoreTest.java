@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.preferences.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.eclipse.core.internal.preferences.ScopeStore;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Test suite for class org.eclipse.core.internal.preferences.ScopeStore
+ */
+public class ScopeStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private IPath directory;
+
+	@Before
+	public void setUp() throws IOException {
+		System.setProperty(ScopeStore.PROP_SCOPE_STORE, "true");
+		directory = Path.fromOSString(folder.newFolder().getAbsolutePath());
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(ScopeStore.PROP_SCOPE_STORE);
+	}
+
+	@Test
+	public void testSaveAndLoad() throws BackingStoreException {
+		ScopeStore store = ScopeStore.open(directory);
+		assertNotNull(store);
+		store.save("a", properties("key", "value"), null);
+		store.save("b", properties("other", "value"), null);
+
+		store = ScopeStore.open(directory);
+		assertEquals(Arrays.asList("a", "b"), store.getQualifiers());
+		assertEquals(properties("key", "value"), store.load("a", null));
+		assertEquals(properties("other", "value"), store.load("b", null));
+		assertNull(store.load("c", null));
+
+		store.save("a", new Properties(), null);
+		store = ScopeStore.open(directory);
+		assertEquals(Arrays.asList("b"), store.getQualifiers());
+	}
+
+	@Test
+	public void testDisabled() throws BackingStoreException {
+		System.clearProperty(ScopeStore.PROP_SCOPE_STORE);
+		assertNull(ScopeStore.open(directory));
+
+		// a store which exists is still read
+		System.setProperty(ScopeStore.PROP_SCOPE_STORE, "true");
+		ScopeStore.open(directory).save("a", properties("key", "value"), null);
+		System.clearProperty(ScopeStore.PROP_SCOPE_STORE);
+		ScopeStore store = ScopeStore.open(directory);
+		assertNotNull(store);
+		assertEquals(properties("key", "value"), store.load("a", null));
+	}
+
+	@Test
+	public void testNewerPropertiesFile() throws BackingStoreException, IOException {
+		ScopeStore.open(directory).save("a", properties("key", "value"), null);
+		File legacy = directory.append("a.prefs").toFile();
+		Files.write(legacy.toPath(), "key=newer\n".getBytes());
+		assertTrue(legacy.setLastModified(System.currentTimeMillis() + 10000));
+
+		ScopeStore store = ScopeStore.open(directory);
+		// the properties file has to be read instead
+		assertNull(store.load("a", Path.fromOSString(legacy.getAbsolutePath())));
+
+		store.save("a", properties("key", "newer"), Path.fromOSString(legacy.getAbsolutePath()));
+		assertTrue(!legacy.exists());
+		assertEquals(properties("key", "newer"), ScopeStore.open(directory).load("a", null));
+	}
+
+	@Test
+	public void testCorruptGenerationFallsBack() throws BackingStoreException, IOException {
+		ScopeStore.open(directory).save("a", properties("key", "first"), null);
+		// the second session writes the other file
+		ScopeStore.open(directory).save("a", properties("key", "second"), null);
+		assertEquals(properties("key", "second"), ScopeStore.open(directory).load("a", null));
+
+		File[] files = directory.toFile().listFiles((dir, name) -> name.startsWith("preferences.store."));
+		assertEquals(2, files.length);
+		File newest = new String(Files.readAllBytes(files[0].toPath())).contains("second") ? files[0] : files[1];
+		try (RandomAccessFile file = new RandomAccessFile(newest, "rw")) {
+			file.setLength(file.length() - 3);
+		}
+
+		ScopeStore store = ScopeStore.open(directory);
+		assertEquals(properties("key", "first"), store.load("a", null));
+		// the next save supersedes both files
+		store.save("a", properties("key", "third"), null);
+		assertEquals(properties("key", "third"), ScopeStore.open(directory).load("a", null));
+	}
+
+	private static Properties properties(String key, String value) {
+		Properties result = new Properties();
+		result.put(key, value);
+		return result;
+	}
+}
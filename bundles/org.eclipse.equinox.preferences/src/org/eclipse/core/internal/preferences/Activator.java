@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -68,6 +68,7 @@ public class Activator implements BundleActivator, ServiceTrackerCustomizer<Obje
 	@Override
 	public void start(BundleContext context) throws Exception {
 		bundleContext = context;
+		PreferencesService.getDefault().startFlusher();
 		// Open the services first before processing the command-line args, order is important! (Bug 150288)
 		PreferencesOSGiUtils.getDefault().openServices();
 		processCommandLine();
@@ -112,6 +113,11 @@ public class Activator implements BundleActivator, ServiceTrackerCustomizer<Obje
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		// write the preferences whose flush has been deferred while the services are still available
+		PreferencesService.getDefault().stopFlusher();
+		DefaultsCache defaultsCache = DefaultsCache.getDefault();
+		if (defaultsCache != null)
+			defaultsCache.save();
 		PreferencesOSGiUtils.getDefault().closeServices();
 		if (registryServiceTracker != null) {
 			registryServiceTracker.close();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2022 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.osgi.service.datalocation.Location;
+import org.osgi.service.prefs.BackingStoreException;
 
 /**
  * @since 3.0
@@ -34,6 +35,8 @@ public class ConfigurationPreferences extends EclipsePreferences {
 	private static Set<String> loadedNodes = Collections.synchronizedSet(new HashSet<String>());
 	private static boolean initialized = false;
 	private static IPath baseLocation;
+	// the store keeping all the load levels of this scope in one file, if any
+	private static final ScopeStoreSupport store = new ScopeStoreSupport(() -> baseLocation);
 
 	static {
 		Location location = PreferencesOSGiUtils.getDefault().getConfigurationLocation();
@@ -87,6 +90,11 @@ public class ConfigurationPreferences extends EclipsePreferences {
 		loadedNodes.add(name());
 	}
 
+	@Override
+	protected boolean isFlushDeferrable() {
+		return true;
+	}
+
 	/*
 	 * Return the node at which these preferences are loaded/saved.
 	 */
@@ -116,12 +124,28 @@ public class ConfigurationPreferences extends EclipsePreferences {
 				for (String n : computeChildren(baseLocation)) {
 					addChild(n, null);
 				}
+				for (String n : store.getQualifiers()) {
+					if (!childExists(n))
+						addChild(n, null);
+				}
 			}
 		} finally {
 			initialized = true;
 		}
 	}
 
+	@Override
+	protected void load(IPath location) throws BackingStoreException {
+		if (!store.load(this, qualifier, location))
+			super.load(location);
+	}
+
+	@Override
+	protected void save(IPath location) throws BackingStoreException {
+		if (!store.save(this, qualifier, location))
+			super.save(location);
+	}
+
 	@Override
 	protected EclipsePreferences internalCreate(EclipsePreferences nodeParent, String nodeName, Object context) {
 		return new ConfigurationPreferences(nodeParent, nodeName);
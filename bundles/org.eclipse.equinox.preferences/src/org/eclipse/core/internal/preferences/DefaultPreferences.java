@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import org.eclipse.core.internal.preferences.exchange.IProductPreferencesService
 import org.eclipse.core.internal.runtime.RuntimeLog;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.preferences.BundleDefaultsScope;
+import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.Bundle;
@@ -47,6 +48,10 @@ public class DefaultPreferences extends EclipsePreferences {
 	private static Properties commandLineCustomization;
 	private EclipsePreferences loadLevel;
 	private Thread initializingThread;
+	// the load level whose bundle defaults are being recorded for the defaults cache, per thread
+	private static final ThreadLocal<DefaultPreferences> recording = new ThreadLocal<>();
+	// false if the initialization of the bundle defaults of this load level has changed other nodes
+	private boolean cacheable;
 
 	// cached values
 	private String qualifier;
@@ -276,8 +281,7 @@ public class DefaultPreferences extends EclipsePreferences {
 	protected void load() {
 		setInitializingBundleDefaults();
 		try {
-			applyRuntimeDefaults();
-			applyBundleDefaults();
+			applyCachedOrBundleDefaults();
 		} finally {
 			clearInitializingBundleDefaults();
 		}
@@ -287,6 +291,68 @@ public class DefaultPreferences extends EclipsePreferences {
 	}
 
 
+	/*
+	 * Apply the runtime and bundle defaults, from the defaults cache if it is enabled
+	 * and holds them. Otherwise record them in the cache.
+	 */
+	private void applyCachedOrBundleDefaults() {
+		DefaultsCache cache = DefaultsCache.getDefault();
+		String cacheKey = cache == null ? null : DefaultsCache.computeKey(name());
+		if (cacheKey != null) {
+			Properties cached = cache.get(name(), cacheKey);
+			if (cached != null) {
+				applyDefaults(name(), cached, null);
+				return;
+			}
+		}
+		boolean canCache = record(() -> {
+			applyRuntimeDefaults();
+			applyBundleDefaults();
+		});
+		if (cacheKey != null && canCache) {
+			try {
+				cache.put(name(), cacheKey, convertToProperties(new Properties(), EMPTY_STRING));
+			} catch (BackingStoreException e) {
+				// don't cache
+			}
+		}
+	}
+
+	/*
+	 * Run the given initialization of the bundle defaults of this load level and
+	 * answer whether its result can be cached, i.e. whether it has not changed
+	 * any other node.
+	 */
+	boolean record(Runnable initialization) {
+		DefaultPreferences previous = recording.get();
+		recording.set(this);
+		cacheable = true;
+		try {
+			initialization.run();
+		} finally {
+			recording.set(previous);
+		}
+		return cacheable;
+	}
+
+	/*
+	 * Note that the given node has changed. Values or nodes changed outside of the
+	 * load level being recorded, and of its bundle_defaults counterpart, would be lost
+	 * when the defaults are served from the cache.
+	 */
+	static void recordChange(EclipsePreferences node) {
+		DefaultPreferences recorder = recording.get();
+		if (recorder == null || !recorder.cacheable)
+			return;
+		String path = node.absolutePath();
+		if (getSegmentCount(path) >= 2 && recorder.name().equals(getSegment(path, 1))) {
+			String scope = getSegment(path, 0);
+			if (DefaultScope.SCOPE.equals(scope) || BundleDefaultsScope.SCOPE.equals(scope))
+				return;
+		}
+		recorder.cacheable = false;
+	}
+
 	@Override
 	protected String internalPut(String key, String newValue) {
 		// set the value in this node
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.preferences;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.Map.Entry;
+import org.eclipse.osgi.service.datalocation.Location;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Persisted cache of the bundle defaults of the default scope, i.e. the values
+ * set by the preference initializers and the <code>preferences.ini</code> file
+ * of a bundle.
+ * <p>
+ * The cache is enabled with the {@link #PROP_DEFAULTS_CACHE} property. Entries
+ * are keyed by the generation of the bundle and of its fragments and by the
+ * locale, so updating the bundle invalidates them. The product and command-line
+ * customizations are applied on top of the cached values as usual.
+ * </p>
+ * <p>
+ * Initializers are not run when the defaults are served from the cache. The
+ * cache must therefore only be enabled for products whose initializers compute
+ * their values from the bundle alone. Defaults whose initialization changes
+ * other nodes, e.g. of the instance scope or of other bundles, are never cached.
+ * Only the changes made by the initializing thread are detected.
+ * </p>
+ */
+public class DefaultsCache {
+
+	/**
+	 * Framework property. Set to <code>true</code> to persist the bundle defaults
+	 * between sessions.
+	 */
+	public static final String PROP_DEFAULTS_CACHE = "eclipse.preferences.defaultsCache"; //$NON-NLS-1$
+
+	private static final String FILE_NAME = "defaults.cache"; //$NON-NLS-1$
+	private static final int MAGIC = 0x50524644; // "PRFD"
+	private static final int VERSION = 1;
+
+	private static DefaultsCache instance;
+	private static boolean initialized = false;
+
+	private final File file;
+	// key: qualifier, value: cached entry
+	private Map<String, CachedDefaults> entries;
+	private boolean dirty = false;
+
+	private static final class CachedDefaults {
+		final String key;
+		final byte[] values;
+
+		CachedDefaults(String key, byte[] values) {
+			this.key = key;
+			this.values = values;
+		}
+	}
+
+	/**
+	 * Returns the cache, or <code>null</code> if it is disabled or there is no
+	 * configuration area.
+	 */
+	static synchronized DefaultsCache getDefault() {
+		if (!initialized) {
+			initialized = true;
+			BundleContext context = Activator.getContext();
+			String value = context == null ? System.getProperty(PROP_DEFAULTS_CACHE) : context.getProperty(PROP_DEFAULTS_CACHE);
+			if (Boolean.parseBoolean(value)) {
+				Location location = PreferencesOSGiUtils.getDefault().getConfigurationLocation();
+				URL url = location == null ? null : location.getURL();
+				if (url != null)
+					instance = new DefaultsCache(new File(new File(url.getFile(), Activator.PI_PREFERENCES), FILE_NAME));
+			}
+		}
+		return instance;
+	}
+
+	public DefaultsCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns the key identifying the bundle defaults of the given qualifier, or
+	 * <code>null</code> if they can't be cached.
+	 */
+	public static String computeKey(String qualifier) {
+		Bundle bundle = PreferencesOSGiUtils.getDefault().getBundle(qualifier);
+		if (bundle == null)
+			return null;
+		StringBuilder key = new StringBuilder();
+		key.append(bundle.getBundleId()).append(':').append(bundle.getLastModified());
+		for (Bundle fragment : PreferencesOSGiUtils.getDefault().getFragments(bundle))
+			key.append(',').append(fragment.getBundleId()).append(':').append(fragment.getLastModified());
+		key.append(';').append(Locale.getDefault());
+		return key.toString();
+	}
+
+	/**
+	 * Returns the cached bundle defaults of the given qualifier, or <code>null</code>
+	 * if there is no entry for the given key.
+	 */
+	public synchronized Properties get(String qualifier, String key) {
+		CachedDefaults cached = getEntries().get(qualifier);
+		if (cached == null || !cached.key.equals(key))
+			return null;
+		if (EclipsePreferences.DEBUG_PREFERENCE_GENERAL)
+			PrefsMessages.message("Using cached default preferences for: " + qualifier); //$NON-NLS-1$
+		return ScopeStore.decode(ByteBuffer.wrap(cached.values));
+	}
+
+	/**
+	 * Records the bundle defaults of the given qualifier under the given key,
+	 * replacing its previous entry.
+	 */
+	public synchronized void put(String qualifier, String key, Properties values) {
+		try {
+			getEntries().put(qualifier, new CachedDefaults(key, ScopeStore.encode(values)));
+			dirty = true;
+		} catch (BackingStoreException e) {
+			// don't cache
+		}
+	}
+
+	/**
+	 * Saves the cache if it has changed. Entries of bundles which are no longer
+	 * installed are dropped.
+	 */
+	public synchronized void save() {
+		if (!dirty)
+			return;
+		dirty = false;
+		entries.keySet().removeIf(qualifier -> PreferencesOSGiUtils.getDefault().getBundle(qualifier) == null);
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			Files.createDirectories(file.getParentFile().toPath());
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(entries.size());
+				for (Entry<String, CachedDefaults> entry : entries.entrySet()) {
+					ScopeStore.putString(output, entry.getKey());
+					ScopeStore.putString(output, entry.getValue().key);
+					output.writeInt(entry.getValue().values.length);
+					output.write(entry.getValue().values);
+				}
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			// the configuration area may be read-only
+			if (EclipsePreferences.DEBUG_PREFERENCE_GENERAL)
+				PrefsMessages.message("Unable to save default preferences cache to: " + file + ' ' + e); //$NON-NLS-1$
+			tmp.delete();
+		}
+	}
+
+	private Map<String, CachedDefaults> getEntries() {
+		if (entries == null) {
+			entries = new HashMap<>();
+			if (file.isFile())
+				read();
+		}
+		return entries;
+	}
+
+	private void read() {
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return;
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String qualifier = ScopeStore.getString(buffer);
+				String key = ScopeStore.getString(buffer);
+				byte[] values = new byte[buffer.getInt()];
+				buffer.get(values);
+				entries.put(qualifier, new CachedDefaults(key, values));
+			}
+		} catch (IOException | RuntimeException e) {
+			// corrupt cache, start over
+			entries.clear();
+			if (EclipsePreferences.DEBUG_PREFERENCE_GENERAL)
+				PrefsMessages.message("Unable to read default preferences cache from: " + file + ' ' + e); //$NON-NLS-1$
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2022 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.internal.runtime.RuntimeLog;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.preferences.*;
@@ -37,9 +38,12 @@ import org.osgi.service.prefs.Preferences;
  *
  * Implementation notes:
  *
- *  - For thread safety, we always synchronize on <tt>writeLock</tt> when writing
+ *  - For thread safety, we always synchronize on <tt>childAndPropertyLock</tt> when writing
  * the children or properties fields.  Must ensure we don't synchronize when calling
  * client code such as listeners.
+ *  - Reads don't lock. The properties are held in an {@link ImmutableMap} which is
+ * replaced as a whole on every write, and the children are held in a concurrent map,
+ * so readers always see a consistent snapshot.
  *
  * @since 3.0
  */
@@ -58,10 +62,10 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	private static final String BACKUP_FILE_EXTENSION = ".bak"; //$NON-NLS-1$
 
 	private String cachedPath;
-	protected ImmutableMap properties = ImmutableMap.EMPTY;
-	protected Map<String, Object> children;
+	protected volatile ImmutableMap properties = ImmutableMap.EMPTY;
+	protected volatile Map<String, Object> children;
 	/**
-	 * Protects write access to properties and children.
+	 * Protects write access to properties and children. Read access is lock-free.
 	 */
 	private final Object childAndPropertyLock = new Object();
 	protected boolean dirty = false;
@@ -69,7 +73,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	protected final String name;
 	// the parent of an EclipsePreference node is always an EclipsePreference node. (or null)
 	protected final EclipsePreferences parent;
-	protected boolean removed = false;
+	protected volatile boolean removed = false;
 	private final ListenerList<INodeChangeListener> nodeChangeListeners = new ListenerList<>();
 	private final ListenerList<IPreferenceChangeListener> preferenceChangeListeners = new ListenerList<>();
 	private ScopeDescriptor descriptor;
@@ -129,7 +133,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		//Thread safety: synchronize method to protect modification of children field
 		synchronized (childAndPropertyLock) {
 			if (children == null)
-				children = Collections.synchronizedMap(new HashMap<String, Object>());
+				children = new ConcurrentHashMap<>();
 			children.put(childName, child == null ? (Object) childName : child);
 			return child;
 		}
@@ -186,12 +190,11 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	}
 
 	protected String[] internalChildNames() {
-		synchronized (childAndPropertyLock) {
-			if (children == null || children.isEmpty()) {
-				return EMPTY_STRING_ARRAY;
-			}
-			return children.keySet().toArray(String[]::new);
+		Map<String, Object> temp = children;
+		if (temp == null || temp.isEmpty()) {
+			return EMPTY_STRING_ARRAY;
 		}
+		return temp.keySet().toArray(String[]::new);
 	}
 
 
@@ -201,12 +204,8 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		checkRemoved();
 		// call each one separately (instead of Properties.clear) so
 		// clients get change notification
-		String[] keys;
-		synchronized (childAndPropertyLock) {
-			keys = properties.keys();
-		}
 		//don't synchronize remove call because it calls listeners
-		for (String key : keys) {
+		for (String key : properties.keys()) {
 			remove(key);
 		}
 		makeDirty();
@@ -318,10 +317,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		// add the key/value pairs from this node
 		boolean addSeparator = prefix.length() != 0;
 		//thread safety: copy reference in case of concurrent change
-		ImmutableMap temp;
-		synchronized (childAndPropertyLock) {
-			temp = properties;
-		}
+		ImmutableMap temp = properties;
 		for (String key : temp.keys()) {
 			String value = temp.get(key);
 			if (value != null)
@@ -414,6 +410,8 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 			for (String childrenName : childrenNames()) {
 				node(childrenName).flush();
 			}
+			// write the children whose flush has been deferred
+			PreferencesService.getDefault().getFlusher().flush(absolutePath());
 			return null;
 		}
 
@@ -425,6 +423,9 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		// any work to do?
 		if (!dirty)
 			return null;
+		// the flusher coalesces the writes of the load levels which support it
+		if (isFlushDeferrable() && PreferencesService.getDefault().getFlusher().schedule(this))
+			return null;
 		//remove dirty bit before saving, to ensure that concurrent
 		//changes during save mark the store as dirty
 		dirty = false;
@@ -439,6 +440,46 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	}
 
 
+	/**
+	 * Returns whether or not the flush of this load level may be deferred and
+	 * coalesced with later flushes by the {@link PreferencesFlusher}, in which
+	 * case {@link #flush()} only schedules the write of its file when the flusher
+	 * is enabled. The default implementation returns <code>false</code>.
+	 */
+	protected boolean isFlushDeferrable() {
+		return false;
+	}
+
+	/*
+	 * Write this load level now if its flush has been deferred.
+	 */
+	void flushPending() throws BackingStoreException {
+		if (!isFlushDeferrable())
+			return;
+		PreferencesService.getDefault().getFlusher().cancel(this);
+		flushScheduled();
+	}
+
+	/*
+	 * Save this load level if it is still dirty. Called by the flusher for the
+	 * nodes whose flush has been deferred. Returns whether or not the node was saved.
+	 */
+	boolean flushScheduled() throws BackingStoreException {
+		synchronized (childAndPropertyLock) {
+			if (removed || !dirty)
+				return false;
+			dirty = false;
+			try {
+				save();
+			} catch (BackingStoreException e) {
+				//mark it dirty again because the save failed
+				dirty = true;
+				throw e;
+			}
+			return true;
+		}
+	}
+
 	@Override
 	public String get(String key, String defaultValue) {
 		String value = internalGet(key);
@@ -464,11 +505,10 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	 * name is known to this node.
 	 */
 	protected boolean childExists(String childName) {
-		synchronized (childAndPropertyLock) {
-			if (children == null)
-				return false;
-			return children.get(childName) != null;
-		}
+		Map<String, Object> temp = children;
+		if (temp == null)
+			return false;
+		return temp.get(childName) != null;
 	}
 
 	/**
@@ -476,6 +516,13 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	 * that matches the given key, or null if there is no matching child.
 	 */
 	protected IEclipsePreferences getChild(String key, Object context, boolean create) {
+		// fast path: the child is already created
+		Map<String, Object> temp = children;
+		if (temp == null)
+			return null;
+		Object existing = temp.get(key);
+		if (existing instanceof IEclipsePreferences)
+			return (IEclipsePreferences) existing;
 		synchronized (childAndPropertyLock) {
 			if (children == null)
 				return null;
@@ -589,10 +636,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 			throw new NullPointerException();
 		// illegal state if this node has been removed
 		checkRemoved();
-		String result;
-		synchronized (childAndPropertyLock) {
-			result = properties.get(key);
-		}
+		String result = properties.get(key);
 		if (DEBUG_PREFERENCE_GET)
 			PrefsMessages.message("Getting preference value: " + absolutePath() + '/' + key + "->" + result); //$NON-NLS-1$ //$NON-NLS-2$
 		return result;
@@ -660,10 +704,8 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	@Override
 	public String[] keys() {
 		// illegal state if this node has been removed
-		synchronized (childAndPropertyLock) {
-			checkRemoved();
-			return properties.keys();
-		}
+		checkRemoved();
+		return properties.keys();
 	}
 
 	/**
@@ -826,6 +868,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	 * Convenience method for notifying preference change listeners.
 	 */
 	protected void firePreferenceEvent(String key, Object oldValue, Object newValue) {
+		DefaultPreferences.recordChange(this);
 		if (preferenceChangeListeners == null)
 			return;
 		final PreferenceChangeEvent event = new PreferenceChangeEvent(this, key, oldValue, newValue);
@@ -956,6 +999,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	public void removeNode() throws BackingStoreException {
 		// illegal state if this node has been removed
 		checkRemoved();
+		DefaultPreferences.recordChange(this);
 		// clear all the property values. do it "the long way" so
 		// everyone gets notification
 		String[] keys = keys();
@@ -1076,10 +1120,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	 */
 	public void shareStrings(StringPool pool) {
 		//thread safety: copy reference in case of concurrent change
-		ImmutableMap temp;
-		synchronized (childAndPropertyLock) {
-			temp = properties;
-		}
+		ImmutableMap temp = properties;
 		temp.shareStrings(pool);
 		for (IEclipsePreferences child : getChildren(false)) {
 			if (child instanceof EclipsePreferences) {
@@ -1201,6 +1242,8 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 			return;
 		}
 		if (node instanceof EclipsePreferences) {
+			// the file is read again, so a deferred flush has to be written first
+			((EclipsePreferences) node).flushPending();
 			((EclipsePreferences) node).load();
 			node.flush();
 		}
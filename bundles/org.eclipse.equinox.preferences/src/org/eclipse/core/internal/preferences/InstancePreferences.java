@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2022 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import org.eclipse.core.internal.runtime.MetaDataKeeper;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.osgi.service.datalocation.Location;
+import org.osgi.service.prefs.BackingStoreException;
 
 /**
  * @since 3.0
@@ -33,6 +34,8 @@ public class InstancePreferences extends EclipsePreferences {
 	private static Set<String> loadedNodes = Collections.synchronizedSet(new HashSet<String>());
 	private static boolean initialized = false;
 	private static IPath baseLocation;
+	// the store keeping all the load levels of this scope in one file, if any
+	private static final ScopeStoreSupport store = new ScopeStoreSupport(InstancePreferences::getBaseLocation);
 
 	/* package */static IPath getBaseLocation() {
 		// If we are running with -data=@none we won't have an instance location.
@@ -89,6 +92,11 @@ public class InstancePreferences extends EclipsePreferences {
 		return location;
 	}
 
+	@Override
+	protected boolean isFlushDeferrable() {
+		return true;
+	}
+
 	/*
 	 * Return the node at which these preferences are loaded/saved.
 	 */
@@ -120,12 +128,28 @@ public class InstancePreferences extends EclipsePreferences {
 				for (String n : computeChildren(getBaseLocation())) {
 					addChild(n, null);
 				}
+				for (String n : store.getQualifiers()) {
+					if (!childExists(n))
+						addChild(n, null);
+				}
 			}
 		} finally {
 			initialized = true;
 		}
 	}
 
+	@Override
+	protected void load(IPath location) throws BackingStoreException {
+		if (!store.load(this, qualifier, location))
+			super.load(location);
+	}
+
+	@Override
+	protected void save(IPath location) throws BackingStoreException {
+		if (!store.save(this, qualifier, location))
+			super.save(location);
+	}
+
 	@Override
 	protected EclipsePreferences internalCreate(EclipsePreferences nodeParent, String nodeName, Object context) {
 		return new InstancePreferences(nodeParent, nodeName);
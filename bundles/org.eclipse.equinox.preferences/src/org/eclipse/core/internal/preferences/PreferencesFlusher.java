@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.preferences;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.internal.runtime.RuntimeLog;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Writes flushed preference nodes on a background thread.
+ * <p>
+ * When a quiet period is configured (see {@link #PROP_FLUSH_DELAY}), flushing
+ * a load level which supports it (see {@link EclipsePreferences#isFlushDeferrable()}),
+ * or a node below it, only schedules the write of its file. Repeated flushes of
+ * the same node are coalesced and the file is written once no flush has been
+ * requested for the quiet period, but no later than the maximum delay (see
+ * {@link #PROP_FLUSH_MAX_DELAY}) after the first of them. Flushing a node which
+ * is not a load level (for instance the root node or the root of a scope) writes
+ * the scheduled nodes below it synchronously, so does syncing a node, and all
+ * scheduled nodes are written when the bundle is stopped.
+ * </p>
+ * <p>
+ * Without a quiet period the flusher is disabled and flushing writes the file
+ * immediately.
+ * </p>
+ */
+public final class PreferencesFlusher {
+
+	/**
+	 * Framework property holding the quiet period in milliseconds. Deferred
+	 * flushing is disabled unless the value is greater than zero.
+	 */
+	public static final String PROP_FLUSH_DELAY = "eclipse.preferences.flushDelay"; //$NON-NLS-1$
+
+	/**
+	 * Framework property holding the maximum time in milliseconds a scheduled
+	 * node waits for its write. Defaults to ten times the quiet period.
+	 */
+	public static final String PROP_FLUSH_MAX_DELAY = "eclipse.preferences.flushMaxDelay"; //$NON-NLS-1$
+
+	private static final int DEFAULT_MAX_DELAY_FACTOR = 10;
+
+	private final long delay;
+	private final long maxDelay;
+	// key: scheduled load level, value: times (in ms) at which it is written
+	private final Map<EclipsePreferences, Due> scheduled = new HashMap<>();
+	// serializes the writes so a synchronous flush waits for the writes in progress
+	private final Object writeLock = new Object();
+	private Thread worker;
+	private boolean stopped;
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong writes = new AtomicLong();
+
+	/*
+	 * The times at which a scheduled node is written: after the quiet period
+	 * since the last request, and at the latest at the deadline.
+	 */
+	private static final class Due {
+		final long deadline;
+		long time;
+
+		Due(long time, long deadline) {
+			this.time = time;
+			this.deadline = deadline;
+		}
+	}
+
+	PreferencesFlusher() {
+		this(readDelay(PROP_FLUSH_DELAY, 0));
+	}
+
+	private PreferencesFlusher(long delay) {
+		this(delay, readDelay(PROP_FLUSH_MAX_DELAY, delay * DEFAULT_MAX_DELAY_FACTOR));
+	}
+
+	/**
+	 * Creates a flusher with the given quiet period and maximum delay in
+	 * milliseconds. The maximum delay is never shorter than the quiet period.
+	 */
+	public PreferencesFlusher(long delay, long maxDelay) {
+		this.delay = delay;
+		this.maxDelay = Math.max(delay, maxDelay);
+	}
+
+	private static long readDelay(String key, long defaultValue) {
+		BundleContext context = Activator.getContext();
+		String value = context == null ? System.getProperty(key) : context.getProperty(key);
+		if (value == null)
+			return defaultValue;
+		try {
+			return Math.max(0, Long.parseLong(value.trim()));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Returns whether or not flushes are deferred.
+	 */
+	public boolean isEnabled() {
+		return delay > 0;
+	}
+
+	/**
+	 * Schedules the write of the given load level. Returns <code>false</code> if the
+	 * node could not be scheduled and must be written by the caller, which is the
+	 * case when the flusher is disabled or has been stopped.
+	 */
+	public boolean schedule(EclipsePreferences node) {
+		if (!isEnabled())
+			return false;
+		synchronized (scheduled) {
+			if (stopped)
+				return false;
+			requests.incrementAndGet();
+			long now = System.currentTimeMillis();
+			Due due = scheduled.get(node);
+			if (due == null)
+				scheduled.put(node, new Due(now + delay, now + maxDelay));
+			else
+				due.time = Math.min(now + delay, due.deadline);
+			if (worker == null) {
+				worker = new Thread(this::run, "Preferences Flusher"); //$NON-NLS-1$
+				worker.setDaemon(true);
+				worker.start();
+			}
+			scheduled.notifyAll();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the given node from the scheduled nodes. Called when the node is
+	 * written before it is due.
+	 */
+	void cancel(EclipsePreferences node) {
+		synchronized (scheduled) {
+			scheduled.remove(node);
+		}
+	}
+
+	/**
+	 * Synchronously writes the scheduled nodes whose absolute path starts with the
+	 * given path.
+	 *
+	 * @throws BackingStoreException the first exception which occurred while writing
+	 */
+	public void flush(String path) throws BackingStoreException {
+		List<EclipsePreferences> toWrite = new ArrayList<>();
+		synchronized (scheduled) {
+			if (scheduled.isEmpty())
+				return;
+			String prefix = path.endsWith("/") ? path : path + '/'; //$NON-NLS-1$
+			for (Iterator<EclipsePreferences> i = scheduled.keySet().iterator(); i.hasNext();) {
+				EclipsePreferences node = i.next();
+				if (node.absolutePath().startsWith(prefix)) {
+					toWrite.add(node);
+					i.remove();
+				}
+			}
+		}
+		write(toWrite, true);
+	}
+
+	/**
+	 * Writes all scheduled nodes and stops the background thread. Nodes flushed
+	 * afterwards are written immediately.
+	 */
+	public void stop() {
+		List<EclipsePreferences> toWrite;
+		Thread toJoin;
+		synchronized (scheduled) {
+			stopped = true;
+			toWrite = new ArrayList<>(scheduled.keySet());
+			scheduled.clear();
+			toJoin = worker;
+			worker = null;
+			scheduled.notifyAll();
+		}
+		if (toJoin != null) {
+			try {
+				toJoin.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			write(toWrite, false);
+		} catch (BackingStoreException e) {
+			// already logged
+		}
+		if (EclipsePreferences.DEBUG_PREFERENCE_GENERAL)
+			PrefsMessages.message("Preference flushes requested: " + getRequestCount() + ", files written: " + getWriteCount() + ", writes saved: " + getSavedWriteCount()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/*
+	 * Return whether or not the flusher has been stopped.
+	 */
+	boolean isStopped() {
+		synchronized (scheduled) {
+			return stopped;
+		}
+	}
+
+	/**
+	 * Returns the number of flushes which have been deferred.
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * Returns the number of preference files written for deferred flushes.
+	 */
+	public long getWriteCount() {
+		return writes.get();
+	}
+
+	/**
+	 * Returns the number of file writes avoided by coalescing deferred flushes.
+	 */
+	public long getSavedWriteCount() {
+		return Math.max(0, requests.get() - writes.get());
+	}
+
+	private void run() {
+		while (true) {
+			List<EclipsePreferences> toWrite = new ArrayList<>();
+			synchronized (scheduled) {
+				if (stopped)
+					return;
+				long now = System.currentTimeMillis();
+				long next = Long.MAX_VALUE;
+				for (Iterator<Map.Entry<EclipsePreferences, Due>> i = scheduled.entrySet().iterator(); i.hasNext();) {
+					Map.Entry<EclipsePreferences, Due> entry = i.next();
+					long due = entry.getValue().time;
+					if (due <= now) {
+						toWrite.add(entry.getKey());
+						i.remove();
+					} else {
+						next = Math.min(next, due);
+					}
+				}
+				if (toWrite.isEmpty()) {
+					try {
+						if (next == Long.MAX_VALUE)
+							scheduled.wait();
+						else
+							scheduled.wait(next - now);
+					} catch (InterruptedException e) {
+						return;
+					}
+					continue;
+				}
+			}
+			try {
+				write(toWrite, false);
+			} catch (BackingStoreException e) {
+				// already logged
+			}
+		}
+	}
+
+	/*
+	 * Write the given nodes. Failures are logged, or thrown if requested.
+	 */
+	private void write(List<EclipsePreferences> nodes, boolean throwFailure) throws BackingStoreException {
+		BackingStoreException exception = null;
+		synchronized (writeLock) {
+			for (EclipsePreferences node : nodes) {
+				try {
+					if (node.flushScheduled())
+						writes.incrementAndGet();
+				} catch (BackingStoreException e) {
+					if (throwFailure) {
+						// store the first exception we get and still try and write the rest
+						if (exception == null)
+							exception = e;
+					} else {
+						String message = NLS.bind(PrefsMessages.preferences_saveException, node.absolutePath());
+						RuntimeLog.log(new Status(IStatus.ERROR, PrefsMessages.OWNER_NAME, IStatus.ERROR, message, e));
+					}
+				}
+			}
+		}
+		if (exception != null)
+			throw exception;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -150,6 +150,15 @@ public class PreferencesOSGiUtils {
 		return null;
 	}
 
+	/**
+	 * Returns the fragments attached to the given bundle, never <code>null</code>.
+	 */
+	public Bundle[] getFragments(Bundle bundle) {
+		PackageAdmin packageAdmin = bundleTracker == null ? null : bundleTracker.getService();
+		Bundle[] fragments = packageAdmin == null ? null : packageAdmin.getFragments(bundle);
+		return fragments == null ? new Bundle[0] : fragments;
+	}
+
 	public Location getConfigurationLocation() {
 		if (configurationLocationTracker != null)
 			return (Location) configurationLocationTracker.getService();
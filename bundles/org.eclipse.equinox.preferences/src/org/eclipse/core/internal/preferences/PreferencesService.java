@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,8 @@ import java.io.*;
 import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.core.internal.runtime.RuntimeLog;
 import org.eclipse.core.runtime.*;
@@ -57,6 +59,94 @@ public class PreferencesService implements IPreferencesService {
 	private Object registryHelper = null;
 	private final Map<String, EclipsePreferences> defaultScopes = new HashMap<>();
 
+	/**
+	 * The maximum number of entries kept in the node cache before it is cleared.
+	 */
+	private static final int NODE_CACHE_LIMIT = 1000;
+	/**
+	 * Cache of the nodes consulted by the lookup methods (e.g. {@link #getString(String, String, String, IScopeContext[])}).
+	 * Only lookups which involve the instance, configuration and default scopes are cached.
+	 */
+	private final Map<NodesKey, CachedNodes> nodeCache = new ConcurrentHashMap<>();
+
+	/*
+	 * Key of the node cache. Scope contexts are compared by their class; this is only
+	 * correct for the final scope classes accepted by isCacheable(IScopeContext[]).
+	 */
+	private static final class NodesKey {
+		private final String qualifier;
+		private final String childPath;
+		private final IScopeContext[] contexts;
+		private final int hash;
+
+		NodesKey(String qualifier, String childPath, IScopeContext[] contexts) {
+			this.qualifier = qualifier;
+			this.childPath = childPath;
+			this.contexts = contexts;
+			int h = 31 * qualifier.hashCode() + (childPath == null ? 0 : childPath.hashCode());
+			if (contexts != null) {
+				for (IScopeContext context : contexts)
+					h = 31 * h + (context == null ? 0 : context.getClass().hashCode());
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof NodesKey))
+				return false;
+			NodesKey other = (NodesKey) obj;
+			if (hash != other.hash || !qualifier.equals(other.qualifier) || !Objects.equals(childPath, other.childPath))
+				return false;
+			int length = contexts == null ? 0 : contexts.length;
+			int otherLength = other.contexts == null ? 0 : other.contexts.length;
+			if (length != otherLength)
+				return false;
+			for (int i = 0; i < length; i++) {
+				IScopeContext context = contexts[i];
+				IScopeContext otherContext = other.contexts[i];
+				if (context == null ? otherContext != null : otherContext == null || context.getClass() != otherContext.getClass())
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/*
+	 * Value of the node cache: the lookup order the nodes were resolved for and the nodes.
+	 */
+	private static final class CachedNodes {
+		final String[] order;
+		final Preferences[] nodes;
+
+		CachedNodes(String[] order, Preferences[] nodes) {
+			this.order = order;
+			this.nodes = nodes;
+		}
+
+		boolean isValid(String[] currentOrder) {
+			if (order != currentOrder)
+				return false;
+			for (Preferences node : nodes) {
+				if (((EclipsePreferences) node).removed)
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Writes the preference files whose flush has been deferred.
+	 */
+	private volatile PreferencesFlusher flusher;
+
 	/**
 	 * The last time analysis was done to remove duplicate strings
 	 */
@@ -591,10 +681,39 @@ public class PreferencesService implements IPreferencesService {
 		return order;
 	}
 
+	/*
+	 * Return whether or not the nodes looked up for the given contexts can be cached.
+	 * This is the case for the scopes whose nodes always live in the preference tree.
+	 */
+	private static boolean isCacheable(IScopeContext[] contexts) {
+		if (contexts == null)
+			return true;
+		for (IScopeContext context : contexts) {
+			if (context != null && context.getClass() != InstanceScope.class && context.getClass() != ConfigurationScope.class && context.getClass() != DefaultScope.class)
+				return false;
+		}
+		return true;
+	}
+
 	private Preferences[] getNodes(final String qualifier, String key, final IScopeContext[] contexts) {
 		String[] order = getLookupOrder(qualifier, key);
 		final String childPath = EclipsePreferences.makeRelative(EclipsePreferences.decodePath(key)[0]);
+		NodesKey cacheKey = isCacheable(contexts) ? new NodesKey(qualifier, childPath, contexts) : null;
+		if (cacheKey != null) {
+			CachedNodes cached = nodeCache.get(cacheKey);
+			if (cached != null && cached.isValid(order))
+				return cached.nodes;
+		}
+		return lookupNodes(qualifier, childPath, contexts, order, cacheKey);
+	}
+
+	/*
+	 * Resolve the nodes for the given lookup order and remember them in the node cache
+	 * if a cache key is given and the lookup didn't fail.
+	 */
+	private Preferences[] lookupNodes(final String qualifier, final String childPath, final IScopeContext[] contexts, String[] order, NodesKey cacheKey) {
 		final ArrayList<Preferences> result = new ArrayList<>();
+		AtomicBoolean failed = new AtomicBoolean();
 		for (String scopeString : order) {
 			AtomicReference<IllegalStateException> error = new AtomicReference<>();
 			SafeRunner.run(new ISafeRunnable() {
@@ -634,6 +753,7 @@ public class PreferencesService implements IPreferencesService {
 					} else {
 						log(new Status(IStatus.ERROR, Activator.PI_PREFERENCES, PrefsMessages.preferences_contextError, exception));
 					}
+					failed.set(true);
 				}
 			});
 
@@ -643,7 +763,18 @@ public class PreferencesService implements IPreferencesService {
 				throw illegalState;
 			}
 		}
-		return result.toArray(new Preferences[result.size()]);
+		Preferences[] nodes = result.toArray(new Preferences[result.size()]);
+		if (cacheKey != null && !failed.get()) {
+			for (Preferences node : nodes) {
+				if (!(node instanceof EclipsePreferences))
+					return nodes;
+			}
+			if (nodeCache.size() >= NODE_CACHE_LIMIT)
+				nodeCache.clear();
+			IScopeContext[] copy = contexts == null ? null : contexts.clone();
+			nodeCache.put(new NodesKey(qualifier, childPath, copy), new CachedNodes(order, nodes));
+		}
+		return nodes;
 	}
 
 	/*
@@ -657,6 +788,49 @@ public class PreferencesService implements IPreferencesService {
 		return qualifier + '/' + key;
 	}
 
+	/**
+	 * Returns the flusher which writes the preference files whose flush has been deferred.
+	 */
+	public PreferencesFlusher getFlusher() {
+		PreferencesFlusher result = flusher;
+		if (result == null) {
+			synchronized (this) {
+				result = flusher;
+				if (result == null)
+					flusher = result = new PreferencesFlusher();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces the flusher and returns the previous one, for testing purposes.
+	 * The nodes scheduled by the previous flusher are not written.
+	 */
+	public synchronized PreferencesFlusher setFlusher(PreferencesFlusher newFlusher) {
+		PreferencesFlusher previous = flusher;
+		flusher = newFlusher;
+		return previous;
+	}
+
+	/*
+	 * Replace a flusher which has been stopped by a new one, which is created
+	 * when it is first needed. Called when the bundle is started.
+	 */
+	synchronized void startFlusher() {
+		if (flusher != null && flusher.isStopped())
+			flusher = null;
+	}
+
+	/*
+	 * Write the preference files whose flush has been deferred and stop the flusher.
+	 * The stopped flusher is kept so the preference files flushed afterwards are
+	 * written immediately.
+	 */
+	void stopFlusher() {
+		getFlusher().stop();
+	}
+
 	@Override
 	public IEclipsePreferences getRootNode() {
 		return root;
@@ -945,6 +1119,7 @@ public class PreferencesService implements IPreferencesService {
 			LookupOrder obj = new LookupOrder(order);
 			defaultsRegistry.put(registryKey, obj);
 		}
+		nodeCache.clear();
 	}
 
 	public void setRegistryHelper(Object registryHelper) {
@@ -1135,5 +1310,6 @@ public class PreferencesService implements IPreferencesService {
 		if (order == null)
 			order = new String[0];
 		DEFAULT_DEFAULT_LOOKUP_ORDER = order;
+		nodeCache.clear();
 	}
 }
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.preferences;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.Map.Entry;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Keeps the preferences of all the load levels of a scope in one binary file
+ * instead of one properties file per load level.
+ * <p>
+ * The store is enabled with the {@link #PROP_SCOPE_STORE} property. The file is
+ * memory mapped when the store is opened and the preferences of a load level are
+ * only decoded when the node is loaded. Saving a node rewrites the file; the
+ * content of the other load levels is copied without being decoded.
+ * </p>
+ * <p>
+ * The store alternates between two files and a generation number tells which
+ * one is current; the other one is read if the current one is damaged. The file
+ * mapped while reading is never written, so it does not need to be unmapped
+ * before it is replaced. Properties files of load levels
+ * which are newer than the store (e.g. written while the store was disabled) take
+ * precedence and are deleted once the node is saved to the store.
+ * </p>
+ */
+public class ScopeStore {
+
+	/**
+	 * Framework property. Set to <code>true</code> to keep the instance and
+	 * configuration preferences in one file per scope.
+	 */
+	public static final String PROP_SCOPE_STORE = "eclipse.preferences.scopeStore"; //$NON-NLS-1$
+
+	private static final String FILE_NAME = "preferences.store."; //$NON-NLS-1$
+	private static final String TEMP_FILE_EXTENSION = ".tmp"; //$NON-NLS-1$
+	private static final int MAGIC = 0x50524653; // "PRFS"
+	private static final int VERSION = 1;
+	// magic, version, generation, entry count
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+	private final File[] files;
+	// key: qualifier, value: encoded preferences of the load level
+	private final Map<String, ByteBuffer> entries = new TreeMap<>();
+	private long generation;
+	// index of the file which is mapped, -1 if none
+	private int mapped = -1;
+	private long timestamp;
+
+	/**
+	 * Returns the store for the given preference directory, or <code>null</code> if
+	 * the store is disabled and there is no store to read from.
+	 */
+	public static ScopeStore open(IPath directory) {
+		if (directory == null)
+			return null;
+		ScopeStore store = new ScopeStore(directory.toFile());
+		if (!isEnabled() && !store.exists())
+			return null;
+		store.read();
+		return store;
+	}
+
+	/**
+	 * Returns whether or not the preferences are saved to the store.
+	 */
+	public static boolean isEnabled() {
+		BundleContext context = Activator.getContext();
+		String value = context == null ? System.getProperty(PROP_SCOPE_STORE) : context.getProperty(PROP_SCOPE_STORE);
+		return Boolean.parseBoolean(value);
+	}
+
+	private ScopeStore(File directory) {
+		files = new File[] {new File(directory, FILE_NAME + 0), new File(directory, FILE_NAME + 1)};
+	}
+
+	private boolean exists() {
+		return files[0].isFile() || files[1].isFile();
+	}
+
+	/**
+	 * Returns the qualifiers of the load levels kept in the store.
+	 */
+	public synchronized Collection<String> getQualifiers() {
+		return new ArrayList<>(entries.keySet());
+	}
+
+	/**
+	 * Returns the preferences of the given load level, or <code>null</code> if the
+	 * properties file of the load level has to be read instead.
+	 */
+	public synchronized Properties load(String qualifier, IPath location) throws BackingStoreException {
+		ByteBuffer entry = entries.get(qualifier);
+		if (entry == null || isNewer(location))
+			return null;
+		if (EclipsePreferences.DEBUG_PREFERENCE_GENERAL)
+			PrefsMessages.message("Loading preferences of " + qualifier + " from: " + files[current()]); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			return decode(entry.duplicate());
+		} catch (RuntimeException e) {
+			String message = NLS.bind(PrefsMessages.preferences_loadException, files[current()]);
+			EclipsePreferences.log(new Status(IStatus.INFO, PrefsMessages.OWNER_NAME, IStatus.INFO, message, e));
+			throw new BackingStoreException(message, e);
+		}
+	}
+
+	/**
+	 * Saves the preferences of the given load level and deletes its properties file.
+	 */
+	public synchronized void save(String qualifier, Properties table, IPath location) throws BackingStoreException {
+		if (table.isEmpty())
+			entries.remove(qualifier);
+		else
+			entries.put(qualifier, ByteBuffer.wrap(encode(table)));
+		write();
+		File legacy = location == null ? null : location.toFile();
+		if (legacy != null && legacy.exists() && !legacy.delete()) {
+			String message = NLS.bind(PrefsMessages.preferences_failedDelete, legacy);
+			EclipsePreferences.log(new Status(IStatus.WARNING, PrefsMessages.OWNER_NAME, IStatus.WARNING, message, null));
+		}
+	}
+
+	/*
+	 * Return whether or not the properties file at the given location has been
+	 * written after the store.
+	 */
+	private boolean isNewer(IPath location) {
+		if (location == null)
+			return false;
+		File legacy = location.toFile();
+		return legacy.lastModified() > timestamp;
+	}
+
+	private int current() {
+		return mapped == -1 ? 0 : mapped;
+	}
+
+	/*
+	 * Map the most recent valid file and index its entries. The previous file is
+	 * used if the most recent one can not be read.
+	 */
+	private void read() {
+		long[] generations = {readGeneration(files[0]), readGeneration(files[1])};
+		// make sure the next write supersedes both files
+		generation = Math.max(generations[0], generations[1]);
+		int newest = generations[0] >= generations[1] ? 0 : 1;
+		if (!read(newest, generations[newest]))
+			read(1 - newest, generations[1 - newest]);
+	}
+
+	private boolean read(int index, long fileGeneration) {
+		if (fileGeneration < 0)
+			return false;
+		File file = files[index];
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.position(HEADER_SIZE - 4);
+			int count = buffer.getInt();
+			if (count < 0)
+				throw new IOException("Invalid entry count: " + count); //$NON-NLS-1$
+			String[] qualifiers = new String[count];
+			int[] lengths = new int[count];
+			long total = 0;
+			for (int i = 0; i < count; i++) {
+				qualifiers[i] = getString(buffer);
+				lengths[i] = buffer.getInt();
+				if (lengths[i] < 0)
+					throw new IOException("Invalid entry length: " + lengths[i]); //$NON-NLS-1$
+				total += lengths[i];
+			}
+			// a file which was cut short or extended is not trusted
+			if (total != buffer.remaining())
+				throw new IOException("Invalid file size: " + channel.size()); //$NON-NLS-1$
+			Map<String, ByteBuffer> read = new TreeMap<>();
+			for (int i = 0; i < count; i++) {
+				ByteBuffer entry = buffer.slice();
+				entry.limit(lengths[i]);
+				buffer.position(buffer.position() + lengths[i]);
+				read.put(qualifiers[i], entry);
+			}
+			entries.putAll(read);
+			mapped = index;
+			timestamp = file.lastModified();
+			return true;
+		} catch (IOException | RuntimeException e) {
+			String message = NLS.bind(PrefsMessages.preferences_loadException, file);
+			EclipsePreferences.log(new Status(IStatus.WARNING, PrefsMessages.OWNER_NAME, IStatus.WARNING, message, e));
+			return false;
+		}
+	}
+
+	/*
+	 * Return the generation of the given file, or -1 if it is missing or invalid.
+	 */
+	private static long readGeneration(File file) {
+		if (!file.isFile())
+			return -1;
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), HEADER_SIZE))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				return -1;
+			return input.readLong();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private void write() throws BackingStoreException {
+		File file = files[mapped == 0 ? 1 : 0];
+		Path target = file.toPath();
+		Path tmp = target.resolveSibling(file.getName() + TEMP_FILE_EXTENSION);
+		try {
+			Files.createDirectories(target.getParent());
+			try (FileOutputStream output = new FileOutputStream(tmp.toFile())) {
+				DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+				data.writeInt(MAGIC);
+				data.writeInt(VERSION);
+				data.writeLong(generation + 1);
+				data.writeInt(entries.size());
+				for (Entry<String, ByteBuffer> entry : entries.entrySet()) {
+					putString(data, entry.getKey());
+					data.writeInt(entry.getValue().remaining());
+				}
+				for (ByteBuffer entry : entries.values()) {
+					ByteBuffer content = entry.duplicate();
+					if (content.hasArray()) {
+						data.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+					} else {
+						byte[] bytes = new byte[content.remaining()];
+						content.get(bytes);
+						data.write(bytes);
+					}
+				}
+				data.flush();
+				// the content must be on disk before the file can supersede the other one
+				output.getFD().sync();
+			}
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			generation++;
+			timestamp = file.lastModified();
+		} catch (IOException e) {
+			String message = NLS.bind(PrefsMessages.preferences_saveException, file);
+			EclipsePreferences.log(new Status(IStatus.ERROR, PrefsMessages.OWNER_NAME, IStatus.ERROR, message, e));
+			throw new BackingStoreException(message, e);
+		}
+		if (EclipsePreferences.DEBUG_PREFERENCE_GENERAL)
+			PrefsMessages.message("Saved preferences to: " + file); //$NON-NLS-1$
+	}
+
+	/*
+	 * Entry format: count, then count key/value pairs.
+	 */
+	static byte[] encode(Properties table) throws BackingStoreException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			DataOutputStream data = new DataOutputStream(bytes);
+			data.writeInt(table.size());
+			for (String key : table.stringPropertyNames()) {
+				putString(data, key);
+				putString(data, table.getProperty(key));
+			}
+			data.flush();
+		} catch (IOException e) {
+			// can't happen when writing to memory
+			throw new BackingStoreException(e.getMessage(), e);
+		}
+		return bytes.toByteArray();
+	}
+
+	static Properties decode(ByteBuffer buffer) {
+		Properties result = new Properties();
+		int count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			String key = getString(buffer);
+			result.put(key, getString(buffer));
+		}
+		return result;
+	}
+
+	// strings are written as length and UTF-8 bytes since values may exceed the modified UTF-8 limit
+	static void putString(DataOutputStream data, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
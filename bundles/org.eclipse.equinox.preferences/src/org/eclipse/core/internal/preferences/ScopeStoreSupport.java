@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.preferences;
+
+import java.util.*;
+import java.util.function.Supplier;
+import org.eclipse.core.runtime.IPath;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Loads and saves the load levels of a scope through its {@link ScopeStore}. The
+ * store is opened the first time it is needed.
+ */
+class ScopeStoreSupport {
+
+	// the location of the scope, may return null
+	private final Supplier<IPath> baseLocation;
+	private ScopeStore store;
+	private boolean opened = false;
+
+	ScopeStoreSupport(Supplier<IPath> baseLocation) {
+		this.baseLocation = baseLocation;
+	}
+
+	/*
+	 * Return the store of the scope, or null if the load levels are kept in
+	 * properties files.
+	 */
+	synchronized ScopeStore getStore() {
+		if (!opened) {
+			IPath root = baseLocation.get();
+			if (root == null)
+				return null;
+			store = ScopeStore.open(root.append(EclipsePreferences.DEFAULT_PREFERENCES_DIRNAME));
+			opened = true;
+		}
+		return store;
+	}
+
+	/*
+	 * Return the qualifiers of the load levels kept in the store.
+	 */
+	Collection<String> getQualifiers() {
+		ScopeStore scopeStore = getStore();
+		return scopeStore == null ? Collections.emptyList() : scopeStore.getQualifiers();
+	}
+
+	/*
+	 * Load the given load level from the store. Return false if the properties
+	 * file of the load level has to be read instead.
+	 */
+	boolean load(EclipsePreferences node, String qualifier, IPath location) throws BackingStoreException {
+		ScopeStore scopeStore = getStore();
+		Properties fromStore = scopeStore == null ? null : scopeStore.load(qualifier, location);
+		if (fromStore == null)
+			return false;
+		EclipsePreferences.convertFromProperties(node, fromStore, false);
+		return true;
+	}
+
+	/*
+	 * Save the given load level to the store. Return false if the load level has
+	 * to be saved to its properties file instead.
+	 */
+	boolean save(EclipsePreferences node, String qualifier, IPath location) throws BackingStoreException {
+		ScopeStore scopeStore = getStore();
+		if (scopeStore == null || !ScopeStore.isEnabled())
+			return false;
+		Properties table = node.convertToProperties(new SortedProperties(), EclipsePreferences.EMPTY_STRING);
+		if (!table.isEmpty())
+			table.put(EclipsePreferences.VERSION_KEY, EclipsePreferences.VERSION_VALUE);
+		scopeStore.save(qualifier, table, location);
+		return true;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2015 IBM Corporation and others.
+ * Copyright (c) 2011, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.core.internal.preferences;
 
 import java.util.Properties;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.osgi.service.prefs.BackingStoreException;
 
 public class TestHelper {
@@ -26,4 +27,12 @@ public class TestHelper {
 	public static IPath getInstanceBaseLocation() {
 		return InstancePreferences.getBaseLocation();
 	}
+
+	/**
+	 * Runs the given initializer as if it set the bundle defaults of the given
+	 * qualifier and returns whether the defaults cache would keep them.
+	 */
+	public static boolean isCacheableInitialization(String qualifier, Runnable initializer) {
+		return ((DefaultPreferences) DefaultScope.INSTANCE.getNode(qualifier)).record(initializer);
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 VMware Inc.
+ * Copyright (c) 2012, 2026 VMware Inc.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -306,6 +306,52 @@ public class RegionResolverHookTests {
 		assertTrue(this.candidates.contains(packageCapability(BUNDLE_X, PACKAGE_X)));
 	}
 
+	@Test
+	public void testResolveTransitiveAllowAll() throws BundleException, InvalidSyntaxException {
+		region(REGION_A).connectRegion(region(REGION_B), this.digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_PACKAGE_NAMESPACE).build());
+		region(REGION_B).connectRegion(region(REGION_C), createFilter(PACKAGE_X));
+		region(REGION_B).connectRegion(region(REGION_D), this.digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_BUNDLE_NAMESPACE).build());
+		region(REGION_C).addBundle(bundle(BUNDLE_X));
+
+		this.candidates.add(packageCapability(BUNDLE_B, PACKAGE_B));
+		this.candidates.add(packageCapability(BUNDLE_C, PACKAGE_C));
+		this.candidates.add(packageCapability(BUNDLE_D, PACKAGE_D));
+		this.candidates.add(packageCapability(BUNDLE_X, PACKAGE_X));
+		this.resolverHook.filterMatches(bundleRequirement(BUNDLE_A), this.candidates);
+		assertEquals(3, this.candidates.size());
+		assertTrue(this.candidates.contains(packageCapability(BUNDLE_B, PACKAGE_B)));
+		assertTrue(this.candidates.contains(packageCapability(BUNDLE_D, PACKAGE_D)));
+		assertTrue(this.candidates.contains(packageCapability(BUNDLE_X, PACKAGE_X)));
+
+		// the edge to B only allows packages
+		List<BundleCapability> collisionCandidates = new ArrayList<>();
+		collisionCandidates.add(bundleCapability(BUNDLE_B));
+		collisionCandidates.add(bundleCapability(BUNDLE_D));
+		this.resolverHook.filterSingletonCollisions(bundleCapability(BUNDLE_A), collisionCandidates);
+		assertEquals(0, collisionCandidates.size());
+	}
+
+	@Test
+	public void testResolveAfterDigraphChange() throws BundleException, InvalidSyntaxException {
+		this.candidates.add(packageCapability(BUNDLE_B, PACKAGE_B));
+		this.resolverHook.filterMatches(bundleRequirement(BUNDLE_A), this.candidates);
+		assertEquals(0, this.candidates.size());
+
+		region(REGION_A).connectRegion(region(REGION_B), createFilter(PACKAGE_B));
+		this.candidates.add(packageCapability(BUNDLE_B, PACKAGE_B));
+		this.candidates.add(packageCapability(BUNDLE_C, PACKAGE_B));
+		this.resolverHook.filterMatches(bundleRequirement(BUNDLE_A), this.candidates);
+		assertEquals(1, this.candidates.size());
+		assertTrue(this.candidates.contains(packageCapability(BUNDLE_B, PACKAGE_B)));
+
+		region(REGION_C).removeBundle(bundle(BUNDLE_C));
+		region(REGION_B).addBundle(bundle(BUNDLE_C));
+		this.candidates.add(packageCapability(BUNDLE_C, PACKAGE_B));
+		this.resolverHook.filterMatches(bundleRequirement(BUNDLE_A), this.candidates);
+		assertEquals(2, this.candidates.size());
+		assertTrue(this.candidates.contains(packageCapability(BUNDLE_C, PACKAGE_B)));
+	}
+
 	@Test
 	public void testResolveFromSystemBundle() {
 		this.candidates.add(packageCapability(BUNDLE_A, PACKAGE_A));
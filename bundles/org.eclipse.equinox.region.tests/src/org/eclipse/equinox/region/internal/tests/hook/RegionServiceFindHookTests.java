@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 VMware Inc.
+ * Copyright (c) 2011, 2026 VMware Inc.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -235,6 +235,42 @@ public class RegionServiceFindHookTests {
 
 	}
 
+	@Test
+	public void testFindTransitiveAllowAll() throws BundleException, InvalidSyntaxException {
+		region(REGION_A).connectRegion(region(REGION_B), this.digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE).build());
+		region(REGION_B).connectRegion(region(REGION_C), createFilter(BUNDLE_X));
+		region(REGION_C).addBundle(bundle(BUNDLE_X));
+
+		this.candidates.add(serviceReference(BUNDLE_B));
+		this.candidates.add(serviceReference(BUNDLE_C));
+		this.candidates.add(serviceReference(BUNDLE_D));
+		this.candidates.add(serviceReference(BUNDLE_X));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), "", "", false, this.candidates);
+		assertEquals(2, this.candidates.size());
+		assertTrue(this.candidates.contains(serviceReference(BUNDLE_B)));
+		assertTrue(this.candidates.contains(serviceReference(BUNDLE_X)));
+	}
+
+	@Test
+	public void testFindAfterDigraphChange() throws BundleException, InvalidSyntaxException {
+		this.candidates.add(serviceReference(BUNDLE_B));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), "", "", false, this.candidates);
+		assertFalse(this.candidates.contains(serviceReference(BUNDLE_B)));
+
+		region(REGION_A).connectRegion(region(REGION_B), this.digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE).build());
+		this.candidates.add(serviceReference(BUNDLE_B));
+		this.candidates.add(serviceReference(BUNDLE_C));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), "", "", false, this.candidates);
+		assertTrue(this.candidates.contains(serviceReference(BUNDLE_B)));
+		assertFalse(this.candidates.contains(serviceReference(BUNDLE_C)));
+
+		region(REGION_C).removeBundle(bundle(BUNDLE_C));
+		region(REGION_B).addBundle(bundle(BUNDLE_C));
+		this.candidates.add(serviceReference(BUNDLE_C));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), "", "", false, this.candidates);
+		assertTrue(this.candidates.contains(serviceReference(BUNDLE_C)));
+	}
+
 	@Test
 	public void testFindInCyclicGraph() throws BundleException, InvalidSyntaxException {
 		region(REGION_D).addBundle(bundle(BUNDLE_X));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2015 VMware Inc. and others
+ * Copyright (c) 2011, 2026 VMware Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -585,6 +585,15 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		}
 	}
 
+	/**
+	 * Returns the number of modifications of this digraph, including changes of the bundles of its regions.
+	 * 
+	 * @return the update count
+	 */
+	public long getUpdateCount() {
+		return this.updateCount.get();
+	}
+
 	private void incrementUpdateCount() {
 		synchronized (this.monitor) {
 			this.updateCount.incrementAndGet();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 VMware Inc and others.
+ * Copyright (c) 2011, 2026 VMware Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.equinox.internal.region;
 
 import java.util.*;
 import org.eclipse.equinox.region.RegionFilter;
+import org.eclipse.equinox.region.RegionFilterBuilder;
 import org.osgi.framework.*;
 import org.osgi.framework.wiring.BundleCapability;
 import org.osgi.framework.wiring.BundleRevision;
@@ -129,6 +130,21 @@ public final class StandardRegionFilter implements RegionFilter {
 		return matchAll(namespace, attributes);
 	}
 
+	/**
+	 * Determines whether this filter allows everything in at least one of the given namespaces.
+	 * 
+	 * @param namespaces the namespaces
+	 * @return <code>true</code> if a namespace is allowed with {@link RegionFilterBuilder#allowAll(String)}
+	 */
+	public boolean isAllowAll(String... namespaces) {
+		for (String namespace : namespaces) {
+			Collection<Filter> namespaceFilters = filters.get(namespace);
+			if (namespaceFilters != null && namespaceFilters.contains(ALL))
+				return true;
+		}
+		return false;
+	}
+
 	@SuppressWarnings("deprecation")
 	static final String[] serviceNamespaces = new String[] {VISIBLE_OSGI_SERVICE_NAMESPACE, VISIBLE_SERVICE_NAMESPACE};
 
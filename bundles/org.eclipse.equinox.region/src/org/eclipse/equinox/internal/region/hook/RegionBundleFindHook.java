@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 VMware Inc. and others
+ * Copyright (c) 2013, 2026 VMware Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,8 @@
 
 package org.eclipse.equinox.internal.region.hook;
 
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.*;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph;
 import org.eclipse.equinox.region.*;
 import org.osgi.framework.*;
 import org.osgi.framework.hooks.bundle.FindHook;
@@ -33,9 +33,12 @@ public final class RegionBundleFindHook implements FindHook {
 
 	private final long hookImplID;
 
+	private final RegionVisibilityCache visibilityCache;
+
 	public RegionBundleFindHook(RegionDigraph regionDigraph, long hookImplID) {
 		this.regionDigraph = regionDigraph;
 		this.hookImplID = hookImplID;
+		this.visibilityCache = regionDigraph instanceof StandardRegionDigraph ? new RegionVisibilityCache((StandardRegionDigraph) regionDigraph, RegionFilter.VISIBLE_BUNDLE_NAMESPACE, RegionFilter.VISIBLE_BUNDLE_LIFECYCLE_NAMESPACE, RegionFilter.VISIBLE_ALL_NAMESPACE) : null;
 	}
 
 	/**
@@ -56,7 +59,33 @@ public final class RegionBundleFindHook implements FindHook {
 		}
 
 		Region finderRegion = this.regionDigraph.getRegion(finderBundle);
-		RegionBundleFindHook.find(finderRegion, bundles);
+		if (this.visibilityCache == null || finderRegion == null) {
+			RegionBundleFindHook.find(finderRegion, bundles);
+			return;
+		}
+
+		// decide by the region of the candidates where possible, only filter the rest
+		Map<Region, Boolean> visibleRegions = this.visibilityCache.getVisibleRegions(finderRegion);
+		Collection<Bundle> filtered = null;
+		Iterator<Bundle> i = bundles.iterator();
+		while (i.hasNext()) {
+			Bundle candidate = i.next();
+			Boolean visible = visibleRegions.get(this.regionDigraph.getRegion(candidate));
+			if (visible == null) {
+				i.remove();
+			} else if (!visible.booleanValue()) {
+				if (filtered == null) {
+					filtered = new HashSet<>();
+				}
+				filtered.add(candidate);
+			}
+		}
+		if (filtered != null) {
+			Visitor visitor = new Visitor(filtered);
+			finderRegion.visitSubgraph(visitor);
+			filtered.removeAll(visitor.getAllowed());
+			bundles.removeAll(filtered);
+		}
 	}
 
 	static void find(Region finderRegion, Collection<Bundle> bundles) {
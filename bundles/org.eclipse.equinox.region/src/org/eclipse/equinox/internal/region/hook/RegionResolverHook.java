@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2015 VMware Inc.
+ * Copyright (c) 2011, 2026 VMware Inc.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,9 +14,10 @@
 
 package org.eclipse.equinox.internal.region.hook;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.equinox.internal.region.EquinoxStateHelper;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph;
 import org.eclipse.equinox.region.*;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.hooks.resolver.ResolverHook;
@@ -25,6 +26,10 @@ import org.osgi.framework.wiring.*;
 /**
  * {@link RegionResolverHook} manages the visibility of bundles across regions according to the {@link RegionDigraph}.
  * <p />
+ * A hook is created for each resolve operation. It remembers the regions of the revisions, the regions visible from
+ * each requirer region and the decisions of the region filters for the duration of the resolve, or until the
+ * {@link StandardRegionDigraph} is modified.
+ * <p />
  * 
  * <strong>Concurrent Semantics</strong><br />
  * Thread safe.
@@ -33,10 +38,15 @@ public final class RegionResolverHook implements ResolverHook {
 
 	private static final Boolean DEBUG = false;
 
+	private static final Object NO_REGION = new Object();
+
 	private final RegionDigraph regionDigraph;
 
+	private volatile Memo memo;
+
 	public RegionResolverHook(RegionDigraph regionDigraph) {
 		this.regionDigraph = regionDigraph;
+		this.memo = new Memo(getUpdateCount());
 	}
 
 	@Override
@@ -63,11 +73,30 @@ public final class RegionResolverHook implements ResolverHook {
 				return;
 			}
 
-			Visitor visitor = new Visitor(candidates);
-			requirerRegion.visitSubgraph(visitor);
-			Collection<BundleCapability> allowed = visitor.getAllowed();
-
-			candidates.retainAll(allowed);
+			// keep the candidates of the entirely visible regions, remove the candidates of the regions which are
+			// not visible and only visit the subgraph for the candidates of the partially visible regions
+			Collection<BundleCapability> filtered = null;
+			for (Iterator<BundleCapability> iCandidates = candidates.iterator(); iCandidates.hasNext();) {
+				BundleCapability candidate = iCandidates.next();
+				Region candidateRegion = getRegion(candidate.getRevision());
+				Boolean visible = candidateRegion == null ? null : getVisibleRegions(requirerRegion, candidate.getNamespace()).get(candidateRegion);
+				if (visible == null) {
+					iCandidates.remove();
+				} else if (!visible.booleanValue()) {
+					if (filtered == null) {
+						filtered = new ArrayList<>();
+					}
+					filtered.add(candidate);
+				}
+			}
+			if (filtered != null) {
+				Visitor visitor = new Visitor(filtered);
+				requirerRegion.visitSubgraph(visitor);
+				filtered.removeAll(visitor.getAllowed());
+				if (!filtered.isEmpty()) {
+					candidates.removeAll(filtered);
+				}
+			}
 		} finally {
 			if (DEBUG) {
 				debugExit(requirer, candidates);
@@ -88,12 +117,40 @@ public final class RegionResolverHook implements ResolverHook {
 
 		@Override
 		protected boolean isAllowed(BundleCapability candidate, RegionFilter filter) {
-			return filter.isAllowed(candidate) || filter.isAllowed(candidate.getRevision());
+			Map<BundleCapability, Boolean> decisions = getMemo().getDecisions(filter);
+			Boolean allowed = decisions.get(candidate);
+			if (allowed == null) {
+				allowed = Boolean.valueOf(filter.isAllowed(candidate) || filter.isAllowed(candidate.getRevision()));
+				decisions.put(candidate, allowed);
+			}
+			return allowed.booleanValue();
 		}
 
 	}
 
+	private Map<Region, Boolean> getVisibleRegions(Region requirerRegion, String namespace) {
+		Map<String, Map<Region, Boolean>> visibleRegions = getMemo().getVisibleRegions(requirerRegion);
+		Map<Region, Boolean> visible = visibleRegions.get(namespace);
+		if (visible == null) {
+			// a capability is allowed by a filter which allows all of its namespace or all of its bundle
+			visible = RegionVisibilityCache.computeVisibleRegions(requirerRegion, namespace, RegionFilter.VISIBLE_BUNDLE_NAMESPACE, RegionFilter.VISIBLE_ALL_NAMESPACE);
+			visibleRegions.put(namespace, visible);
+		}
+		return visible;
+	}
+
 	Region getRegion(BundleRevision bundleRevision) {
+		Map<BundleRevision, Object> regions = getMemo().regions;
+		Object region = regions.get(bundleRevision);
+		if (region == null) {
+			Region computed = computeRegion(bundleRevision);
+			region = computed == null ? NO_REGION : computed;
+			regions.put(bundleRevision, region);
+		}
+		return region == NO_REGION ? null : (Region) region;
+	}
+
+	private Region computeRegion(BundleRevision bundleRevision) {
 		Bundle bundle = bundleRevision.getBundle();
 		if (bundle != null) {
 			return getRegion(bundle);
@@ -114,9 +171,23 @@ public final class RegionResolverHook implements ResolverHook {
 		return this.regionDigraph.getRegion(bundle);
 	}
 
+	private Memo getMemo() {
+		Memo current = this.memo;
+		long updateCount = getUpdateCount();
+		if (current.updateCount != updateCount) {
+			current = new Memo(updateCount);
+			this.memo = current;
+		}
+		return current;
+	}
+
+	private long getUpdateCount() {
+		return this.regionDigraph instanceof StandardRegionDigraph ? ((StandardRegionDigraph) this.regionDigraph).getUpdateCount() : 0L;
+	}
+
 	@Override
 	public void end() {
-		// do nothing
+		this.memo = new Memo(getUpdateCount());
 	}
 
 	@Override
@@ -134,6 +205,47 @@ public final class RegionResolverHook implements ResolverHook {
 		filterCandidates(singleton.getRevision(), collisionCandidates, true);
 	}
 
+	/*
+	 * What the hook has learned from a version of the digraph.
+	 */
+	private static final class Memo {
+		final long updateCount;
+		// revision -> Region or NO_REGION
+		final Map<BundleRevision, Object> regions = new ConcurrentHashMap<>();
+		// requirer region -> capability namespace -> visible regions
+		private final ConcurrentHashMap<Region, Map<String, Map<Region, Boolean>>> visibleRegions = new ConcurrentHashMap<>();
+		// edge filter -> capability -> allowed
+		private final ConcurrentHashMap<RegionFilter, Map<BundleCapability, Boolean>> decisions = new ConcurrentHashMap<>();
+
+		Memo(long updateCount) {
+			this.updateCount = updateCount;
+		}
+
+		Map<String, Map<Region, Boolean>> getVisibleRegions(Region requirerRegion) {
+			Map<String, Map<Region, Boolean>> result = this.visibleRegions.get(requirerRegion);
+			if (result == null) {
+				result = new ConcurrentHashMap<>();
+				Map<String, Map<Region, Boolean>> existing = this.visibleRegions.putIfAbsent(requirerRegion, result);
+				if (existing != null) {
+					result = existing;
+				}
+			}
+			return result;
+		}
+
+		Map<BundleCapability, Boolean> getDecisions(RegionFilter filter) {
+			Map<BundleCapability, Boolean> result = this.decisions.get(filter);
+			if (result == null) {
+				result = new ConcurrentHashMap<>();
+				Map<BundleCapability, Boolean> existing = this.decisions.putIfAbsent(filter, result);
+				if (existing != null) {
+					result = existing;
+				}
+			}
+			return result;
+		}
+	}
+
 	private void debugEntry(BundleRevision requirer, Collection<BundleCapability> candidates, boolean singleton) {
 		System.out.println((singleton ? "Singleton" : "Requirer: ") + requirer.getSymbolicName() + "_" + requirer.getVersion() + "[" + getBundleId(requirer) + "]"); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
 		System.out.println("  Candidates: "); //$NON-NLS-1$
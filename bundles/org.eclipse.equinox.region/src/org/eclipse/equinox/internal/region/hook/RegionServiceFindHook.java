@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 VMware Inc.
+ * Copyright (c) 2015, 2026 VMware Inc.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,8 @@
 
 package org.eclipse.equinox.internal.region.hook;
 
-import java.util.Collection;
+import java.util.*;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph;
 import org.eclipse.equinox.region.*;
 import org.osgi.framework.*;
 import org.osgi.framework.hooks.service.FindHook;
@@ -31,8 +32,11 @@ public final class RegionServiceFindHook implements FindHook {
 
 	private final RegionDigraph regionDigraph;
 
+	private final RegionVisibilityCache visibilityCache;
+
 	public RegionServiceFindHook(RegionDigraph regionDigraph) {
 		this.regionDigraph = regionDigraph;
+		this.visibilityCache = regionDigraph instanceof StandardRegionDigraph ? new RegionVisibilityCache((StandardRegionDigraph) regionDigraph, RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE, RegionFilter.VISIBLE_BUNDLE_NAMESPACE, RegionFilter.VISIBLE_ALL_NAMESPACE) : null;
 	}
 
 	/**
@@ -50,7 +54,34 @@ public final class RegionServiceFindHook implements FindHook {
 		}
 
 		Region finderRegion = this.regionDigraph.getRegion(finderBundle);
-		RegionServiceFindHook.find(finderRegion, references);
+		if (this.visibilityCache == null || finderRegion == null) {
+			RegionServiceFindHook.find(finderRegion, references);
+			return;
+		}
+
+		// decide by the region of the candidates where possible, only filter the rest
+		Map<Region, Boolean> visibleRegions = this.visibilityCache.getVisibleRegions(finderRegion);
+		Collection<ServiceReference<?>> filtered = null;
+		Iterator<ServiceReference<?>> i = references.iterator();
+		while (i.hasNext()) {
+			ServiceReference<?> candidate = i.next();
+			Bundle b = candidate.getBundle();
+			Boolean visible = b == null ? null : visibleRegions.get(this.regionDigraph.getRegion(b));
+			if (visible == null) {
+				i.remove();
+			} else if (!visible.booleanValue()) {
+				if (filtered == null) {
+					filtered = new HashSet<>();
+				}
+				filtered.add(candidate);
+			}
+		}
+		if (filtered != null) {
+			Visitor visitor = new Visitor(filtered);
+			finderRegion.visitSubgraph(visitor);
+			filtered.removeAll(visitor.getAllowed());
+			references.removeAll(filtered);
+		}
 	}
 
 	static void find(Region finderRegion, Collection<ServiceReference<?>> references) {
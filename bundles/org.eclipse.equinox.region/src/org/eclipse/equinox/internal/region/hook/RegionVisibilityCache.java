@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.region.hook;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph;
+import org.eclipse.equinox.internal.region.StandardRegionFilter;
+import org.eclipse.equinox.region.*;
+import org.eclipse.equinox.region.RegionDigraph.FilteredRegion;
+
+/**
+ * {@link RegionVisibilityCache} records, for each finder region, which regions it can see through the
+ * {@link RegionDigraph}. A region is visible entirely when it is the finder region or can be reached through edges
+ * that allow everything in one of the given namespaces. A region which can only be reached through other edges is
+ * visible partially, and its candidates must still be checked against the filters. Regions which cannot be reached are
+ * not visible.
+ * <p />
+ * The cache is discarded when the update count of the digraph changes.
+ * <p />
+ * 
+ * <strong>Concurrent Semantics</strong><br />
+ * Thread safe.
+ */
+final class RegionVisibilityCache {
+
+	private final StandardRegionDigraph regionDigraph;
+
+	private final String[] allowAllNamespaces;
+
+	private volatile Snapshot snapshot;
+
+	RegionVisibilityCache(StandardRegionDigraph regionDigraph, String... allowAllNamespaces) {
+		this.regionDigraph = regionDigraph;
+		this.allowAllNamespaces = allowAllNamespaces;
+	}
+
+	/**
+	 * Returns the regions visible from the given region. A region maps to <code>true</code> if it is visible entirely
+	 * and to <code>false</code> if it is visible partially.
+	 * 
+	 * @param finderRegion the finder region
+	 * @return the visible regions
+	 */
+	Map<Region, Boolean> getVisibleRegions(Region finderRegion) {
+		long updateCount = this.regionDigraph.getUpdateCount();
+		Snapshot current = this.snapshot;
+		if (current == null || current.updateCount != updateCount) {
+			current = new Snapshot(updateCount);
+			this.snapshot = current;
+		}
+		Map<Region, Boolean> visible = current.visibleRegions.get(finderRegion);
+		if (visible == null) {
+			visible = computeVisibleRegions(finderRegion, this.allowAllNamespaces);
+			current.visibleRegions.put(finderRegion, visible);
+		}
+		return visible;
+	}
+
+	/**
+	 * Computes the regions visible from the given region, see {@link #getVisibleRegions(Region)}.
+	 * 
+	 * @param finderRegion the finder region
+	 * @param allowAllNamespaces the namespaces of the edges that allow everything
+	 * @return the visible regions
+	 */
+	static Map<Region, Boolean> computeVisibleRegions(Region finderRegion, String... allowAllNamespaces) {
+		Map<Region, Boolean> visible = new HashMap<>();
+		Deque<Region> work = new ArrayDeque<>();
+		visible.put(finderRegion, Boolean.TRUE);
+		work.add(finderRegion);
+		// first the regions reachable through edges that allow everything
+		while (!work.isEmpty()) {
+			for (FilteredRegion edge : work.poll().getEdges()) {
+				if (isAllowAll(edge.getFilter(), allowAllNamespaces) && !visible.containsKey(edge.getRegion())) {
+					visible.put(edge.getRegion(), Boolean.TRUE);
+					work.add(edge.getRegion());
+				}
+			}
+		}
+		// then the regions reachable through any edge
+		work.addAll(visible.keySet());
+		while (!work.isEmpty()) {
+			for (FilteredRegion edge : work.poll().getEdges()) {
+				if (!visible.containsKey(edge.getRegion())) {
+					visible.put(edge.getRegion(), Boolean.FALSE);
+					work.add(edge.getRegion());
+				}
+			}
+		}
+		return Collections.unmodifiableMap(visible);
+	}
+
+	private static boolean isAllowAll(RegionFilter filter, String... allowAllNamespaces) {
+		return filter instanceof StandardRegionFilter && ((StandardRegionFilter) filter).isAllowAll(allowAllNamespaces);
+	}
+
+	private static final class Snapshot {
+
+		final long updateCount;
+
+		final Map<Region, Map<Region, Boolean>> visibleRegions = new ConcurrentHashMap<>();
+
+		Snapshot(long updateCount) {
+			this.updateCount = updateCount;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.registry;
+
+import java.io.*;
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * Secondary index of the top level configuration elements contributed to an
+ * extension point. Elements are indexed by attribute name and the untranslated
+ * ("as is") attribute value. For every attribute name / value pair the index
+ * keeps the IDs of the matching elements in the order in which
+ * {@link org.eclipse.core.runtime.IExtensionPoint#getConfigurationElements()}
+ * returns them.
+ * <p>
+ * The index is either computed from the registry objects or read from the
+ * registry cache, in which case none of the configuration elements need to
+ * be loaded to answer a query.
+ * </p>
+ */
+public class ConfigurationElementIndex {
+
+	static final ConfigurationElementIndex EMPTY = new ConfigurationElementIndex(Collections.emptyMap());
+
+	// key: attribute name, value: (key: attribute value, value: IDs of the matching elements)
+	private final Map<String, Map<String, int[]>> index;
+
+	ConfigurationElementIndex() {
+		this(new HashMap<>());
+	}
+
+	private ConfigurationElementIndex(Map<String, Map<String, int[]>> index) {
+		this.index = index;
+	}
+
+	/**
+	 * Returns IDs of the configuration elements whose attribute has the given
+	 * value. Never returns <code>null</code>.
+	 */
+	int[] get(String attributeName, String attributeValue) {
+		Map<String, int[]> values = index.get(attributeName);
+		if (values == null)
+			return RegistryObjectManager.EMPTY_INT_ARRAY;
+		int[] result = values.get(attributeValue);
+		return result == null ? RegistryObjectManager.EMPTY_INT_ARRAY : result;
+	}
+
+	// Called while the index is being built only; elements must be added in the extension point order
+	void add(ConfigurationElement element) {
+		String[] propertiesAndValue = element.getPropertiesAndValue();
+		int size = propertiesAndValue.length - (propertiesAndValue.length % 2);
+		for (int i = 0; i < size; i += 2) {
+			add(propertiesAndValue[i], propertiesAndValue[i + 1], element.getObjectId());
+		}
+	}
+
+	private void add(String attributeName, String attributeValue, int id) {
+		if (attributeName == null || attributeValue == null)
+			return;
+		Map<String, int[]> values = index.computeIfAbsent(attributeName, k -> new HashMap<>());
+		int[] existing = values.get(attributeValue);
+		if (existing == null) {
+			values.put(attributeValue, new int[] {id});
+			return;
+		}
+		int[] grown = new int[existing.length + 1];
+		System.arraycopy(existing, 0, grown, 0, existing.length);
+		grown[existing.length] = id;
+		values.put(attributeValue, grown);
+	}
+
+	boolean isEmpty() {
+		return index.isEmpty();
+	}
+
+	void save(DataOutputStream out) throws IOException {
+		out.writeInt(index.size());
+		for (Entry<String, Map<String, int[]>> attribute : index.entrySet()) {
+			out.writeUTF(attribute.getKey());
+			Map<String, int[]> values = attribute.getValue();
+			out.writeInt(values.size());
+			for (Entry<String, int[]> value : values.entrySet()) {
+				TableWriter.writeStringOrNull(value.getKey(), out);
+				int[] ids = value.getValue();
+				out.writeInt(ids.length);
+				for (int id : ids) {
+					out.writeInt(id);
+				}
+			}
+		}
+	}
+
+	static ConfigurationElementIndex load(DataInputStream in, TableReader reader) throws IOException {
+		int attributes = in.readInt();
+		if (attributes == 0)
+			return EMPTY;
+		Map<String, Map<String, int[]>> index = new HashMap<>(attributes * 2);
+		for (int i = 0; i < attributes; i++) {
+			String attributeName = reader.readUTF(in, TableReader.OBJECT);
+			int size = in.readInt();
+			Map<String, int[]> values = new HashMap<>(size * 2);
+			for (int j = 0; j < size; j++) {
+				String attributeValue = reader.readStringOrNull(in);
+				int[] ids = new int[in.readInt()];
+				for (int k = 0; k < ids.length; k++) {
+					ids[k] = in.readInt();
+				}
+				values.put(attributeValue, ids);
+			}
+			index.put(attributeName, values);
+		}
+		return new ConfigurationElementIndex(index);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -324,6 +324,22 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		return extension.getConfigurationElements();
 	}
 
+	/*
+	 *  (non-Javadoc)
+	 * @see org.eclipse.core.runtime.IExtensionRegistry#getConfigurationElementsByAttribute(java.lang.String, java.lang.String, java.lang.String)
+	 */
+	@Override
+	public IConfigurationElement[] getConfigurationElementsByAttribute(String extensionPointId, String attributeName, String attributeValue) {
+		if (extensionPointId == null || attributeName == null || attributeValue == null)
+			return new IConfigurationElement[0];
+		access.enterRead();
+		try {
+			return registryObjects.getConfigurationElementsFor(extensionPointId, attributeName, attributeValue);
+		} finally {
+			access.exitRead();
+		}
+	}
+
 	private RegistryDelta getDelta(String namespace) {
 		// is there a delta for the plug-in?
 		RegistryDelta existingDelta = (RegistryDelta) deltas.get(namespace);
@@ -524,6 +540,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	private void link(ExtensionPoint extPoint, int[] extensions) {
 		extPoint.setRawChildren(extensions);
 		registryObjects.add(extPoint, true);
+		registryObjects.invalidateElementIndex(extPoint.getUniqueIdentifier());
 	}
 
 	/*
@@ -698,6 +715,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 					theTableReader.setContributorsFile(cacheStorageManager.lookup(TableReader.CONTRIBUTORS, false));
 					theTableReader.setNamespacesFile(cacheStorageManager.lookup(TableReader.NAMESPACES, false));
 					theTableReader.setOrphansFile(cacheStorageManager.lookup(TableReader.ORPHANS, false));
+					theTableReader.setAttributesFile(cacheStorageManager.lookup(TableReader.ATTRIBUTES, false));
 					long timestamp = strategy.getContributionsTimestamp();
 					isRegistryFilledFromCache = registryObjects.init(timestamp);
 					if (isRegistryFilledFromCache)
@@ -774,6 +792,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		File contributorsFile = null;
 		File namespacesFile = null;
 		File orphansFile = null;
+		File attributesFile = null;
 
 		TableWriter theTableWriter = new TableWriter(this);
 
@@ -785,6 +804,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 			cacheStorageManager.lookup(TableReader.CONTRIBUTORS, true);
 			cacheStorageManager.lookup(TableReader.NAMESPACES, true);
 			cacheStorageManager.lookup(TableReader.ORPHANS, true);
+			cacheStorageManager.lookup(TableReader.ATTRIBUTES, true);
 			tableFile = File.createTempFile(TableReader.TABLE, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
 			mainFile = File.createTempFile(TableReader.MAIN, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
 			extraFile = File.createTempFile(TableReader.EXTRA, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
@@ -792,6 +812,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 			contributorsFile = File.createTempFile(TableReader.CONTRIBUTORS, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
 			namespacesFile = File.createTempFile(TableReader.NAMESPACES, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
 			orphansFile = File.createTempFile(TableReader.ORPHANS, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
+			attributesFile = File.createTempFile(TableReader.ATTRIBUTES, ".new", cacheStorageManager.getBase()); //$NON-NLS-1$
 			theTableWriter.setTableFile(tableFile);
 			theTableWriter.setExtraDataFile(extraFile);
 			theTableWriter.setMainDataFile(mainFile);
@@ -799,6 +820,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 			theTableWriter.setContributorsFile(contributorsFile);
 			theTableWriter.setNamespacesFile(namespacesFile);
 			theTableWriter.setOrphansFile(orphansFile);
+			theTableWriter.setAttributesFile(attributesFile);
 		} catch (IOException e) {
 			cacheStorageManager.close();
 			return; //Ignore the exception since we can recompute the cache
@@ -816,7 +838,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 				timestamp = strategy.getContributionsTimestamp(); // use legacy approach
 
 			if (theTableWriter.saveCache(registryObjects, timestamp))
-				cacheStorageManager.update(new String[] {TableReader.TABLE, TableReader.MAIN, TableReader.EXTRA, TableReader.CONTRIBUTIONS, TableReader.CONTRIBUTORS, TableReader.NAMESPACES, TableReader.ORPHANS}, new String[] {tableFile.getName(), mainFile.getName(), extraFile.getName(), contributionsFile.getName(), contributorsFile.getName(), namespacesFile.getName(), orphansFile.getName()});
+				cacheStorageManager.update(new String[] {TableReader.TABLE, TableReader.MAIN, TableReader.EXTRA, TableReader.CONTRIBUTIONS, TableReader.CONTRIBUTORS, TableReader.NAMESPACES, TableReader.ORPHANS, TableReader.ATTRIBUTES}, new String[] {tableFile.getName(), mainFile.getName(), extraFile.getName(), contributionsFile.getName(), contributorsFile.getName(), namespacesFile.getName(), orphansFile.getName(), attributesFile.getName()});
 		} catch (IOException e) {
 			//Ignore the exception since we can recompute the cache
 		}
@@ -828,7 +850,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	 * Clear the registry cache files from the file manager so on next start-up we recompute it.
 	 */
 	public void clearRegistryCache() {
-		for (String key : new String[] {TableReader.TABLE, TableReader.MAIN, TableReader.EXTRA, TableReader.CONTRIBUTIONS, TableReader.ORPHANS})
+		for (String key : new String[] {TableReader.TABLE, TableReader.MAIN, TableReader.EXTRA, TableReader.CONTRIBUTIONS, TableReader.ORPHANS, TableReader.ATTRIBUTES})
 			try {
 				cacheStorageManager.remove(key);
 			} catch (IOException e) {
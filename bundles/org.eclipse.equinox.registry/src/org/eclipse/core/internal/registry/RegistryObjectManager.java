@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2018 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -63,6 +63,11 @@ public class RegistryObjectManager implements IObjectManager {
 	// The orphan access does not need to be synchronized because the it is protected by the lock in extension registry.
 	private Object orphanExtensions;
 
+	// key: extensionPoint unique id, value: attribute index of its top level configuration elements. Entries are loaded or computed lazily.
+	private SoftReference<Map<String, ConfigurationElementIndex>> elementIndexes;
+	// extension points whose contents changed in this session; their attribute indexes in the cache are out of date
+	private final Set<String> staleElementIndexes = new HashSet<>();
+
 	private final KeyedHashSet heldObjects = new KeyedHashSet(); //strong reference to the objects that must be hold on to
 
 	//Indicate if objects have been removed or added from the table. This only needs to be set in a couple of places (addNamespace and removeNamespace)
@@ -395,6 +400,63 @@ public class RegistryObjectManager implements IObjectManager {
 		return results;
 	}
 
+	/**
+	 * Returns handles of the top level configuration elements contributed to the extension point
+	 * whose attribute has the given value. Only the matching elements are loaded from the cache.
+	 */
+	synchronized ConfigurationElementHandle[] getConfigurationElementsFor(String xptUniqueId, String attributeName, String attributeValue) {
+		int id = extensionPoints.get(xptUniqueId);
+		if (id == HashtableOfStringAndInt.MISSING_ELEMENT)
+			return ConfigurationElementHandle.EMPTY_ARRAY;
+		int[] ids = getElementIndex(xptUniqueId, id).get(attributeName, attributeValue);
+		return (ConfigurationElementHandle[]) getHandles(ids, CONFIGURATION_ELEMENT);
+	}
+
+	private ConfigurationElementIndex getElementIndex(String xptUniqueId, int xptId) {
+		Map<String, ConfigurationElementIndex> indexes = elementIndexes == null ? null : elementIndexes.get();
+		if (indexes == null) {
+			indexes = new HashMap<>();
+			elementIndexes = new SoftReference<>(indexes);
+		}
+		ConfigurationElementIndex result = indexes.get(xptUniqueId);
+		if (result != null)
+			return result;
+		if (fromCache && !staleElementIndexes.contains(xptUniqueId) && fileOffsets != null && fileOffsets.get(xptId) != Integer.MIN_VALUE)
+			result = registry.getTableReader().loadConfigurationElementIndex(xptId);
+		if (result == null)
+			result = computeElementIndex((ExtensionPoint) basicGetObject(xptId, EXTENSION_POINT), false);
+		indexes.put(xptUniqueId, result);
+		return result;
+	}
+
+	// Called when the set of extensions linked to the extension point changes
+	synchronized void invalidateElementIndex(String xptUniqueId) {
+		staleElementIndexes.add(xptUniqueId);
+		Map<String, ConfigurationElementIndex> indexes = elementIndexes == null ? null : elementIndexes.get();
+		if (indexes != null)
+			indexes.remove(xptUniqueId);
+	}
+
+	//	This method is only used by the writer to reach in
+	synchronized ConfigurationElementIndex getPersistedElementIndex(int xptId) {
+		return computeElementIndex((ExtensionPoint) basicGetObject(xptId, EXTENSION_POINT), true);
+	}
+
+	private ConfigurationElementIndex computeElementIndex(ExtensionPoint xpt, boolean persistedOnly) {
+		ConfigurationElementIndex result = new ConfigurationElementIndex();
+		for (int extensionId : xpt.getRawChildren()) {
+			if (persistedOnly && !shouldPersist(extensionId))
+				continue;
+			Extension extension = (Extension) basicGetObject(extensionId, EXTENSION);
+			for (int elementId : extension.getRawChildren()) {
+				if (persistedOnly && !shouldPersist(elementId))
+					continue;
+				result.add((ConfigurationElement) basicGetObject(elementId, CONFIGURATION_ELEMENT));
+			}
+		}
+		return result.isEmpty() ? ConfigurationElementIndex.EMPTY : result;
+	}
+
 	synchronized ExtensionPointHandle[] getExtensionPointsHandles() {
 		return (ExtensionPointHandle[]) getHandles(extensionPoints.getValues(), EXTENSION_POINT);
 	}
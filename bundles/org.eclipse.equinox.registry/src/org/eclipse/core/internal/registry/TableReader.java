@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2018 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,7 +30,7 @@ public class TableReader {
 	static final int LOBJECT = 2;
 
 	//The version of the cache
-	static final int CACHE_VERSION = 8;
+	static final int CACHE_VERSION = 9;
 	// Version 1 -> 2: the contributor Ids changed from "long" to "String"
 	// Version 2 -> 3: added namespace index and the table of contributors
 	// Version 3 -> 4: offset table saved in a binary form (performance)
@@ -38,6 +38,7 @@ public class TableReader {
 	// Version 5 -> 6: replace HashtableOfInt with OffsetTable (memory usage optimization)
 	// Version 6 -> 7: added option for multi-language support
 	// Version 7 -> 8: added support for large UTF-8 strings
+	// Version 8 -> 9: added attribute indexes of the top level configuration elements
 
 	//Informations representing the MAIN file
 	static final String MAIN = ".mainData"; //$NON-NLS-1$
@@ -69,6 +70,15 @@ public class TableReader {
 	static final String ORPHANS = ".orphans"; //$NON-NLS-1$
 	File orphansFile;
 
+	//The attribute indexes file
+	static final String ATTRIBUTES = ".attributes"; //$NON-NLS-1$
+	File attributesFile;
+	BufferedRandomInputStream attributesDataFile = null;
+	DataInputStream attributesInput = null;
+	// key: extension point ID, value: offset of its attribute index in the attributes file. Loaded lazily.
+	private Map<Integer, Integer> attributeIndexOffsets = null;
+	private boolean attributesUnavailable = false;
+
 	//Status code
 	private static final byte fileError = 0;
 	private static final boolean DEBUG = false; //TODO need to change
@@ -109,6 +119,10 @@ public class TableReader {
 		orphansFile = orphan;
 	}
 
+	void setAttributesFile(File file) {
+		attributesFile = file;
+	}
+
 	public TableReader(ExtensionRegistry registry) {
 		this.registry = registry;
 	}
@@ -158,6 +172,7 @@ public class TableReader {
 			long contributorsFileSize = in.readLong();
 			long namespacesFileSize = in.readLong();
 			long orphansFileSize = in.readLong();
+			long attributesFileSize = in.readLong();
 			String osStamp = readUTF(in, OBJECT);
 			String windowsStamp = readUTF(in, OBJECT);
 			String localeStamp = readUTF(in, OBJECT);
@@ -179,8 +194,9 @@ public class TableReader {
 			boolean validContributors = (contributorsFileSize == contributorsFile.length());
 			boolean validNamespace = (namespacesFileSize == namespacesFile.length());
 			boolean validOrphan = (orphansFileSize == orphansFile.length());
+			boolean validAttributes = (attributesFileSize == attributesFile.length());
 
-			return (validMain && validExtra && validContrib && validContributors && validNamespace && validOrphan);
+			return (validMain && validExtra && validContrib && validContributors && validNamespace && validOrphan && validAttributes);
 		} catch (IOException e) {
 			log(new Status(IStatus.ERROR, RegistryMessages.OWNER_NAME, fileError, RegistryMessages.meta_registryCacheInconsistent, e));
 			return false;
@@ -382,7 +398,7 @@ public class TableReader {
 		extraDataFile.seek(offset);
 	}
 
-	private String readStringOrNull(DataInputStream in) throws IOException {
+	String readStringOrNull(DataInputStream in) throws IOException {
 		byte type = in.readByte();
 		if (type == NULL)
 			return null;
@@ -597,6 +613,55 @@ public class TableReader {
 		return loaded;
 	}
 
+	/**
+	 * Loads the attribute index of the top level configuration elements of the given
+	 * extension point. Returns <code>null</code> if the index could not be read.
+	 */
+	public ConfigurationElementIndex loadConfigurationElementIndex(int extensionPointId) {
+		try {
+			synchronized (attributesFile) {
+				if (attributesUnavailable)
+					return null;
+				if (attributeIndexOffsets == null)
+					loadAttributeIndexOffsets();
+				Integer offset = attributeIndexOffsets.get(Integer.valueOf(extensionPointId));
+				if (offset == null)
+					return ConfigurationElementIndex.EMPTY; // extension points without configuration elements are not saved
+				attributesDataFile.seek(offset.intValue());
+				return ConfigurationElementIndex.load(attributesInput, this);
+			}
+		} catch (IOException e) {
+			String message = NLS.bind(RegistryMessages.meta_regCacheIOExceptionReading, attributesFile);
+			log(new Status(IStatus.ERROR, RegistryMessages.OWNER_NAME, fileError, message, e));
+			// don't try again, the indexes will be computed from the registry objects
+			attributesUnavailable = true;
+			closeAttributesFile();
+			return null;
+		}
+	}
+
+	private void loadAttributeIndexOffsets() throws IOException {
+		attributesDataFile = new BufferedRandomInputStream(attributesFile);
+		attributesInput = new DataInputStream(attributesDataFile);
+		int size = attributesInput.readInt();
+		Map<Integer, Integer> offsets = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			int id = attributesInput.readInt();
+			offsets.put(Integer.valueOf(id), Integer.valueOf(attributesInput.readInt()));
+		}
+		attributeIndexOffsets = offsets;
+	}
+
+	private void closeAttributesFile() {
+		try {
+			if (attributesInput != null)
+				attributesInput.close();
+		} catch (IOException e) {
+			//Ignore
+		}
+		attributesInput = null;
+	}
+
 	public HashMap<String, int[]> loadOrphans() {
 		DataInputStream orphanInput = null;
 		try {
@@ -642,6 +707,7 @@ public class TableReader {
 	}
 
 	public void close() {
+		closeAttributesFile();
 		try {
 			if (mainInput != null)
 				mainInput.close();
@@ -652,7 +718,7 @@ public class TableReader {
 		}
 	}
 
-	private String readUTF(DataInputStream in, int type) throws IOException {
+	String readUTF(DataInputStream in, int type) throws IOException {
 		String value;
 		if (type == LOBJECT) {
 			int length = in.readInt();
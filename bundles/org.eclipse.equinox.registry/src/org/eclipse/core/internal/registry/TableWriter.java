@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2016 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,6 +30,7 @@ public class TableWriter {
 	File contributorsFile;
 	File namespacesFile;
 	File orphansFile;
+	File attributesFile;
 
 	void setMainDataFile(File main) {
 		mainDataFile = main;
@@ -59,6 +60,10 @@ public class TableWriter {
 		orphansFile = orphan;
 	}
 
+	void setAttributesFile(File fileName) {
+		attributesFile = fileName;
+	}
+
 	DataOutputStream mainOutput;
 	DataOutputStream extraOutput;
 	FileOutputStream mainFileOutput = null;
@@ -151,6 +156,7 @@ public class TableWriter {
 		saveContributions(objectManager.getContributions());
 		saveContributors(objectManager.getContributors());
 		saveNamespaces(objectManager.getNamespacesIndex());
+		saveAttributeIndexes(points);
 		closeFiles(); //Close the files here so we can write the appropriate size information in the table file.
 		saveTables(timestamp); //Write the table last so if that is something went wrong we can know
 	}
@@ -237,6 +243,41 @@ public class TableWriter {
 		outputNamespace.close();
 	}
 
+	// Layout: the number of indexed extension points, followed by (extension point ID, absolute offset of its index)
+	// pairs, followed by the indexes themselves. The reader loads only the indexes of the extension points queried.
+	private void saveAttributeIndexes(ExtensionPointHandle[] points) throws IOException {
+		ByteArrayOutputStream indexesBytes = new ByteArrayOutputStream();
+		DataOutputStream indexesOutput = new DataOutputStream(indexesBytes);
+		int[] ids = new int[points.length];
+		int[] positions = new int[points.length];
+		int count = 0;
+		for (ExtensionPointHandle point : points) {
+			if (!point.shouldPersist())
+				continue;
+			ConfigurationElementIndex index = objectManager.getPersistedElementIndex(point.getId());
+			if (index.isEmpty())
+				continue;
+			ids[count] = point.getId();
+			positions[count] = indexesOutput.size();
+			index.save(indexesOutput);
+			count++;
+		}
+		indexesOutput.flush();
+
+		FileOutputStream fosAttributes = new FileOutputStream(attributesFile);
+		DataOutputStream outputAttributes = new DataOutputStream(new BufferedOutputStream(fosAttributes));
+		int headerSize = 4 + count * 8;
+		outputAttributes.writeInt(count);
+		for (int i = 0; i < count; i++) {
+			outputAttributes.writeInt(ids[i]);
+			outputAttributes.writeInt(headerSize + positions[i]);
+		}
+		indexesBytes.writeTo(outputAttributes);
+		outputAttributes.flush();
+		fosAttributes.getFD().sync();
+		outputAttributes.close();
+	}
+
 	private void saveContributors(HashMap<?, ?> contributors) throws IOException {
 		FileOutputStream fosContributors = new FileOutputStream(contributorsFile);
 		DataOutputStream outputContributors = new DataOutputStream(new BufferedOutputStream(fosContributors));
@@ -279,6 +320,7 @@ public class TableWriter {
 		output.writeLong(contributorsFile.length());
 		output.writeLong(namespacesFile.length());
 		output.writeLong(orphansFile.length());
+		output.writeLong(attributesFile.length());
 		output.writeUTF(RegistryProperties.getProperty(IRegistryConstants.PROP_OS, RegistryProperties.empty));
 		output.writeUTF(RegistryProperties.getProperty(IRegistryConstants.PROP_WS, RegistryProperties.empty));
 		output.writeUTF(RegistryProperties.getProperty(IRegistryConstants.PROP_NL, RegistryProperties.empty));
@@ -420,7 +462,7 @@ public class TableWriter {
 		writeStringOrNull(extension.getContributorId(), extraOutput);
 	}
 
-	private void writeStringOrNull(String string, DataOutputStream out) throws IOException {
+	static void writeStringOrNull(String string, DataOutputStream out) throws IOException {
 		if (string == null)
 			out.writeByte(TableReader.NULL);
 		else {
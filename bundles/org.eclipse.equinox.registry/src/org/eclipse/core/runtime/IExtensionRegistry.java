@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2014 IBM Corporation and others.
+ * Copyright (c) 2003, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -128,6 +128,31 @@ public interface IExtensionRegistry {
 	 */
 	public IConfigurationElement[] getConfigurationElementsFor(String namespace, String extensionPointName);
 
+	/**
+	 * Returns the configuration elements from all extensions configured into
+	 * the identified extension point whose attribute has the given value.
+	 * Returns an empty array if the extension point does not exist or none of
+	 * its configuration elements match.
+	 * <p>
+	 * Only the top level configuration elements of the extensions are considered,
+	 * that is the elements returned by {@link #getConfigurationElementsFor(String)}.
+	 * The elements are returned in the same order. The attribute values are compared
+	 * as is, without translation (see {@link IConfigurationElement#getAttributeAsIs(String)}).
+	 * </p><p>
+	 * This method is equivalent to filtering the result of
+	 * {@link #getConfigurationElementsFor(String)}, but it can be answered from
+	 * the registry cache without loading the elements that don't match.
+	 * </p>
+	 *
+	 * @param extensionPointId the unique identifier of the extension point
+	 *		(e.g. <code>"org.eclipse.core.contenttype.contentTypes"</code>)
+	 * @param attributeName the name of the attribute (e.g. <code>"id"</code>)
+	 * @param attributeValue the untranslated value of the attribute
+	 * @return the matching configuration elements
+	 * @since org.eclipse.equinox.registry 3.12
+	 */
+	public IConfigurationElement[] getConfigurationElementsByAttribute(String extensionPointId, String attributeName, String attributeValue);
+
 	/**
 	 * Returns all configuration elements from the identified extension.
 	 * Returns an empty array if the extension does not exist or
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,17 +13,24 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.security.tests.storage;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.Map;
 import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.equinox.internal.security.storage.IndexedStorage;
+import org.eclipse.equinox.internal.security.storage.SecurePreferencesWrapper;
 import org.eclipse.equinox.internal.security.storage.friends.InternalExchangeUtils;
 import org.eclipse.equinox.internal.security.tests.SecurityTestsActivator;
 import org.eclipse.equinox.security.storage.ISecurePreferences;
@@ -404,6 +411,121 @@ abstract public class SecurePreferencesTest extends StorageAbstractTest {
 		compareArrays(testArray, array);
 	}
 
+	/**
+	 * Tests bulk get and put
+	 */
+	@Test
+	public void testBulk() throws StorageException, IOException {
+		Map<String, String> entries = new HashMap<>();
+		for (int i = 0; i < 50; i++) {
+			entries.put("key" + i, "value" + i);
+		}
+		entries.put("nullValue", null);
+
+		{ // block1: fill, check, and save
+			ISecurePreferences preferences = newPreferences(getStorageLocation(), getOptions());
+			SecurePreferencesWrapper node = (SecurePreferencesWrapper) preferences.node("/testBulk");
+			node.put(entries, true);
+			node.put(clearTextKey, clearTextValue, false);
+
+			assertTrue(node.isEncrypted("key0"));
+			assertEquals("value7", node.get("key7", defaultValue));
+
+			Map<String, String> values = node.get(new String[] {"key0", "key49", "nullValue", clearTextKey, unassignedKey});
+			assertEquals(4, values.size());
+			assertEquals("value0", values.get("key0"));
+			assertEquals("value49", values.get("key49"));
+			assertTrue(values.containsKey("nullValue"));
+			assertNull(values.get("nullValue"));
+			assertEquals(clearTextValue, values.get(clearTextKey));
+			assertFalse(values.containsKey(unassignedKey));
+
+			preferences.flush();
+			closePreferences(preferences);
+		}
+		{ // block2: re-load and check
+			ISecurePreferences preferences = newPreferences(getStorageLocation(), getOptions());
+			SecurePreferencesWrapper node = (SecurePreferencesWrapper) preferences.node("/testBulk");
+			Map<String, String> values = node.get(node.keys());
+			entries.put(clearTextKey, clearTextValue);
+			assertEquals(entries, values);
+		}
+	}
+
+	/**
+	 * Tests the indexed storage: conversion from the properties file, incremental save,
+	 * and conversion back to the properties file.
+	 */
+	@Test
+	public void testIndexedStorage() throws StorageException, IOException {
+		URL location = getStorageLocation();
+		File indexedFile = IndexedStorage.getFile(location);
+		{ // block1: fill and save to the properties file
+			ISecurePreferences preferences = newPreferences(location, getOptions());
+			fill(preferences);
+			preferences.flush();
+			closePreferences(preferences);
+		}
+		System.setProperty(IndexedStorage.PROP_INDEXED, "true");
+		try {
+			{ // block2: convert, check, modify and save
+				ISecurePreferences preferences = newPreferences(location, getOptions());
+				assertTrue(indexedFile.exists());
+				check(preferences);
+				ISecurePreferences node1 = preferences.node(path1);
+				node1.put(secondKey, secondValue, true);
+				node1.remove(clearTextKey);
+				preferences.node(path3).removeNode();
+				preferences.flush();
+				closePreferences(preferences);
+			}
+			{ // block3: re-load and check
+				ISecurePreferences preferences = newPreferences(location, getOptions());
+				ISecurePreferences node1 = preferences.node(path1);
+				assertEquals(secondValue, node1.get(secondKey, defaultValue));
+				assertEquals(defaultValue, node1.get(clearTextKey, defaultValue));
+				assertEquals(value, node1.get(key, defaultValue));
+				assertFalse(preferences.nodeExists(path3));
+				closePreferences(preferences);
+			}
+		} finally {
+			System.clearProperty(IndexedStorage.PROP_INDEXED);
+		}
+		{ // block4: convert back and check
+			ISecurePreferences preferences = newPreferences(location, getOptions());
+			assertFalse(indexedFile.exists());
+			ISecurePreferences node1 = preferences.node(path1);
+			assertEquals(secondValue, node1.get(secondKey, defaultValue));
+			assertEquals(value, preferences.node(path2).get(key, defaultValue));
+			assertFalse(preferences.nodeExists(path3));
+		}
+	}
+
+	/**
+	 * Tests that an indexed file of an unknown format is not opened and is left as it is.
+	 */
+	@Test
+	public void testIndexedStorageUnknownFormat() throws IOException {
+		URL location = getStorageLocation();
+		File indexedFile = IndexedStorage.getFile(location);
+		byte[] content = "not a secure storage".getBytes(StandardCharsets.UTF_8);
+		Files.write(indexedFile.toPath(), content);
+		System.setProperty(IndexedStorage.PROP_INDEXED, "true");
+		try {
+			boolean exception = false;
+			try {
+				newPreferences(location, getOptions());
+			} catch (IOException e) {
+				exception = true;
+			}
+			assertTrue(exception);
+			assertArrayEquals(content, Files.readAllBytes(indexedFile.toPath()));
+		} finally {
+			System.clearProperty(IndexedStorage.PROP_INDEXED);
+			indexedFile.delete();
+		}
+	}
+
 	/**
 	 * Tests corrupted encrypted data.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -88,6 +88,8 @@ public class SecAuthMessages extends NLS {
 	public static String decryptingError;
 	public static String encryptingError;
 	public static String persistingError;
+	public static String readingError;
+	public static String indexedStorageKept;
 	public static String noDigest;
 	public static String failedCreateRecovery;
 	public static String initCancelled;
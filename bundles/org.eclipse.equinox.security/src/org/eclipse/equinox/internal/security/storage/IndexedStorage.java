@@ -0,0 +1,472 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.security.storage;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.equinox.internal.security.auth.AuthPlugin;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Keeps the secure preferences in a file of records next to the storage location
+ * instead of the properties file, see {@link #PROP_INDEXED}. The records hold the
+ * values as they are kept in the nodes, so encrypted values stay encrypted in the
+ * file.
+ * <p>
+ * Opening the file only locates the value records of the nodes; the values of a
+ * node are read the first time the node is used. A flush appends the records of
+ * the changes made since the previous flush. The file is rewritten by a flush once
+ * the superseded records outnumber the live ones.
+ * </p>
+ */
+public class IndexedStorage {
+
+	/**
+	 * Framework property. Set to <code>true</code> to keep the secure storage in
+	 * an indexed file of records instead of the properties file.
+	 */
+	static final public String PROP_INDEXED = "equinox.security.storage.indexed"; //$NON-NLS-1$
+
+	static final private String FILE_SUFFIX = ".idx"; //$NON-NLS-1$
+	static final private String COMPACT_SUFFIX = ".compact"; //$NON-NLS-1$
+
+	static final private int MAGIC = 0x45535349; // ESSI
+	static final private int VERSION = 1;
+	static final private int HEADER_SIZE = 8;
+	static final private int RECORD_HEADER_SIZE = 9;
+	static final private long MIN_COMPACT_SIZE = 64 * 1024;
+
+	static final private byte ALGORITHMS = 1;
+	static final private byte PUT = 2;
+	static final private byte REMOVE = 3;
+	static final private byte CLEAR = 4;
+	static final private byte REMOVE_NODE = 5;
+
+	final private File file;
+
+	/**
+	 * Open channel on the file; null until the file is opened or created. Guarded by this
+	 */
+	private FileChannel channel;
+	private boolean closed;
+	private long size;
+	private int recordCount;
+	private int liveCount;
+	private String cipherAlgorithm;
+	private String keyFactoryAlgorithm;
+
+	/**
+	 * Records of the changes not flushed yet; guarded by itself
+	 */
+	private List<byte[]> pending = new ArrayList<>();
+
+	public IndexedStorage(File file) {
+		this.file = file;
+	}
+
+	static public File getFile(URL location) {
+		return new File(location.getPath() + FILE_SUFFIX);
+	}
+
+	static public boolean isEnabled() {
+		AuthPlugin plugin = AuthPlugin.getDefault();
+		BundleContext context = (plugin == null) ? null : plugin.getBundleContext();
+		String value = (context == null) ? System.getProperty(PROP_INDEXED) : context.getProperty(PROP_INDEXED);
+		return Boolean.parseBoolean(value);
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public String getCipherAlgorithm() {
+		return cipherAlgorithm;
+	}
+
+	public String getKeyFactoryAlgorithm() {
+		return keyFactoryAlgorithm;
+	}
+
+	/**
+	 * Reads the file and opens it for appending. A missing or empty file is
+	 * created by the first flush.
+	 *
+	 * @return map of node path -> key -> position of the value record. The
+	 * path of the root node is an empty string.
+	 * @throws IOException if the file can not be read or is not a storage file;
+	 * the file is left as it is
+	 */
+	synchronized public Map<String, Map<String, Long>> open() throws IOException {
+		Map<String, Map<String, Long>> index = new LinkedHashMap<>();
+		long length = file.length();
+		if (length == 0)
+			return index;
+		long validSize = HEADER_SIZE;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+			int magic = (length < HEADER_SIZE) ? 0 : in.readInt();
+			int version = (length < HEADER_SIZE) ? 0 : in.readInt();
+			if (magic != MAGIC || version != VERSION)
+				throw new IOException("Unknown format of " + file + ": " + Integer.toHexString(magic) + " version " + version); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			CRC32 crc = new CRC32();
+			while (true) {
+				byte[] record;
+				try {
+					byte type = in.readByte();
+					int recordLength = in.readInt();
+					int checksum = in.readInt();
+					if (recordLength < 0 || recordLength > length - validSize || type < ALGORITHMS || type > REMOVE_NODE)
+						break;
+					record = new byte[RECORD_HEADER_SIZE + recordLength];
+					ByteBuffer.wrap(record).put(type).putInt(recordLength).putInt(checksum);
+					in.readFully(record, RECORD_HEADER_SIZE, recordLength);
+					crc.reset();
+					crc.update(record, RECORD_HEADER_SIZE, recordLength);
+					if ((int) crc.getValue() != checksum)
+						break;
+				} catch (EOFException e) {
+					break;
+				}
+				apply(record, validSize, index);
+				recordCount++;
+				validSize += record.length;
+			}
+		}
+		for (Map<String, Long> values : index.values())
+			liveCount += values.size();
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (validSize < channel.size()) // drop the torn record of an interrupted flush
+				channel.truncate(validSize);
+		} catch (IOException e) {
+			channel.close();
+			channel = null;
+			throw e;
+		}
+		size = validSize;
+		return index;
+	}
+
+	private void apply(byte[] record, long position, Map<String, Map<String, Long>> index) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE));
+		byte type = record[0];
+		if (type == ALGORITHMS) {
+			cipherAlgorithm = readString(in);
+			keyFactoryAlgorithm = readString(in);
+			return;
+		}
+		String path = readString(in);
+		switch (type) {
+			case PUT :
+				Map<String, Long> values = index.get(path);
+				if (values == null) {
+					values = new HashMap<>();
+					index.put(path, values);
+				}
+				values.put(readString(in), Long.valueOf(position));
+				break;
+			case REMOVE :
+				values = index.get(path);
+				if (values != null) {
+					values.remove(readString(in));
+					if (values.isEmpty())
+						index.remove(path);
+				}
+				break;
+			case CLEAR :
+				index.remove(path);
+				break;
+			case REMOVE_NODE :
+				String prefix = path + IPath.SEPARATOR;
+				for (Iterator<String> i = index.keySet().iterator(); i.hasNext();) {
+					String nodePath = i.next();
+					if (nodePath.equals(path) || nodePath.startsWith(prefix))
+						i.remove();
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Reads the values of a node whose values are not loaded yet.
+	 *
+	 * @return map of key -> value, or null if the positions are no longer those of the node
+	 */
+	synchronized public Map<String, String> read(SecurePreferences node, Map<String, Long> positions) throws IOException {
+		if (node.getUnloadedValues() != positions)
+			return null;
+		if (channel == null)
+			throw new IOException("Storage is not open: " + file); //$NON-NLS-1$
+		Map<String, String> result = new HashMap<>(positions.size());
+		for (Entry<String, Long> entry : positions.entrySet()) {
+			byte[] record = readRecord(channel, entry.getValue().longValue());
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE));
+			readString(in); // path
+			String key = readString(in);
+			if (record[0] != PUT || !key.equals(entry.getKey()))
+				throw new IOException("Invalid record at " + entry.getValue()); //$NON-NLS-1$
+			result.put(key, readString(in));
+		}
+		return result;
+	}
+
+	///////////////////////////////////////////////////////////////////////////////////
+	// Changes
+
+	public void put(String path, String key, String value) {
+		addPending(encode(PUT, path, key, value));
+	}
+
+	public void remove(String path, String key) {
+		addPending(encode(REMOVE, path, key, null));
+	}
+
+	public void clear(String path) {
+		addPending(encode(CLEAR, path, null, null));
+	}
+
+	public void removeNode(String path) {
+		addPending(encode(REMOVE_NODE, path, null, null));
+	}
+
+	private void addPending(byte[] record) {
+		synchronized (pending) {
+			pending.add(record);
+		}
+	}
+
+	/**
+	 * Appends the pending changes to the file. The file is rewritten from the
+	 * given root node first if it does not exist yet or needs compaction.
+	 */
+	synchronized public void flush(SecurePreferences root, String newCipherAlgorithm, String newKeyFactoryAlgorithm) throws IOException {
+		if (closed)
+			throw new IOException("Storage is closed: " + file); //$NON-NLS-1$
+		if (channel == null || (size > MIN_COMPACT_SIZE && recordCount - liveCount > liveCount))
+			writeSnapshot(root, newCipherAlgorithm, newKeyFactoryAlgorithm);
+
+		List<byte[]> records;
+		synchronized (pending) {
+			records = pending;
+			pending = new ArrayList<>();
+		}
+		boolean algorithmsChanged = newCipherAlgorithm != null && (!newCipherAlgorithm.equals(cipherAlgorithm) || !newKeyFactoryAlgorithm.equals(keyFactoryAlgorithm));
+		if (algorithmsChanged)
+			records.add(0, encode(ALGORITHMS, newCipherAlgorithm, newKeyFactoryAlgorithm, null));
+		if (records.isEmpty())
+			return;
+		int length = 0;
+		for (byte[] record : records)
+			length += record.length;
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		for (byte[] record : records)
+			buffer.put(record);
+		buffer.flip();
+		long position = size;
+		try {
+			while (buffer.hasRemaining())
+				position += channel.write(buffer, position);
+			channel.force(false);
+		} catch (IOException e) {
+			// keep the changes for the next flush, which overwrites what was written
+			if (algorithmsChanged)
+				records.remove(0);
+			synchronized (pending) {
+				records.addAll(pending);
+				pending = records;
+			}
+			throw e;
+		}
+		if (algorithmsChanged) {
+			cipherAlgorithm = newCipherAlgorithm;
+			keyFactoryAlgorithm = newKeyFactoryAlgorithm;
+		}
+		size = position;
+		recordCount += records.size();
+	}
+
+	/*
+	 * Writes the values of the nodes to a new file which replaces the current one.
+	 * The records of the nodes whose values are not loaded are copied.
+	 */
+	private void writeSnapshot(SecurePreferences root, String newCipherAlgorithm, String newKeyFactoryAlgorithm) throws IOException {
+		File snapshotFile = new File(file.getParentFile(), file.getName() + COMPACT_SUFFIX);
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists())
+			parent.mkdirs();
+		Snapshot snapshot;
+		try (FileOutputStream fileOut = new FileOutputStream(snapshotFile)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			snapshot = new Snapshot(out);
+			if (newCipherAlgorithm != null) {
+				snapshot.write(encode(ALGORITHMS, newCipherAlgorithm, newKeyFactoryAlgorithm, null));
+				snapshot.count--;
+			}
+			root.flush(snapshot);
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+		Files.move(snapshotFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		size = snapshot.position;
+		recordCount = snapshot.count;
+		liveCount = snapshot.count;
+		cipherAlgorithm = newCipherAlgorithm;
+		keyFactoryAlgorithm = newKeyFactoryAlgorithm;
+		for (Entry<SecurePreferences, Map<String, Long>[]> entry : snapshot.moved.entrySet())
+			entry.getKey().replaceUnloadedValues(entry.getValue()[0], entry.getValue()[1]);
+	}
+
+	synchronized public void close() {
+		closed = true;
+		if (channel == null)
+			return;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// nothing to do
+		}
+		channel = null;
+	}
+
+	public boolean delete() {
+		close();
+		return file.delete();
+	}
+
+	/**
+	 * The file being written by a compaction, see {@link SecurePreferences#flush(Snapshot)}.
+	 */
+	public class Snapshot {
+		final private DataOutputStream out;
+		long position = HEADER_SIZE;
+		int count;
+		final Map<SecurePreferences, Map<String, Long>[]> moved = new HashMap<>();
+
+		Snapshot(DataOutputStream out) {
+			this.out = out;
+		}
+
+		public void put(String path, String key, String value) throws IOException {
+			write(encode(PUT, path, key, value));
+		}
+
+		/**
+		 * Copies the value records of a node whose values are not loaded.
+		 */
+		@SuppressWarnings("unchecked")
+		public void copy(SecurePreferences node, Map<String, Long> positions) throws IOException {
+			Map<String, Long> newPositions = new HashMap<>(positions.size());
+			for (Entry<String, Long> entry : positions.entrySet()) {
+				newPositions.put(entry.getKey(), Long.valueOf(position));
+				write(readRecord(channel, entry.getValue().longValue()));
+			}
+			moved.put(node, new Map[] {positions, newPositions});
+		}
+
+		void write(byte[] record) throws IOException {
+			out.write(record);
+			position += record.length;
+			count++;
+		}
+	}
+
+	///////////////////////////////////////////////////////////////////////////////////
+	// Records
+
+	/*
+	 * Returns the framed record of a change.
+	 */
+	static private byte[] encode(byte type, String path, String key, String value) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			writeString(out, path);
+			if (key != null)
+				writeString(out, key);
+			if (type == PUT)
+				writeString(out, value);
+			byte[] content = bytes.toByteArray();
+			CRC32 crc = new CRC32();
+			crc.update(content, 0, content.length);
+			byte[] record = new byte[RECORD_HEADER_SIZE + content.length];
+			ByteBuffer.wrap(record).put(type).putInt(content.length).putInt((int) crc.getValue()).put(content);
+			return record;
+		} catch (IOException e) {
+			// cannot happen with a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static private byte[] readRecord(FileChannel in, long position) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		readFully(in, header, position);
+		header.flip();
+		header.get();
+		int recordLength = header.getInt();
+		int checksum = header.getInt();
+		if (recordLength < 0 || recordLength > in.size() - position - RECORD_HEADER_SIZE)
+			throw new IOException("Invalid record at " + position); //$NON-NLS-1$
+		byte[] record = new byte[RECORD_HEADER_SIZE + recordLength];
+		readFully(in, ByteBuffer.wrap(record), position);
+		CRC32 crc = new CRC32();
+		crc.update(record, RECORD_HEADER_SIZE, recordLength);
+		if ((int) crc.getValue() != checksum)
+			throw new IOException("Invalid record at " + position); //$NON-NLS-1$
+		return record;
+	}
+
+	static private void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = in.read(buffer, position);
+			if (read < 0)
+				throw new EOFException();
+			position += read;
+		}
+	}
+
+	// unlike writeUTF, not limited to 64k; null is written as length -1
+	static private void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static private String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
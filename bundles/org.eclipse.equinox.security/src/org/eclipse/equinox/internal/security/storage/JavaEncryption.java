@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -50,6 +50,8 @@ public class JavaEncryption {
 
 	static private final int SALT_ITERATIONS = 10;
 
+	static private final SecureRandom random = new SecureRandom();
+
 	private String keyFactoryAlgorithm = null;
 	private String cipherAlgorithm = null;
 
@@ -57,6 +59,11 @@ public class JavaEncryption {
 
 	private HashMap<String, String> availableCiphers;
 
+	/**
+	 * Cipher instances are not thread safe; each thread re-initializes its own
+	 */
+	private final ThreadLocal<Cipher> ciphers = new ThreadLocal<>();
+
 	public JavaEncryption() {
 		// placeholder
 	}
@@ -135,15 +142,13 @@ public class JavaEncryption {
 
 	private CryptoData internalEncrypt(PasswordExt passwordExt, byte[] clearText) throws StorageException {
 		try {
-			SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(keyFactoryAlgorithm);
-			SecretKey key = keyFactory.generateSecret(passwordExt.getPassword());
+			SecretKey key = passwordExt.getKey(keyFactoryAlgorithm);
 
 			byte[] salt = new byte[8];
-			SecureRandom random = new SecureRandom();
 			random.nextBytes(salt);
 			PBEParameterSpec entropy = new PBEParameterSpec(salt, SALT_ITERATIONS);
 
-			Cipher c = Cipher.getInstance(cipherAlgorithm);
+			Cipher c = getCipherInstance();
 			c.init(Cipher.ENCRYPT_MODE, key, entropy);
 			byte[] iv = null;
 
@@ -176,8 +181,7 @@ public class JavaEncryption {
 
 	private byte[] internalDecrypt(PasswordExt passwordExt, CryptoData encryptedData) throws StorageException, IllegalStateException, IllegalBlockSizeException, BadPaddingException {
 		try {
-			SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(keyFactoryAlgorithm);
-			SecretKey key = keyFactory.generateSecret(passwordExt.getPassword());
+			SecretKey key = passwordExt.getKey(keyFactoryAlgorithm);
 
 			IvParameterSpec ivParamSpec = null;
 			if (encryptedData.getIV() != null) {
@@ -191,7 +195,7 @@ public class JavaEncryption {
 				entropy = new PBEParameterSpec(encryptedData.getSalt(), SALT_ITERATIONS);
 			}
 
-			Cipher c = Cipher.getInstance(cipherAlgorithm);
+			Cipher c = getCipherInstance();
 			c.init(Cipher.DECRYPT_MODE, key, entropy);
 
 			byte[] result = c.doFinal(encryptedData.getData());
@@ -202,6 +206,15 @@ public class JavaEncryption {
 		}
 	}
 
+	private Cipher getCipherInstance() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		Cipher c = ciphers.get();
+		if (c == null || !c.getAlgorithm().equals(cipherAlgorithm)) {
+			c = Cipher.getInstance(cipherAlgorithm);
+			ciphers.set(c);
+		}
+		return c;
+	}
+
 	private void handle(Exception e, int internalCode) throws StorageException {
 		if (AuthPlugin.DEBUG_LOGIN_FRAMEWORK)
 			e.printStackTrace();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -7,12 +7,16 @@
  * https://www.eclipse.org/legal/epl-2.0/
  *
  * SPDX-License-Identifier: EPL-2.0
- * 
+ *
  * Contributors:
  *     IBM Corporation - initial API and implementation
  *******************************************************************************/
 package org.eclipse.equinox.internal.security.storage;
 
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 
 public class PasswordExt {
@@ -21,6 +25,13 @@ public class PasswordExt {
 
 	final public String moduleID;
 
+	/**
+	 * Key derived from the password and the algorithm it was derived with;
+	 * kept for the lifetime of this object
+	 */
+	private SecretKey key;
+	private String keyAlgorithm;
+
 	public PasswordExt(PBEKeySpec password, String moduleID) {
 		super();
 		this.moduleID = moduleID;
@@ -34,4 +45,17 @@ public class PasswordExt {
 	public String getModuleID() {
 		return moduleID;
 	}
+
+	/**
+	 * Returns the secret key derived from the password using the given key factory algorithm.
+	 * The key of the last algorithm used is cached.
+	 */
+	synchronized public SecretKey getKey(String keyFactoryAlgorithm) throws NoSuchAlgorithmException, InvalidKeySpecException {
+		if (key == null || !keyFactoryAlgorithm.equals(keyAlgorithm)) {
+			SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(keyFactoryAlgorithm);
+			key = keyFactory.generateSecret(password);
+			keyAlgorithm = keyFactoryAlgorithm;
+		}
+		return key;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -63,6 +63,12 @@ public class SecurePreferences {
 	 */
 	private Map<String, String> values;
 
+	/**
+	 * Positions of the values of this node in the indexed storage while they are
+	 * not read yet; null once the values are loaded
+	 */
+	private volatile Map<String, Long> unloadedValues;
+
 	/**
 	 * Cache root node to improve performance a bit
 	 */
@@ -110,6 +116,7 @@ public class SecurePreferences {
 
 	public String[] keys() {
 		checkRemoved();
+		loadValues();
 		if (values == null)
 			return EMPTY_STRING_ARRAY;
 		Set<String> keys = values.keySet();
@@ -186,6 +193,109 @@ public class SecurePreferences {
 		getRoot().flush();
 	}
 
+	/**
+	 * Writes the values of this node and of its children to the rewritten indexed storage
+	 */
+	public void flush(IndexedStorage.Snapshot snapshot) throws IOException {
+		Map<String, Long> positions;
+		Map<String, String> currentValues = null;
+		List<SecurePreferences> currentChildren = null;
+		synchronized (this) {
+			positions = unloadedValues;
+			if (positions == null && values != null)
+				currentValues = new HashMap<>(values);
+			if (children != null)
+				currentChildren = new ArrayList<>(children.values());
+		}
+		if (positions != null)
+			snapshot.copy(this, positions);
+		else if (currentValues != null) {
+			String path = getPath();
+			for (Entry<String, String> entry : currentValues.entrySet())
+				snapshot.put(path, entry.getKey(), entry.getValue());
+		}
+		if (currentChildren != null) {
+			for (SecurePreferences child : currentChildren)
+				child.flush(snapshot);
+		}
+	}
+
+	public Map<String, Long> getUnloadedValues() {
+		return unloadedValues;
+	}
+
+	public void setUnloadedValues(Map<String, Long> positions) {
+		unloadedValues = positions;
+	}
+
+	/**
+	 * Updates the positions of the values after the indexed storage has been rewritten
+	 */
+	synchronized void replaceUnloadedValues(Map<String, Long> oldPositions, Map<String, Long> newPositions) {
+		if (unloadedValues == oldPositions)
+			unloadedValues = newPositions;
+	}
+
+	/**
+	 * Reads the values of this node from the indexed storage if this was not done yet.
+	 * Must not be called while holding the lock of a node.
+	 *
+	 * @return false if the values could not be read
+	 */
+	private boolean loadValues() {
+		Map<String, Long> positions;
+		while ((positions = unloadedValues) != null) {
+			Map<String, String> loaded;
+			try {
+				loaded = getRoot().getStorage().read(this, positions);
+			} catch (IOException e) {
+				AuthPlugin.getDefault().logError(NLS.bind(SecAuthMessages.readingError, absolutePath()), e);
+				return false;
+			}
+			if (loaded == null) // positions changed by a compaction or a clear(); try again
+				continue;
+			synchronized (this) {
+				if (unloadedValues != positions)
+					continue;
+				if (values == null)
+					values = new HashMap<>(loaded.size());
+				for (Entry<String, String> entry : loaded.entrySet())
+					values.putIfAbsent(entry.getKey(), entry.getValue());
+				unloadedValues = null;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the values of this node and of its children from the indexed storage
+	 * if this was not done yet.
+	 *
+	 * @return false if the values of a node could not be read
+	 */
+	protected boolean loadAllValues() {
+		boolean loaded = loadValues();
+		List<SecurePreferences> currentChildren = null;
+		synchronized (this) {
+			if (children != null)
+				currentChildren = new ArrayList<>(children.values());
+		}
+		if (currentChildren != null) {
+			for (SecurePreferences child : currentChildren)
+				loaded &= child.loadAllValues();
+		}
+		return loaded;
+	}
+
+	/**
+	 * Path of this node in the indexed storage; empty for the root node
+	 */
+	private String getPath() {
+		if (parent == null)
+			return ""; //$NON-NLS-1$
+		return parent.getPath() + PATH_SEPARATOR + name;
+	}
+
 	public void flush(Properties properties, String parentsPath) {
 		String thisNodePath;
 		if (name == null)
@@ -243,16 +353,104 @@ public class SecurePreferences {
 		}
 
 		// value must not be null at this point
-		CryptoData encryptedValue = getRoot().getCipher().encrypt(getRoot().getPassword(null, container, true), StorageUtils.getBytes(value));
+		CryptoData encryptedValue = getRoot().getCipher().encrypt(passwordExt, StorageUtils.getBytes(value));
 		internalPut(key, encryptedValue.toString());
 		markModified();
 	}
 
+	/**
+	 * Stores all the given entries. The password is obtained once and the values are
+	 * encrypted in one pass before any of them is stored. Without a password either
+	 * all the values are stored as clear text, as put() does for a single value, or
+	 * none of them is stored.
+	 */
+	public void put(Map<String, String> entries, boolean encrypt, SecurePreferencesContainer container) throws StorageException {
+		boolean needPassword = false;
+		for (Entry<String, String> entry : entries.entrySet()) {
+			if (entry.getKey() == null)
+				throw new NullPointerException();
+			needPassword |= encrypt && entry.getValue() != null;
+		}
+		checkRemoved();
+
+		PasswordExt passwordExt = null;
+		if (needPassword) {
+			passwordExt = getRoot().getPassword(null, container, true);
+			if (passwordExt == null) {
+				boolean storeDecrypted = !CallbacksProvider.getDefault().runningUI() || InternalExchangeUtils.isJUnitApp();
+				if (!storeDecrypted)
+					throw new StorageException(StorageException.NO_PASSWORD, SecAuthMessages.loginNoPassword);
+			}
+		}
+
+		Map<String, String> encoded = new HashMap<>(entries.size());
+		JavaEncryption cipher = getRoot().getCipher();
+		for (Entry<String, String> entry : entries.entrySet()) {
+			String value = entry.getValue();
+			CryptoData data;
+			if (!encrypt || value == null || passwordExt == null)
+				data = new CryptoData(null, null, StorageUtils.getBytes(value), null);
+			else
+				data = cipher.encrypt(passwordExt, StorageUtils.getBytes(value));
+			encoded.put(entry.getKey(), data.toString());
+		}
+		loadValues();
+		synchronized (this) {
+			if (values == null)
+				values = new HashMap<>(encoded.size());
+			values.putAll(encoded);
+			IndexedStorage storage = getRoot().getStorage();
+			if (storage != null) {
+				String path = getPath();
+				for (Entry<String, String> entry : encoded.entrySet())
+					storage.put(path, entry.getKey(), entry.getValue());
+			}
+		}
+		markModified();
+
+		if (needPassword && passwordExt == null) { // for JUnits and headless runs we store values as clear text and log a error
+			List<String> clearTextKeys = new ArrayList<>();
+			for (Entry<String, String> entry : entries.entrySet()) {
+				if (entry.getValue() != null)
+					clearTextKeys.add(entry.getKey());
+			}
+			Collections.sort(clearTextKeys);
+			// Make this as visible as possible. Both print out the output and log a error, once for the whole batch
+			String msg = NLS.bind(SecAuthMessages.storedClearText, String.join(", ", clearTextKeys), absolutePath()); //$NON-NLS-1$
+			System.out.println(msg);
+			AuthPlugin.getDefault().logError(msg, new StorageException(StorageException.NO_PASSWORD, msg));
+		}
+	}
+
 	public String get(String key, String def, SecurePreferencesContainer container) throws StorageException {
 		checkRemoved();
 		if (!hasKey(key))
 			return def;
-		String encryptedValue = internalGet(key);
+		return decode(internalGet(key), container, null);
+	}
+
+	/**
+	 * Retrieves the values of the given keys. The passwords are obtained once per
+	 * module and the values are decrypted in one pass.
+	 * 
+	 * @return map of key -> value for the keys which have a value in this node
+	 */
+	public Map<String, String> get(String[] keys, SecurePreferencesContainer container) throws StorageException {
+		checkRemoved();
+		Map<String, String> result = new HashMap<>(keys.length);
+		Map<String, PasswordExt> passwords = new HashMap<>(2);
+		for (String key : keys) {
+			if (hasKey(key))
+				result.put(key, decode(internalGet(key), container, passwords));
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a stored value. If passwords is not null, it caches the passwords
+	 * of the modules for the caller.
+	 */
+	private String decode(String encryptedValue, SecurePreferencesContainer container, Map<String, PasswordExt> passwords) throws StorageException {
 		if (encryptedValue == null)
 			return null;
 
@@ -264,9 +462,14 @@ public class SecurePreferences {
 			return StorageUtils.getString(data.getData());
 		}
 
-		PasswordExt passwordExt = getRoot().getPassword(moduleID, container, false);
-		if (passwordExt == null)
-			throw new StorageException(StorageException.NO_PASSWORD, SecAuthMessages.loginNoPassword);
+		PasswordExt passwordExt = (passwords == null) ? null : passwords.get(moduleID);
+		if (passwordExt == null) {
+			passwordExt = getRoot().getPassword(moduleID, container, false);
+			if (passwordExt == null)
+				throw new StorageException(StorageException.NO_PASSWORD, SecAuthMessages.loginNoPassword);
+			if (passwords != null)
+				passwords.put(moduleID, passwordExt);
+		}
 
 		try {
 			byte[] clearText = getRoot().getCipher().decrypt(passwordExt, data);
@@ -296,13 +499,20 @@ public class SecurePreferences {
 		}
 	}
 
-	synchronized protected void internalPut(String key, String value) {
-		if (values == null)
-			values = new HashMap<>(5);
-		values.put(key, value);
+	protected void internalPut(String key, String value) {
+		loadValues();
+		synchronized (this) {
+			if (values == null)
+				values = new HashMap<>(5);
+			values.put(key, value);
+			IndexedStorage storage = getRoot().getStorage();
+			if (storage != null)
+				storage.put(getPath(), key, value);
+		}
 	}
 
 	protected String internalGet(String key) {
+		loadValues();
 		if (values == null)
 			return null;
 		return values.get(key);
@@ -314,16 +524,28 @@ public class SecurePreferences {
 
 	synchronized public void clear() {
 		checkRemoved();
+		unloadedValues = null;
 		if (values != null)
 			values.clear();
+		IndexedStorage storage = getRoot().getStorage();
+		if (storage != null)
+			storage.clear(getPath());
 		markModified();
 	}
 
-	synchronized public void remove(String key) {
+	public void remove(String key) {
 		checkRemoved();
-		if (values != null) {
-			values.remove(key);
-			markModified();
+		loadValues();
+		synchronized (this) {
+			if (values != null) {
+				if (values.containsKey(key)) {
+					IndexedStorage storage = getRoot().getStorage();
+					if (storage != null)
+						storage.remove(getPath(), key);
+				}
+				values.remove(key);
+				markModified();
+			}
 		}
 	}
 
@@ -347,8 +569,12 @@ public class SecurePreferences {
 	synchronized protected void removeNode(String childName) {
 		if (children == null)
 			return;
-		if (children.remove(childName) != null)
+		if (children.remove(childName) != null) {
+			IndexedStorage storage = getRoot().getStorage();
+			if (storage != null)
+				storage.removeNode(getPath() + PATH_SEPARATOR + childName);
 			markModified();
+		}
 	}
 
 	private void checkRemoved() {
@@ -482,6 +708,7 @@ public class SecurePreferences {
 
 	protected boolean hasKey(String key) {
 		checkRemoved();
+		loadValues();
 		return (values == null) ? false : values.containsKey(key);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -132,6 +132,7 @@ public class SecurePreferencesMapper {
 					// is empty by this time
 					AuthPlugin.getDefault().frameworkLogError(SecAuthMessages.errorOnSave, FrameworkLogEntry.ERROR, e);
 				}
+				provider.close();
 			}
 			preferences.clear();
 		}
@@ -155,6 +156,7 @@ public class SecurePreferencesMapper {
 				if (!root.equals(provider))
 					continue;
 				i.remove();
+				root.close();
 				break;
 			}
 		}
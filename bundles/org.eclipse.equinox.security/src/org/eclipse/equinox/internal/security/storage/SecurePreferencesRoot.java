@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -80,8 +80,15 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 
 	private JavaEncryption cipher = new JavaEncryption();
 
+	/**
+	 * Indexed storage used instead of the properties file; null if not used
+	 */
+	private volatile IndexedStorage storage = null;
+
 	private Map<String, PasswordExt> passwordCache = new HashMap<>(5); // cached passwords: module ID -> PasswordExt 
 
+	private PasswordExt defaultPassword = null; // last default password; guarded by passwordCache
+
 	public SecurePreferencesRoot(URL location) throws IOException {
 		super(null, null);
 		this.location = location;
@@ -96,6 +103,10 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 		return cipher;
 	}
 
+	public IndexedStorage getStorage() {
+		return storage;
+	}
+
 	@Override
 	public boolean isModified() {
 		return modified;
@@ -105,10 +116,59 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 		this.modified = modified;
 	}
 
+	/**
+	 * Loads the storage. The indexed storage is used if it exists or if it is enabled by
+	 * {@link IndexedStorage#PROP_INDEXED}; switching the property converts the storage
+	 * between the properties file and the indexed file.
+	 */
 	public void load() throws IOException {
 		if (location == null)
 			return;
 
+		File indexedFile = StorageUtils.isFile(location) ? IndexedStorage.getFile(location) : null;
+		boolean indexed = (indexedFile != null) && IndexedStorage.isEnabled();
+		if (indexedFile != null && indexedFile.exists()) {
+			IndexedStorage indexedStorage = new IndexedStorage(indexedFile);
+			Map<String, Map<String, Long>> index = indexedStorage.open();
+			storage = indexedStorage;
+			if (indexedStorage.getCipherAlgorithm() != null && indexedStorage.getKeyFactoryAlgorithm() != null)
+				cipher.setAlgorithms(indexedStorage.getCipherAlgorithm(), indexedStorage.getKeyFactoryAlgorithm());
+			for (Entry<String, Map<String, Long>> entry : index.entrySet())
+				node(entry.getKey()).setUnloadedValues(entry.getValue());
+			timestamp = getLastModified();
+			if (indexed)
+				return;
+
+			// indexed storage is no longer enabled: go back to the properties file, unless
+			// values would be lost
+			if (!loadAllValues()) {
+				AuthPlugin.getDefault().logError(NLS.bind(SecAuthMessages.indexedStorageKept, indexedFile), null);
+				return;
+			}
+			storage = null;
+			modified = true;
+			timestamp = 0;
+			flush();
+			indexedStorage.delete();
+			return;
+		}
+
+		if (!loadProperties() || !indexed)
+			return;
+
+		// indexed storage is enabled: move the values from the properties file
+		storage = new IndexedStorage(indexedFile);
+		storage.flush(this, cipher.getCipherAlgorithm(), cipher.getKeyFactoryAlgorithm());
+		new File(location.getPath()).delete();
+		timestamp = getLastModified();
+	}
+
+	/**
+	 * Loads the values from the properties file.
+	 * 
+	 * @return false if the file could not be used
+	 */
+	private boolean loadProperties() throws IOException {
 		Properties properties = new Properties();
 		try (InputStream is = StorageUtils.getInputStream(location)) {
 			if (is != null) {
@@ -119,13 +179,13 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 			String msg = NLS.bind(SecAuthMessages.badStorageURL, location.toString());
 			AuthPlugin.getDefault().logError(msg, e);
 			location = null; // don't attempt to use it 
-			return;
+			return false;
 		}
 
 		// In future new versions could be added
 		Object version = properties.get(VERSION_KEY);
 		if ((version != null) && !VERSION_VALUE.equals(version))
-			return;
+			return false;
 		properties.remove(VERSION_KEY);
 
 		// Process encryption algorithms
@@ -153,6 +213,7 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 			// don't use regular put() method as that would mark node as dirty
 			node.internalPut(storedPath.getKey(), (String) value);
 		}
+		return true;
 	}
 
 	@Override
@@ -174,6 +235,13 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 			}
 		}
 
+		if (storage != null) { // only the changes are written
+			storage.flush(this, cipher.getCipherAlgorithm(), cipher.getKeyFactoryAlgorithm());
+			modified = false;
+			timestamp = getLastModified();
+			return;
+		}
+
 		Properties properties = new Properties();
 		properties.put(VERSION_KEY, VERSION_VALUE);
 
@@ -232,9 +300,15 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 		boolean setupPasswordRecovery = false;
 		boolean addedNoPrompt = false;
 
+		// Quick check first: it is cached? Avoids the lock for the common case
+		synchronized (passwordCache) {
+			if (passwordCache.containsKey(key))
+				return passwordCache.get(key);
+		}
+
 		try {
 			lock.acquire(); // make sure process of password creation is not re-entered by another thread
-			// Quick check first: it is cached?
+			// Check again: it might have been cached while waiting for the lock
 			synchronized (passwordCache) {
 				if (passwordCache.containsKey(key))
 					return passwordCache.get(key);
@@ -310,8 +384,14 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 	private PasswordExt getDefaultPassword(IPreferencesContainer container) {
 		if (container.hasOption(IProviderHints.DEFAULT_PASSWORD)) {
 			Object passwordHint = container.getOption(IProviderHints.DEFAULT_PASSWORD);
-			if (passwordHint instanceof PBEKeySpec)
-				return new PasswordExt((PBEKeySpec) passwordHint, DEFAULT_PASSWORD_ID);
+			if (passwordHint instanceof PBEKeySpec) {
+				// re-use the same PasswordExt so that its derived key is re-used
+				synchronized (passwordCache) {
+					if (defaultPassword == null || defaultPassword.getPassword() != passwordHint)
+						defaultPassword = new PasswordExt((PBEKeySpec) passwordHint, DEFAULT_PASSWORD_ID);
+					return defaultPassword;
+				}
+			}
 		}
 		return null;
 	}
@@ -382,11 +462,22 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 	public void clearPasswordCache() {
 		synchronized (passwordCache) {
 			passwordCache.clear();
+			defaultPassword = null;
 		}
 	}
 
+	/**
+	 * Releases the file of the indexed storage, if any. The root can not be saved afterwards.
+	 */
+	public void close() {
+		IndexedStorage currentStorage = storage;
+		if (currentStorage != null)
+			currentStorage.close();
+	}
+
 	private long getLastModified() {
-		File file = new File(location.getPath());
+		IndexedStorage currentStorage = storage;
+		File file = (currentStorage != null) ? currentStorage.getFile() : new File(location.getPath());
 		return file.lastModified();
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.equinox.internal.security.storage;
 
 import java.io.IOException;
+import java.util.Map;
 import org.eclipse.equinox.security.storage.ISecurePreferences;
 import org.eclipse.equinox.security.storage.StorageException;
 
@@ -128,6 +129,22 @@ public class SecurePreferencesWrapper implements ISecurePreferences {
 		node.put(key, value, encrypt, container);
 	}
 
+	/**
+	 * Retrieves the values of the given keys in one pass.
+	 * 
+	 * @return map of key -> value for the keys which have a value in this node
+	 */
+	public Map<String, String> get(String[] keys) throws StorageException {
+		return node.get(keys, container);
+	}
+
+	/**
+	 * Stores all the given entries in one pass.
+	 */
+	public void put(Map<String, String> entries, boolean encrypt) throws StorageException {
+		node.put(entries, encrypt, container);
+	}
+
 	@Override
 	public boolean getBoolean(String key, boolean def) throws StorageException {
 		return node.getBoolean(key, def, container);
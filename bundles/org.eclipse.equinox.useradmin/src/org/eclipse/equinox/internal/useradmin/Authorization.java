@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.useradmin;
 
+import java.util.Set;
 import java.util.Vector;
 
 /**
@@ -111,7 +112,7 @@ public class Authorization implements org.osgi.service.useradmin.Authorization {
 			if (checkRole == null) {
 				return (false);
 			}
-			return checkRole.isImpliedBy(user, new Vector<>());
+			return useradmin.getImpliedRoleNames(user).contains(checkRole.name);
 		}
 	}
 
@@ -129,16 +130,12 @@ public class Authorization implements org.osgi.service.useradmin.Authorization {
 		// authorization context.
 		synchronized (useradmin) //we don't want anything changing while we get the list
 		{
-			int length = useradmin.roles.size();
-			Vector<String> result = new Vector<>(length);
-			for (int i = 0; i < length; i++) {
-				Role role = useradmin.roles.elementAt(i);
-				if (role.isImpliedBy(user, new Vector<>())) {
-					String roleName = role.getName();
-					//exclude user.anyone from the list
-					if (!roleName.equals(Role.anyoneString)) {
-						result.addElement(roleName);
-					}
+			Set<String> impliedRoleNames = useradmin.getImpliedRoleNames(user);
+			Vector<String> result = new Vector<>(impliedRoleNames.size());
+			for (String roleName : impliedRoleNames) {
+				//exclude user.anyone and removed roles from the list
+				if (!roleName.equals(Role.anyoneString) && useradmin.roleNames.containsKey(roleName)) {
+					result.addElement(roleName);
 				}
 			}
 			int size = result.size();
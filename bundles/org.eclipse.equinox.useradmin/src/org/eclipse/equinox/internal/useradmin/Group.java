@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,8 +13,7 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.useradmin;
 
-import java.util.Enumeration;
-import java.util.Vector;
+import java.util.*;
 import org.osgi.service.prefs.BackingStoreException;
 
 /**
@@ -130,6 +129,7 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 	// do not want to write to storage when we are loading form storage.
 	protected boolean addMember(org.osgi.service.useradmin.Role role, boolean store) {
 		((org.eclipse.equinox.internal.useradmin.Role) role).addImpliedRole(this);
+		useradmin.membershipChanged();
 		if (store) {
 			try {
 				useradmin.userAdminStore.addMember(this, (org.eclipse.equinox.internal.useradmin.Role) role);
@@ -170,6 +170,7 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 
 	protected boolean addRequiredMember(org.osgi.service.useradmin.Role role, boolean store) {
 		((org.eclipse.equinox.internal.useradmin.Role) role).addImpliedRole(this);
+		useradmin.membershipChanged();
 		if (store) {
 			try {
 				useradmin.userAdminStore.addRequiredMember(this, (org.eclipse.equinox.internal.useradmin.Role) role);
@@ -214,6 +215,7 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 			// simply try to remove it from both.
 			boolean removeRequired = requiredMembers.removeElement(role);
 			boolean removeBasic = basicMembers.removeElement(role);
+			useradmin.membershipChanged();
 			return (removeRequired || removeBasic);
 		}
 	}
@@ -267,6 +269,27 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 		return org.osgi.service.useradmin.Role.GROUP;
 	}
 
+	/*
+	 * Returns whether this group is implied by the given set of implied roles:
+	 * all of its required members and at least one of its basic members are in
+	 * the set.
+	 */
+	protected boolean isImpliedBy(Set<Role> implied) {
+		Enumeration<org.osgi.service.useradmin.Role> e = requiredMembers.elements();
+		while (e.hasMoreElements()) {
+			if (!implied.contains(e.nextElement())) {
+				return (false);
+			}
+		}
+		e = basicMembers.elements();
+		while (e.hasMoreElements()) {
+			if (implied.contains(e.nextElement())) {
+				return (true);
+			}
+		}
+		return (false);
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	protected boolean isImpliedBy(Role role, Vector<String> checkLoop) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -47,6 +47,9 @@ public class Role implements org.osgi.service.useradmin.Role {
 	protected UserAdmin useradmin;
 	protected static final String anyoneString = "user.anyone"; //$NON-NLS-1$
 	protected boolean exists = true;
+	/** The names of the roles implied by this role, see {@link UserAdmin#getImpliedRoleNames(Role)} */
+	protected Set<String> impliedRoleNames;
+	protected long impliedRolesGeneration;
 
 	protected Role(String name, UserAdmin useradmin) {
 		this.name = name;
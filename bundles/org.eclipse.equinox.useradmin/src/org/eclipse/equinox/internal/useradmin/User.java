@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.equinox.internal.useradmin;
 
 import java.util.Dictionary;
 import java.util.Vector;
+import org.osgi.service.prefs.BackingStoreException;
 import org.osgi.service.useradmin.UserAdminEvent;
 import org.osgi.service.useradmin.UserAdminPermission;
 
@@ -41,6 +42,8 @@ import org.osgi.service.useradmin.UserAdminPermission;
 public class User extends Role implements org.osgi.service.useradmin.User {
 
 	protected UserAdminHashtable credentials;
+	/** The credentials are still in the store, see {@link UserAdminStore#loadCredentials(User)} */
+	protected volatile boolean lazyCredentials;
 
 	protected User(String name, UserAdmin useradmin) {
 		super(name, useradmin);
@@ -74,9 +77,25 @@ public class User extends Role implements org.osgi.service.useradmin.User {
 	@Override
 	public Dictionary<String, Object> getCredentials() {
 		useradmin.checkAlive();
+		loadCredentials();
 		return credentials;
 	}
 
+	protected void loadCredentials() {
+		if (lazyCredentials) {
+			synchronized (credentials) {
+				if (lazyCredentials) {
+					try {
+						useradmin.userAdminStore.loadCredentials(this);
+						lazyCredentials = false;
+					} catch (BackingStoreException ex) {
+						//the store has logged the error, try again with the next access
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Checks to see if this User has a credential with the specified key
 	 * set to the specified value.
@@ -98,6 +117,7 @@ public class User extends Role implements org.osgi.service.useradmin.User {
 	@Override
 	public boolean hasCredential(String key, Object value) {
 		useradmin.checkAlive();
+		loadCredentials();
 		Object checkValue = credentials.get(key);
 		if (checkValue != null) {
 			if (value instanceof String) {
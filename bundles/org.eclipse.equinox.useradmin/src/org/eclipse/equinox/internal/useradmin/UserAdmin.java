@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -55,6 +55,10 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 	protected UserAdminPermission adminPermission;
 	protected ServiceReference reference;
 	protected LogTracker log;
+	protected Map<String, Role> roleNames = new HashMap<>();
+	protected UserPropertyIndex propertyIndex = new UserPropertyIndex();
+	/** Incremented when group memberships change, invalidates the implied roles of the roles */
+	protected long membershipGeneration;
 
 	protected UserAdmin(PreferencesService preferencesService, BundleContext context) throws Exception {
 		roles = new Vector<>();
@@ -65,7 +69,11 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		alive = true;
 		//This handles user admin persistence
 		try {
-			userAdminStore = new UserAdminStore(preferencesService, this, log);
+			if (UserAdminLogStore.isEnabled(context)) {
+				userAdminStore = new UserAdminLogStore(preferencesService, this, log, UserAdminLogStore.getLogFile(context));
+			} else {
+				userAdminStore = new UserAdminStore(preferencesService, this, log);
+			}
 			userAdminStore.init();
 		} catch (Exception e) {
 			log.log(LogService.LOG_ERROR, UserAdminMsg.Backing_Store_Read_Exception, e);
@@ -146,6 +154,7 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 			users.addElement(newRole);
 		}
 		roles.addElement(newRole);
+		roleNames.put(name, newRole);
 		return (newRole);
 	}
 
@@ -182,7 +191,10 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 				}
 				roles.removeElement(role);
 				users.removeElement(role);
+				roleNames.remove(name);
+				propertyIndex.removeProperties(role, role.properties);
 				role.destroy();
+				membershipChanged();
 				eventProducer.generateEvent(UserAdminEvent.ROLE_REMOVED, role);
 				role = null;
 				return (true);
@@ -206,14 +218,7 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 			return (null);
 		}
 		synchronized (this) {
-			Enumeration<Role> e = roles.elements();
-			while (e.hasMoreElements()) {
-				Role role = e.nextElement();
-				if (role.getName().equals(name)) {
-					return (role);
-				}
-			}
-			return (null);
+			return (roleNames.get(name));
 		}
 	}
 
@@ -280,25 +285,7 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		if (key == null) {
 			return (null);
 		}
-		User user;
-		User foundUser = null;
-		Dictionary<String, Object> props;
-		String keyValue;
-		synchronized (this) {
-			Enumeration<Role> e = users.elements();
-			while (e.hasMoreElements()) {
-				user = (User) e.nextElement();
-				props = user.getProperties();
-				keyValue = (String) props.get(key);
-				if (keyValue != null && keyValue.equals(value)) {
-					if (foundUser != null) {
-						return (null); //we found more than one match	
-					}
-					foundUser = user;
-				}
-			}
-			return (foundUser);
-		}
+		return (propertyIndex.getUser(key, value));
 	}
 
 	/**
@@ -317,6 +304,55 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		return (new Authorization((User) user, this));
 	}
 
+	/*
+	 * Invalidates the implied roles of all the roles. Must be called while
+	 * holding the lock of this UserAdmin.
+	 */
+	protected void membershipChanged() {
+		membershipGeneration++;
+	}
+
+	/*
+	 * Returns the names of the roles implied by the given role. The names are
+	 * computed from the groups the role is a member of, directly or not, and
+	 * kept until the next membership change. Must be called while holding the
+	 * lock of this UserAdmin.
+	 */
+	protected Set<String> getImpliedRoleNames(Role user) {
+		if (user.impliedRoleNames != null && user.impliedRolesGeneration == membershipGeneration) {
+			return (user.impliedRoleNames);
+		}
+		Set<Role> implied = new HashSet<>();
+		Vector<Role> work = new Vector<>();
+		Role anyone = roleNames.get(Role.anyoneString);
+		if (anyone != null) {
+			implied.add(anyone);
+			work.addElement(anyone);
+		}
+		if (user.exists && implied.add(user)) {
+			work.addElement(user);
+		}
+		while (!work.isEmpty()) {
+			Role role = work.remove(work.size() - 1);
+			if (role.impliedRoles == null) {
+				continue;
+			}
+			for (Group group : role.impliedRoles) {
+				if (!implied.contains(group) && group.isImpliedBy(implied)) {
+					implied.add(group);
+					work.addElement(group);
+				}
+			}
+		}
+		Set<String> names = new HashSet<>();
+		for (Role role : implied) {
+			names.add(role.name);
+		}
+		user.impliedRoleNames = Collections.unmodifiableSet(names);
+		user.impliedRolesGeneration = membershipGeneration;
+		return (user.impliedRoleNames);
+	}
+
 	protected synchronized void destroy() {
 		alive = false;
 		eventProducer.close();
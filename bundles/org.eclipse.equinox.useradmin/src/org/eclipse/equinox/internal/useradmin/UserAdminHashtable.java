@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -69,6 +69,9 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 			}
 		}
 		Object retVal = super.put(key, value);
+		if (propertyType == UserAdminHashtable.PROPERTIES) {
+			userAdmin.propertyIndex.propertyChanged(role, key, retVal, value);
+		}
 		return retVal;
 	}
 
@@ -119,7 +122,11 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 				break;
 		}
 
-		return super.remove(name);
+		Object retVal = super.remove(name);
+		if (propertyType == UserAdminHashtable.PROPERTIES) {
+			userAdmin.propertyIndex.propertyChanged(role, name, retVal, null);
+		}
+		return retVal;
 	}
 
 	@Override
@@ -158,6 +165,9 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 				break;
 		}
 
+		if (propertyType == UserAdminHashtable.PROPERTIES) {
+			userAdmin.propertyIndex.removeProperties(role, this);
+		}
 		super.clear();
 	}
 
@@ -0,0 +1,801 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.useradmin;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.log.LogService;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.PreferencesService;
+
+/*
+ *  UserAdminLogStore keeps the persistence data of the useradmin service in one
+ *  append-only file instead of one preference node per role.  Every change appends
+ *  a record and waits until it is on disk; changes made concurrently are written
+ *  together with one sync.  The file is read once at startup, the credentials of
+ *  the users are only read the first time they are used.
+ *
+ *  The file is compacted at startup and after a commit once the superseded records
+ *  outnumber the live ones.  At startup the roles are written, after a commit the log
+ *  is replayed instead as the roles are only changed once their records are written.
+ *  The roles found in the preferences when the log is created are moved into the
+ *  log, and UserAdminStore moves the log back into the preferences when the log is
+ *  no longer enabled.
+ */
+
+public class UserAdminLogStore extends UserAdminStore {
+
+	/**
+	 * Framework property. Set to <code>true</code> to keep the roles in one
+	 * append-only file instead of the preferences.
+	 */
+	public static final String PROP_STORE_LOG = "equinox.useradmin.store.log"; //$NON-NLS-1$
+	static protected final String logFileName = "useradmin.log"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x4555414c; // EUAL
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int RECORD_HEADER_SIZE = 9;
+	private static final long MIN_COMPACT_SIZE = 64 * 1024;
+
+	private static final byte ROLE = 1;
+	private static final byte REMOVE_ROLE = 2;
+	private static final byte PROPERTY = 3;
+	private static final byte REMOVE_PROPERTY = 4;
+	private static final byte CLEAR_PROPERTIES = 5;
+	private static final byte CREDENTIAL = 6;
+	private static final byte REMOVE_CREDENTIAL = 7;
+	private static final byte CLEAR_CREDENTIALS = 8;
+	private static final byte MEMBER = 9;
+	private static final byte REQUIRED_MEMBER = 10;
+	private static final byte REMOVE_MEMBER = 11;
+
+	private static final byte STRING_VALUE = 1;
+	private static final byte BYTES_VALUE = 2;
+
+	protected File logFile;
+	/* the positions of the credential records of the users whose credentials are not loaded yet */
+	private final Map<User, long[]> lazyCredentials = new HashMap<>();
+	private boolean migrating;
+	/* the records in the file, and the live ones when they were last counted; guarded by writeLock */
+	private int recordCount;
+	private int liveCount;
+
+	/* group commit, see write(byte[]) */
+	private List<byte[]> pending = new ArrayList<>();
+	private long enqueued;
+	private final Object writeLock = new Object();
+	private FileChannel channel;
+	private long committed;
+	private long failed;
+	private long fileSize;
+
+	protected UserAdminLogStore(PreferencesService preferencesService, UserAdmin useradmin, LogTracker log, File logFile) {
+		super(preferencesService, useradmin, log);
+		this.logFile = logFile;
+	}
+
+	/*
+	 * Returns the log file of the given context, or null if the bundle has no
+	 * data area.
+	 */
+	static protected File getLogFile(BundleContext context) {
+		return (context == null ? null : context.getDataFile(logFileName));
+	}
+
+	static protected boolean isEnabled(BundleContext context) {
+		return (context != null && Boolean.valueOf(context.getProperty(PROP_STORE_LOG)).booleanValue() && getLogFile(context) != null);
+	}
+
+	@Override
+	protected void init() throws BackingStoreException {
+		try {
+			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
+				open();
+				return (null);
+			});
+		} catch (PrivilegedActionException ex) {
+			throw ((BackingStoreException) ex.getException());
+		}
+	}
+
+	private void open() throws BackingStoreException {
+		try {
+			if (logFile.exists()) {
+				long validSize = read(true);
+				if (validSize > MIN_COMPACT_SIZE && recordCount - liveCount > liveCount) {
+					writeSnapshot();
+				} else {
+					openChannel(validSize);
+				}
+			} else {
+				// move the roles of the preferences into the log
+				migrating = true;
+				rootNode = preferencesService.getUserPreferences(persistenceUserName);
+				loadRoles();
+				writeSnapshot();
+				migrating = false;
+				try {
+					for (String child : rootNode.childrenNames()) {
+						rootNode.node(child).removeNode();
+					}
+					rootNode.flush();
+				} catch (BackingStoreException ex) {
+					// the roles are in the log, the preferences are ignored from now on
+					log.log(LogService.LOG_WARNING, UserAdminMsg.Backing_Store_Write_Exception, ex);
+				}
+				rootNode = null;
+			}
+		} catch (IOException ex) {
+			String errorString = NLS.bind(UserAdminMsg.Backing_Store_Read_Exception, logFile);
+			log.log(LogService.LOG_ERROR, errorString, ex);
+			throw (new BackingStoreException(errorString, ex));
+		}
+		if (useradmin.getRole(Role.anyoneString) == null) {
+			//If the user.anyone role is not present, create it
+			useradmin.createRole(Role.anyoneString, org.osgi.service.useradmin.Role.ROLE, true);
+		}
+	}
+
+	@Override
+	protected void addRole(org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		write(encode(ROLE, role.getName(), null, Integer.valueOf(role.getType())));
+	}
+
+	@Override
+	protected void removeRole(org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		write(encode(REMOVE_ROLE, role.getName(), null, null));
+		synchronized (lazyCredentials) {
+			lazyCredentials.remove(role);
+		}
+	}
+
+	@Override
+	protected void clearProperties(org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		write(encode(CLEAR_PROPERTIES, role.getName(), null, null));
+	}
+
+	@Override
+	protected void addProperty(org.osgi.service.useradmin.Role role, String key, Object value) throws BackingStoreException {
+		write(encode(PROPERTY, role.getName(), key, value));
+	}
+
+	@Override
+	protected void removeProperty(org.osgi.service.useradmin.Role role, String key) throws BackingStoreException {
+		write(encode(REMOVE_PROPERTY, role.getName(), key, null));
+	}
+
+	@Override
+	protected void clearCredentials(org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		write(encode(CLEAR_CREDENTIALS, role.getName(), null, null));
+	}
+
+	@Override
+	protected void addCredential(org.osgi.service.useradmin.Role role, String key, Object value) throws BackingStoreException {
+		write(encode(CREDENTIAL, role.getName(), key, value));
+	}
+
+	@Override
+	protected void removeCredential(org.osgi.service.useradmin.Role role, String key) throws BackingStoreException {
+		write(encode(REMOVE_CREDENTIAL, role.getName(), key, null));
+	}
+
+	@Override
+	protected void addMember(Group group, Role role) throws BackingStoreException {
+		write(encode(MEMBER, group.getName(), role.getName(), null));
+	}
+
+	@Override
+	protected void addRequiredMember(Group group, Role role) throws BackingStoreException {
+		write(encode(REQUIRED_MEMBER, group.getName(), role.getName(), null));
+	}
+
+	@Override
+	protected void removeMember(Group group, Role role) throws BackingStoreException {
+		write(encode(REMOVE_MEMBER, group.getName(), role.getName(), null));
+	}
+
+	@Override
+	protected void loadCredentials(final User user) throws BackingStoreException {
+		// the positions are those of the current file, which is not compacted meanwhile
+		synchronized (writeLock) {
+			final long[] positions;
+			synchronized (lazyCredentials) {
+				positions = lazyCredentials.remove(user);
+			}
+			if (positions == null) {
+				return;
+			}
+			try {
+				AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
+					Map<String, Object> credentials = new LinkedHashMap<>();
+					try (FileChannel in = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+						for (long position : positions) {
+							applyCredential(readRecord(in, position), credentials);
+						}
+					}
+					for (Map.Entry<String, Object> entry : credentials.entrySet()) {
+						user.credentials.put(entry.getKey(), entry.getValue(), false);
+					}
+					return (null);
+				});
+			} catch (PrivilegedActionException ex) {
+				synchronized (lazyCredentials) {
+					lazyCredentials.put(user, positions);
+				}
+				String errorString = NLS.bind(UserAdminMsg.Backing_Store_Read_Exception, logFile);
+				log.log(LogService.LOG_ERROR, errorString, ex.getException());
+				throw (new BackingStoreException(errorString, ex.getException()));
+			}
+		}
+	}
+
+	@Override
+	protected void destroy() {
+		synchronized (writeLock) {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException ex) {
+					// ignore
+				}
+				channel = null;
+			}
+		}
+		preferencesService = null;
+	}
+
+	/*
+	 * Appends the given record and waits until it is on disk.  Writers that arrive
+	 * while a write is in progress are written with the next write.
+	 */
+	private void write(byte[] record) throws BackingStoreException {
+		if (migrating) {
+			// the roles loaded from the preferences are written with the snapshot
+			return;
+		}
+		final long sequence;
+		synchronized (this) {
+			pending.add(record);
+			sequence = ++enqueued;
+		}
+		try {
+			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
+				commit(sequence);
+				return (null);
+			});
+		} catch (PrivilegedActionException ex) {
+			log.log(LogService.LOG_ERROR, NLS.bind(UserAdminMsg.Backing_Store_Write_Exception, logFile), ex.getException());
+			throw (new BackingStoreException(NLS.bind(UserAdminMsg.Backing_Store_Write_Exception, logFile), ex.getException()));
+		}
+	}
+
+	private void commit(long sequence) throws IOException {
+		synchronized (writeLock) {
+			if (sequence <= committed) {
+				// written by the batch of another writer
+				return;
+			}
+			if (sequence <= failed) {
+				throw new IOException("Could not write to " + logFile); //$NON-NLS-1$
+			}
+			if (channel == null) {
+				throw new IOException(logFile + " is closed"); //$NON-NLS-1$
+			}
+			List<byte[]> batch;
+			long last;
+			synchronized (this) {
+				batch = pending;
+				last = enqueued;
+				pending = new ArrayList<>();
+			}
+			int size = 0;
+			for (byte[] record : batch) {
+				size += record.length;
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(size);
+			for (byte[] record : batch) {
+				buffer.put(record);
+			}
+			buffer.flip();
+			try {
+				long position = fileSize;
+				while (buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+				channel.force(false);
+			} catch (IOException e) {
+				failed = last;
+				throw e;
+			}
+			fileSize += size;
+			committed = last;
+			recordCount += batch.size();
+			if (fileSize > MIN_COMPACT_SIZE && recordCount - liveCount > liveCount) {
+				try {
+					compact();
+				} catch (IOException e) {
+					// the log is still valid, compact with the next commit
+				}
+			}
+		}
+	}
+
+	/*
+	 * Rewrites the log with its live records, which are found by replaying it.  If the
+	 * superseded records do not outnumber them, e.g. as most records created roles, only
+	 * the live records are counted.  The credential records of the users whose
+	 * credentials are not loaded are copied.  Must hold the write lock.
+	 */
+	private void compact() throws IOException {
+		Map<String, LoggedRole> loggedRoles = new LinkedHashMap<>();
+		replay(loggedRoles);
+		int live = 0;
+		for (LoggedRole loggedRole : loggedRoles.values()) {
+			live += 1 + loggedRole.properties.size() + loggedRole.credentialCount;
+			for (String member : loggedRole.members.keySet()) {
+				if (loggedRoles.containsKey(member)) {
+					live++;
+				}
+			}
+		}
+		liveCount = live;
+		if (recordCount - live <= live) {
+			return;
+		}
+
+		File compactFile = new File(logFile.getParentFile(), logFile.getName() + ".compact"); //$NON-NLS-1$
+		Map<Long, Long> moved = new HashMap<>();
+		try (FileOutputStream fileOut = new FileOutputStream(compactFile); FileChannel in = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			long position = HEADER_SIZE;
+			for (Map.Entry<String, LoggedRole> entry : loggedRoles.entrySet()) {
+				String name = entry.getKey();
+				LoggedRole loggedRole = entry.getValue();
+				position += writeRecord(out, encode(ROLE, name, null, Integer.valueOf(loggedRole.type)));
+				for (Map.Entry<String, Object> property : loggedRole.properties.entrySet()) {
+					position += writeRecord(out, encode(PROPERTY, name, property.getKey(), property.getValue()));
+				}
+				for (int i = 0; i < loggedRole.credentialCount; i++) {
+					moved.put(Long.valueOf(loggedRole.credentials[i]), Long.valueOf(position));
+					position += writeRecord(out, readRecord(in, loggedRole.credentials[i]));
+				}
+			}
+			// the members are written once all the roles are known
+			for (Map.Entry<String, LoggedRole> entry : loggedRoles.entrySet()) {
+				for (Map.Entry<String, Boolean> member : entry.getValue().members.entrySet()) {
+					if (loggedRoles.containsKey(member.getKey())) {
+						position += writeRecord(out, encode(member.getValue().booleanValue() ? REQUIRED_MEMBER : MEMBER, entry.getKey(), member.getKey(), null));
+					}
+				}
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		}
+
+		// the users without live credential records are being removed
+		Map<User, long[]> lazy = new HashMap<>();
+		synchronized (lazyCredentials) {
+			for (Map.Entry<User, long[]> entry : lazyCredentials.entrySet()) {
+				long[] positions = new long[entry.getValue().length];
+				for (int i = 0; i < positions.length && positions != null; i++) {
+					Long position = moved.get(Long.valueOf(entry.getValue()[i]));
+					if (position == null) {
+						positions = null;
+					} else {
+						positions[i] = position.longValue();
+					}
+				}
+				lazy.put(entry.getKey(), positions);
+			}
+		}
+		channel.close();
+		try {
+			Files.move(compactFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			recordCount = live;
+			synchronized (lazyCredentials) {
+				for (Map.Entry<User, long[]> entry : lazy.entrySet()) {
+					if (entry.getValue() == null) {
+						lazyCredentials.remove(entry.getKey());
+					} else {
+						lazyCredentials.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		} finally {
+			openChannel(logFile.length());
+		}
+	}
+
+	private void openChannel(long validSize) throws IOException {
+		synchronized (writeLock) {
+			channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			if (validSize < channel.size()) {
+				// drop the torn record of an interrupted write
+				channel.truncate(validSize);
+			}
+			fileSize = validSize;
+		}
+	}
+
+	/*
+	 * Writes the roles of the useradmin to a new file which replaces the log.  The
+	 * credential records of the users whose credentials are not loaded are copied.
+	 */
+	private void writeSnapshot() throws IOException {
+		File snapshotFile = new File(logFile.getParentFile(), logFile.getName() + ".compact"); //$NON-NLS-1$
+		Map<User, long[]> moved = new HashMap<>();
+		int count = 0;
+		try (FileOutputStream fileOut = new FileOutputStream(snapshotFile); FileChannel in = logFile.exists() ? FileChannel.open(logFile.toPath(), StandardOpenOption.READ) : null) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			long position = HEADER_SIZE;
+			List<Group> groups = new ArrayList<>();
+			for (Role role : useradmin.roles) {
+				int type = role.getType();
+				count++;
+				position += writeRecord(out, encode(ROLE, role.name, null, Integer.valueOf(type)));
+				for (Map.Entry<String, Object> entry : role.properties.entrySet()) {
+					count++;
+					position += writeRecord(out, encode(PROPERTY, role.name, entry.getKey(), entry.getValue()));
+				}
+				if (role instanceof User) {
+					User user = (User) role;
+					long[] positions = lazyCredentials.get(user);
+					if (positions != null) {
+						long[] newPositions = new long[positions.length];
+						for (int i = 0; i < positions.length; i++) {
+							newPositions[i] = position;
+							count++;
+							position += writeRecord(out, readRecord(in, positions[i]));
+						}
+						moved.put(user, newPositions);
+					} else {
+						for (Map.Entry<String, Object> entry : user.credentials.entrySet()) {
+							count++;
+							position += writeRecord(out, encode(CREDENTIAL, role.name, entry.getKey(), entry.getValue()));
+						}
+					}
+				}
+				if (role instanceof Group) {
+					groups.add((Group) role);
+				}
+			}
+			// the members are written once all the roles are known
+			for (Group group : groups) {
+				for (org.osgi.service.useradmin.Role member : group.basicMembers) {
+					count++;
+					position += writeRecord(out, encode(MEMBER, group.name, member.getName(), null));
+				}
+				for (org.osgi.service.useradmin.Role member : group.requiredMembers) {
+					count++;
+					position += writeRecord(out, encode(REQUIRED_MEMBER, group.name, member.getName(), null));
+				}
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		Files.move(snapshotFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		synchronized (lazyCredentials) {
+			lazyCredentials.putAll(moved);
+		}
+		recordCount = count;
+		liveCount = count;
+		openChannel(logFile.length());
+	}
+
+	private static int writeRecord(DataOutputStream out, byte[] record) throws IOException {
+		out.write(record);
+		return (record.length);
+	}
+
+	/*
+	 * Reads the log into the useradmin and returns the size of the valid part of the
+	 * file.  If lazy is true the credential records are only located.  A file with
+	 * an unknown header is not read.
+	 */
+	protected long read(boolean lazy) throws IOException {
+		Map<String, LoggedRole> loggedRoles = new LinkedHashMap<>();
+		long validSize = replay(loggedRoles);
+
+		synchronized (useradmin) {
+			for (Map.Entry<String, LoggedRole> entry : loggedRoles.entrySet()) {
+				LoggedRole loggedRole = entry.getValue();
+				Role role = (Role) useradmin.createRole(entry.getKey(), loggedRole.type, false);
+				if (role == null) {
+					continue;
+				}
+				liveCount++;
+				for (Map.Entry<String, Object> property : loggedRole.properties.entrySet()) {
+					role.properties.put(property.getKey(), property.getValue(), false);
+					liveCount++;
+				}
+				if (role instanceof User && loggedRole.credentialCount > 0) {
+					long[] positions = Arrays.copyOf(loggedRole.credentials, loggedRole.credentialCount);
+					liveCount += positions.length;
+					lazyCredentials.put((User) role, positions);
+				}
+			}
+			for (Map.Entry<String, LoggedRole> entry : loggedRoles.entrySet()) {
+				Role role = (Role) useradmin.getRole(entry.getKey());
+				if (!(role instanceof Group)) {
+					continue;
+				}
+				for (Map.Entry<String, Boolean> member : entry.getValue().members.entrySet()) {
+					Role memberRole = (Role) useradmin.getRole(member.getKey());
+					if (memberRole == null) {
+						continue;
+					}
+					if (member.getValue().booleanValue()) {
+						((Group) role).addRequiredMember(memberRole, false);
+					} else {
+						((Group) role).addMember(memberRole, false);
+					}
+					liveCount++;
+				}
+			}
+		}
+		if (!lazy) {
+			Map<User, long[]> users;
+			synchronized (lazyCredentials) {
+				users = new HashMap<>(lazyCredentials);
+			}
+			for (User user : users.keySet()) {
+				try {
+					loadCredentials(user);
+				} catch (BackingStoreException ex) {
+					throw (new IOException(ex.getMessage(), ex.getCause()));
+				}
+			}
+		} else {
+			for (User user : lazyCredentials.keySet()) {
+				user.lazyCredentials = true;
+			}
+		}
+		return (validSize);
+	}
+
+	/*
+	 * Replays the records of the log into the given map and returns the size of the
+	 * valid part of the file.  A file with an unknown header is not read.
+	 */
+	private long replay(Map<String, LoggedRole> loggedRoles) throws IOException {
+		long validSize = HEADER_SIZE;
+		int count = 0;
+		long length = logFile.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), 64 * 1024))) {
+			int magic = (length < HEADER_SIZE) ? 0 : in.readInt();
+			int version = (length < HEADER_SIZE) ? 0 : in.readInt();
+			if (magic != MAGIC || version != VERSION) {
+				// not written by this version: leave it alone
+				throw new IOException("Unknown format of " + logFile + ": " + Integer.toHexString(magic) + " version " + version); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			CRC32 crc = new CRC32();
+			while (true) {
+				byte[] record;
+				try {
+					byte type = in.readByte();
+					int recordLength = in.readInt();
+					int checksum = in.readInt();
+					if (recordLength < 0 || recordLength > length - validSize || type < ROLE || type > REMOVE_MEMBER) {
+						break;
+					}
+					record = new byte[RECORD_HEADER_SIZE + recordLength];
+					ByteBuffer.wrap(record).put(type).putInt(recordLength).putInt(checksum);
+					in.readFully(record, RECORD_HEADER_SIZE, recordLength);
+					crc.reset();
+					crc.update(record, RECORD_HEADER_SIZE, recordLength);
+					if ((int) crc.getValue() != checksum) {
+						break;
+					}
+				} catch (EOFException e) {
+					break;
+				}
+				apply(record, validSize, loggedRoles);
+				count++;
+				validSize += record.length;
+			}
+		}
+		recordCount = count;
+		return (validSize);
+	}
+
+	private static void apply(byte[] record, long position, Map<String, LoggedRole> loggedRoles) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE));
+		String name = readString(in);
+		if (record[0] == ROLE) {
+			int type = in.readInt();
+			if (!loggedRoles.containsKey(name)) {
+				loggedRoles.put(name, new LoggedRole(type));
+			}
+			return;
+		}
+		if (record[0] == REMOVE_ROLE) {
+			loggedRoles.remove(name);
+			return;
+		}
+		LoggedRole loggedRole = loggedRoles.get(name);
+		if (loggedRole == null) {
+			return;
+		}
+		switch (record[0]) {
+			case PROPERTY :
+				String key = readString(in);
+				loggedRole.properties.put(key, readValue(in));
+				break;
+			case REMOVE_PROPERTY :
+				loggedRole.properties.remove(readString(in));
+				break;
+			case CLEAR_PROPERTIES :
+				loggedRole.properties.clear();
+				break;
+			case CREDENTIAL :
+			case REMOVE_CREDENTIAL :
+				loggedRole.addCredential(position);
+				break;
+			case CLEAR_CREDENTIALS :
+				// the earlier credential records do not matter anymore
+				loggedRole.credentialCount = 0;
+				break;
+			case MEMBER :
+			case REQUIRED_MEMBER :
+				loggedRole.members.put(readString(in), Boolean.valueOf(record[0] == REQUIRED_MEMBER));
+				break;
+			case REMOVE_MEMBER :
+				loggedRole.members.remove(readString(in));
+				break;
+		}
+	}
+
+	private static void applyCredential(byte[] record, Map<String, Object> credentials) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE));
+		readString(in); // role name
+		switch (record[0]) {
+			case CREDENTIAL :
+				String key = readString(in);
+				credentials.put(key, readValue(in));
+				break;
+			case REMOVE_CREDENTIAL :
+				credentials.remove(readString(in));
+				break;
+			case CLEAR_CREDENTIALS :
+				credentials.clear();
+				break;
+		}
+	}
+
+	private static byte[] readRecord(FileChannel in, long position) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		readFully(in, header, position);
+		header.flip();
+		header.get();
+		int recordLength = header.getInt();
+		int checksum = header.getInt();
+		if (recordLength < 0 || recordLength > in.size() - position - RECORD_HEADER_SIZE) {
+			throw new IOException("Invalid record at " + position); //$NON-NLS-1$
+		}
+		byte[] record = new byte[RECORD_HEADER_SIZE + recordLength];
+		ByteBuffer buffer = ByteBuffer.wrap(record);
+		readFully(in, buffer, position);
+		CRC32 crc = new CRC32();
+		crc.update(record, RECORD_HEADER_SIZE, recordLength);
+		if ((int) crc.getValue() != checksum) {
+			throw new IOException("Invalid record at " + position); //$NON-NLS-1$
+		}
+		return (record);
+	}
+
+	private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = in.read(buffer, position);
+			if (read < 0) {
+				throw new EOFException();
+			}
+			position += read;
+		}
+	}
+
+	/*
+	 * Returns the framed record of the given change.  The key is the member name
+	 * of the member records, the value is the type of the role records.
+	 */
+	private static byte[] encode(byte type, String name, String key, Object value) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			writeString(out, name);
+			if (key != null) {
+				writeString(out, key);
+			}
+			if (value instanceof String) {
+				out.writeByte(STRING_VALUE);
+				writeString(out, (String) value);
+			} else if (value instanceof byte[]) {
+				out.writeByte(BYTES_VALUE);
+				out.writeInt(((byte[]) value).length);
+				out.write((byte[]) value);
+			} else if (value instanceof Integer) {
+				out.writeInt(((Integer) value).intValue());
+			}
+			byte[] content = bytes.toByteArray();
+			CRC32 crc = new CRC32();
+			crc.update(content, 0, content.length);
+			byte[] record = new byte[RECORD_HEADER_SIZE + content.length];
+			ByteBuffer.wrap(record).put(type).putInt(content.length).putInt((int) crc.getValue()).put(content);
+			return (record);
+		} catch (IOException ex) {
+			// cannot happen with a ByteArrayOutputStream
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		if (tag == STRING_VALUE) {
+			return (readString(in));
+		}
+		if (tag == BYTES_VALUE) {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return (bytes);
+		}
+		throw new IOException("Unknown value type: " + tag); //$NON-NLS-1$
+	}
+
+	// unlike writeUTF, not limited to 64k
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return (new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * The state of a role while the log is read.
+	 */
+	private static class LoggedRole {
+		final int type;
+		final Map<String, Object> properties = new LinkedHashMap<>();
+		final Map<String, Boolean> members = new LinkedHashMap<>();
+		long[] credentials = new long[0];
+		int credentialCount;
+
+		LoggedRole(int type) {
+			this.type = type;
+		}
+
+		void addCredential(long position) {
+			if (credentialCount == credentials.length) {
+				credentials = Arrays.copyOf(credentials, Math.max(4, credentialCount * 2));
+			}
+			credentials[credentialCount++] = position;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2009 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,7 +13,10 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.useradmin;
 
+import java.io.File;
+import java.io.IOException;
 import java.security.*;
+import java.util.Map;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.ServiceReference;
 import org.osgi.framework.ServiceRegistration;
@@ -23,6 +26,7 @@ import org.osgi.service.prefs.*;
 /*
  *  UserAdminStore is responsible for managing the persistence data of the useradmin
  *  service.  It uses the PersistenceNode service as its underlying storage.
+ *  Roles left in a UserAdminLogStore log are moved back into the preferences.
  */
 
 public class UserAdminStore {
@@ -53,7 +57,12 @@ public class UserAdminStore {
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				rootNode = preferencesService.getUserPreferences(persistenceUserName);
-				loadRoles();
+				File logFile = UserAdminLogStore.getLogFile(useradmin.context);
+				if (logFile != null && logFile.exists()) {
+					migrateLog(logFile);
+				} else {
+					loadRoles();
+				}
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -111,14 +120,7 @@ public class UserAdminStore {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences propertyNode = rootNode.node(role.getName() + "/" + propertiesNode); //$NON-NLS-1$
 				Preferences propertyTypesNode = propertyNode.node(typesNode);
-				if (value instanceof String) {
-					propertyNode.put(key, (String) value);
-					propertyTypesNode.putBoolean(key, true);
-				} else //must be a byte array, then
-				{
-					propertyNode.putByteArray(key, (byte[]) value);
-					propertyTypesNode.putBoolean(key, false);
-				}
+				putValue(propertyNode, propertyTypesNode, key, value);
 				propertyNode.flush();
 				return (null);
 			});
@@ -166,14 +168,7 @@ public class UserAdminStore {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences credentialNode = rootNode.node(role.getName() + "/" + credentialsNode); //$NON-NLS-1$
 				Preferences credentialTypesNode = credentialNode.node(typesNode);
-				if (value instanceof String) {
-					credentialNode.put(key, (String) value);
-					credentialTypesNode.putBoolean(key, true);
-				} else //assume it is a byte array
-				{
-					credentialNode.putByteArray(key, (byte[]) value);
-					credentialTypesNode.putBoolean(key, false);
-				}
+				putValue(credentialNode, credentialTypesNode, key, value);
 				credentialNode.flush();
 				return (null);
 			});
@@ -323,6 +318,75 @@ public class UserAdminStore {
 		}
 	}
 
+	/*
+	 * Loads the credentials of a user which were not loaded with the user.  The
+	 * preferences are always loaded with the users.
+	 */
+	protected void loadCredentials(User user) throws BackingStoreException {
+		//nothing to load
+	}
+
+	/*
+	 * Replaces the roles in the preferences with the roles of the given log, then
+	 * deletes the log.
+	 */
+	private void migrateLog(File logFile) throws BackingStoreException {
+		UserAdminLogStore logStore = new UserAdminLogStore(null, useradmin, log, logFile);
+		try {
+			logStore.read(false);
+		} catch (IOException ex) {
+			String errorString = NLS.bind(UserAdminMsg.Backing_Store_Read_Exception, logFile);
+			log.log(LogService.LOG_ERROR, errorString, ex);
+			throw (new BackingStoreException(errorString, ex));
+		}
+		if (useradmin.getRole(Role.anyoneString) == null) {
+			useradmin.createRole(Role.anyoneString, org.osgi.service.useradmin.Role.ROLE, false);
+		}
+		for (String child : rootNode.childrenNames()) {
+			rootNode.node(child).removeNode();
+		}
+		for (Role role : useradmin.roles) {
+			Preferences node = rootNode.node(role.getName());
+			node.putInt(typeString, role.getType());
+			Preferences propertyNode = node.node(propertiesNode);
+			Preferences propertyTypesNode = propertyNode.node(typesNode);
+			for (Map.Entry<String, Object> entry : role.properties.entrySet()) {
+				putValue(propertyNode, propertyTypesNode, entry.getKey(), entry.getValue());
+			}
+			if (role instanceof User) {
+				Preferences credentialNode = node.node(credentialsNode);
+				Preferences credentialTypesNode = credentialNode.node(typesNode);
+				for (Map.Entry<String, Object> entry : ((User) role).credentials.entrySet()) {
+					putValue(credentialNode, credentialTypesNode, entry.getKey(), entry.getValue());
+				}
+			}
+			if (role instanceof Group) {
+				Preferences memberNode = node.node(membersNode);
+				for (org.osgi.service.useradmin.Role member : ((Group) role).basicMembers) {
+					memberNode.put(member.getName(), basicString);
+				}
+				for (org.osgi.service.useradmin.Role member : ((Group) role).requiredMembers) {
+					memberNode.put(member.getName(), requiredString);
+				}
+			}
+		}
+		rootNode.flush();
+		if (!logFile.delete()) {
+			log.log(LogService.LOG_WARNING, NLS.bind(UserAdminMsg.Backing_Store_Write_Exception, logFile));
+		}
+	}
+
+	private static void putValue(Preferences node, Preferences typesNode, String key, Object value) {
+		if (value instanceof String) {
+			node.put(key, (String) value);
+			typesNode.putBoolean(key, true);
+		} else //must be a byte array, then
+		{
+			node.putByteArray(key, (byte[]) value);
+			typesNode.putBoolean(key, false);
+		}
+	}
+
 	protected void destroy() {
 		try {
 			rootNode.flush();
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.useradmin;
+
+import java.util.*;
+
+/**
+ * Index of the String property values of the users, used by
+ * {@link UserAdmin#getUser(String, String)}.
+ * <p>
+ * The index is updated by the property dictionaries while they hold their own
+ * lock, so the index never calls out while holding its lock.
+ */
+public class UserPropertyIndex {
+
+	// key -> value -> User, or Set<User> if more than one user has the value
+	private final Map<String, Map<String, Object>> index = new HashMap<>();
+
+	/**
+	 * Returns the user which has the given value for the given property, if
+	 * there is exactly one.
+	 */
+	public synchronized User getUser(String key, String value) {
+		Map<String, Object> values = index.get(key);
+		if (values == null || value == null) {
+			return (null);
+		}
+		Object users = values.get(value);
+		return (users instanceof User) ? (User) users : null;
+	}
+
+	protected void propertyChanged(Role role, String key, Object oldValue, Object newValue) {
+		if (!(role instanceof User)) {
+			return;
+		}
+		synchronized (this) {
+			if (oldValue instanceof String) {
+				remove((User) role, key, (String) oldValue);
+			}
+			if (newValue instanceof String) {
+				add((User) role, key, (String) newValue);
+			}
+		}
+	}
+
+	protected void removeProperties(Role role, UserAdminHashtable properties) {
+		if (!(role instanceof User) || properties == null) {
+			return;
+		}
+		synchronized (properties) {
+			for (Enumeration<String> keys = properties.keys(); keys.hasMoreElements();) {
+				String key = keys.nextElement();
+				propertyChanged(role, key, properties.get(key), null);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void add(User user, String key, String value) {
+		Map<String, Object> values = index.get(key);
+		if (values == null) {
+			values = new HashMap<>();
+			index.put(key, values);
+		}
+		Object users = values.get(value);
+		if (users == null) {
+			values.put(value, user);
+		} else if (users instanceof User) {
+			if (users != user) {
+				Set<User> set = new HashSet<>();
+				set.add((User) users);
+				set.add(user);
+				values.put(value, set);
+			}
+		} else {
+			((Set<User>) users).add(user);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void remove(User user, String key, String value) {
+		Map<String, Object> values = index.get(key);
+		if (values == null) {
+			return;
+		}
+		Object users = values.get(value);
+		if (users == user) {
+			values.remove(value);
+			if (values.isEmpty()) {
+				index.remove(key);
+			}
+		} else if (users instanceof Set) {
+			Set<User> set = (Set<User>) users;
+			set.remove(user);
+			if (set.size() == 1) {
+				values.put(value, set.iterator().next());
+			}
+		}
+	}
+}
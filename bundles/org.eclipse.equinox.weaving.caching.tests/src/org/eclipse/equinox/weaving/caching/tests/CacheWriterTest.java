@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.caching.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.equinox.weaving.internal.caching.CacheItem;
+import org.eclipse.equinox.weaving.internal.caching.CacheWriter;
+import org.eclipse.equinox.weaving.internal.caching.CachingServiceFactory;
+import org.eclipse.equinox.weaving.internal.caching.ClassCacheFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the batched writing of the cache items and the executor reading the
+ * cache files ahead.
+ */
+public class CacheWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<ClassCacheFile> opened = new ArrayList<>();
+
+    private BlockingQueue<CacheItem> queue;
+
+    private CacheWriter writer;
+
+    @Before
+    public void setUp() {
+        queue = new ArrayBlockingQueue<>(100);
+        writer = new CacheWriter(queue);
+    }
+
+    @After
+    public void tearDown() {
+        writer.stop();
+        for (final ClassCacheFile cacheFile : opened) {
+            cacheFile.close();
+        }
+    }
+
+    @Test
+    public void testBatchedStore() throws Exception {
+        final RecordingCacheFile first = open("1-1"); //$NON-NLS-1$
+        final RecordingCacheFile second = open("2-1"); //$NON-NLS-1$
+        final File directory = folder.newFolder();
+
+        // the items queued before the writer starts are stored in one batch
+        for (int i = 0; i < 10; i++) {
+            final Map<String, byte[]> generated = i == 5 ? Collections
+                    .singletonMap("A5$generated", bytes(50)) : null; //$NON-NLS-1$
+            queue.put(new CacheItem(bytes(i), i % 2 == 0 ? first : second,
+                    "A" + i, generated)); //$NON-NLS-1$
+        }
+        queue.put(new CacheItem(bytes(20), directory.getPath(), "B")); //$NON-NLS-1$
+        writer.start();
+        assertTrue("The items were not stored", first.stored.await(10, //$NON-NLS-1$
+                TimeUnit.SECONDS) && second.stored.await(10, TimeUnit.SECONDS));
+
+        // one write per file, in the order of the queue, the generated
+        // classes first
+        assertEquals(1, first.batches.size());
+        assertEquals(Arrays.asList("A0", "A2", "A4", "A6", "A8"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                first.batches.get(0));
+        assertEquals(1, second.batches.size());
+        assertEquals(Arrays.asList("A1", "A3", "A5$generated", "A5", "A7", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                "A9"), second.batches.get(0)); //$NON-NLS-1$
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(bytes(i),
+                    (i % 2 == 0 ? first : second).get("A" + i)); //$NON-NLS-1$
+        }
+        assertArrayEquals(bytes(50), second.get("A5$generated")); //$NON-NLS-1$
+
+        // the items without cache file are stored in their directory, before
+        // the cache files of the batch
+        assertArrayEquals(bytes(20), Files.readAllBytes(new File(directory,
+                "B").toPath())); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testPrefetcher() throws Exception {
+        final ExecutorService prefetcher = CachingServiceFactory
+                .createPrefetcher();
+        try {
+            final CountDownLatch running = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger executed = new AtomicInteger();
+            final boolean[] thread = new boolean[2];
+            prefetcher.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    thread[0] = Thread.currentThread().isDaemon();
+                    thread[1] = Thread.currentThread()
+                            .getPriority() == Thread.MIN_PRIORITY;
+                    running.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        // stop
+                    }
+                }
+            });
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            assertTrue("Not a daemon thread", thread[0]); //$NON-NLS-1$
+            assertTrue("Not a low priority thread", thread[1]); //$NON-NLS-1$
+
+            // the requests beyond the queue are dropped while it is busy
+            for (int i = 0; i < 100; i++) {
+                prefetcher.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        executed.incrementAndGet();
+                    }
+                });
+            }
+            release.countDown();
+            prefetcher.shutdown();
+            assertTrue(prefetcher.awaitTermination(10, TimeUnit.SECONDS));
+            assertTrue(executed.get() > 0);
+            assertTrue(executed.get() < 100);
+        } finally {
+            prefetcher.shutdownNow();
+        }
+    }
+
+    private RecordingCacheFile open(final String name) throws IOException {
+        final RecordingCacheFile cacheFile = new RecordingCacheFile(new File(
+                folder.newFolder(), name + ClassCacheFile.FILE_EXTENSION));
+        opened.add(cacheFile);
+        return cacheFile;
+    }
+
+    private static byte[] bytes(final int i) {
+        final byte[] bytes = new byte[10 + i];
+        Arrays.fill(bytes, (byte) i);
+        return bytes;
+    }
+
+    /**
+     * Records the names of the classes stored by each call
+     */
+    private static class RecordingCacheFile extends ClassCacheFile {
+
+        final List<List<String>> batches = Collections
+                .synchronizedList(new ArrayList<List<String>>());
+
+        final CountDownLatch stored = new CountDownLatch(1);
+
+        RecordingCacheFile(final File file) throws IOException {
+            super(file, null);
+        }
+
+        @Override
+        public synchronized void store(final Map<String, byte[]> classes)
+                throws IOException {
+            batches.add(new ArrayList<>(classes.keySet()));
+            super.store(classes);
+            stored.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.caching.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.eclipse.equinox.weaving.internal.caching.ClassCacheFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the single file cache of the woven classes of a bundle.
+ */
+public class ClassCacheFileTest {
+
+    private static final int HEADER_SIZE = 8;
+
+    // name length, name, data length and checksum of the classes named by
+    // name(int), followed by DATA_SIZE bytes of data
+    private static final int ENTRY_HEADER_SIZE = 16;
+
+    private static final int DATA_SIZE = 100;
+
+    private static final int ENTRY_SIZE = ENTRY_HEADER_SIZE + DATA_SIZE;
+
+    private static final int MAPPING_CHUNK = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    private final List<ClassCacheFile> opened = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.newFolder(), "1-2" //$NON-NLS-1$
+                + ClassCacheFile.FILE_EXTENSION);
+    }
+
+    @After
+    public void tearDown() {
+        for (final ClassCacheFile cacheFile : opened) {
+            cacheFile.close();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ClassCacheFile cacheFile = open(null);
+        assertNull(cacheFile.get(name(0)));
+        cacheFile.store(classes(0, 50));
+        cacheFile.store(classes(50, 100));
+        assertClasses(cacheFile, 0, 100);
+        assertNull(cacheFile.get("missing")); //$NON-NLS-1$
+        cacheFile.close();
+
+        cacheFile = open(null);
+        assertClasses(cacheFile, 0, 100);
+
+        // the later entry of a class replaces the earlier one
+        final byte[] replaced = new byte[] { 1, 2, 3 };
+        cacheFile.store(Collections.singletonMap(name(5), replaced));
+        assertArrayEquals(replaced, cacheFile.get(name(5)));
+        cacheFile.close();
+        assertArrayEquals(replaced, open(null).get(name(5)));
+    }
+
+    @Test
+    public void testStoreAfterClose() throws IOException {
+        final ClassCacheFile cacheFile = open(null);
+        cacheFile.close();
+        try {
+            cacheFile.store(classes(0, 1));
+            fail("Stored in a closed file"); //$NON-NLS-1$
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testForeignFile() throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+            out.write("not a cache file".getBytes()); //$NON-NLS-1$
+        }
+        final ClassCacheFile cacheFile = open(null);
+        assertEquals(HEADER_SIZE, file.length());
+        cacheFile.store(classes(0, 10));
+        assertClasses(cacheFile, 0, 10);
+    }
+
+    @Test
+    public void testTruncatedLastEntry() throws IOException {
+        ClassCacheFile cacheFile = open(null);
+        cacheFile.store(classes(0, 10));
+        cacheFile.close();
+        // a store interrupted in the middle of the data of the last entry
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+            out.setLength(position(9) + ENTRY_SIZE / 2);
+        }
+
+        cacheFile = open(null);
+        assertClasses(cacheFile, 0, 9);
+        assertNull(cacheFile.get(name(9)));
+
+        // the next store replaces the torn entry
+        cacheFile.store(classes(9, 20));
+        cacheFile.close();
+        assertClasses(open(null), 0, 20);
+    }
+
+    @Test
+    public void testTornLastEntry() throws IOException {
+        ClassCacheFile cacheFile = open(null);
+        cacheFile.store(classes(0, 10));
+        cacheFile.close();
+        // a store of which only the start of the last entry reached the disk
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+            out.seek(position(9) + ENTRY_HEADER_SIZE + DATA_SIZE / 2);
+            out.write(new byte[DATA_SIZE / 2]);
+        }
+
+        cacheFile = open(null);
+        assertClasses(cacheFile, 0, 9);
+        assertNull("A corrupted entry is a miss", cacheFile.get(name(9))); //$NON-NLS-1$
+
+        cacheFile.store(classes(9, 20));
+        cacheFile.close();
+        assertClasses(open(null), 0, 20);
+    }
+
+    @Test
+    public void testRemapAcrossChunks() throws IOException {
+        ClassCacheFile cacheFile = open(null);
+        final int size = 100 * 1024;
+        final int count = 3 * MAPPING_CHUNK / size;
+        for (int i = 0; i < count; i++) {
+            cacheFile.store(Collections.singletonMap(name(i), data(i, size)));
+            // the earlier entries remain readable through the new mapping
+            assertArrayEquals(data(0, size), cacheFile.get(name(0)));
+            assertArrayEquals(data(i, size), cacheFile.get(name(i)));
+        }
+        assertTrue(file.length() > 2 * MAPPING_CHUNK);
+        assertEquals("The file grows in chunks", 0, //$NON-NLS-1$
+                file.length() % MAPPING_CHUNK);
+        cacheFile.close();
+
+        cacheFile = open(null);
+        for (int i = 0; i < count; i++) {
+            assertArrayEquals(data(i, size), cacheFile.get(name(i)));
+        }
+    }
+
+    @Test
+    public void testPrefetchWindow() throws IOException {
+        final CountingExecutor executor = new CountingExecutor();
+        final ClassCacheFile cacheFile = open(executor);
+        cacheFile.store(classes(0, 100));
+
+        cacheFile.get(name(0));
+        assertEquals(1, executor.count);
+        // the entries following a class are read ahead, a request in the
+        // first half of the window does not read further ahead
+        for (int i = 1; i < 16; i++) {
+            cacheFile.get(name(i));
+        }
+        assertEquals(1, executor.count);
+        cacheFile.get(name(16));
+        assertEquals(2, executor.count);
+
+        // the entries read ahead are served from memory
+        corrupt(20);
+        assertArrayEquals(data(20, DATA_SIZE), cacheFile.get(name(20)));
+
+        // and dropped once the requests move too far away
+        corrupt(30);
+        cacheFile.get(name(80));
+        assertNull(cacheFile.get(name(30)));
+    }
+
+    @Test
+    public void testWithoutPrefetch() throws IOException {
+        final ClassCacheFile cacheFile = open(null);
+        cacheFile.store(classes(0, 10));
+        cacheFile.get(name(0));
+        corrupt(1);
+        assertNull(cacheFile.get(name(1)));
+    }
+
+    private ClassCacheFile open(final Executor prefetcher) throws IOException {
+        final ClassCacheFile cacheFile = new ClassCacheFile(file, prefetcher);
+        opened.add(cacheFile);
+        return cacheFile;
+    }
+
+    private void corrupt(final int i) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+            out.seek(position(i) + ENTRY_HEADER_SIZE);
+            out.write(~i);
+        }
+    }
+
+    private static void assertClasses(final ClassCacheFile cacheFile,
+            final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            assertArrayEquals(data(i, DATA_SIZE), cacheFile.get(name(i)));
+        }
+    }
+
+    private static Map<String, byte[]> classes(final int from, final int to) {
+        final Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            classes.put(name(i), data(i, DATA_SIZE));
+        }
+        return classes;
+    }
+
+    private static String name(final int i) {
+        return String.format("C%03d", Integer.valueOf(i)); //$NON-NLS-1$
+    }
+
+    private static byte[] data(final int i, final int size) {
+        final byte[] data = new byte[size];
+        Arrays.fill(data, (byte) i);
+        data[0] = (byte) (i >> 8);
+        return data;
+    }
+
+    /*
+     * The position of the class named by name(i) in a file storing the
+     * classes of DATA_SIZE in order
+     */
+    private static long position(final int i) {
+        return HEADER_SIZE + (long) i * ENTRY_SIZE;
+    }
+
+    /**
+     * Runs the tasks in the calling thread and counts them
+     */
+    private static class CountingExecutor implements Executor {
+
+        int count;
+
+        @Override
+        public void execute(final Runnable command) {
+            count++;
+            command.run();
+        }
+    }
+
+}
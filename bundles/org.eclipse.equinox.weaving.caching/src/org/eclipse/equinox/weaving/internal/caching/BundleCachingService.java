@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 Heiko Seeberger and others.
+ * Copyright (c) 2008, 2026 Heiko Seeberger and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,6 +26,7 @@ import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 
 import org.eclipse.equinox.service.weaving.CacheEntry;
 import org.eclipse.equinox.service.weaving.ICachingService;
@@ -50,6 +51,8 @@ public class BundleCachingService implements ICachingService {
 
     private File cacheDirectory;
 
+    private ClassCacheFile cacheFile;
+
     private final String cacheKey;
 
     private final BlockingQueue<CacheItem> cacheWriterQueue;
@@ -66,6 +69,25 @@ public class BundleCachingService implements ICachingService {
     public BundleCachingService(final BundleContext bundleContext,
             final Bundle bundle, final String key,
             final BlockingQueue<CacheItem> cacheWriterQueue) {
+        this(bundleContext, bundle, key, cacheWriterQueue, null);
+    }
+
+    /**
+     * @param bundleContext Must not be null!
+     * @param bundle Must not be null!
+     * @param key Must not be null!
+     * @param cacheWriterQueue The queue for items to be written to the cache,
+     *            must not be null
+     * @param prefetcher If not null, the classes are cached in a single
+     *            {@link ClassCacheFile} which uses this executor to read
+     *            entries ahead; if null, each class is cached in its own file
+     * @throws IllegalArgumentException if given bundleContext or bundle is
+     *             null.
+     */
+    public BundleCachingService(final BundleContext bundleContext,
+            final Bundle bundle, final String key,
+            final BlockingQueue<CacheItem> cacheWriterQueue,
+            final Executor prefetcher) {
 
         if (bundleContext == null) {
             throw new IllegalArgumentException(
@@ -88,7 +110,17 @@ public class BundleCachingService implements ICachingService {
         if (dataFile != null) {
             final String bundleCacheDir = bundle.getBundleId()
                     + "-" + bundle.getLastModified(); //$NON-NLS-1$
-            cacheDirectory = new File(dataFile, bundleCacheDir);
+            if (prefetcher != null) {
+                try {
+                    cacheFile = new ClassCacheFile(new File(dataFile,
+                            bundleCacheDir + ClassCacheFile.FILE_EXTENSION),
+                            prefetcher);
+                } catch (final IOException e) {
+                    Log.error("Cannot open cache file!", e); //$NON-NLS-1$
+                }
+            } else {
+                cacheDirectory = new File(dataFile, bundleCacheDir);
+            }
         } else {
             Log.error("Cannot initialize cache!", null); //$NON-NLS-1$
         }
@@ -116,7 +148,10 @@ public class BundleCachingService implements ICachingService {
         byte[] storedClass = null;
         boolean isCached = false;
 
-        if (cacheDirectory != null) {
+        if (cacheFile != null) {
+            storedClass = cacheFile.get(name);
+            isCached = storedClass != null;
+        } else if (cacheDirectory != null) {
             final File cachedBytecodeFile = new File(cacheDirectory, name);
             storedClass = read(name, cachedBytecodeFile);
             isCached = storedClass != null;
@@ -131,9 +166,12 @@ public class BundleCachingService implements ICachingService {
     }
 
     /**
-     * Writes the remaining cache to disk.
+     * Closes the cache file, if any. Classes not written yet are dropped.
      */
     public void stop() {
+        if (cacheFile != null) {
+            cacheFile.close();
+        }
     }
 
     /**
@@ -150,6 +188,10 @@ public class BundleCachingService implements ICachingService {
             throw new IllegalArgumentException(
                     "Argument \"classbytes\" must not be null!"); //$NON-NLS-1$
         }
+        if (cacheFile != null) {
+            return this.cacheWriterQueue.offer(new CacheItem(classbytes,
+                    cacheFile, clazz.getName(), null));
+        }
         if (cacheDirectory == null) {
             return false;
         }
@@ -168,6 +210,11 @@ public class BundleCachingService implements ICachingService {
             final URL sourceFileUrl, final Class<?> clazz,
             final byte[] classbytes, final Map<String, byte[]> generatedClasses) {
 
+        if (cacheFile != null) {
+            return this.cacheWriterQueue.offer(new CacheItem(classbytes,
+                    cacheFile, clazz.getName(), generatedClasses));
+        }
+
         final CacheItem item = new CacheItem(classbytes, cacheDirectory
                 .getAbsolutePath(), clazz.getName(), generatedClasses);
 
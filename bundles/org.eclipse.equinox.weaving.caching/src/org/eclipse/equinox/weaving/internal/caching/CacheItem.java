@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Martin Lippert and others.
+ * Copyright (c) 2009, 2026 Martin Lippert and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,8 @@ public class CacheItem {
 
     private final byte[] cachedBytes;
 
+    private final ClassCacheFile cacheFile;
+
     private final String directory;
 
     private final Map<String, byte[]> generatedClasses;
@@ -57,11 +59,30 @@ public class CacheItem {
     public CacheItem(final byte[] cachedBytes, final String directory,
             final String name, final Map<String, byte[]> generatedClasses) {
         this.cachedBytes = cachedBytes;
+        this.cacheFile = null;
         this.directory = directory;
         this.name = name;
         this.generatedClasses = generatedClasses;
     }
 
+    /**
+     * Create a new item to be cached in a single cache file
+     * 
+     * @param cachedBytes The bytes to be written to the cache
+     * @param cacheFile The cache file to which the bytes should be appended
+     * @param name The name of the class
+     * @param generatedClasses The generated classes that should be stored
+     *            together with this item (className -> bytecode)
+     */
+    public CacheItem(final byte[] cachedBytes, final ClassCacheFile cacheFile,
+            final String name, final Map<String, byte[]> generatedClasses) {
+        this.cachedBytes = cachedBytes;
+        this.cacheFile = cacheFile;
+        this.directory = null;
+        this.name = name;
+        this.generatedClasses = generatedClasses;
+    }
+
     /**
      * @return The bytes to be written to the cache under the given name
      */
@@ -70,7 +91,16 @@ public class CacheItem {
     }
 
     /**
-     * @return The directory in which the item should be stored
+     * @return The cache file to which the item should be appended or null, if
+     *         the item should be stored in a directory
+     */
+    public ClassCacheFile getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @return The directory in which the item should be stored or null, if the
+     *         item should be appended to a cache file
      */
     public String getDirectory() {
         return directory;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Martin Lippert and others.
+ * Copyright (c) 2009, 2026 Martin Lippert and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,18 +21,24 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 
 /**
  * The CacheWriter is responsible to store cache items to disk. The cache items
- * are read from the given queue.
+ * are read from the given queue in batches, so that the items for the same
+ * cache file are appended in one write.
  *
  * @author Martin Lippert
  */
 public class CacheWriter {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final Thread writerThread;
 
     /**
@@ -47,13 +53,12 @@ public class CacheWriter {
 	    @Override
             public void run() {
                 try {
+                    final List<CacheItem> batch = new ArrayList<>();
                     while (true) {
-                        final CacheItem item = cacheQueue.take();
-                        try {
-                            store(item);
-                        } catch (final IOException ioe) {
-                            // storing in cache failed, do nothing
-                        }
+                        batch.add(cacheQueue.take());
+                        cacheQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                        store(batch);
+                        batch.clear();
                     }
                 } catch (final InterruptedException e) {
                 }
@@ -76,6 +81,47 @@ public class CacheWriter {
         this.writerThread.interrupt();
     }
 
+    /**
+     * store the cache items to disk
+     *
+     * The items for cache files are appended to their file in one write per
+     * file, the other items are stored one by one
+     *
+     * @param items the cache items to store to disk
+     */
+    protected void store(final List<CacheItem> items) {
+        final Map<ClassCacheFile, Map<String, byte[]>> files = new LinkedHashMap<>();
+        for (final CacheItem item : items) {
+            final ClassCacheFile cacheFile = item.getCacheFile();
+            if (cacheFile == null) {
+                try {
+                    store(item);
+                } catch (final IOException ioe) {
+                    // storing in cache failed, do nothing
+                }
+                continue;
+            }
+            Map<String, byte[]> classes = files.get(cacheFile);
+            if (classes == null) {
+                classes = new LinkedHashMap<>();
+                files.put(cacheFile, classes);
+            }
+            // generated classes first, as for the directories
+            if (item.getGeneratedClasses() != null) {
+                classes.putAll(item.getGeneratedClasses());
+            }
+            classes.put(item.getName(), item.getCachedBytes());
+        }
+        for (final Entry<ClassCacheFile, Map<String, byte[]>> entry : files
+                .entrySet()) {
+            try {
+                entry.getKey().store(entry.getValue());
+            } catch (final IOException ioe) {
+                // storing in cache failed, do nothing
+            }
+        }
+    }
+
     /**
      * store the cache item to disk
      *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 Heiko Seeberger and others.
+ * Copyright (c) 2008, 2026 Heiko Seeberger and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.equinox.service.weaving.ICachingService;
 import org.eclipse.equinox.service.weaving.ICachingServiceFactory;
@@ -37,6 +41,13 @@ import org.osgi.framework.Version;
  */
 public class CachingServiceFactory implements ICachingServiceFactory {
 
+    /**
+     * Framework property: if "true", the woven classes of a bundle are cached
+     * in a single memory-mapped {@link ClassCacheFile} instead of one file per
+     * class.
+     */
+    public static final String SINGLE_FILE_PROPERTY = "org.eclipse.equinox.weaving.caching.singleFile"; //$NON-NLS-1$
+
     private final Map<String, ICachingService> bundleCachingServices = new HashMap<>();
 
     private final BundleContext bundleContext;
@@ -45,6 +56,8 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 
     private final CacheWriter cacheWriter;
 
+    private final ExecutorService prefetcher;
+
     /**
      * @param bundleContext Must not be null!
      * @throws IllegalArgumentException if given bundleContext is null.
@@ -58,6 +71,9 @@ public class CachingServiceFactory implements ICachingServiceFactory {
         this.cacheQueue = new ArrayBlockingQueue<>(5000);
         this.cacheWriter = new CacheWriter(this.cacheQueue);
         this.cacheWriter.start();
+        this.prefetcher = Boolean.parseBoolean(bundleContext
+                .getProperty(SINGLE_FILE_PROPERTY)) ? createPrefetcher()
+                : null;
 
         this.bundleContext.addBundleListener(new SynchronousBundleListener() {
 
@@ -92,7 +108,7 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 
             if (key != null && key.length() > 0) {
                 bundleCachingService = new BundleCachingService(bundleContext,
-                        bundle, key, this.cacheQueue);
+                        bundle, key, this.cacheQueue, this.prefetcher);
             } else {
                 bundleCachingService = new UnchangedCachingService();
             }
@@ -129,6 +145,29 @@ public class CachingServiceFactory implements ICachingServiceFactory {
         }
         bundleCachingServices.clear();
         this.cacheWriter.stop();
+        if (this.prefetcher != null) {
+            this.prefetcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the executor reading cache entries ahead: a single low priority
+     * thread, which drops requests while it is busy.
+     *
+     * @return The new executor, to be shut down by the caller
+     */
+    public static ExecutorService createPrefetcher() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(16), new ThreadFactory() {
+
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                "Equinox Weaving Cache Prefetcher"); //$NON-NLS-1$
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.DiscardPolicy());
     }
 
     /**
@@ -0,0 +1,425 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0.
+ *
+ * Contributors:
+ *     IBM Corporation - initial implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.internal.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * Cache of the woven classes of one bundle generation kept in a single file.
+ * The file is a sequence of entries (name, length, checksum, bytecode) which
+ * are only ever appended, so the order of the entries is the order in which
+ * the classes were first woven and loaded.
+ * </p>
+ * <p>
+ * The file is memory-mapped and indexed when it is opened. The mapping, and
+ * the file with it, grows in chunks so that a store only has to remap the
+ * file when it does not fit anymore; the unused end of the file is zeroed.
+ * When a class is found, the entries following it are read ahead on the given
+ * executor, as they are likely to be requested next. Entries read ahead which
+ * fall behind or too far ahead of the classes requested are dropped.
+ * </p>
+ */
+public class ClassCacheFile {
+
+    /**
+     * The extension of the cache files
+     */
+    public static final String FILE_EXTENSION = ".cache"; //$NON-NLS-1$
+
+    private static final int MAGIC = 0x45575343; // EWSC
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+
+    // name length, data length and checksum
+    private static final int ENTRY_HEADER_SIZE = 12;
+
+    private static final int END_MARKER = -1;
+
+    private static final int END_MARKER_SIZE = 4;
+
+    private static final int MAX_NAME_LENGTH = 64 * 1024;
+
+    private static final int PREFETCH_COUNT = 32;
+
+    private static final int MAX_PREFETCHED = 256;
+
+    private static final int MAPPING_CHUNK = 1024 * 1024;
+
+    private final File file;
+
+    private final Executor prefetcher;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    // all entries in file order; guarded by this
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Map<Entry, byte[]> prefetched = new ConcurrentHashMap<>();
+
+    // the ordinals read ahead, from prefetchStart to prefetchLimit; guarded
+    // by prefetched
+    private int prefetchStart;
+
+    private int prefetchLimit;
+
+    private volatile MappedByteBuffer buffer;
+
+    // guarded by this
+    private FileChannel channel;
+
+    // guarded by this
+    private long size;
+
+    /**
+     * Opens the given cache file and indexes its entries. The file is created
+     * if it does not exist or does not contain a valid cache.
+     *
+     * @param file The cache file, must not be null
+     * @param prefetcher The executor used to read entries ahead, optional
+     * @throws IOException if the file cannot be opened
+     */
+    public ClassCacheFile(final File file, final Executor prefetcher)
+            throws IOException {
+        this.file = file;
+        this.prefetcher = prefetcher;
+
+        final File directory = file.getParentFile();
+        if (directory != null && !directory.exists()) {
+            directory.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final long fileSize = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            boolean valid = false;
+            if (fileSize >= HEADER_SIZE && fileSize <= Integer.MAX_VALUE) {
+                readFully(header, 0);
+                header.flip();
+                valid = header.getInt() == MAGIC
+                        && header.getInt() == VERSION;
+            }
+            if (valid) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        fileSize);
+                size = scan(buffer);
+                if (fileSize - size >= END_MARKER_SIZE
+                        && buffer.getInt((int) size) != END_MARKER) {
+                    // hide the torn entry of an interrupted store
+                    writeEndMarker(size);
+                }
+            } else {
+                // new, stale or foreign file: start over
+                channel.truncate(0);
+                header.clear();
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(header, 0);
+                channel.force(false);
+                size = HEADER_SIZE;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The cache file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the cached bytecode of the given class and reads the following
+     * entries ahead.
+     *
+     * @param name The name of the class
+     * @return The cached bytecode or null, if the class is not cached or the
+     *         entry is corrupted
+     */
+    public byte[] get(final String name) {
+        final Entry entry = index.get(name);
+        if (entry == null) {
+            return null;
+        }
+        byte[] bytes = prefetched.remove(entry);
+        if (bytes == null) {
+            bytes = read(entry);
+        }
+        prefetch(entry.ordinal + 1);
+        return bytes;
+    }
+
+    /**
+     * Appends the given classes to the file in one write and makes them
+     * available to {@link #get(String)}. The entries are followed by an end
+     * marker, which is overwritten by the next store, so that a store which
+     * is interrupted leaves no valid looking entries behind.
+     *
+     * @param classes The classes to store (class name -> bytecode)
+     * @throws IOException if the classes cannot be written
+     */
+    public synchronized void store(final Map<String, byte[]> classes)
+            throws IOException {
+        if (channel == null) {
+            throw new IOException("Cache file is closed: " + file); //$NON-NLS-1$
+        }
+
+        final List<Entry> added = new ArrayList<>(classes.size());
+        final List<byte[]> names = new ArrayList<>(classes.size());
+        long position = size;
+        for (final Map.Entry<String, byte[]> cls : classes.entrySet()) {
+            final byte[] name = cls.getKey()
+                    .getBytes(StandardCharsets.UTF_8);
+            final byte[] bytes = cls.getValue();
+            final long dataPosition = position + ENTRY_HEADER_SIZE
+                    + name.length;
+            if (name.length == 0 || name.length > MAX_NAME_LENGTH
+                    || dataPosition + bytes.length
+                            + END_MARKER_SIZE > Integer.MAX_VALUE) {
+                continue;
+            }
+            added.add(new Entry(cls.getKey(), entries.size() + added.size(),
+                    (int) dataPosition, bytes.length, checksum(bytes, 0,
+                            bytes.length)));
+            names.add(name);
+            position = dataPosition + bytes.length;
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+
+        final ByteBuffer out = ByteBuffer.allocate((int) (position - size)
+                + END_MARKER_SIZE);
+        for (int i = 0; i < added.size(); i++) {
+            final Entry entry = added.get(i);
+            out.putInt(names.get(i).length).put(names.get(i));
+            out.putInt(entry.length).putInt(entry.checksum);
+            out.put(classes.get(entry.name));
+        }
+        out.putInt(END_MARKER);
+        out.flip();
+        writeFully(out, size);
+        channel.force(false);
+        size = position;
+        if (size > buffer.capacity()) {
+            // the writes to the file are visible through the mapping, it only
+            // has to be replaced once the entries do not fit anymore
+            final long capacity = Math.min(Integer.MAX_VALUE,
+                    (size + END_MARKER_SIZE + MAPPING_CHUNK - 1)
+                            / MAPPING_CHUNK * MAPPING_CHUNK);
+            if (channel.size() < capacity) {
+                // zeroes the end of the file
+                writeFully(ByteBuffer.allocate(1), capacity - 1);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+        }
+
+        for (final Entry entry : added) {
+            entries.add(entry);
+            index.put(entry.name, entry);
+        }
+    }
+
+    /**
+     * Closes the file. Entries which are stored afterwards are dropped.
+     */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // do nothing
+        }
+        channel = null;
+        prefetched.clear();
+    }
+
+    /*
+     * Indexes the entries of the mapped file and returns the end of the last
+     * valid entry.
+     */
+    private long scan(final MappedByteBuffer mapped) {
+        final ByteBuffer in = mapped.duplicate();
+        int position = HEADER_SIZE;
+        while (in.capacity() - position >= ENTRY_HEADER_SIZE) {
+            in.position(position);
+            final int nameLength = in.getInt();
+            // a negative length is the end marker, names are never empty so
+            // zero is the unused end of the file
+            if (nameLength <= 0 || nameLength > MAX_NAME_LENGTH
+                    || in.remaining() < nameLength + 8) {
+                break;
+            }
+            final byte[] name = new byte[nameLength];
+            in.get(name);
+            final int length = in.getInt();
+            final int checksum = in.getInt();
+            if (length < 0 || in.remaining() < length) {
+                break;
+            }
+            final Entry entry = new Entry(new String(name,
+                    StandardCharsets.UTF_8), entries.size(), in.position(),
+                    length, checksum);
+            entries.add(entry);
+            index.put(entry.name, entry);
+            position = in.position() + length;
+        }
+        return position;
+    }
+
+    private byte[] read(final Entry entry) {
+        final ByteBuffer in = buffer.duplicate();
+        in.position(entry.position);
+        final byte[] bytes = new byte[entry.length];
+        in.get(bytes);
+        if (checksum(bytes, 0, bytes.length) != entry.checksum) {
+            Log.debug("Corrupted cache entry for " + entry.name + " in " //$NON-NLS-1$ //$NON-NLS-2$
+                    + file);
+            return null;
+        }
+        return bytes;
+    }
+
+    /*
+     * Reads the entries from the given ordinal ahead, unless they have been
+     * read ahead already, and drops the entries read ahead which are out of
+     * the new window as they have not been requested.
+     */
+    private void prefetch(final int from) {
+        if (prefetcher == null) {
+            return;
+        }
+        final int start;
+        final int end = from + PREFETCH_COUNT;
+        synchronized (prefetched) {
+            final boolean inWindow = from >= prefetchStart
+                    && from < prefetchLimit;
+            if (inWindow && from + PREFETCH_COUNT / 2 < prefetchLimit) {
+                return;
+            }
+            start = inWindow ? prefetchLimit : from;
+            prefetchStart = from;
+            prefetchLimit = end;
+        }
+        // keep the entries just behind, the classes are not always requested
+        // in the order they were stored
+        prefetched.keySet().removeIf(entry -> entry.ordinal < from
+                - PREFETCH_COUNT || entry.ordinal >= end);
+        prefetcher.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final List<Entry> next;
+                synchronized (ClassCacheFile.this) {
+                    if (channel == null || start >= entries.size()) {
+                        return;
+                    }
+                    next = new ArrayList<>(entries.subList(start,
+                            Math.min(end, entries.size())));
+                }
+                for (final Entry entry : next) {
+                    if (prefetched.size() >= MAX_PREFETCHED) {
+                        return;
+                    }
+                    // skip the entries replaced by a later store
+                    if (index.get(entry.name) == entry) {
+                        final byte[] bytes = read(entry);
+                        if (bytes != null) {
+                            prefetched.put(entry, bytes);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private void readFully(final ByteBuffer in, long position)
+            throws IOException {
+        while (in.hasRemaining()) {
+            final int read = channel.read(in, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+    }
+
+    private void writeEndMarker(final long position) throws IOException {
+        final ByteBuffer out = ByteBuffer.allocate(END_MARKER_SIZE);
+        out.putInt(END_MARKER).flip();
+        writeFully(out, position);
+        channel.force(false);
+    }
+
+    private void writeFully(final ByteBuffer out, long position)
+            throws IOException {
+        while (out.hasRemaining()) {
+            position += channel.write(out, position);
+        }
+    }
+
+    private static int checksum(final byte[] bytes, final int offset,
+            final int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The location of a cached class in the file
+     */
+    private static class Entry {
+
+        final int checksum;
+
+        final int length;
+
+        final String name;
+
+        final int ordinal;
+
+        final int position;
+
+        Entry(final String name, final int ordinal, final int position,
+                final int length, final int checksum) {
+            this.name = name;
+            this.ordinal = ordinal;
+            this.position = position;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+
+}